@@ -140,6 +140,13 @@ public class DesktopImportControllerUI implements ImportControllerUI {
 
         //Extract files if they are zipped:
         for (int i = 0; i < fileObjects.length; i++) {
+            if (ImportUtils.isCompressedFile(fileObjects[i])) {
+                FileImporter importer = controller.getFileImporter(fileObjects[i]);
+                if (importer != null && !(importer instanceof FileImporter.FileAware)) {
+                    //Decompressed on the fly when read, no temporary copy needed
+                    continue;
+                }
+            }
             fileObjects[i] = ImportUtils.getArchivedFile(fileObjects[i]);
             if (FileUtil.isArchiveArtifact(fileObjects[i])) {
                 try {
@@ -168,7 +175,11 @@ public class DesktopImportControllerUI implements ImportControllerUI {
                     return;
                 }
 
-                readers[i] = ImportUtils.getTextReader(fileObject);
+                if (ImportUtils.isCompressedFile(fileObject)) {
+                    readers[i] = ImportUtils.getTextReader(ImportUtils.getDecompressedInputStream(fileObject));
+                } else {
+                    readers[i] = ImportUtils.getTextReader(fileObject);
+                }
 
                 //MRU
                 mostRecentFiles.addFile(fileObject.getPath());
@@ -628,6 +639,17 @@ public class DesktopImportControllerUI implements ImportControllerUI {
 
         @Override
         public void run() {
+            try {
+                finishImport();
+            } finally {
+                //The containers are not used once processed, release their temporary files
+                for (Container container : containers) {
+                    container.dispose();
+                }
+            }
+        }
+
+        private void finishImport() {
             // If exceptions were thrown we show them in the processor panel
             if (errorHandler != null) {
                 Report errorReport = errorHandler.closeAndGetReport();
@@ -57,6 +57,9 @@ import org.gephi.project.api.Workspace;
  * <p>
  * This controller is a singleton and can therefore be found in Lookup:
  * <pre>ExportController ec = Lookup.getDefault().lookup(ExportController.class);</pre>
+ * <p>
+ * Files whose name ends with <code>.gz</code> are compressed with gzip, the exporter being found from the
+ * extension before, for instance <code>graph.gexf.gz</code>.
  *
  * @author Mathieu Bastian
  * @see Exporter
@@ -42,7 +42,7 @@ Portions Copyrighted 2011 Gephi Consortium.
 
 package org.gephi.io.exporter.impl;
 
-import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -50,6 +50,7 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
 import org.gephi.io.exporter.api.ExportController;
 import org.gephi.io.exporter.api.FileType;
 import org.gephi.io.exporter.spi.ByteExporter;
@@ -71,6 +72,9 @@ import org.openide.util.lookup.ServiceProvider;
 @ServiceProvider(service = ExportController.class)
 public class ExportControllerImpl implements ExportController {
 
+    private static final String GZIP_EXTENSION = ".gz";
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+    private static final int WRITER_BUFFER_SIZE = 1 << 16;
     private final FileExporterBuilder[] fileExporterBuilders;
     private final ExporterUI[] uis;
 
@@ -111,7 +115,7 @@ public class ExportControllerImpl implements ExportController {
             fileExporter.setWorkspace(workspace);
         }
         if (fileExporter instanceof ByteExporter) {
-            OutputStream stream = new BufferedOutputStream(new FileOutputStream(file));
+            OutputStream stream = createOutputStream(file);
             ((ByteExporter) fileExporter).setOutputStream(stream);
             try {
                 fileExporter.execute();
@@ -126,13 +130,11 @@ public class ExportControllerImpl implements ExportController {
                 }
                 throw new RuntimeException(ex);
             }
-            try {
-                stream.flush();
-                stream.close();
-            } catch (IOException ex) {
-            }
+            //Writes happen in the background, errors are only known when closing
+            stream.close();
         } else if (fileExporter instanceof CharacterExporter) {
-            Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(createOutputStream(file), StandardCharsets.UTF_8),
+                WRITER_BUFFER_SIZE);
             ((CharacterExporter) fileExporter).setWriter(writer);
             try {
                 fileExporter.execute();
@@ -147,11 +149,7 @@ public class ExportControllerImpl implements ExportController {
                 }
                 throw new RuntimeException(ex);
             }
-            try {
-                writer.flush();
-                writer.close();
-            } catch (IOException ex) {
-            }
+            writer.close();
         }
     }
 
@@ -213,6 +211,11 @@ public class ExportControllerImpl implements ExportController {
 
     @Override
     public Exporter getFileExporter(File file) {
+        if (isGzip(file)) {
+            //Find the exporter from the extension before the compression one
+            String name = file.getName();
+            file = new File(file.getParentFile(), name.substring(0, name.length() - GZIP_EXTENSION.length()));
+        }
         for (FileExporterBuilder im : fileExporterBuilders) {
             for (FileType ft : im.getFileTypes()) {
                 for (String ex : ft.getExtensions()) {
@@ -254,6 +257,19 @@ public class ExportControllerImpl implements ExportController {
         return null;
     }
 
+    private OutputStream createOutputStream(File file) throws IOException {
+        OutputStream stream = new FileOutputStream(file);
+        if (isGzip(file)) {
+            stream = new GZIPOutputStream(stream, GZIP_BUFFER_SIZE);
+        }
+        //Compression and disk writes happen on a separate thread
+        return new PipelinedOutputStream(stream);
+    }
+
+    private boolean isGzip(File file) {
+        return hasExt(file, GZIP_EXTENSION);
+    }
+
     private boolean hasExt(File file, String ext) {
         if (ext == null || ext.isEmpty()) {
             return false;
@@ -0,0 +1,217 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.exporter.impl;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Output stream that writes to the underlying stream on a separate thread.
+ * <p>
+ * Bytes are collected into large buffers on the calling thread. Full buffers are handed over through a bounded
+ * queue to a background thread which writes them, and compresses them when the underlying stream does, so
+ * formatting overlaps with compression and disk writes and the number of system calls stays low. Memory is bounded
+ * by <code>bufferSize * bufferCount</code> bytes.
+ * <p>
+ * Write errors happen on the background thread and are thrown by the next call to <code>write</code>,
+ * <code>flush</code> or <code>close</code>. Closing waits for all buffers to be written and closes the underlying
+ * stream.
+ */
+final class PipelinedOutputStream extends OutputStream {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    public static final int DEFAULT_BUFFER_COUNT = 4;
+    private static final Buffer END = new Buffer(0);
+
+    private final OutputStream out;
+    private final BlockingQueue<Buffer> free;
+    private final BlockingQueue<Buffer> full;
+    private final Thread writer;
+    private Buffer current;
+    private volatile IOException failure;
+    private boolean closed;
+
+    PipelinedOutputStream(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_COUNT);
+    }
+
+    PipelinedOutputStream(OutputStream out, int bufferSize, int bufferCount) {
+        this.out = out;
+        this.free = new ArrayBlockingQueue<>(bufferCount);
+        this.full = new ArrayBlockingQueue<>(bufferCount + 1);
+        for (int i = 1; i < bufferCount; i++) {
+            free.add(new Buffer(bufferSize));
+        }
+        this.current = new Buffer(bufferSize);
+        this.writer = new Thread(this::drain, "Export Writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                Buffer buffer = full.take();
+                if (buffer == END) {
+                    return;
+                }
+                if (failure == null) {
+                    try {
+                        out.write(buffer.data, 0, buffer.length);
+                    } catch (IOException ex) {
+                        failure = ex;
+                    }
+                }
+                //Buffers are recycled after a failure so the producer never blocks
+                buffer.length = 0;
+                free.add(buffer);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (current.length == current.data.length) {
+            handOver();
+        }
+        current.data[current.length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            if (current.length == current.data.length) {
+                handOver();
+            }
+            int count = Math.min(len, current.data.length - current.length);
+            System.arraycopy(b, off, current.data, current.length, count);
+            current.length += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Hands the current buffer over to the writer thread. This doesn't wait for the bytes to reach the underlying
+     * stream.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (current.length > 0) {
+            handOver();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (current.length > 0 && failure == null) {
+                full.put(current);
+            }
+            full.put(END);
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            writer.interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            current = null;
+            try {
+                out.close();
+            } catch (IOException ex) {
+                if (failure == null) {
+                    failure = ex;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void handOver() throws IOException {
+        try {
+            full.put(current);
+            current = free.take();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static final class Buffer {
+
+        private final byte[] data;
+        private int length;
+
+        private Buffer(int size) {
+            this.data = new byte[size];
+        }
+    }
+}
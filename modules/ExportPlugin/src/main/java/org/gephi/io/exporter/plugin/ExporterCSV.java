@@ -47,10 +47,10 @@ import java.io.Writer;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import org.gephi.graph.api.Edge;
-import org.gephi.graph.api.EdgeIterable;
 import org.gephi.graph.api.Graph;
 import org.gephi.graph.api.GraphModel;
 import org.gephi.graph.api.Node;
@@ -66,6 +66,7 @@ public class ExporterCSV implements GraphExporter, CharacterExporter, LongTask {
 
     private static final String SEPARATOR = ";";
     private static final String EOL = "\n";
+    private static final int ZERO_RUN = 1024;
     /**
      * Formatter for limiting precision to 6 decimals, avoiding precision errors (epsilon).
      */
@@ -81,6 +82,7 @@ public class ExporterCSV implements GraphExporter, CharacterExporter, LongTask {
     private boolean writeZero = true;
     private boolean header = true;
     private boolean list = false;
+    private boolean matrixMarket = false;
     //Architecture
     private Workspace workspace;
     private Writer writer;
@@ -111,7 +113,7 @@ public class ExporterCSV implements GraphExporter, CharacterExporter, LongTask {
 
         Progress.start(progressTicket, max);
 
-        if (!list) {
+        if (!list && !matrixMarket) {
             if (header) {
                 writer.append(SEPARATOR);
                 int i = 0;
@@ -151,47 +153,104 @@ public class ExporterCSV implements GraphExporter, CharacterExporter, LongTask {
                 }
             }
         } else {
-            Node[] nodes = graph.getNodes().toArray();
-            for (Node n : nodes) {
-                if (cancel) {
-                    return;
-                }
-                writeMatrixNode(n, true);
-                for (int j = 0; j < nodes.length; j++) {
-                    Node m = nodes[j];
-                    EdgeIterable edges = graph.getEdges(n, m);
-                    writeEdge(edges, j < nodes.length - 1);
+            MatrixRow row = new MatrixRow(graph);
+            if (matrixMarket) {
+                writeMatrixMarket(graph, row);
+            } else {
+                char[] zeroCells = (writeZero ? "0" + SEPARATOR : SEPARATOR).repeat(ZERO_RUN).toCharArray();
+                for (int i = 0; i < row.nodes.length; i++) {
+                    if (cancel) {
+                        return;
+                    }
+                    Node n = row.nodes[i];
+                    writeMatrixNode(n, true);
+                    row.collect(i);
+                    int next = 0;
+                    for (int k = 0; k < row.count; k++) {
+                        int column = row.columns[k];
+                        writeZeros(zeroCells, column - next);
+                        writeWeight(row.weights[column]);
+                        if (column < row.nodes.length - 1) {
+                            writer.append(SEPARATOR);
+                        }
+                        next = column + 1;
+                    }
+                    if (next < row.nodes.length) {
+                        //The last cell has no separator
+                        writeZeros(zeroCells, row.nodes.length - next - 1);
+                        if (writeZero) {
+                            writer.append("0");
+                        }
+                    }
+                    Progress.progress(progressTicket);
+                    writer.append(EOL);
                 }
-                Progress.progress(progressTicket);
-                writer.append(EOL);
             }
         }
 
         Progress.finish(progressTicket);
     }
 
-    private void writeEdge(EdgeIterable edges, boolean writeSeparator) throws IOException {
-        float weight = 0;
-        boolean anyEdge = false;
-        for (Edge edge : edges) {
-            anyEdge = true;
-            weight += edge.getWeight();
+    /**
+     * Writes the matrix in the Matrix Market coordinate format, one line per non-zero cell. Undirected graphs are
+     * written as symmetric matrices, with the lower triangle only. Node ids are written as comments when the header
+     * is enabled.
+     */
+    private void writeMatrixMarket(Graph graph, MatrixRow row) throws IOException {
+        boolean symmetric = graph.isUndirected();
+        long entries = 0;
+        for (int i = 0; i < row.nodes.length; i++) {
+            row.collect(i);
+            for (int k = 0; k < row.count && (!symmetric || row.columns[k] <= i); k++) {
+                entries++;
+            }
+        }
+
+        writer.append("%%MatrixMarket matrix coordinate ");
+        writer.append(edgeWeight ? "real " : "pattern ");
+        writer.append(symmetric ? "symmetric" : "general");
+        writer.append(EOL);
+        if (header) {
+            for (int i = 0; i < row.nodes.length; i++) {
+                writer.append("% ").append(String.valueOf(i + 1)).append(' ');
+                writer.append(row.nodes[i].getId().toString()).append(EOL);
+            }
         }
+        writer.append(String.valueOf(row.nodes.length)).append(' ');
+        writer.append(String.valueOf(row.nodes.length)).append(' ');
+        writer.append(String.valueOf(entries)).append(EOL);
 
-        if (anyEdge) {
-            if (edgeWeight) {
-                writer.append(FORMAT.format(weight));
-            } else {
-                writer.append(FORMAT.format(1.0));
+        for (int i = 0; i < row.nodes.length; i++) {
+            if (cancel) {
+                return;
             }
-        } else {
-            if (writeZero) {
-                writer.append("0");
+            row.collect(i);
+            for (int k = 0; k < row.count && (!symmetric || row.columns[k] <= i); k++) {
+                int column = row.columns[k];
+                writer.append(String.valueOf(i + 1)).append(' ').append(String.valueOf(column + 1));
+                if (edgeWeight) {
+                    writer.append(' ').append(FORMAT.format(row.weights[column]));
+                }
+                writer.append(EOL);
             }
+            Progress.progress(progressTicket);
+        }
+    }
+
+    private void writeZeros(char[] zeroCells, int cells) throws IOException {
+        int cellLength = zeroCells.length / ZERO_RUN;
+        while (cells > 0) {
+            int run = Math.min(cells, ZERO_RUN);
+            writer.write(zeroCells, 0, run * cellLength);
+            cells -= run;
         }
+    }
 
-        if (writeSeparator) {
-            writer.append(SEPARATOR);
+    private void writeWeight(float weight) throws IOException {
+        if (edgeWeight) {
+            writer.append(FORMAT.format(weight));
+        } else {
+            writer.append(FORMAT.format(1.0));
         }
     }
 
@@ -256,6 +315,14 @@ public class ExporterCSV implements GraphExporter, CharacterExporter, LongTask {
         this.list = list;
     }
 
+    public boolean isMatrixMarket() {
+        return matrixMarket;
+    }
+
+    public void setMatrixMarket(boolean matrixMarket) {
+        this.matrixMarket = matrixMarket;
+    }
+
     @Override
     public boolean isExportVisible() {
         return exportVisible;
@@ -280,4 +347,53 @@ public class ExporterCSV implements GraphExporter, CharacterExporter, LongTask {
     public void setWorkspace(Workspace workspace) {
         this.workspace = workspace;
     }
+
+    /**
+     * Row of the adjacency matrix, as the sorted columns of its non-zero cells. Parallel edges are summed up in
+     * the weights, indexed by column.
+     */
+    private static class MatrixRow {
+
+        private final Graph graph;
+        private final Node[] nodes;
+        private final int[] indices;
+        private final int[] columns;
+        private final float[] weights;
+        private final int[] rows;
+        private int count;
+
+        MatrixRow(Graph graph) {
+            this.graph = graph;
+            this.nodes = graph.getNodes().toArray();
+            int maxStoreId = -1;
+            for (Node node : nodes) {
+                maxStoreId = Math.max(maxStoreId, node.getStoreId());
+            }
+            this.indices = new int[maxStoreId + 1];
+            for (int i = 0; i < nodes.length; i++) {
+                indices[nodes[i].getStoreId()] = i;
+            }
+            this.columns = new int[nodes.length];
+            this.weights = new float[nodes.length];
+            this.rows = new int[nodes.length];
+            Arrays.fill(rows, -1);
+        }
+
+        void collect(int row) {
+            Node node = nodes[row];
+            count = 0;
+            for (Edge e : graph.getEdges(node)) {
+                if (!e.isDirected() || node == e.getSource()) {
+                    int column = indices[graph.getOpposite(node, e).getStoreId()];
+                    if (rows[column] != row) {
+                        rows[column] = row;
+                        weights[column] = 0;
+                        columns[count++] = column;
+                    }
+                    weights[column] += e.getWeight();
+                }
+            }
+            Arrays.sort(columns, 0, count);
+        }
+    }
 }
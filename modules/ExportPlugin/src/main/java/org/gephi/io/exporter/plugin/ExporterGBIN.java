@@ -0,0 +1,518 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.exporter.plugin;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import org.gephi.graph.api.AttributeUtils;
+import org.gephi.graph.api.Column;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.Element;
+import org.gephi.graph.api.Graph;
+import org.gephi.graph.api.GraphController;
+import org.gephi.graph.api.GraphModel;
+import org.gephi.graph.api.Interval;
+import org.gephi.graph.api.Node;
+import org.gephi.graph.api.TimeRepresentation;
+import org.gephi.graph.api.types.IntervalSet;
+import org.gephi.graph.api.types.TimestampSet;
+import org.gephi.io.exporter.spi.ByteExporter;
+import org.gephi.io.exporter.spi.GraphExporter;
+import org.gephi.project.api.Workspace;
+import org.gephi.utils.longtask.spi.LongTask;
+import org.gephi.utils.progress.Progress;
+import org.gephi.utils.progress.ProgressTicket;
+import org.openide.util.Lookup;
+
+/**
+ * Exports the graph in the GBIN binary columnar format.
+ * <p>
+ * The file holds a header followed by a nodes table and an edges table. Each table stores its values column by
+ * column, in little-endian order: primitive columns as plain arrays with an optional null bitmap, string columns as a
+ * dictionary followed by an array of codes and time sets as an array of offsets into an array of bounds. Edges refer
+ * to their source and target by node row. Attribute types without a binary encoding are printed and stored as a
+ * dictionary-encoded text column.
+ */
+public class ExporterGBIN implements GraphExporter, ByteExporter, LongTask {
+
+    //Format
+    private static final byte[] MAGIC = {'G', 'B', 'I', 'N'};
+    private static final int VERSION = 1;
+    private static final byte ROLE_PROPERTY = 0;
+    private static final byte ROLE_ATTRIBUTE = 1;
+    private static final byte KIND_BOOLEAN = 1;
+    private static final byte KIND_BYTE = 2;
+    private static final byte KIND_SHORT = 3;
+    private static final byte KIND_INT = 4;
+    private static final byte KIND_LONG = 5;
+    private static final byte KIND_FLOAT = 6;
+    private static final byte KIND_DOUBLE = 7;
+    private static final byte KIND_CHAR = 8;
+    private static final byte KIND_STRING = 9;
+    private static final byte KIND_TEXT = 10;
+    private static final byte KIND_INTERVALS = 11;
+    private static final byte KIND_TIMESTAMPS = 12;
+    private static final int BUFFER_SIZE = 1 << 16;
+    //Architecture
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private Workspace workspace;
+    private OutputStream stream;
+    private boolean exportVisible;
+    private ProgressTicket progress;
+    private boolean cancel = false;
+    //Settings
+    private boolean exportAttributes = true;
+    private boolean exportDynamic = true;
+
+    @Override
+    public boolean execute() {
+        GraphController graphController = Lookup.getDefault().lookup(GraphController.class);
+        GraphModel graphModel = graphController.getGraphModel(workspace);
+        Graph graph = exportVisible ? graphModel.getGraphVisible() : graphModel.getGraph();
+
+        Progress.start(progress);
+        graph.readLock();
+
+        try {
+            boolean dynamic = exportDynamic && graphModel.isDynamic();
+            Node[] nodes = graph.getNodes().toArray();
+            Edge[] edges = graph.getEdges().toArray();
+
+            List<ColumnWriter> nodeColumns = getNodeColumns(graphModel, nodes, dynamic);
+            List<ColumnWriter> edgeColumns = getEdgeColumns(graphModel, nodes, edges, dynamic);
+            Progress.switchToDeterminate(progress, nodeColumns.size() + edgeColumns.size());
+
+            buffer.clear();
+            writeHeader(graph, dynamic);
+            writeTable(nodes.length, nodeColumns);
+            writeTable(edges.length, edgeColumns);
+            flushBuffer();
+            stream.flush();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            graph.readUnlock();
+            Progress.finish(progress);
+        }
+
+        return !cancel;
+    }
+
+    private void writeHeader(Graph graph, boolean dynamic) throws IOException {
+        GraphModel graphModel = graph.getModel();
+        writeBytes(MAGIC);
+        writeInt(VERSION);
+        writeByte((byte) (graph.isDirected() ? 0 : graph.isUndirected() ? 1 : 2));
+        writeByte((byte) (dynamic ? 1 : 0));
+        writeString(graphModel.getConfiguration().getTimeRepresentation().name());
+        writeString(graphModel.getTimeFormat().name());
+        writeString(graphModel.getTimeZone().getID());
+    }
+
+    private List<ColumnWriter> getNodeColumns(GraphModel graphModel, Node[] nodes, boolean dynamic) {
+        List<ColumnWriter> columns = new ArrayList<>();
+        columns.add(new ColumnWriter("id", graphModel.getConfiguration().getNodeIdType(), row -> nodes[row].getId()));
+        columns.add(new ColumnWriter("label", String.class, row -> nodes[row].getLabel()));
+        columns.add(new ColumnWriter("x", Float.class, row -> nodes[row].x()));
+        columns.add(new ColumnWriter("y", Float.class, row -> nodes[row].y()));
+        columns.add(new ColumnWriter("z", Float.class, row -> nodes[row].z()));
+        columns.add(new ColumnWriter("size", Float.class, row -> nodes[row].size()));
+        columns.add(new ColumnWriter("color", Integer.class, row -> nodes[row].getColor().getRGB()));
+        addTimeSetColumn(columns, graphModel, nodes, dynamic);
+        addAttributeColumns(columns, graphModel.getNodeTable(), nodes, dynamic);
+        return columns;
+    }
+
+    private List<ColumnWriter> getEdgeColumns(GraphModel graphModel, Node[] nodes, Edge[] edges, boolean dynamic) {
+        //Edges refer to the row of their nodes, indexed by store id
+        int maxStoreId = -1;
+        for (Node node : nodes) {
+            maxStoreId = Math.max(maxStoreId, node.getStoreId());
+        }
+        int[] rows = new int[maxStoreId + 1];
+        for (int i = 0; i < nodes.length; i++) {
+            rows[nodes[i].getStoreId()] = i;
+        }
+
+        List<ColumnWriter> columns = new ArrayList<>();
+        columns.add(new ColumnWriter("id", graphModel.getConfiguration().getEdgeIdType(), row -> edges[row].getId()));
+        columns.add(new ColumnWriter("source", Integer.class, row -> rows[edges[row].getSource().getStoreId()]));
+        columns.add(new ColumnWriter("target", Integer.class, row -> rows[edges[row].getTarget().getStoreId()]));
+        columns.add(new ColumnWriter("directed", Boolean.class, row -> edges[row].isDirected()));
+        columns.add(new ColumnWriter("kind", String.class,
+            row -> edges[row].getType() != 0 ? edges[row].getTypeLabel().toString() : null));
+        columns.add(new ColumnWriter("weight", Double.class,
+            row -> edges[row].hasDynamicWeight() ? null : edges[row].getWeight()));
+        columns.add(new ColumnWriter("label", String.class, row -> edges[row].getLabel()));
+        columns.add(new ColumnWriter("color", Integer.class,
+            row -> edges[row].alpha() != 0f ? edges[row].getColor().getRGB() : null));
+        addTimeSetColumn(columns, graphModel, edges, dynamic);
+        addAttributeColumns(columns, graphModel.getEdgeTable(), edges, dynamic);
+        return columns;
+    }
+
+    private void addTimeSetColumn(List<ColumnWriter> columns, GraphModel graphModel, Element[] elements,
+                                  boolean dynamic) {
+        if (dynamic) {
+            Class type = graphModel.getConfiguration().getTimeRepresentation().equals(TimeRepresentation.INTERVAL) ?
+                IntervalSet.class : TimestampSet.class;
+            columns.add(new ColumnWriter("timeset", type, row -> elements[row].getAttribute("timeset")));
+        }
+    }
+
+    private void addAttributeColumns(List<ColumnWriter> columns, Iterable<Column> table, Element[] elements,
+                                     boolean dynamic) {
+        for (Column column : table) {
+            boolean dynamicWeight =
+                dynamic && AttributeUtils.isEdgeColumn(column) && column.isDynamic() && column.getId().equals("weight");
+            if ((exportAttributes && !column.isProperty() && (dynamic || !column.isDynamic())) || dynamicWeight) {
+                columns.add(new ColumnWriter(column, row -> elements[row].getAttribute(column)));
+            }
+        }
+    }
+
+    private void writeTable(int rows, List<ColumnWriter> columns) throws IOException {
+        writeInt(rows);
+        writeInt(columns.size());
+        for (ColumnWriter column : columns) {
+            if (cancel) {
+                return;
+            }
+            column.write(rows);
+            Progress.progress(progress);
+        }
+    }
+
+    private static byte getKind(Class type) {
+        if (type.equals(Boolean.class)) {
+            return KIND_BOOLEAN;
+        } else if (type.equals(Byte.class)) {
+            return KIND_BYTE;
+        } else if (type.equals(Short.class)) {
+            return KIND_SHORT;
+        } else if (type.equals(Integer.class)) {
+            return KIND_INT;
+        } else if (type.equals(Long.class)) {
+            return KIND_LONG;
+        } else if (type.equals(Float.class)) {
+            return KIND_FLOAT;
+        } else if (type.equals(Double.class)) {
+            return KIND_DOUBLE;
+        } else if (type.equals(Character.class)) {
+            return KIND_CHAR;
+        } else if (type.equals(String.class)) {
+            return KIND_STRING;
+        } else if (type.equals(IntervalSet.class)) {
+            return KIND_INTERVALS;
+        } else if (type.equals(TimestampSet.class)) {
+            return KIND_TIMESTAMPS;
+        }
+        return KIND_TEXT;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        stream.write(buffer.array(), 0, buffer.position());
+        buffer.clear();
+    }
+
+    private void writeByte(byte value) throws IOException {
+        ensure(1);
+        buffer.put(value);
+    }
+
+    private void writeInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    private void writeDouble(double value) throws IOException {
+        ensure(8);
+        buffer.putDouble(value);
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.remaining()) {
+            flushBuffer();
+            if (bytes.length > buffer.capacity()) {
+                stream.write(bytes);
+                return;
+            }
+        }
+        buffer.put(bytes);
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            writeBytes(bytes);
+        }
+    }
+
+    @Override
+    public boolean cancel() {
+        cancel = true;
+        return true;
+    }
+
+    @Override
+    public void setProgressTicket(ProgressTicket progressTicket) {
+        this.progress = progressTicket;
+    }
+
+    @Override
+    public boolean isExportVisible() {
+        return exportVisible;
+    }
+
+    @Override
+    public void setExportVisible(boolean exportVisible) {
+        this.exportVisible = exportVisible;
+    }
+
+    @Override
+    public void setOutputStream(OutputStream stream) {
+        this.stream = stream;
+    }
+
+    @Override
+    public Workspace getWorkspace() {
+        return workspace;
+    }
+
+    @Override
+    public void setWorkspace(Workspace workspace) {
+        this.workspace = workspace;
+    }
+
+    public boolean isExportAttributes() {
+        return exportAttributes;
+    }
+
+    public void setExportAttributes(boolean exportAttributes) {
+        this.exportAttributes = exportAttributes;
+    }
+
+    public boolean isExportDynamic() {
+        return exportDynamic;
+    }
+
+    public void setExportDynamic(boolean exportDynamic) {
+        this.exportDynamic = exportDynamic;
+    }
+
+    private class ColumnWriter {
+
+        private final String id;
+        private final String title;
+        private final byte role;
+        private final Class type;
+        private final Object defaultValue;
+        private final IntFunction<Object> getter;
+
+        ColumnWriter(String id, Class type, IntFunction<Object> getter) {
+            this.id = id;
+            this.title = null;
+            this.role = ROLE_PROPERTY;
+            this.type = type;
+            this.defaultValue = null;
+            this.getter = getter;
+        }
+
+        ColumnWriter(Column column, IntFunction<Object> getter) {
+            this.id = column.getId();
+            this.title = column.getTitle();
+            this.role = ROLE_ATTRIBUTE;
+            this.type = column.getTypeClass();
+            this.defaultValue = column.getDefaultValue();
+            this.getter = getter;
+        }
+
+        void write(int rows) throws IOException {
+            byte kind = getKind(type);
+            writeString(id);
+            writeString(title);
+            writeByte(role);
+            writeByte(kind);
+            writeString(type.getName());
+            writeString(defaultValue != null ? AttributeUtils.print(defaultValue) : null);
+
+            Object[] values = new Object[rows];
+            for (int i = 0; i < rows; i++) {
+                values[i] = getter.apply(i);
+            }
+            switch (kind) {
+                case KIND_STRING:
+                case KIND_TEXT:
+                    writeDictionary(values, kind == KIND_TEXT);
+                    break;
+                case KIND_INTERVALS:
+                case KIND_TIMESTAMPS:
+                    writeTimeSets(values, kind == KIND_INTERVALS);
+                    break;
+                default:
+                    writePrimitives(values, kind);
+            }
+        }
+
+        private void writePrimitives(Object[] values, byte kind) throws IOException {
+            boolean hasNulls = false;
+            for (Object value : values) {
+                if (value == null) {
+                    hasNulls = true;
+                    break;
+                }
+            }
+            writeByte((byte) (hasNulls ? 1 : 0));
+            if (hasNulls) {
+                byte[] bitmap = new byte[(values.length + 7) / 8];
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] != null) {
+                        bitmap[i >> 3] |= 1 << (i & 7);
+                    }
+                }
+                writeBytes(bitmap);
+            }
+            for (Object value : values) {
+                switch (kind) {
+                    case KIND_BOOLEAN:
+                        writeByte((byte) (value != null && (Boolean) value ? 1 : 0));
+                        break;
+                    case KIND_BYTE:
+                        writeByte(value != null ? (Byte) value : 0);
+                        break;
+                    case KIND_SHORT:
+                        ensure(2);
+                        buffer.putShort(value != null ? (Short) value : 0);
+                        break;
+                    case KIND_INT:
+                        writeInt(value != null ? (Integer) value : 0);
+                        break;
+                    case KIND_LONG:
+                        ensure(8);
+                        buffer.putLong(value != null ? (Long) value : 0L);
+                        break;
+                    case KIND_FLOAT:
+                        ensure(4);
+                        buffer.putFloat(value != null ? (Float) value : 0f);
+                        break;
+                    case KIND_DOUBLE:
+                        writeDouble(value != null ? (Double) value : 0.0);
+                        break;
+                    case KIND_CHAR:
+                        ensure(2);
+                        buffer.putChar(value != null ? (Character) value : 0);
+                        break;
+                }
+            }
+        }
+
+        private void writeDictionary(Object[] values, boolean print) throws IOException {
+            Map<String, Integer> dictionary = new HashMap<>();
+            List<String> entries = new ArrayList<>();
+            int[] codes = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    codes[i] = -1;
+                } else {
+                    String value = print ? AttributeUtils.print(values[i]) : (String) values[i];
+                    Integer code = dictionary.get(value);
+                    if (code == null) {
+                        code = entries.size();
+                        dictionary.put(value, code);
+                        entries.add(value);
+                    }
+                    codes[i] = code;
+                }
+            }
+            writeInt(entries.size());
+            for (String entry : entries) {
+                writeString(entry);
+            }
+            for (int code : codes) {
+                writeInt(code);
+            }
+        }
+
+        private void writeTimeSets(Object[] values, boolean intervals) throws IOException {
+            int offset = 0;
+            writeInt(offset);
+            for (Object value : values) {
+                if (value != null) {
+                    offset += intervals ? ((IntervalSet) value).size() * 2 : ((TimestampSet) value).size();
+                }
+                writeInt(offset);
+            }
+            for (Object value : values) {
+                if (value == null) {
+                    continue;
+                }
+                if (intervals) {
+                    for (Interval interval : ((IntervalSet) value).toArray()) {
+                        writeDouble(interval.getLow());
+                        writeDouble(interval.getHigh());
+                    }
+                } else {
+                    for (double timestamp : ((TimestampSet) value).toPrimitiveArray()) {
+                        writeDouble(timestamp);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -42,12 +42,18 @@
 
 package org.gephi.io.exporter.plugin;
 
+import java.io.StringWriter;
 import java.io.Writer;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javanet.staxutils.IndentingXMLStreamWriter;
@@ -142,12 +148,19 @@ public class ExporterGEXF implements GraphExporter, CharacterExporter, LongTask
     private static final String ATTVALUE = "attvalue";
     private static final String ATTVALUE_FOR = "for";
     private static final String ATTVALUE_VALUE = "value";
+    //Parallel writing
+    private static final int CHUNK_SIZE = 4096;
+    private static final String NODES_PLACEHOLDER = "gephi-nodes";
+    private static final String EDGES_PLACEHOLDER = "gephi-edges";
+    private static final String CHUNK_MARKER = "gephi-chunk";
     //Architecture
     private boolean cancel = false;
     private ProgressTicket progress;
     private Workspace workspace;
     private boolean exportVisible;
     private Writer writer;
+    private boolean chunked;
+    private int progressUnits;
     //Settings
     private boolean normalize = false;
     private boolean exportColors = true;
@@ -156,6 +169,8 @@ public class ExporterGEXF implements GraphExporter, CharacterExporter, LongTask
     private boolean exportAttributes = true;
     private boolean exportDynamic = true;
     private boolean exportMeta = true;
+    private boolean parallel = true;
+    private int chunkSize = CHUNK_SIZE;
     //Settings Helper
     private float minSize;
     private float maxSize;
@@ -182,12 +197,17 @@ public class ExporterGEXF implements GraphExporter, CharacterExporter, LongTask
         calculateMinMax(graph);
 
         Progress.switchToDeterminate(progress, graph.getNodeCount() + graph.getEdgeCount());
+        progressUnits = 0;
+
+        //Nodes and edges of large graphs are rendered in chunks on several threads
+        chunked = parallel && graph.getNodeCount() + graph.getEdgeCount() > chunkSize;
 
         try {
             XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
             outputFactory.setProperty("javax.xml.stream.isRepairingNamespaces", Boolean.FALSE);
 
-            XMLStreamWriter xmlWriter = outputFactory.createXMLStreamWriter(writer);
+            StringWriter skeleton = chunked ? new StringWriter() : null;
+            XMLStreamWriter xmlWriter = outputFactory.createXMLStreamWriter(chunked ? skeleton : writer);
             xmlWriter = new IndentingXMLStreamWriter(xmlWriter);
 
             xmlWriter.writeStartDocument("UTF-8", "1.0");
@@ -209,6 +229,9 @@ public class ExporterGEXF implements GraphExporter, CharacterExporter, LongTask
             xmlWriter.writeEndDocument();
             xmlWriter.close();
 
+            if (chunked) {
+                writeChunked(skeleton.toString(), graph, outputFactory);
+            }
         } catch (Exception e) {
             Logger.getLogger(ExporterGEXF.class.getName()).log(Level.SEVERE, null, e);
         } finally {
@@ -340,40 +363,53 @@ public class ExporterGEXF implements GraphExporter, CharacterExporter, LongTask
         }
         xmlWriter.writeStartElement(NODES);
 
+        if (chunked) {
+            //Nodes are written in place of this comment by writeChunked()
+            if (graph.getNodeCount() > 0) {
+                xmlWriter.writeComment(NODES_PLACEHOLDER);
+            }
+            xmlWriter.writeEndElement();
+            return;
+        }
+
         NodeIterable nodeIterable = graph.getNodes();
         for (Node node : nodeIterable) {
-            xmlWriter.writeStartElement(NODE);
-
-            String id = node.getId().toString();
-            xmlWriter.writeAttribute(NODE_ID, id);
-            if (node.getLabel() != null && !node.getLabel().isEmpty()) {
-                xmlWriter.writeAttribute(NODE_LABEL, node.getLabel());
+            writeNode(xmlWriter, graph, node);
+            Progress.progress(progress);
+            if (cancel) {
+                nodeIterable.doBreak();
+                break;
             }
+        }
 
-            if (exportDynamic) {
-                writeTimeSet(xmlWriter, graph, node);
-            }
+        xmlWriter.writeEndElement();
+    }
 
-            writeAttValues(xmlWriter, graph, node);
+    private void writeNode(XMLStreamWriter xmlWriter, Graph graph, Node node) throws Exception {
+        xmlWriter.writeStartElement(NODE);
 
-            if (exportSize) {
-                writeNodeSize(xmlWriter, node);
-            }
+        String id = node.getId().toString();
+        xmlWriter.writeAttribute(NODE_ID, id);
+        if (node.getLabel() != null && !node.getLabel().isEmpty()) {
+            xmlWriter.writeAttribute(NODE_LABEL, node.getLabel());
+        }
 
-            if (exportPosition) {
-                writeNodePosition(xmlWriter, node);
-            }
+        if (exportDynamic) {
+            writeTimeSet(xmlWriter, graph, node);
+        }
 
-            if (exportColors) {
-                writeNodeColor(xmlWriter, node);
-            }
+        writeAttValues(xmlWriter, graph, node);
 
-            xmlWriter.writeEndElement();
-            Progress.progress(progress);
-            if (cancel) {
-                nodeIterable.doBreak();
-                break;
-            }
+        if (exportSize) {
+            writeNodeSize(xmlWriter, node);
+        }
+
+        if (exportPosition) {
+            writeNodePosition(xmlWriter, node);
+        }
+
+        if (exportColors) {
+            writeNodeColor(xmlWriter, node);
         }
 
         xmlWriter.writeEndElement();
@@ -587,57 +623,70 @@ public class ExporterGEXF implements GraphExporter, CharacterExporter, LongTask
 
         xmlWriter.writeStartElement(EDGES);
 
+        if (chunked) {
+            //Edges are written in place of this comment by writeChunked()
+            if (graph.getEdgeCount() > 0) {
+                xmlWriter.writeComment(EDGES_PLACEHOLDER);
+            }
+            xmlWriter.writeEndElement();
+            return;
+        }
+
         EdgeIterable edgeIterable = graph.getEdges();
         for (Edge edge : edgeIterable) {
-            xmlWriter.writeStartElement(EDGE);
+            writeEdge(xmlWriter, graph, edge);
+            Progress.progress(progress);
+            if (cancel) {
+                edgeIterable.doBreak();
+                break;
+            }
+        }
 
-            xmlWriter.writeAttribute(EDGE_ID, edge.getId().toString());
+        xmlWriter.writeEndElement();
+    }
 
-            xmlWriter.writeAttribute(EDGE_SOURCE, edge.getSource().getId().toString());
-            xmlWriter.writeAttribute(EDGE_TARGET, edge.getTarget().getId().toString());
+    private void writeEdge(XMLStreamWriter xmlWriter, Graph graph, Edge edge) throws Exception {
+        xmlWriter.writeStartElement(EDGE);
 
-            if (graph.isMixed()) {
-                if (edge.isDirected()) {
-                    xmlWriter.writeAttribute(EDGE_TYPE, "directed");
-                } else {
-                    xmlWriter.writeAttribute(EDGE_TYPE, "undirected");
-                }
-            }
+        xmlWriter.writeAttribute(EDGE_ID, edge.getId().toString());
 
-            String label = edge.getLabel();
-            if (label != null && !label.isEmpty()) {
-                xmlWriter.writeAttribute(EDGE_LABEL, label);
-            }
+        xmlWriter.writeAttribute(EDGE_SOURCE, edge.getSource().getId().toString());
+        xmlWriter.writeAttribute(EDGE_TARGET, edge.getTarget().getId().toString());
 
-            if (edge.getType() != 0) {
-                xmlWriter.writeAttribute(EDGE_KIND, edge.getTypeLabel().toString());
+        if (graph.isMixed()) {
+            if (edge.isDirected()) {
+                xmlWriter.writeAttribute(EDGE_TYPE, "directed");
+            } else {
+                xmlWriter.writeAttribute(EDGE_TYPE, "undirected");
             }
+        }
 
-            if (!edge.hasDynamicWeight()) {
-                double weight = edge.getWeight();
-                if (weight != 1f) {
-                    xmlWriter.writeAttribute(EDGE_WEIGHT, String.valueOf(weight));
-                }
-            }
+        String label = edge.getLabel();
+        if (label != null && !label.isEmpty()) {
+            xmlWriter.writeAttribute(EDGE_LABEL, label);
+        }
 
-            if (exportDynamic) {
-                writeTimeSet(xmlWriter, graph, edge);
-            }
+        if (edge.getType() != 0) {
+            xmlWriter.writeAttribute(EDGE_KIND, edge.getTypeLabel().toString());
+        }
 
-            if (exportColors) {
-                writeEdgeColor(xmlWriter, edge);
+        if (!edge.hasDynamicWeight()) {
+            double weight = edge.getWeight();
+            if (weight != 1f) {
+                xmlWriter.writeAttribute(EDGE_WEIGHT, String.valueOf(weight));
             }
+        }
 
-            writeAttValues(xmlWriter, graph, edge);
+        if (exportDynamic) {
+            writeTimeSet(xmlWriter, graph, edge);
+        }
 
-            xmlWriter.writeEndElement();
-            Progress.progress(progress);
-            if (cancel) {
-                edgeIterable.doBreak();
-                break;
-            }
+        if (exportColors) {
+            writeEdgeColor(xmlWriter, edge);
         }
 
+        writeAttValues(xmlWriter, graph, edge);
+
         xmlWriter.writeEndElement();
     }
 
@@ -659,6 +708,106 @@ public class ExporterGEXF implements GraphExporter, CharacterExporter, LongTask
         }
     }
 
+    private void writeChunked(String skeleton, Graph graph, XMLOutputFactory outputFactory) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "GEXF Exporter");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            int position = 0;
+            int nodesStart = findPlaceholder(skeleton, NODES_PLACEHOLDER);
+            if (nodesStart != -1) {
+                writer.write(skeleton, position, nodesStart - position);
+                Node[] nodes = graph.getNodes().toArray();
+                writeChunks(nodes.length, (xmlWriter, i) -> writeNode(xmlWriter, graph, nodes[i]), outputFactory,
+                    executor, threads);
+                position = skeleton.indexOf("-->", nodesStart) + 3;
+            }
+            int edgesStart = findPlaceholder(skeleton, EDGES_PLACEHOLDER);
+            if (edgesStart != -1 && !cancel) {
+                writer.write(skeleton, position, edgesStart - position);
+                Edge[] edges = graph.getEdges().toArray();
+                writeChunks(edges.length, (xmlWriter, i) -> writeEdge(xmlWriter, graph, edges[i]), outputFactory,
+                    executor, threads);
+                position = skeleton.indexOf("-->", edgesStart) + 3;
+            }
+            writer.write(skeleton, position, skeleton.length() - position);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Renders elements in chunks on the executor and writes them in order, with a bounded number of chunks in
+     * flight.
+     */
+    private void writeChunks(int count, ElementWriter elementWriter, XMLOutputFactory outputFactory,
+                             ExecutorService executor, int threads) throws Exception {
+        Deque<Future<String>> pending = new ArrayDeque<>();
+        int submitted = 0;
+        int written = 0;
+        while (written < count) {
+            while (submitted < count && pending.size() < threads * 2) {
+                final int from = submitted;
+                final int to = Math.min(count, from + chunkSize);
+                pending.add(executor.submit(() -> renderChunk(from, to, elementWriter, outputFactory)));
+                submitted = to;
+            }
+            int size = Math.min(chunkSize, count - written);
+            writer.write(pending.poll().get());
+            written += size;
+            progressUnits += size;
+            Progress.progress(progress, progressUnits);
+            if (cancel) {
+                for (Future<String> future : pending) {
+                    future.cancel(true);
+                }
+                return;
+            }
+        }
+    }
+
+    private String renderChunk(int from, int to, ElementWriter elementWriter, XMLOutputFactory outputFactory)
+        throws Exception {
+        StringWriter out = new StringWriter();
+        XMLStreamWriter xmlWriter;
+        synchronized (outputFactory) {
+            xmlWriter = outputFactory.createXMLStreamWriter(out);
+        }
+        xmlWriter = new IndentingXMLStreamWriter(xmlWriter);
+
+        //Open as many elements as in the document (gexf, graph, nodes or edges) to get the same indentation
+        xmlWriter.writeStartElement(GEXF);
+        xmlWriter.writeStartElement(GRAPH);
+        xmlWriter.writeStartElement(NODES);
+        xmlWriter.writeComment(CHUNK_MARKER);
+        for (int i = from; i < to; i++) {
+            elementWriter.write(xmlWriter, i);
+        }
+        xmlWriter.writeComment(CHUNK_MARKER);
+        xmlWriter.flush();
+
+        //Keep what is between the markers, without the indentation of the last one
+        String chunk = out.toString();
+        int start = chunk.indexOf("-->") + 3;
+        int end = chunk.lastIndexOf('>', chunk.lastIndexOf("<!--" + CHUNK_MARKER)) + 1;
+        return chunk.substring(start, end);
+    }
+
+    /**
+     * Returns the position right after the markup preceding <code>placeholder</code>, so the placeholder and its
+     * indentation can be replaced, or -1 if not found.
+     */
+    private static int findPlaceholder(String skeleton, String placeholder) {
+        int index = skeleton.indexOf("<!--" + placeholder + "-->");
+        if (index == -1) {
+            return -1;
+        }
+        return skeleton.lastIndexOf('>', index) + 1;
+    }
+
     private void calculateMinMax(Graph graph) {
         minX = Float.POSITIVE_INFINITY;
         maxX = Float.NEGATIVE_INFINITY;
@@ -751,6 +900,24 @@ public class ExporterGEXF implements GraphExporter, CharacterExporter, LongTask
         this.exportSize = exportSize;
     }
 
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Sets whether nodes and edges of large graphs are rendered in chunks on several threads. The document is the
+     * same as when written on a single thread.
+     *
+     * @param parallel <code>true</code> to render large graphs on several threads
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
     public boolean isNormalize() {
         return normalize;
     }
@@ -791,4 +958,9 @@ public class ExporterGEXF implements GraphExporter, CharacterExporter, LongTask
     public void setWorkspace(Workspace workspace) {
         this.workspace = workspace;
     }
+
+    private interface ElementWriter {
+
+        void write(XMLStreamWriter xmlWriter, int index) throws Exception;
+    }
 }
@@ -0,0 +1,32 @@
+package org.gephi.io.exporter.plugin;
+
+import java.io.IOException;
+import org.gephi.graph.GraphGenerator;
+import org.gephi.project.api.Workspace;
+import org.junit.Test;
+
+public class CSVTest {
+
+    @Test
+    public void testMatrix() throws IOException {
+        GraphGenerator graphGenerator = GraphGenerator.build().withWorkspace().generateTinyMultiGraph();
+
+        Utils.assertExporterMatch("multi_matrix.csv", createExporter(graphGenerator));
+    }
+
+    @Test
+    public void testMatrixMarket() throws IOException {
+        GraphGenerator graphGenerator = GraphGenerator.build().withWorkspace().generateTinyMultiGraph();
+
+        ExporterCSV exporterCSV = createExporter(graphGenerator);
+        exporterCSV.setMatrixMarket(true);
+        Utils.assertExporterMatch("multi_matrix.mtx", exporterCSV);
+    }
+
+    private static ExporterCSV createExporter(GraphGenerator graphGenerator) {
+        Workspace workspace = graphGenerator.getWorkspace();
+        ExporterCSV exporterCSV = new ExporterCSV();
+        exporterCSV.setWorkspace(workspace);
+        return exporterCSV;
+    }
+}
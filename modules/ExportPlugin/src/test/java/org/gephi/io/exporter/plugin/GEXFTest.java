@@ -1,9 +1,11 @@
 package org.gephi.io.exporter.plugin;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import org.gephi.graph.GraphGenerator;
 import org.gephi.graph.api.Graph;
 import org.gephi.project.api.Workspace;
+import org.junit.Assert;
 import org.junit.Test;
 
 public class GEXFTest {
@@ -19,6 +21,29 @@ public class GEXFTest {
         Utils.assertExporterMatch("infinity.gexf", createExporter(graphGenerator));
     }
 
+    @Test
+    public void testParallel() {
+        GraphGenerator graphGenerator =
+            GraphGenerator.build().withWorkspace().generateSmallRandomGraph().addRandomPositions();
+
+        ExporterGEXF sequentialExporter = createExporter(graphGenerator);
+        sequentialExporter.setExportPosition(true);
+        sequentialExporter.setParallel(false);
+        StringWriter sequential = new StringWriter();
+        sequentialExporter.setWriter(sequential);
+        sequentialExporter.execute();
+
+        ExporterGEXF parallelExporter = createExporter(graphGenerator);
+        parallelExporter.setExportPosition(true);
+        parallelExporter.setChunkSize(7);
+        StringWriter parallel = new StringWriter();
+        parallelExporter.setWriter(parallel);
+        parallelExporter.execute();
+
+        Assert.assertTrue(graphGenerator.getGraph().getEdgeCount() > 7);
+        Assert.assertEquals(sequential.toString(), parallel.toString());
+    }
+
     private static ExporterGEXF createExporter(GraphGenerator graphGenerator) {
         Workspace workspace = graphGenerator.getWorkspace();
         ExporterGEXF exporterGEXF = new ExporterGEXF();
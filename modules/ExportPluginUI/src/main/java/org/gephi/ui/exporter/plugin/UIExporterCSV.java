@@ -99,6 +99,7 @@ public class UIExporterCSV implements ExporterUI {
         private final static String WRITE_ZERO = "CSV_writeZero";
         private final static String HEADER = "CSV_header";
         private final static String LIST = "CSV_list";
+        private final static String MATRIX_MARKET = "CSV_matrixMarket";
         // Default
         private final static ExporterCSV DEFAULT = new ExporterCSV();
 
@@ -107,6 +108,7 @@ public class UIExporterCSV implements ExporterUI {
             put(WRITE_ZERO, exporterCSV.isWriteZero());
             put(HEADER, exporterCSV.isHeader());
             put(LIST, exporterCSV.isList());
+            put(MATRIX_MARKET, exporterCSV.isMatrixMarket());
         }
 
         private void load(ExporterCSV exporterCSV) {
@@ -114,6 +116,7 @@ public class UIExporterCSV implements ExporterUI {
             exporterCSV.setWriteZero(get(WRITE_ZERO, DEFAULT.isWriteZero()));
             exporterCSV.setHeader(get(HEADER, DEFAULT.isHeader()));
             exporterCSV.setList(get(LIST, DEFAULT.isList()));
+            exporterCSV.setMatrixMarket(get(MATRIX_MARKET, DEFAULT.isMatrixMarket()));
         }
     }
 }
@@ -54,6 +54,7 @@ public class UIExporterCSVPanel extends javax.swing.JPanel {
     private javax.swing.JCheckBox edgeWeightCheckbox;
     private javax.swing.JLabel labelExport;
     private javax.swing.JRadioButton listRadio;
+    private javax.swing.JCheckBox matrixMarketCheckbox;
     private javax.swing.JRadioButton matrixRadio;
     private javax.swing.JCheckBox nodeIdCheckbox;
     private javax.swing.JCheckBox zeroEdgeCheckbox;
@@ -70,6 +71,7 @@ public class UIExporterCSVPanel extends javax.swing.JPanel {
         nodeIdCheckbox.setSelected(exporterCSV.isHeader());
         edgeWeightCheckbox.setSelected(exporterCSV.isEdgeWeight());
         zeroEdgeCheckbox.setSelected(exporterCSV.isWriteZero());
+        matrixMarketCheckbox.setSelected(exporterCSV.isMatrixMarket());
     }
 
     public void unsetup(ExporterCSV exporterCSV) {
@@ -77,6 +79,7 @@ public class UIExporterCSVPanel extends javax.swing.JPanel {
         exporterCSV.setHeader(nodeIdCheckbox.isSelected());
         exporterCSV.setEdgeWeight(edgeWeightCheckbox.isSelected());
         exporterCSV.setWriteZero(zeroEdgeCheckbox.isSelected());
+        exporterCSV.setMatrixMarket(matrixMarketCheckbox.isSelected());
     }
 
     /**
@@ -95,6 +98,7 @@ public class UIExporterCSVPanel extends javax.swing.JPanel {
         labelExport = new javax.swing.JLabel();
         nodeIdCheckbox = new javax.swing.JCheckBox();
         zeroEdgeCheckbox = new javax.swing.JCheckBox();
+        matrixMarketCheckbox = new javax.swing.JCheckBox();
         listRadio = new javax.swing.JRadioButton();
         matrixRadio = new javax.swing.JRadioButton();
 
@@ -134,6 +138,15 @@ public class UIExporterCSVPanel extends javax.swing.JPanel {
                 org.jdesktop.beansbinding.BeanProperty.create("enabled"));
         bindingGroup.addBinding(binding);
 
+        matrixMarketCheckbox.setText(org.openide.util.NbBundle
+            .getMessage(UIExporterCSVPanel.class, "UIExporterCSVPanel.matrixMarketCheckbox.text")); // NOI18N
+
+        binding = org.jdesktop.beansbinding.Bindings
+            .createAutoBinding(org.jdesktop.beansbinding.AutoBinding.UpdateStrategy.READ_WRITE, matrixRadio,
+                org.jdesktop.beansbinding.ELProperty.create("${selected}"), matrixMarketCheckbox,
+                org.jdesktop.beansbinding.BeanProperty.create("enabled"));
+        bindingGroup.addBinding(binding);
+
         buttonGroup1.add(listRadio);
         listRadio.setSelected(true);
         listRadio.setText(org.openide.util.NbBundle
@@ -155,6 +168,7 @@ public class UIExporterCSVPanel extends javax.swing.JPanel {
                             .addGap(18, 18, 18)
                             .addComponent(matrixRadio))
                         .addComponent(zeroEdgeCheckbox)
+                        .addComponent(matrixMarketCheckbox)
                         .addGroup(layout.createSequentialGroup()
                             .addComponent(labelExport)
                             .addGap(18, 18, 18)
@@ -178,7 +192,9 @@ public class UIExporterCSVPanel extends javax.swing.JPanel {
                     .addComponent(edgeWeightCheckbox)
                     .addGap(18, 18, 18)
                     .addComponent(zeroEdgeCheckbox)
-                    .addContainerGap(45, Short.MAX_VALUE))
+                    .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                    .addComponent(matrixMarketCheckbox)
+                    .addContainerGap(22, Short.MAX_VALUE))
         );
 
         bindingGroup.bind();
@@ -377,24 +377,37 @@ public class FilterControllerImpl implements FilterController, PropertyExecutor
                 ProjectController pc = Lookup.getDefault().lookup(ProjectController.class);
                 Workspace newWorkspace = pc.newWorkspace(pc.getCurrentProject());
                 GraphModel graphModel = Lookup.getDefault().lookup(GraphController.class).getGraphModel(newWorkspace);
-                graphModel.setConfiguration(graphView.getModel().getConfiguration());
-                graphModel.bridge().copyNodes(graphView.getNodes().toArray());
-                Graph graph = graphModel.getGraph();
+                copyGraph(graphView, graphModel);
+
+                Progress.finish(ticket);
+                String workspaceName = newWorkspace.getLookup().lookup(WorkspaceInformation.class).getName();
+                //StatusDisplayer.getDefault().setStatusText(NbBundle.getMessage(FilterControllerImpl.class, "FilterController.exportToNewWorkspace.status", workspaceName));
+            }
+        }, "Export filter to workspace").start();
+    }
+
+    /**
+     * Copies the nodes and edges of a filtered graph to an empty graph model.
+     */
+    static void copyGraph(Graph graphView, GraphModel graphModel) {
+        graphModel.setConfiguration(graphView.getModel().getConfiguration());
+        graphView.readLock();
+        try {
+            graphModel.bridge().copyNodes(graphView.getNodes().toArray());
+            Graph graph = graphModel.getGraph();
+            //All edges between the copied nodes came along, which are the view edges if the count matches
+            if (graph.getEdgeCount() != graphView.getEdgeCount()) {
                 List<Edge> edgesToRemove = new ArrayList<>();
                 for (Edge edge : graph.getEdges()) {
                     if (!graphView.hasEdge(edge.getId())) {
                         edgesToRemove.add(edge);
                     }
                 }
-                if (!edgesToRemove.isEmpty()) {
-                    graph.removeAllEdges(edgesToRemove);
-                }
-
-                Progress.finish(ticket);
-                String workspaceName = newWorkspace.getLookup().lookup(WorkspaceInformation.class).getName();
-                //StatusDisplayer.getDefault().setStatusText(NbBundle.getMessage(FilterControllerImpl.class, "FilterController.exportToNewWorkspace.status", workspaceName));
+                graph.removeAllEdges(edgesToRemove);
             }
-        }, "Export filter to workspace").start();
+        } finally {
+            graphView.readUnlock();
+        }
     }
 
     @Override
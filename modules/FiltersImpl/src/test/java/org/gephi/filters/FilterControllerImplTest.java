@@ -0,0 +1,69 @@
+package org.gephi.filters;
+
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.Graph;
+import org.gephi.graph.api.GraphModel;
+import org.gephi.graph.api.GraphView;
+import org.gephi.graph.api.Node;
+import org.gephi.graph.api.Subgraph;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FilterControllerImplTest {
+
+    @Test
+    public void testCopyNodeFilter() {
+        GraphModel graphModel = newGraphModel();
+        Subgraph view = newView(graphModel);
+        view.removeNode(graphModel.getGraph().getNode("3"));
+
+        GraphModel copy = GraphModel.Factory.newInstance();
+        FilterControllerImpl.copyGraph(view, copy);
+
+        Graph graph = copy.getGraph();
+        Assert.assertEquals(2, graph.getNodeCount());
+        Assert.assertEquals(1, graph.getEdgeCount());
+        Assert.assertNotNull(graph.getEdge("12"));
+        Assert.assertNull(graph.getNode("3"));
+    }
+
+    @Test
+    public void testCopyEdgeFilter() {
+        GraphModel graphModel = newGraphModel();
+        Subgraph view = newView(graphModel);
+        view.removeEdge(graphModel.getGraph().getEdge("12"));
+
+        GraphModel copy = GraphModel.Factory.newInstance();
+        FilterControllerImpl.copyGraph(view, copy);
+
+        Graph graph = copy.getGraph();
+        Assert.assertEquals(3, graph.getNodeCount());
+        Assert.assertEquals(2, graph.getEdgeCount());
+        Assert.assertNull(graph.getEdge("12"));
+        Assert.assertNotNull(graph.getEdge("23"));
+        Assert.assertNotNull(graph.getEdge("13"));
+    }
+
+    private static GraphModel newGraphModel() {
+        GraphModel graphModel = GraphModel.Factory.newInstance();
+        Graph graph = graphModel.getGraph();
+        Node[] nodes = new Node[3];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = graphModel.factory().newNode(String.valueOf(i + 1));
+            graph.addNode(nodes[i]);
+        }
+        graph.addEdge(newEdge(graphModel, nodes[0], nodes[1]));
+        graph.addEdge(newEdge(graphModel, nodes[1], nodes[2]));
+        graph.addEdge(newEdge(graphModel, nodes[0], nodes[2]));
+        return graphModel;
+    }
+
+    private static Edge newEdge(GraphModel graphModel, Node source, Node target) {
+        return graphModel.factory().newEdge("" + source.getId() + target.getId(), source, target, 0, 1.0, true);
+    }
+
+    private static Subgraph newView(GraphModel graphModel) {
+        GraphView view = graphModel.copyView(graphModel.getGraph().getView());
+        return graphModel.getGraph(view);
+    }
+}
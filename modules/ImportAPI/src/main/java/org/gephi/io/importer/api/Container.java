@@ -44,6 +44,7 @@ package org.gephi.io.importer.api;
 
 import org.gephi.io.importer.spi.Importer;
 import org.gephi.io.processor.spi.Processor;
+import org.gephi.io.processor.spi.StreamingProcessor;
 
 /**
  * A container is created each time data are imported by <b>importers</b>. Its
@@ -137,6 +138,35 @@ public interface Container {
      */
     void closeLoader();
 
+    /**
+     * Releases the resources held by the container, such as temporary files.
+     * The container's content can't be used afterwards. It is up to the owner
+     * of the container to call it once done with it, processing doesn't.
+     * <p>
+     * The default implementation does nothing.
+     */
+    default void dispose() {
+    }
+
+    /**
+     * Sets a processor the container flushes its content to while it is being
+     * loaded.
+     * <p>
+     * Elements are handed over by batches of about <code>batchSize</code>,
+     * each batch lagging one batch behind the last added elements so importers
+     * can still complete them. Flushed edges are released from the container.
+     * The last batch is flushed by {@link #closeLoader()}.
+     * <p>
+     * The default implementation ignores the processor, which then processes
+     * the whole container once loaded.
+     *
+     * @param processor the processor to flush elements to
+     * @param batchSize number of elements per batch
+     * @throws IllegalArgumentException if <code>batchSize</code> is not positive
+     */
+    default void setStreamingProcessor(StreamingProcessor processor, int batchSize) {
+    }
+
     /**
      * Returns true if this container contains a dynamic graph.
      * <p>
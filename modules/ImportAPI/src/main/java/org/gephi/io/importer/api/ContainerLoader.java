@@ -297,4 +297,35 @@ public interface ContainerLoader {
     void setFillLabelWithId(boolean value);
 
     void setEdgesMergeStrategy(EdgeMergeStrategy edgesMergeStrategy);
+
+    /**
+     * Sets whether edges are stored in compact primitive columns instead of one draft object per edge. This reduces
+     * memory usage for very large imports.
+     * <p>
+     * It must be called before any edge is added. When enabled, edge drafts must be complete when passed to
+     * {@link #addEdge(EdgeDraft)}: later changes to the same instance are not seen by the container. Use
+     * {@link #getEdge(String)} to modify an edge that has already been added.
+     * <p>
+     * The default implementation ignores it and keeps one draft per edge.
+     *
+     * @param value <code>true</code> to store edges in columns
+     * @throws IllegalStateException if edges have already been added
+     */
+    default void setColumnarEdges(boolean value) {
+    }
+
+    /**
+     * Sets whether edge columns are moved to a memory-mapped temporary file once the number of edges gets large, so
+     * they don't use heap memory. Only the fixed-size edge records are spilled: node drafts, the drafts of edges
+     * with labels or attributes, the edge id map and the source-target index of edges stay on the heap, so memory
+     * use is reduced but still grows with the number of edges. Enabling it also enables columnar edges, see
+     * {@link #setColumnarEdges(boolean)}. The file is deleted by {@link Container#dispose()}.
+     * <p>
+     * The default implementation ignores it and keeps edges on the heap.
+     *
+     * @param value <code>true</code> to spill edges to disk
+     * @throws IllegalStateException if edges have already been added
+     */
+    default void setSpillEdges(boolean value) {
+    }
 }
@@ -53,6 +53,7 @@ import org.gephi.io.importer.spi.ImporterUI;
 import org.gephi.io.importer.spi.ImporterWizardUI;
 import org.gephi.io.importer.spi.WizardImporter;
 import org.gephi.io.processor.spi.Processor;
+import org.gephi.io.processor.spi.StreamingProcessor;
 import org.gephi.project.api.Workspace;
 import org.openide.filesystems.FileObject;
 
@@ -70,6 +71,25 @@ public interface ImportController {
 
     Container importFile(File file, FileImporter importer) throws FileNotFoundException;
 
+    /**
+     * Imports <code>file</code> while streaming its elements to
+     * <code>processor</code>, so the workspace fills progressively while the
+     * importer runs. The returned container has already been processed. If
+     * the import fails or is cancelled, the elements already streamed are
+     * rolled back.
+     *
+     * @param file      the file to import
+     * @param importer  the importer to use
+     * @param processor the processor receiving the elements
+     * @param workspace the destination workspace, or <code>null</code> to let
+     *                  the processor decide
+     * @return the processed container, or <code>null</code> if the import
+     * failed
+     * @throws FileNotFoundException if the file can't be found
+     */
+    Container importFile(File file, FileImporter importer, StreamingProcessor processor, Workspace workspace)
+        throws FileNotFoundException;
+
     Container importFile(Reader reader, FileImporter importer);
 
     Container importFile(InputStream stream, FileImporter importer);
@@ -43,6 +43,7 @@ Portions Copyrighted 2011 Gephi Consortium.
 package org.gephi.io.importer.api;
 
 import java.awt.Color;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -64,6 +65,7 @@ import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLReporter;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
 import org.gephi.utils.CharsetToolkit;
 import org.openide.filesystems.FileObject;
@@ -79,6 +81,10 @@ import org.xml.sax.SAXException;
  */
 public final class ImportUtils {
 
+    //DECOMPRESSION
+    private static final int DECOMPRESSION_BUFFER_SIZE = 65536;
+    private static final int READ_AHEAD_CHUNK_SIZE = 1 << 20;
+    private static final int READ_AHEAD_CHUNKS = 8;
     //COLORS
     private static final Map<String, Integer> COLORS = new HashMap<>();
 
@@ -987,6 +993,93 @@ public final class ImportUtils {
         return result;
     }
 
+    /**
+     * Returns <code>true</code> if <code>fileObject</code> is a gzip or bzip2 compressed
+     * file, optionally containing a tar archive. Such files can be read on the fly with
+     * {@link #getDecompressedInputStream(FileObject)} instead of being extracted first.
+     *
+     * @param fileObject the file to test
+     * @return <code>true</code> if the file is gzip or bzip2 compressed
+     */
+    public static boolean isCompressedFile(FileObject fileObject) {
+        if (fileObject == null) {
+            return false;
+        }
+        return fileObject.getExt().equalsIgnoreCase("gz") || fileObject.getExt().equalsIgnoreCase("bz2");
+    }
+
+    /**
+     * Returns the extension of the file contained in a compressed file. For instance
+     * <code>gexf</code> is returned for both <code>graph.gexf.gz</code> and
+     * <code>graph.gexf.tar.bz2</code>.
+     *
+     * @param fileObject the compressed file
+     * @return the inner file extension, or an empty string if unknown
+     */
+    public static String getCompressedFileExtension(FileObject fileObject) {
+        String[] splittedFileName = fileObject.getName().split("\\.");
+        int length = splittedFileName.length;
+        if (length >= 3 && splittedFileName[length - 1].equalsIgnoreCase("tar")) {
+            return splittedFileName[length - 2];
+        } else if (length >= 2 && !splittedFileName[length - 1].equalsIgnoreCase("tar")) {
+            return splittedFileName[length - 1];
+        }
+        return "";
+    }
+
+    /**
+     * Returns a stream of the decompressed content of a gzip or bzip2 file. Decoding
+     * happens on a separate thread so it overlaps with parsing.
+     *
+     * @param fileObject the compressed file
+     * @return the decompressed stream
+     * @throws IOException if the file can't be read or isn't compressed
+     * @see #getDecompressedInputStream(FileObject, boolean)
+     */
+    public static InputStream getDecompressedInputStream(FileObject fileObject) throws IOException {
+        return getDecompressedInputStream(fileObject, true);
+    }
+
+    /**
+     * Returns a stream of the decompressed content of a gzip or bzip2 file, without
+     * writing a temporary file. If the file is a tar archive, the content of its first
+     * entry is returned. Concatenated streams, such as written by parallel compressors,
+     * are supported.
+     *
+     * @param fileObject the compressed file
+     * @param readAhead <code>true</code> to decode on a separate thread
+     * @return the decompressed stream
+     * @throws IOException if the file can't be read or isn't compressed
+     */
+    public static InputStream getDecompressedInputStream(FileObject fileObject, boolean readAhead)
+        throws IOException {
+        if (!isCompressedFile(fileObject)) {
+            throw new IOException(NbBundle.getMessage(ImportUtils.class, "ImportUtils.error_io"));
+        }
+        InputStream inputStream = new BufferedInputStream(fileObject.getInputStream(), DECOMPRESSION_BUFFER_SIZE);
+        try {
+            if (fileObject.getExt().equalsIgnoreCase("gz")) {
+                inputStream = new GZIPInputStream(inputStream, DECOMPRESSION_BUFFER_SIZE);
+            } else {
+                inputStream = new BZip2CompressorInputStream(inputStream, true);
+            }
+            if (fileObject.getName().toLowerCase().endsWith(".tar")) {
+                TarArchiveInputStream tarInputStream = new TarArchiveInputStream(inputStream);
+                if (tarInputStream.getNextTarEntry() == null) {
+                    throw new IOException(NbBundle.getMessage(ImportUtils.class, "ImportUtils.error_io"));
+                }
+                inputStream = tarInputStream;
+            }
+        } catch (IOException ex) {
+            inputStream.close();
+            throw ex;
+        }
+        if (readAhead) {
+            return new ReadAheadInputStream(inputStream, READ_AHEAD_CHUNK_SIZE, READ_AHEAD_CHUNKS);
+        }
+        return inputStream;
+    }
+
     public static File getBzipFile(FileObject in, File out, boolean isTar) throws IOException {
 
         // Stream buffer
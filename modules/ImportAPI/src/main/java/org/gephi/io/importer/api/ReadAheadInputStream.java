@@ -0,0 +1,185 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.importer.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Input stream which reads its source on a background thread.
+ * <p>
+ * Used to decode compressed files while the importer parses the already decoded
+ * content. At most <code>queueCapacity</code> chunks of <code>chunkSize</code>
+ * bytes are buffered.
+ */
+final class ReadAheadInputStream extends InputStream {
+
+    private static final byte[] EOF = new byte[0];
+    private final InputStream source;
+    private final BlockingQueue<byte[]> queue;
+    private final int chunkSize;
+    private final Thread reader;
+    private volatile boolean closed;
+    private volatile Throwable error;
+    private byte[] current;
+    private int position;
+
+    ReadAheadInputStream(InputStream source, int chunkSize, int queueCapacity) {
+        this.source = source;
+        this.chunkSize = chunkSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.reader = new Thread(this::readAhead, "Import Decompressor");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    private void readAhead() {
+        try {
+            while (!closed) {
+                byte[] chunk = new byte[chunkSize];
+                int length = 0;
+                int read;
+                while (length < chunkSize && (read = source.read(chunk, length, chunkSize - length)) != -1) {
+                    length += read;
+                }
+                if (length > 0 && !put(length == chunkSize ? chunk : Arrays.copyOf(chunk, length))) {
+                    return;
+                }
+                if (length < chunkSize) {
+                    break;
+                }
+            }
+        } catch (Throwable e) {
+            error = e;
+        } finally {
+            //The consumer waits for EOF, whatever stopped the reader
+            put(EOF);
+        }
+    }
+
+    private boolean put(byte[] chunk) {
+        try {
+            while (!closed) {
+                if (queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private boolean fill() throws IOException {
+        if (current == EOF) {
+            return false;
+        }
+        if (current == null || position >= current.length) {
+            try {
+                current = queue.take();
+                position = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            if (current == EOF) {
+                Throwable e = error;
+                if (e instanceof IOException) {
+                    throw (IOException) e;
+                } else if (e instanceof Error) {
+                    throw (Error) e;
+                } else if (e instanceof RuntimeException) {
+                    throw (RuntimeException) e;
+                } else if (e != null) {
+                    throw new IOException(e);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (closed || !fill()) {
+            return -1;
+        }
+        return current[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (closed || !fill()) {
+            return -1;
+        }
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current != null && current != EOF ? current.length - position : 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            queue.clear();
+            try {
+                reader.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            source.close();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.importer.impl;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.AbstractObject2IntMap;
+import it.unimi.dsi.fastutil.objects.AbstractObjectSet;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.ObjectSet;
+
+/**
+ * Edge id to index map used with {@link ColumnarEdgeList}. Numeric ids, like the ones generated by
+ * {@link ElementFactoryImpl}, are stored as primitive keys so no id string is retained.
+ */
+class ColumnarEdgeIdMap extends AbstractObject2IntMap<String> {
+
+    private final Int2IntOpenHashMap numericIds = new Int2IntOpenHashMap();
+    private final Object2IntOpenHashMap<String> otherIds = new Object2IntOpenHashMap<>();
+
+    @Override
+    public void defaultReturnValue(int rv) {
+        super.defaultReturnValue(rv);
+        numericIds.defaultReturnValue(rv);
+        otherIds.defaultReturnValue(rv);
+    }
+
+    @Override
+    public int getInt(Object key) {
+        int id = ColumnarEdgeList.parseId((String) key);
+        return id >= 0 ? numericIds.get(id) : otherIds.getInt(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int id = ColumnarEdgeList.parseId((String) key);
+        return id >= 0 ? numericIds.containsKey(id) : otherIds.containsKey(key);
+    }
+
+    @Override
+    public int put(String key, int value) {
+        int id = ColumnarEdgeList.parseId(key);
+        return id >= 0 ? numericIds.put(id, value) : otherIds.put(key, value);
+    }
+
+    @Override
+    public int removeInt(Object key) {
+        int id = ColumnarEdgeList.parseId((String) key);
+        return id >= 0 ? numericIds.remove(id) : otherIds.removeInt(key);
+    }
+
+    @Override
+    public int size() {
+        return numericIds.size() + otherIds.size();
+    }
+
+    @Override
+    public void clear() {
+        numericIds.clear();
+        otherIds.clear();
+    }
+
+    /**
+     * Returns a view of the entries, numeric ids first. Entries are created on the fly so setting their value is
+     * not supported.
+     */
+    @Override
+    public ObjectSet<Object2IntMap.Entry<String>> object2IntEntrySet() {
+        return new AbstractObjectSet<Object2IntMap.Entry<String>>() {
+            @Override
+            public ObjectIterator<Object2IntMap.Entry<String>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return ColumnarEdgeIdMap.this.size();
+            }
+        };
+    }
+
+    private class EntryIterator implements ObjectIterator<Object2IntMap.Entry<String>> {
+
+        private final ObjectIterator<Int2IntMap.Entry> numericItr = numericIds.int2IntEntrySet().iterator();
+        private final ObjectIterator<Object2IntMap.Entry<String>> otherItr = otherIds.object2IntEntrySet().iterator();
+        private boolean numeric = true;
+
+        @Override
+        public boolean hasNext() {
+            return numericItr.hasNext() || otherItr.hasNext();
+        }
+
+        @Override
+        public Object2IntMap.Entry<String> next() {
+            if (numericItr.hasNext()) {
+                Int2IntMap.Entry entry = numericItr.next();
+                return new BasicEntry<>(String.valueOf(entry.getIntKey()), entry.getIntValue());
+            }
+            numeric = false;
+            Object2IntMap.Entry<String> entry = otherItr.next();
+            return new BasicEntry<>(entry.getKey(), entry.getIntValue());
+        }
+
+        @Override
+        public void remove() {
+            if (numeric) {
+                numericItr.remove();
+            } else {
+                otherItr.remove();
+            }
+        }
+    }
+}
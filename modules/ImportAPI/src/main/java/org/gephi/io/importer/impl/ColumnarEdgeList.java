@@ -0,0 +1,325 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.importer.impl;
+
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.AbstractObjectList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.gephi.io.importer.api.EdgeDirection;
+
+/**
+ * Edge list of the import container storing edges in primitive columns.
+ * <p>
+ * Edges that only carry topology, weight, type, direction and a numeric id are decomposed into columns when added and
+ * the draft object is dropped. Other edges (label, color, attributes, time set or non-numeric id) are kept as drafts.
+ * {@link #get(int)} rebuilds a new draft for decomposed edges, so changes to it are only kept once it is written back
+ * with {@link #set(int, EdgeDraftImpl)}, which keeps the given instance.
+ * <p>
+ * When spilling is enabled, the columns are moved to a memory-mapped temporary file once the list reaches the spill
+ * threshold, {@link #SPILL_THRESHOLD} edges for the container. The file is released by {@link #clear()}. Only the
+ * columns are moved: nodes and drafts stay on the heap, as do the edge id and type indexes of the container, so memory
+ * use still grows with the number of edges.
+ */
+class ColumnarEdgeList extends AbstractObjectList<EdgeDraftImpl> {
+
+    static final int SPILL_THRESHOLD = 1 << 20;
+    private static final byte DIRECTION_NONE = 0;
+    private static final byte DIRECTION_DIRECTED = 1;
+    private static final byte DIRECTION_UNDIRECTED = 2;
+    private final ImportContainerImpl container;
+    private final int spillThreshold;
+    private EdgeColumns columns = new HeapEdgeColumns();
+    //Nodes by sequential id
+    private final ObjectArrayList<NodeDraftImpl> nodes = new ObjectArrayList<>();
+    //Type dictionary
+    private final ObjectArrayList<Object> typeValues = new ObjectArrayList<>();
+    private final Object2IntOpenHashMap<Object> typeIndexes = new Object2IntOpenHashMap<>();
+    //Edges with more than topology
+    private final Int2ObjectOpenHashMap<EdgeDraftImpl> drafts = new Int2ObjectOpenHashMap<>();
+
+    /**
+     * @param container      container
+     * @param spillThreshold number of edges from which columns are moved to a temporary file, or -1 to never spill
+     */
+    ColumnarEdgeList(ImportContainerImpl container, int spillThreshold) {
+        this.container = container;
+        this.spillThreshold = spillThreshold;
+        typeIndexes.defaultReturnValue(-1);
+    }
+
+    @Override
+    public EdgeDraftImpl get(int index) {
+        int source = columns.getSource(index);
+        if (source < 0) {
+            return null;
+        }
+        EdgeDraftImpl draft = drafts.get(index);
+        if (draft != null) {
+            return draft;
+        }
+
+        EdgeDraftImpl edge = new EdgeDraftImpl(container, String.valueOf(columns.getId(index)));
+        edge.setSource(nodes.get(source));
+        edge.setTarget(nodes.get(columns.getTarget(index)));
+        edge.setWeight(columns.getWeight(index));
+        edge.setType(typeValues.get(columns.getType(index)));
+        edge.setDirection(toDirection(columns.getDirection(index)));
+        return edge;
+    }
+
+    @Override
+    public void add(int index, EdgeDraftImpl edge) {
+        if (index != size()) {
+            throw new UnsupportedOperationException("Edges can only be appended");
+        }
+        if (edge == null) {
+            throw new NullPointerException();
+        }
+        if (index == spillThreshold) {
+            spill();
+        }
+
+        int id = parseId(edge.getId());
+        columns.add(nodeIndex(edge.getSource()), nodeIndex(edge.getTarget()), edge.getWeight(),
+            typeIndex(edge.getType()), toByte(edge.getDirection()), id);
+        if (id < 0 || !isPlain(edge)) {
+            drafts.put(index, edge);
+        }
+    }
+
+    @Override
+    public EdgeDraftImpl set(int index, EdgeDraftImpl edge) {
+        EdgeDraftImpl previous = get(index);
+        if (edge == null) {
+            columns.remove(index);
+            drafts.remove(index);
+        } else {
+            columns.set(index, nodeIndex(edge.getSource()), nodeIndex(edge.getTarget()), edge.getWeight(),
+                typeIndex(edge.getType()), toByte(edge.getDirection()));
+            //Keep the given instance so later changes to it are visible
+            drafts.put(index, edge);
+        }
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return columns.size();
+    }
+
+    @Override
+    public void clear() {
+        columns.close();
+        columns = new HeapEdgeColumns();
+        drafts.clear();
+    }
+
+    boolean isSpilled() {
+        return columns instanceof MappedEdgeColumns;
+    }
+
+    private void spill() {
+        EdgeColumns mapped = new MappedEdgeColumns();
+        for (int i = 0; i < columns.size(); i++) {
+            mapped.add(columns.getSource(i), columns.getTarget(i), columns.getWeight(i), columns.getType(i),
+                columns.getDirection(i), columns.getId(i));
+        }
+        columns = mapped;
+    }
+
+    private int nodeIndex(NodeDraftImpl node) {
+        int index = node.getSequentialId();
+        if (index >= nodes.size()) {
+            nodes.size(index + 1);
+        }
+        nodes.set(index, node);
+        return index;
+    }
+
+    private int typeIndex(Object type) {
+        int index = typeIndexes.getInt(type);
+        if (index == -1) {
+            index = typeValues.size();
+            typeValues.add(type);
+            typeIndexes.put(type, index);
+        }
+        return index;
+    }
+
+    private static boolean isPlain(EdgeDraftImpl edge) {
+        if (edge.label != null || edge.color != null || edge.labelColor != null || edge.labelSize != -1f
+            || !edge.labelVisible || edge.timeSet != null) {
+            return false;
+        }
+        for (Object value : edge.attributes) {
+            if (value != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the id as a non-negative integer if its canonical string representation is the id, or -1 otherwise.
+     */
+    static int parseId(String id) {
+        int length = id.length();
+        if (length == 0 || length > 10 || (length > 1 && id.charAt(0) == '0')) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value <= Integer.MAX_VALUE ? (int) value : -1;
+    }
+
+    private static byte toByte(EdgeDirection direction) {
+        if (direction == null) {
+            return DIRECTION_NONE;
+        }
+        return direction == EdgeDirection.DIRECTED ? DIRECTION_DIRECTED : DIRECTION_UNDIRECTED;
+    }
+
+    private static EdgeDirection toDirection(byte direction) {
+        switch (direction) {
+            case DIRECTION_DIRECTED:
+                return EdgeDirection.DIRECTED;
+            case DIRECTION_UNDIRECTED:
+                return EdgeDirection.UNDIRECTED;
+            default:
+                return null;
+        }
+    }
+
+    private static class HeapEdgeColumns implements EdgeColumns {
+
+        private final IntArrayList sources = new IntArrayList();
+        private final IntArrayList targets = new IntArrayList();
+        private final DoubleArrayList weights = new DoubleArrayList();
+        private final IntArrayList types = new IntArrayList();
+        private final ByteArrayList directions = new ByteArrayList();
+        private final IntArrayList ids = new IntArrayList();
+
+        @Override
+        public void add(int source, int target, double weight, int type, byte direction, int id) {
+            sources.add(source);
+            targets.add(target);
+            weights.add(weight);
+            types.add(type);
+            directions.add(direction);
+            ids.add(id);
+        }
+
+        @Override
+        public int size() {
+            return sources.size();
+        }
+
+        @Override
+        public int getSource(int index) {
+            return sources.getInt(index);
+        }
+
+        @Override
+        public int getTarget(int index) {
+            return targets.getInt(index);
+        }
+
+        @Override
+        public double getWeight(int index) {
+            return weights.getDouble(index);
+        }
+
+        @Override
+        public int getType(int index) {
+            return types.getInt(index);
+        }
+
+        @Override
+        public byte getDirection(int index) {
+            return directions.getByte(index);
+        }
+
+        @Override
+        public int getId(int index) {
+            return ids.getInt(index);
+        }
+
+        @Override
+        public void set(int index, int source, int target, double weight, int type, byte direction) {
+            sources.set(index, source);
+            targets.set(index, target);
+            weights.set(index, weight);
+            types.set(index, type);
+            directions.set(index, direction);
+        }
+
+        @Override
+        public void remove(int index) {
+            sources.set(index, -1);
+        }
+
+        @Override
+        public void clear() {
+            sources.clear();
+            targets.clear();
+            weights.clear();
+            types.clear();
+            directions.clear();
+            ids.clear();
+        }
+
+        @Override
+        public void close() {
+            clear();
+        }
+    }
+}
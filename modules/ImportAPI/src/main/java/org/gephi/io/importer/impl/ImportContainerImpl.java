@@ -42,6 +42,8 @@
 
 package org.gephi.io.importer.impl;
 
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
@@ -76,6 +78,7 @@ import org.gephi.io.importer.api.Issue;
 import org.gephi.io.importer.api.Issue.Level;
 import org.gephi.io.importer.api.NodeDraft;
 import org.gephi.io.importer.api.Report;
+import org.gephi.io.processor.spi.StreamingProcessor;
 import org.joda.time.DateTimeZone;
 import org.openide.util.NbBundle;
 
@@ -91,9 +94,9 @@ public class ImportContainerImpl implements Container, ContainerLoader, Containe
     private final ImportContainerParameters parameters;
     //Maps and Data
     private final ObjectList<NodeDraftImpl> nodeList;
-    private final ObjectList<EdgeDraftImpl> edgeList;
+    private ObjectList<EdgeDraftImpl> edgeList;
     private final Object2IntMap<String> nodeMap;
-    private final Object2IntMap<String> edgeMap;
+    private Object2IntMap<String> edgeMap;
     private final Object2IntMap edgeTypeMap;
     private final Object2ObjectMap<String, ColumnDraft> nodeColumns;
     private final Object2ObjectMap<String, ColumnDraft> edgeColumns;
@@ -122,6 +125,13 @@ public class ImportContainerImpl implements Container, ContainerLoader, Containe
     //Report flag
     private boolean reportedUnknownNode;
     private boolean reportedParallelEdges;
+    //Streaming
+    private StreamingProcessor streamingProcessor;
+    private int streamingBatchSize;
+    private int flushedNodeIndex;
+    private int flushedEdgeIndex;
+    private final Int2ObjectMap<List<EdgeDraftImpl>> deferredEdges = new Int2ObjectOpenHashMap<>();
+    private int streamedSelfLoopsRemoved;
 
     public ImportContainerImpl() {
         parameters = new ImportContainerParameters();
@@ -179,6 +189,10 @@ public class ImportContainerImpl implements Container, ContainerLoader, Containe
         int index = nodeList.size();
         nodeList.add(nodeDraftImpl);
         nodeMap.put(nodeDraftImpl.getId(), index);
+
+        if (streamingProcessor != null && index - flushedNodeIndex >= 2 * streamingBatchSize) {
+            flush(false);
+        }
     }
 
     @Override
@@ -344,6 +358,10 @@ public class ImportContainerImpl implements Container, ContainerLoader, Containe
         //Adding
         edgeList.add(edgeDraftImpl);
         edgeMap.put(edgeDraft.getId(), index);
+
+        if (streamingProcessor != null && index - flushedEdgeIndex >= 2 * streamingBatchSize) {
+            flush(false);
+        }
     }
 
     private void removeNode(NodeDraftImpl node) {
@@ -429,7 +447,12 @@ public class ImportContainerImpl implements Container, ContainerLoader, Containe
         if (index == NULL_INDEX) {
             return null;
         }
-        return edgeList.get(index);
+        EdgeDraftImpl edge = edgeList.get(index);
+        if (parameters.isColumnarEdges()) {
+            //The caller may modify the edge, keep this instance
+            edgeList.set(index, edge);
+        }
+        return edge;
     }
 
     @Override
@@ -787,8 +810,156 @@ public class ImportContainerImpl implements Container, ContainerLoader, Containe
         return true;
     }
 
+    @Override
+    public void setStreamingProcessor(StreamingProcessor processor, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size should be positive");
+        }
+        this.streamingProcessor = processor;
+        this.streamingBatchSize = batchSize;
+    }
+
+    /**
+     * Hands the oldest elements over to the streaming processor. The most recent batch is kept back as importers
+     * may still complete it, as well as edges with endpoints not flushed yet. Those are indexed by the last of their
+     * endpoints, and flushed with it. Flushed edges are released, nodes are kept as edges refer to them.
+     * <p>
+     * Self-loops are dropped when they are not allowed, as well as auto-created nodes and their edges when
+     * auto-created nodes are not allowed.
+     */
+    private void flush(boolean all) {
+        int nodeEnd = all ? nodeList.size() : nodeList.size() - streamingBatchSize;
+        int edgeEnd = all ? edgeList.size() : edgeList.size() - streamingBatchSize;
+
+        List<NodeDraft> nodes = new ArrayList<>();
+        int firstNodeIndex = flushedNodeIndex;
+        for (; flushedNodeIndex < nodeEnd; flushedNodeIndex++) {
+            NodeDraftImpl node = nodeList.get(flushedNodeIndex);
+            if (node != null) {
+                if (node.isCreatedAuto() && !allowAutoNode()) {
+                    removeNode(node);
+                } else {
+                    prepareStreamedNode(node);
+                    nodes.add(node);
+                }
+            }
+        }
+
+        //Edges waiting for the nodes just flushed
+        List<EdgeDraft> edges = new ArrayList<>();
+        if (all) {
+            for (List<EdgeDraftImpl> waiting : deferredEdges.values()) {
+                addDeferredEdges(waiting, edges);
+            }
+            deferredEdges.clear();
+        } else if (!deferredEdges.isEmpty()) {
+            for (int i = firstNodeIndex; i < flushedNodeIndex; i++) {
+                List<EdgeDraftImpl> waiting = deferredEdges.remove(i);
+                if (waiting != null) {
+                    addDeferredEdges(waiting, edges);
+                }
+            }
+        }
+        for (; flushedEdgeIndex < edgeEnd; flushedEdgeIndex++) {
+            EdgeDraftImpl edge = edgeList.get(flushedEdgeIndex);
+            if (edge != null) {
+                int lastNodeIndex = Math.max(nodeMap.getInt(edge.getSource().getId()),
+                    nodeMap.getInt(edge.getTarget().getId()));
+                if (all || lastNodeIndex < flushedNodeIndex) {
+                    edges.add(edge);
+                } else {
+                    List<EdgeDraftImpl> waiting = deferredEdges.get(lastNodeIndex);
+                    if (waiting == null) {
+                        waiting = new ArrayList<>();
+                        deferredEdges.put(lastNodeIndex, waiting);
+                    }
+                    waiting.add(edge);
+                }
+                //Released from here, deferred edges are held by the deferred index
+                edgeList.set(flushedEdgeIndex, null);
+            }
+        }
+
+        //Self-loops and edges of auto-created nodes, as closeLoader() cleans them
+        for (Iterator<EdgeDraft> itr = edges.iterator(); itr.hasNext(); ) {
+            EdgeDraftImpl edge = (EdgeDraftImpl) itr.next();
+            if (!parameters.isSelfLoops() && edge.isSelfLoop()) {
+                removeEdge(edge);
+                itr.remove();
+                streamedSelfLoopsRemoved++;
+            } else if (!allowAutoNode() && (edge.getSource().isCreatedAuto() || edge.getTarget().isCreatedAuto())) {
+                removeEdge(edge);
+                itr.remove();
+            }
+        }
+        if (all && streamedSelfLoopsRemoved > 0) {
+            report.logIssue(new Issue(NbBundle.getMessage(
+                ImportContainerImpl.class, "ImportContainerClose_SelfLoopRemoved", streamedSelfLoopsRemoved
+            ), Level.WARNING));
+        }
+
+        //Edge weight zero or negative
+        for (Iterator<EdgeDraft> itr = edges.iterator(); itr.hasNext(); ) {
+            EdgeDraftImpl edge = (EdgeDraftImpl) itr.next();
+            String id = edge.getId();
+            if (edge.getWeight() < 0f) {
+                report.logIssue(new Issue(
+                    NbBundle.getMessage(ImportContainerImpl.class, "ImportContainerException_Negative_Weight", id),
+                    Level.WARNING));
+            } else if (edge.getWeight() == 0) {
+                removeEdge(edge);
+                itr.remove();
+                report.logIssue(new Issue(
+                    NbBundle.getMessage(ImportContainerImpl.class, "ImportContainerException_Weight_Zero_Ignored", id),
+                    Level.SEVERE));
+            }
+        }
+
+        if (!nodes.isEmpty() || !edges.isEmpty()) {
+            streamingProcessor.flush(this, nodes, edges);
+        }
+    }
+
+    private void addDeferredEdges(List<EdgeDraftImpl> waiting, List<EdgeDraft> edges) {
+        for (EdgeDraftImpl edge : waiting) {
+            //Skips the edges removed since
+            if (edgeMap.containsKey(edge.getId())) {
+                edges.add(edge);
+            }
+        }
+    }
+
+    private void prepareStreamedNode(NodeDraftImpl node) {
+        //Set id as label for nodes that miss label
+        if (parameters.isFillLabelWithId() && node.getLabel() == null) {
+            node.setLabel(node.getId());
+        }
+
+        //Set random position, the other nodes can't be looked at as with the whole container
+        if (Float.isNaN(node.getX()) && Float.isNaN(node.getY())) {
+            node.setX((float) ((0.01 + Math.random()) * 1000) - 500);
+            node.setY((float) ((0.01 + Math.random()) * 1000) - 500);
+        }
+        if (Float.isNaN(node.getX())) {
+            node.setX(0);
+        }
+        if (Float.isNaN(node.getY())) {
+            node.setY(0);
+        }
+        if (Float.isNaN(node.getZ())) {
+            node.setZ(0);
+        }
+    }
+
     @Override
     public void closeLoader() {
+        if (streamingProcessor != null) {
+            //Elements already in the workspace can't be cleaned, only flush what remains
+            flush(true);
+            streamingProcessor = null;
+            return;
+        }
+
         //Remove self-loops
         if (!parameters.isSelfLoops() && selfLoops > 0) {
             List<EdgeDraftImpl> l = new ArrayList<>();
@@ -810,7 +981,8 @@ public class ImportContainerImpl implements Container, ContainerLoader, Containe
             int mutualEdgesRemoved = 0;
 
             //Force undirected
-            for (EdgeDraftImpl edge : edgeList.toArray(new EdgeDraftImpl[0])) {
+            for (int i = 0; i < edgeList.size(); i++) {
+                EdgeDraftImpl edge = edgeList.get(i);
                 final boolean notAlreadyRemoved = edge != null
                     && edgeMap.containsKey(edge.getId());
 
@@ -818,6 +990,7 @@ public class ImportContainerImpl implements Container, ContainerLoader, Containe
                     EdgeDraftImpl opposite = getOpposite(edge);
                     if (opposite != null && edgeMap.containsKey(opposite.getId())) {
                         mergeDirectedEdges(opposite, edge);
+                        edgeList.set(i, edge);
                         removeEdge(opposite);
                         mutualEdgesRemoved++;
                     }
@@ -893,6 +1066,13 @@ public class ImportContainerImpl implements Container, ContainerLoader, Containe
         //MANAGEMENT
     }
 
+    @Override
+    public void dispose() {
+        //Deletes the temporary file of spilled edges
+        edgeList.clear();
+        edgeMap.clear();
+    }
+
     protected void mergeDirectedEdges(EdgeDraftImpl source, EdgeDraftImpl dest) {
         EdgeMergeStrategy mergeStrategy = parameters.getEdgesMergeStrategy();
         double result = dest.getWeight();
@@ -1028,6 +1208,36 @@ public class ImportContainerImpl implements Container, ContainerLoader, Containe
         parameters.setAutoScale(autoscale);
     }
 
+    @Override
+    public void setColumnarEdges(boolean value) {
+        if (parameters.isColumnarEdges() != value) {
+            setEdgeStorage(value, value && parameters.isSpillEdges());
+        }
+    }
+
+    @Override
+    public void setSpillEdges(boolean value) {
+        if (parameters.isSpillEdges() != value) {
+            setEdgeStorage(value || parameters.isColumnarEdges(), value);
+        }
+    }
+
+    private void setEdgeStorage(boolean columnar, boolean spill) {
+        if (!edgeList.isEmpty()) {
+            throw new IllegalStateException("The edge storage can't be changed after edges have been added");
+        }
+        parameters.setColumnarEdges(columnar);
+        parameters.setSpillEdges(spill);
+        if (columnar) {
+            edgeList = new ColumnarEdgeList(this, spill ? ColumnarEdgeList.SPILL_THRESHOLD : -1);
+            edgeMap = new ColumnarEdgeIdMap();
+        } else {
+            edgeList = new ObjectArrayList<>();
+            edgeMap = new Object2IntOpenHashMap<>();
+        }
+        edgeMap.defaultReturnValue(NULL_INDEX);
+    }
+
     @Override
     public Class getEdgeTypeLabelClass() {
         return lastEdgeType;
@@ -58,6 +58,8 @@ public class ImportContainerParameters {
     protected EdgeMergeStrategy edgesMergeStrategy = EdgeMergeStrategy.SUM;
     protected boolean mergeParallelEdgesAttributes = true;
     protected boolean duplicateWithLabels = false;
+    protected boolean columnarEdges = false;
+    protected boolean spillEdges = false;
 
     public boolean isAutoNode() {
         return autoNode;
@@ -130,4 +132,20 @@ public class ImportContainerParameters {
     public void setMergeParallelEdgesAttributes(boolean mergeParallelEdgesAttributes) {
         this.mergeParallelEdgesAttributes = mergeParallelEdgesAttributes;
     }
+
+    public boolean isColumnarEdges() {
+        return columnarEdges;
+    }
+
+    public void setColumnarEdges(boolean columnarEdges) {
+        this.columnarEdges = columnarEdges;
+    }
+
+    public boolean isSpillEdges() {
+        return spillEdges;
+    }
+
+    public void setSpillEdges(boolean spillEdges) {
+        this.spillEdges = spillEdges;
+    }
 }
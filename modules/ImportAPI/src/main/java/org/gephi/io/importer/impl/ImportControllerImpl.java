@@ -69,6 +69,7 @@ import org.gephi.io.importer.spi.WizardImporter;
 import org.gephi.io.importer.spi.WizardImporterBuilder;
 import org.gephi.io.processor.spi.Processor;
 import org.gephi.io.processor.spi.Scaler;
+import org.gephi.io.processor.spi.StreamingProcessor;
 import org.gephi.project.api.Workspace;
 import org.gephi.utils.TempDirUtils;
 import org.openide.filesystems.FileObject;
@@ -84,6 +85,8 @@ import org.openide.util.lookup.ServiceProvider;
 @ServiceProvider(service = ImportController.class)
 public class ImportControllerImpl implements ImportController {
 
+    private static final int STREAMING_BATCH_SIZE = 10000;
+
     private final FileImporterBuilder[] fileImporterBuilders;
     private final DatabaseImporterBuilder[] databaseImporterBuilders;
     private final WizardImporterBuilder[] wizardImporterBuilders;
@@ -119,6 +122,13 @@ public class ImportControllerImpl implements ImportController {
 
     @Override
     public FileImporter getFileImporter(FileObject fileObject) {
+        if (ImportUtils.isCompressedFile(fileObject)) {
+            //Match on the inner extension, no need to decompress
+            FileImporterBuilder builder = getMatchingImporter(ImportUtils.getCompressedFileExtension(fileObject));
+            if (builder != null) {
+                return builder.buildImporter();
+            }
+        }
         if (fileObject != null) {
             fileObject = ImportUtils.getArchivedFile(fileObject);   //Unzip and return content file
             FileImporterBuilder builder = getMatchingImporter(fileObject);
@@ -143,6 +153,12 @@ public class ImportControllerImpl implements ImportController {
     @Override
     public Container importFile(File file) throws FileNotFoundException {
         FileObject fileObject = FileUtil.toFileObject(file);
+        if (ImportUtils.isCompressedFile(fileObject)) {
+            FileImporterBuilder builder = getMatchingImporter(ImportUtils.getCompressedFileExtension(fileObject));
+            if (builder != null) {
+                return importCompressedFile(fileObject, builder.buildImporter());
+            }
+        }
         if (fileObject != null) {
             fileObject = ImportUtils.getArchivedFile(fileObject);   //Unzip and return content file
             file = FileUtil.toFile(fileObject);
@@ -157,24 +173,61 @@ public class ImportControllerImpl implements ImportController {
 
     @Override
     public Container importFile(File file, FileImporter importer) throws FileNotFoundException {
+        return importFile(file, importer, null, null);
+    }
+
+    @Override
+    public Container importFile(File file, FileImporter importer, StreamingProcessor processor, Workspace workspace)
+        throws FileNotFoundException {
         FileObject fileObject = FileUtil.toFileObject(file);
+        if (ImportUtils.isCompressedFile(fileObject)) {
+            return importCompressedFile(fileObject, importer, processor, workspace);
+        }
         if (fileObject != null) {
             fileObject = ImportUtils.getArchivedFile(fileObject);   //Unzip and return content file
             file = FileUtil.toFile(fileObject);
             if (fileObject != null) {
-                Container c = importFile(fileObject.getInputStream(), importer, file);
+                Container c = importFile(fileObject.getInputStream(), importer, file, processor, workspace);
                 return c;
             }
         }
         return null;
     }
 
+    private Container importCompressedFile(FileObject fileObject, FileImporter importer)
+        throws FileNotFoundException {
+        return importCompressedFile(fileObject, importer, null, null);
+    }
+
+    private Container importCompressedFile(FileObject fileObject, FileImporter importer, StreamingProcessor processor,
+                                           Workspace workspace) throws FileNotFoundException {
+        if (importer instanceof FileImporter.FileAware) {
+            //Importer needs random access, extract to a temporary file
+            fileObject = ImportUtils.getArchivedFile(fileObject);
+            return importFile(fileObject.getInputStream(), importer, FileUtil.toFile(fileObject), processor,
+                workspace);
+        }
+        try {
+            return importFile(ImportUtils.getDecompressedInputStream(fileObject), importer, null, processor,
+                workspace);
+        } catch (FileNotFoundException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     @Override
     public Container importFile(Reader reader, FileImporter importer) {
         return importFile(reader, importer, null);
     }
 
     public Container importFile(Reader reader, FileImporter importer, File file) {
+        return importFile(reader, importer, file, null, null);
+    }
+
+    private Container importFile(Reader reader, FileImporter importer, File file, StreamingProcessor processor,
+                                 Workspace workspace) {
         //Create Container
         final Container container = Lookup.getDefault().lookup(Container.Factory.class).newContainer();
 
@@ -200,18 +253,31 @@ public class ImportControllerImpl implements ImportController {
             importer.setReader(reader);
         }
 
+        //Streaming
+        if (processor != null) {
+            processor.setContainers(new ContainerUnloader[] {container.getUnloader()});
+            processor.setWorkspace(workspace);
+            container.setStreamingProcessor(processor, STREAMING_BATCH_SIZE);
+        }
+
+        Throwable failure = null;
+        boolean success = false;
         try {
             if (importer.execute(container.getLoader())) {
                 if (importer.getReport() != null && importer.getReport() != report) {
                     report.append(importer.getReport());
                 }
                 report.close();
+                success = true;
                 return container;
             }
-        } catch (RuntimeException ex) {
+        } catch (RuntimeException | Error ex) {
+            failure = ex;
             throw ex;
         } catch (Exception ex) {
-            throw new RuntimeException(ex);
+            RuntimeException wrapped = new RuntimeException(ex);
+            failure = wrapped;
+            throw wrapped;
         } finally {
             try {
                 reader.close();
@@ -219,6 +285,24 @@ public class ImportControllerImpl implements ImportController {
             } catch (IOException ex) {
                 //NOOP
             }
+            if (processor != null) {
+                //Elements may already be in the workspace, complete the processing or remove them
+                try {
+                    if (success) {
+                        container.closeLoader();
+                        processor.process();
+                    } else {
+                        processor.rollback();
+                        container.dispose();
+                    }
+                } catch (RuntimeException ex) {
+                    //Keep the import failure as the cause
+                    if (failure == null) {
+                        throw ex;
+                    }
+                    failure.addSuppressed(ex);
+                }
+            }
         }
         return null;
     }
@@ -229,9 +313,14 @@ public class ImportControllerImpl implements ImportController {
     }
 
     public Container importFile(InputStream stream, FileImporter importer, File file) {
+        return importFile(stream, importer, file, null, null);
+    }
+
+    private Container importFile(InputStream stream, FileImporter importer, File file, StreamingProcessor processor,
+                                 Workspace workspace) {
         try {
             Reader reader = ImportUtils.getTextReader(stream);
-            return importFile(reader, importer, file);
+            return importFile(reader, importer, file, processor, workspace);
         } catch (Exception ex) {
             throw new RuntimeException(ex);
         } finally {
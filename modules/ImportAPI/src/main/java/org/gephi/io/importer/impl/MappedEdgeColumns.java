@@ -0,0 +1,204 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.importer.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Edge columns stored in a memory-mapped temporary file, so they don't use heap memory. Each edge is a fixed-size
+ * record and the file is mapped in segments as it grows. Pages are written back by the operating system under memory
+ * pressure.
+ * <p>
+ * The file is closed and deleted by {@link #close()}. The mappings themselves are only released once they are garbage
+ * collected.
+ */
+class MappedEdgeColumns implements EdgeColumns {
+
+    private static final int RECORD_SIZE = 32;
+    private static final int SOURCE_OFFSET = 0;
+    private static final int TARGET_OFFSET = 4;
+    private static final int WEIGHT_OFFSET = 8;
+    private static final int TYPE_OFFSET = 16;
+    private static final int ID_OFFSET = 20;
+    private static final int DIRECTION_OFFSET = 24;
+    private static final int SEGMENT_RECORDS = 1 << 21;
+    private static final long SEGMENT_SIZE = (long) SEGMENT_RECORDS * RECORD_SIZE;
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private int size;
+
+    MappedEdgeColumns() {
+        try {
+            file = File.createTempFile("gephi-import-edges", ".bin");
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            channel = randomAccessFile.getChannel();
+            //The mappings stay valid after the file is deleted on systems that allow it
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void add(int source, int target, double weight, int type, byte direction, int id) {
+        int index = size;
+        int segment = index / SEGMENT_RECORDS;
+        if (segment == segments.length) {
+            map(segment);
+        }
+        MappedByteBuffer buffer = segments[segment];
+        int offset = (index % SEGMENT_RECORDS) * RECORD_SIZE;
+        buffer.putInt(offset + SOURCE_OFFSET, source);
+        buffer.putInt(offset + TARGET_OFFSET, target);
+        buffer.putDouble(offset + WEIGHT_OFFSET, weight);
+        buffer.putInt(offset + TYPE_OFFSET, type);
+        buffer.putInt(offset + ID_OFFSET, id);
+        buffer.put(offset + DIRECTION_OFFSET, direction);
+        size++;
+    }
+
+    private void map(int segment) {
+        try {
+            segments = Arrays.copyOf(segments, segment + 1);
+            segments[segment] = channel.map(FileChannel.MapMode.READ_WRITE, segment * SEGMENT_SIZE, SEGMENT_SIZE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getSource(int index) {
+        return getInt(index, SOURCE_OFFSET);
+    }
+
+    @Override
+    public int getTarget(int index) {
+        return getInt(index, TARGET_OFFSET);
+    }
+
+    @Override
+    public double getWeight(int index) {
+        checkIndex(index);
+        return segments[index / SEGMENT_RECORDS].getDouble((index % SEGMENT_RECORDS) * RECORD_SIZE + WEIGHT_OFFSET);
+    }
+
+    @Override
+    public int getType(int index) {
+        return getInt(index, TYPE_OFFSET);
+    }
+
+    @Override
+    public byte getDirection(int index) {
+        checkIndex(index);
+        return segments[index / SEGMENT_RECORDS].get((index % SEGMENT_RECORDS) * RECORD_SIZE + DIRECTION_OFFSET);
+    }
+
+    @Override
+    public int getId(int index) {
+        return getInt(index, ID_OFFSET);
+    }
+
+    @Override
+    public void set(int index, int source, int target, double weight, int type, byte direction) {
+        checkIndex(index);
+        MappedByteBuffer buffer = segments[index / SEGMENT_RECORDS];
+        int offset = (index % SEGMENT_RECORDS) * RECORD_SIZE;
+        buffer.putInt(offset + SOURCE_OFFSET, source);
+        buffer.putInt(offset + TARGET_OFFSET, target);
+        buffer.putDouble(offset + WEIGHT_OFFSET, weight);
+        buffer.putInt(offset + TYPE_OFFSET, type);
+        buffer.put(offset + DIRECTION_OFFSET, direction);
+    }
+
+    @Override
+    public void remove(int index) {
+        checkIndex(index);
+        segments[index / SEGMENT_RECORDS].putInt((index % SEGMENT_RECORDS) * RECORD_SIZE + SOURCE_OFFSET, -1);
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public void close() {
+        size = 0;
+        segments = new MappedByteBuffer[0];
+        try {
+            channel.close();
+            randomAccessFile.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            if (file.exists() && !file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    private int getInt(int index, int field) {
+        checkIndex(index);
+        return segments[index / SEGMENT_RECORDS].getInt((index % SEGMENT_RECORDS) * RECORD_SIZE + field);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.processor.spi;
+
+import java.util.List;
+import org.gephi.io.importer.api.ContainerLoader;
+import org.gephi.io.importer.api.ContainerUnloader;
+import org.gephi.io.importer.api.EdgeDraft;
+import org.gephi.io.importer.api.ImportController;
+import org.gephi.io.importer.api.NodeDraft;
+
+/**
+ * Processor that can receive the container content in batches, while the
+ * importer is still running.
+ * <p>
+ * When a streaming processor is set on a container, the {@link ContainerLoader}
+ * regularly hands over the nodes and edges it received to {@link #flush}, so
+ * the destination workspace fills progressively and the drafts can be released
+ * early. Once the importer is done, the remaining elements are flushed and
+ * {@link #process()} is called to complete the import. If the importer fails
+ * or is cancelled, {@link #rollback()} is called instead.
+ * <p>
+ * Whole-graph operations done by the container when closing the loader, like
+ * merging mutual edges or sorting nodes by size, don't apply to elements that
+ * were already flushed.
+ *
+ * @see ImportController
+ */
+public interface StreamingProcessor extends Processor {
+
+    /**
+     * Pushes a batch of elements to the workspace. Edges are only given once
+     * both their nodes have been flushed.
+     *
+     * @param container the container the elements come from
+     * @param nodes     nodes to add to the workspace
+     * @param edges     edges to add to the workspace
+     */
+    void flush(ContainerUnloader container, List<NodeDraft> nodes, List<EdgeDraft> edges);
+
+    /**
+     * Removes the elements already flushed from the workspace, when the import
+     * failed or was cancelled. Called instead of {@link #process()}.
+     * <p>
+     * The default implementation does nothing.
+     */
+    default void rollback() {
+    }
+}
@@ -0,0 +1,91 @@
+package org.gephi.io.importer.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+public class ImportUtilsTest {
+
+    private static final String CONTENT = "source;target\n1;2\n2;3\n";
+
+    @Test
+    public void testCompressedFileExtension() throws IOException {
+        FileObject root = FileUtil.createMemoryFileSystem().getRoot();
+        Assert.assertEquals("csv", ImportUtils.getCompressedFileExtension(root.createData("edges.csv.gz")));
+        Assert.assertEquals("gexf", ImportUtils.getCompressedFileExtension(root.createData("graph.gexf.tar.bz2")));
+        Assert.assertEquals("", ImportUtils.getCompressedFileExtension(root.createData("edges.gz")));
+        Assert.assertTrue(ImportUtils.isCompressedFile(root.createData("graph.gml.bz2")));
+        Assert.assertFalse(ImportUtils.isCompressedFile(root.createData("graph.gml")));
+    }
+
+    @Test
+    public void testGzipStream() throws IOException {
+        FileObject file = FileUtil.createMemoryFileSystem().getRoot().createData("edges.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(file.getOutputStream())) {
+            out.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+        Assert.assertEquals(CONTENT, read(ImportUtils.getDecompressedInputStream(file)));
+        Assert.assertEquals(CONTENT, read(ImportUtils.getDecompressedInputStream(file, false)));
+    }
+
+    @Test
+    public void testTarBzipStream() throws IOException {
+        FileObject file = FileUtil.createMemoryFileSystem().getRoot().createData("edges.csv.tar.bz2");
+        byte[] bytes = CONTENT.getBytes(StandardCharsets.UTF_8);
+        try (TarArchiveOutputStream out = new TarArchiveOutputStream(
+            new BZip2CompressorOutputStream(file.getOutputStream()))) {
+            TarArchiveEntry entry = new TarArchiveEntry("edges.csv");
+            entry.setSize(bytes.length);
+            out.putArchiveEntry(entry);
+            out.write(bytes);
+            out.closeArchiveEntry();
+        }
+        Assert.assertEquals(CONTENT, read(ImportUtils.getDecompressedInputStream(file)));
+    }
+
+    @Test(timeout = 10000)
+    public void testReadAheadError() throws IOException {
+        InputStream source = new InputStream() {
+            private int count;
+
+            @Override
+            public int read() {
+                if (++count > 4) {
+                    throw new OutOfMemoryError();
+                }
+                return 'a';
+            }
+        };
+        try (InputStream in = new ReadAheadInputStream(source, 2, 1)) {
+            byte[] buffer = new byte[2];
+            Assert.assertEquals(2, in.read(buffer));
+            Assert.assertEquals(2, in.read(buffer));
+            in.read(buffer);
+            Assert.fail("The error should be forwarded");
+        } catch (OutOfMemoryError e) {
+            //Expected
+        }
+    }
+
+    private static String read(InputStream stream) throws IOException {
+        try (InputStream in = stream) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[3];
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                out.write(buffer, 0, len);
+            }
+            return out.toString(StandardCharsets.UTF_8.name());
+        }
+    }
+}
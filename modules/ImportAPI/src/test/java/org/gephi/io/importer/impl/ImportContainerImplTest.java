@@ -42,13 +42,25 @@
 
 package org.gephi.io.importer.impl;
 
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import org.gephi.graph.api.TimeRepresentation;
 import org.gephi.graph.api.types.TimestampStringMap;
 import org.gephi.io.importer.api.ColumnDraft;
+import org.gephi.io.importer.api.ContainerUnloader;
 import org.gephi.io.importer.api.EdgeDirection;
 import org.gephi.io.importer.api.EdgeDirectionDefault;
 import org.gephi.io.importer.api.EdgeDraft;
 import org.gephi.io.importer.api.NodeDraft;
+import org.gephi.io.importer.api.Report;
+import org.gephi.io.processor.spi.StreamingProcessor;
+import org.gephi.project.api.Workspace;
+import org.gephi.utils.progress.ProgressTicket;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -122,8 +134,263 @@ public class ImportContainerImplTest {
         Assert.assertEquals(1, importContainer.getUnloader().getEdgeCount());
     }
 
+    @Test
+    public void testColumnarEdges() {
+        ImportContainerImpl importContainer = new ImportContainerImpl();
+        importContainer.setColumnarEdges(true);
+        generateTinyGraph(importContainer);
+
+        EdgeDraft labeled = importContainer.factory().newEdgeDraft("foo");
+        labeled.setSource(importContainer.getNode("1"));
+        labeled.setTarget(importContainer.getNode("1"));
+        labeled.setLabel("bar");
+        importContainer.addEdge(labeled);
+
+        Assert.assertTrue(importContainer.edgeExists("1"));
+        Assert.assertTrue(importContainer.edgeExists("2", "1"));
+        Assert.assertEquals(3, importContainer.getEdgeCount());
+        Assert.assertEquals("bar", importContainer.getEdge("foo").getLabel());
+
+        importContainer.getEdge("2").setWeight(5.0);
+        Assert.assertEquals(5.0, importContainer.getEdge("2").getWeight(), 0.0);
+
+        importContainer.removeEdge(importContainer.getEdge("1"));
+        Assert.assertTrue(importContainer.verify());
+        Assert.assertEquals(2, importContainer.getUnloader().getEdgeCount());
+
+        int count = 0;
+        for (EdgeDraft edge : importContainer.getUnloader().getEdges()) {
+            Assert.assertNotEquals("1", edge.getId());
+            count++;
+        }
+        Assert.assertEquals(2, count);
+    }
+
+    @Test
+    public void testColumnarEdgeIdMapEntries() {
+        ColumnarEdgeIdMap map = new ColumnarEdgeIdMap();
+        map.defaultReturnValue(-1);
+        map.put("12", 0);
+        map.put("foo", 1);
+        map.put("007", 2);
+
+        Map<String, Integer> entries = new HashMap<>();
+        for (Object2IntMap.Entry<String> entry : map.object2IntEntrySet()) {
+            entries.put(entry.getKey(), entry.getIntValue());
+        }
+        Assert.assertEquals(3, entries.size());
+        Assert.assertEquals(0, (int) entries.get("12"));
+        Assert.assertEquals(1, (int) entries.get("foo"));
+        Assert.assertEquals(2, (int) entries.get("007"));
+
+        Iterator<Object2IntMap.Entry<String>> itr = map.object2IntEntrySet().iterator();
+        while (itr.hasNext()) {
+            if (itr.next().getKey().equals("12")) {
+                itr.remove();
+            }
+        }
+        Assert.assertFalse(map.containsKey("12"));
+        Assert.assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testSpilledColumnarEdges() {
+        ImportContainerImpl importContainer = new ImportContainerImpl();
+        NodeDraftImpl node1 = (NodeDraftImpl) importContainer.factory().newNodeDraft("1");
+        NodeDraftImpl node2 = (NodeDraftImpl) importContainer.factory().newNodeDraft("2");
+        importContainer.addNode(node1);
+        importContainer.addNode(node2);
+
+        ColumnarEdgeList edges = new ColumnarEdgeList(importContainer, 2);
+        for (int i = 0; i < 5; i++) {
+            EdgeDraftImpl edge = new EdgeDraftImpl(importContainer, String.valueOf(i));
+            edge.setSource(i % 2 == 0 ? node1 : node2);
+            edge.setTarget(i % 2 == 0 ? node2 : node1);
+            edge.setWeight(i);
+            edges.add(edge);
+        }
+        Assert.assertTrue(edges.isSpilled());
+        Assert.assertEquals(5, edges.size());
+
+        for (int i = 0; i < 5; i++) {
+            EdgeDraftImpl edge = edges.get(i);
+            Assert.assertEquals(String.valueOf(i), edge.getId());
+            Assert.assertSame(i % 2 == 0 ? node1 : node2, edge.getSource());
+            Assert.assertEquals(i, edge.getWeight(), 0.0);
+        }
+
+        edges.set(3, null);
+        Assert.assertNull(edges.get(3));
+
+        edges.clear();
+        Assert.assertFalse(edges.isSpilled());
+        Assert.assertEquals(0, edges.size());
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testClosedMappedEdgeColumns() {
+        MappedEdgeColumns columns = new MappedEdgeColumns();
+        columns.add(0, 1, 1.0, 0, (byte) 0, 0);
+        columns.close();
+        Assert.assertEquals(0, columns.size());
+
+        //The file channel is closed, so a segment can't be mapped anymore
+        columns.add(0, 1, 1.0, 0, (byte) 0, 0);
+    }
+
+    @Test
+    public void testStreaming() {
+        ImportContainerImpl importContainer = new ImportContainerImpl();
+        RecordingProcessor processor = new RecordingProcessor();
+        importContainer.setStreamingProcessor(processor, 2);
+
+        NodeDraft previous = null;
+        for (int i = 0; i < 10; i++) {
+            NodeDraft node = importContainer.factory().newNodeDraft(String.valueOf(i));
+            importContainer.addNode(node);
+            if (previous != null) {
+                EdgeDraft edge = importContainer.factory().newEdgeDraft(String.valueOf(i));
+                edge.setSource(previous);
+                edge.setTarget(node);
+                importContainer.addEdge(edge);
+            }
+            previous = node;
+        }
+
+        //Auto-created node, in the most recent batch kept back
+        EdgeDraft edge = importContainer.factory().newEdgeDraft("auto");
+        edge.setSource(importContainer.getNode("0"));
+        edge.setTarget(importContainer.getNode("foo"));
+        importContainer.addEdge(edge);
+
+        Assert.assertFalse(processor.nodes.isEmpty());
+        Assert.assertFalse(processor.nodes.contains("foo"));
+        Assert.assertTrue(processor.nodes.size() < 11);
+
+        importContainer.closeLoader();
+
+        Assert.assertEquals(11, processor.nodes.size());
+        Assert.assertEquals(10, processor.edges.size());
+        Assert.assertEquals(10, importContainer.getEdgeCount());
+        Assert.assertFalse(importContainer.getEdges().iterator().hasNext());
+        Assert.assertEquals("foo", importContainer.getNode("foo").getLabel());
+    }
+
+    @Test
+    public void testStreamingSelfLoops() {
+        ImportContainerImpl importContainer = new ImportContainerImpl();
+        RecordingProcessor processor = new RecordingProcessor();
+        importContainer.setStreamingProcessor(processor, 10);
+        generateTinyGraph(importContainer);
+        EdgeDraft selfLoop = importContainer.factory().newEdgeDraft("loop");
+        selfLoop.setSource(importContainer.getNode("1"));
+        selfLoop.setTarget(importContainer.getNode("1"));
+        importContainer.addEdge(selfLoop);
+
+        importContainer.setAllowSelfLoop(false);
+        importContainer.closeLoader();
+
+        Assert.assertEquals(2, processor.nodes.size());
+        Assert.assertEquals(2, processor.edges.size());
+        Assert.assertFalse(processor.edges.contains("loop"));
+        Assert.assertFalse(importContainer.hasSelfLoops());
+    }
+
+    @Test
+    public void testStreamingAutoNodes() {
+        ImportContainerImpl importContainer = new ImportContainerImpl();
+        RecordingProcessor processor = new RecordingProcessor();
+        importContainer.setStreamingProcessor(processor, 2);
+
+        for (int i = 0; i < 5; i++) {
+            importContainer.addNode(importContainer.factory().newNodeDraft(String.valueOf(i)));
+        }
+        EdgeDraft edge = importContainer.factory().newEdgeDraft("auto");
+        edge.setSource(importContainer.getNode("0"));
+        edge.setTarget(importContainer.getNode("foo"));
+        importContainer.addEdge(edge);
+        edge = importContainer.factory().newEdgeDraft("declared");
+        edge.setSource(importContainer.getNode("1"));
+        edge.setTarget(importContainer.getNode("2"));
+        importContainer.addEdge(edge);
+
+        importContainer.setAllowAutoNode(false);
+        importContainer.closeLoader();
+
+        Assert.assertEquals(5, processor.nodes.size());
+        Assert.assertFalse(processor.nodes.contains("foo"));
+        Assert.assertEquals(1, processor.edges.size());
+        Assert.assertEquals("declared", processor.edges.get(0));
+    }
+
+    @Test
+    public void testStreamingEdgeList() {
+        ImportContainerImpl importContainer = new ImportContainerImpl();
+        RecordingProcessor processor = new RecordingProcessor();
+        importContainer.setStreamingProcessor(processor, 2);
+
+        //Only auto-created nodes, as with edge list formats
+        for (int i = 0; i < 20; i++) {
+            EdgeDraft edge = importContainer.factory().newEdgeDraft(String.valueOf(i));
+            edge.setSource(importContainer.getNode(String.valueOf(i)));
+            edge.setTarget(importContainer.getNode(String.valueOf(i + 1)));
+            importContainer.addEdge(edge);
+        }
+        Assert.assertTrue(processor.nodes.size() >= 15);
+        Assert.assertTrue(processor.edges.size() >= 14);
+
+        importContainer.closeLoader();
+        Assert.assertEquals(21, processor.nodes.size());
+        Assert.assertEquals(20, processor.edges.size());
+    }
+
     // Utility
 
+    private static class RecordingProcessor implements StreamingProcessor {
+
+        private final List<String> nodes = new ArrayList<>();
+        private final List<String> edges = new ArrayList<>();
+
+        @Override
+        public void flush(ContainerUnloader container, List<NodeDraft> nodes, List<EdgeDraft> edges) {
+            for (NodeDraft node : nodes) {
+                Assert.assertFalse(this.nodes.contains(node.getId()));
+                this.nodes.add(node.getId());
+            }
+            for (EdgeDraft edge : edges) {
+                Assert.assertTrue(this.nodes.contains(edge.getSource().getId()));
+                Assert.assertTrue(this.nodes.contains(edge.getTarget().getId()));
+                this.edges.add(edge.getId());
+            }
+        }
+
+        @Override
+        public void process() {
+        }
+
+        @Override
+        public void setContainers(ContainerUnloader[] containers) {
+        }
+
+        @Override
+        public void setWorkspace(Workspace workspace) {
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "Recording";
+        }
+
+        @Override
+        public void setProgressTicket(ProgressTicket progressTicket) {
+        }
+
+        @Override
+        public Report getReport() {
+            return null;
+        }
+    }
+
     private void generateTinyUndirectedGraph(ImportContainerImpl container) {
         NodeDraft node1 = container.factory().newNodeDraft("1");
         NodeDraft node2 = container.factory().newNodeDraft("2");
@@ -1,6 +1,5 @@
 package org.gephi.io.importer.plugin.database;
 
-import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import org.gephi.io.importer.api.EdgeDraft;
@@ -22,9 +21,8 @@ class EdgeColumns {
         return result;
     }
 
-    EdgeDraft getEdgeDraft(final ElementDraft.Factory factory, final ResultSet rs, final int idColumn)
-        throws SQLException {
-        String id = getIdValue(rs, idColumn);
+    EdgeDraft getEdgeDraft(final ElementDraft.Factory factory, final Object[] row, final int idColumn) {
+        String id = getIdValue(row, idColumn);
 
         final EdgeDraft edge;
         if (id == null) {
@@ -35,12 +33,12 @@ class EdgeColumns {
         return edge;
     }
 
-    private String getIdValue(final ResultSet rs, final int idColumn) throws SQLException {
+    private String getIdValue(final Object[] row, final int idColumn) {
         if (idColumn == -1) {
             return null;
         }
 
-        return rs.getString(idColumn);
+        return (String) row[idColumn - 1];
     }
 
 }
@@ -0,0 +1,273 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.importer.plugin.database;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.gephi.io.database.drivers.MySQLDriver;
+import org.gephi.io.database.drivers.SQLDriver;
+import org.gephi.io.database.drivers.SQLUtils;
+import org.gephi.io.importer.api.Database;
+
+/**
+ * Executes a node or edge query as a forward-only stream of rows.
+ * <p>
+ * When a fetch size is set, drivers are asked to fetch rows in batches instead of buffering the whole result set.
+ * The query can also be split in partitions on an integer column (<code>ABS(column % count) = partition</code>),
+ * each partition being fetched by its own thread and connection. Rows are read into value arrays and handed to
+ * the caller on its own thread, as the import container isn't thread-safe.
+ */
+class EdgeListQuery implements AutoCloseable {
+
+    private static final int BATCH_SIZE = 1024;
+    private static final List<Object[]> END = new ArrayList<>();
+
+    private final Database database;
+    private final int fetchSize;
+    private final List<Connection> connections = new ArrayList<>();
+    private final List<Statement> statements = new ArrayList<>();
+    private final List<ResultSet> resultSets = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private BlockingQueue<List<Object[]>> queue;
+    private ColumnReader[] readers;
+    private volatile boolean closed;
+    private volatile SQLException failure;
+
+    EdgeListQuery(Database database, int fetchSize) {
+        this.database = database;
+        this.fetchSize = fetchSize;
+    }
+
+    void execute(Connection connection, String query, String partitionColumn, int partitionCount)
+        throws SQLException {
+        if (partitionColumn == null || partitionColumn.isEmpty() || partitionCount <= 1) {
+            resultSets.add(executeQuery(connection, query));
+            return;
+        }
+
+        SQLDriver driver = database.getSQLDriver();
+        String url = SQLUtils.getUrl(driver, database.getHost(), database.getPort(), database.getDBName());
+        for (int i = 0; i < partitionCount; i++) {
+            Connection partitionConnection = connection;
+            if (i > 0) {
+                partitionConnection = driver.getConnection(url, database.getUsername(), database.getPasswd());
+                connections.add(partitionConnection);
+            }
+            String partitionQuery = "SELECT * FROM (" + query + ") gephi_partition WHERE ABS(" + partitionColumn
+                + " % " + partitionCount + ") = " + i;
+            resultSets.add(executeQuery(partitionConnection, partitionQuery));
+        }
+    }
+
+    ResultSetMetaData getMetaData() throws SQLException {
+        return resultSets.get(0).getMetaData();
+    }
+
+    void setReaders(ColumnReader[] readers) {
+        this.readers = readers;
+    }
+
+    /**
+     * Reads all rows and passes them to <code>handler</code> until it returns <code>false</code>. The row array
+     * passed to the handler can be reused for the following rows.
+     */
+    void forEach(RowHandler handler) throws SQLException {
+        if (resultSets.size() == 1) {
+            ResultSet rs = resultSets.get(0);
+            Object[] row = new Object[readers.length];
+            while (rs.next()) {
+                readRow(rs, row);
+                if (!handler.handle(row)) {
+                    return;
+                }
+            }
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(resultSets.size() * 4);
+        for (int i = 0; i < resultSets.size(); i++) {
+            final ResultSet rs = resultSets.get(i);
+            Thread worker = new Thread(() -> fetch(rs), "Edge List Query " + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+
+        int running = workers.size();
+        try {
+            while (running > 0) {
+                List<Object[]> batch = queue.take();
+                if (batch == END) {
+                    running--;
+                    continue;
+                }
+                for (Object[] row : batch) {
+                    if (!handler.handle(row)) {
+                        return;
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void fetch(ResultSet rs) {
+        try {
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            while (!closed && rs.next()) {
+                Object[] row = new Object[readers.length];
+                readRow(rs, row);
+                batch.add(row);
+                if (batch.size() == BATCH_SIZE) {
+                    put(batch);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                put(batch);
+            }
+        } catch (SQLException ex) {
+            if (failure == null) {
+                failure = ex;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                put(END);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void put(List<Object[]> batch) throws InterruptedException {
+        while (!closed) {
+            if (queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+    }
+
+    private void readRow(ResultSet rs, Object[] row) throws SQLException {
+        for (int i = 0; i < readers.length; i++) {
+            row[i] = readers[i].read(rs, i + 1);
+        }
+    }
+
+    private Statement createStatement(Connection connection) throws SQLException {
+        if (fetchSize <= 0) {
+            return connection.createStatement();
+        }
+        Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        if (database.getSQLDriver() instanceof MySQLDriver) {
+            //MySQL Connector/J only streams rows with this fetch size
+            statement.setFetchSize(Integer.MIN_VALUE);
+        } else {
+            //PostgreSQL only fetches with a cursor outside of auto-commit
+            if (connection.getAutoCommit()) {
+                connection.setAutoCommit(false);
+            }
+            statement.setFetchSize(fetchSize);
+        }
+        return statement;
+    }
+
+    private ResultSet executeQuery(Connection connection, String query) throws SQLException {
+        Statement statement = createStatement(connection);
+        statements.add(statement);
+        return statement.executeQuery(query);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (queue != null) {
+            queue.clear();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (ResultSet rs : resultSets) {
+            try {
+                rs.close();
+            } catch (SQLException e) { /* ignore close errors */ }
+        }
+        for (Statement statement : statements) {
+            try {
+                statement.close();
+            } catch (SQLException e) { /* ignore close errors */ }
+        }
+        for (Connection connection : connections) {
+            try {
+                connection.close();
+            } catch (SQLException e) { /* ignore close errors */ }
+        }
+    }
+
+    interface ColumnReader {
+
+        Object read(ResultSet rs, int column) throws SQLException;
+    }
+
+    interface RowHandler {
+
+        boolean handle(Object[] row) throws SQLException;
+    }
+}
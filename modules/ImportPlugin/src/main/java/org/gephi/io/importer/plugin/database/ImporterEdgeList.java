@@ -43,13 +43,9 @@
 package org.gephi.io.importer.plugin.database;
 
 import java.sql.Connection;
-import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.sql.Time;
-import java.sql.Timestamp;
 import java.sql.Types;
 import org.gephi.graph.api.TimeFormat;
 import org.gephi.io.database.drivers.SQLUtils;
@@ -65,12 +61,17 @@ import org.gephi.io.importer.api.PropertiesAssociations.EdgeProperties;
 import org.gephi.io.importer.api.PropertiesAssociations.NodeProperties;
 import org.gephi.io.importer.api.Report;
 import org.gephi.io.importer.spi.DatabaseImporter;
+import org.gephi.utils.longtask.spi.LongTask;
+import org.gephi.utils.progress.Progress;
+import org.gephi.utils.progress.ProgressTicket;
 
 /**
  * @author Mathieu Bastian
  */
-public class ImporterEdgeList implements DatabaseImporter {
+public class ImporterEdgeList implements DatabaseImporter, LongTask {
 
+    public static final int DEFAULT_FETCH_SIZE = 10000;
+    private static final int PROGRESS_INTERVAL = 10000;
     private Report report;
     private EdgeListDatabaseImpl database;
     private ContainerLoader container;
@@ -81,6 +82,15 @@ public class ImporterEdgeList implements DatabaseImporter {
 
     private final NodeColumns nodeColumns = new NodeColumns();
     private final EdgeColumns edgeColumns = new EdgeColumns();
+    //Settings
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private String partitionColumn;
+    private int partitionCount = 1;
+    //Progress
+    private ProgressTicket progressTicket;
+    private volatile boolean cancel = false;
+    private long rowCount;
+    private long startTime;
 
     @Override
     public boolean execute(ContainerLoader container) {
@@ -128,10 +138,12 @@ public class ImporterEdgeList implements DatabaseImporter {
         }
 
         report.log(database.getPropertiesAssociations().getInfos());
+        Progress.start(progressTicket);
         getNodes(connection);
         getEdges(connection);
         getNodesAttributes(connection);
         getEdgesAttributes(connection);
+        Progress.finish(progressTicket);
     }
 
     private void getNodes(Connection connection) throws SQLException {
@@ -142,40 +154,62 @@ public class ImporterEdgeList implements DatabaseImporter {
         //Properties
         PropertiesAssociations properties = database.getPropertiesAssociations();
 
-        Statement s = connection.createStatement();
-        ResultSet rs = null;
-        try {
-            rs = s.executeQuery(database.getNodeQuery());
-        } catch (SQLException ex) {
-            report.logIssue(new Issue("Failed to execute Node query", Issue.Level.SEVERE, ex));
-            return;
-        }
-
-        findNodeAttributesColumns(rs);
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnsCount = metaData.getColumnCount();
-
-        int idColumn = nodeColumns.findIdIndex(metaData, properties);
+        try (EdgeListQuery query = new EdgeListQuery(database, fetchSize)) {
+            try {
+                query.execute(connection, database.getNodeQuery(), partitionColumn, partitionCount);
+            } catch (SQLException ex) {
+                report.logIssue(new Issue("Failed to execute Node query", Issue.Level.SEVERE, ex));
+                return;
+            }
 
-        while (rs.next()) {
-            final NodeDraft node = nodeColumns.getNodeDraft(factory, rs, idColumn);
+            ResultSetMetaData metaData = query.getMetaData();
+            findNodeAttributesColumns(metaData);
+            int columnsCount = metaData.getColumnCount();
 
+            //Map columns once
+            final NodeProperties[] columnProperties = new NodeProperties[columnsCount];
+            final ColumnDraft[] columnDrafts = new ColumnDraft[columnsCount];
+            final TimeFormat[] timeFormats = new TimeFormat[columnsCount];
+            EdgeListQuery.ColumnReader[] readers = new EdgeListQuery.ColumnReader[columnsCount];
             for (int i = 0; i < columnsCount; i++) {
                 String columnName = metaData.getColumnLabel(i + 1);
                 NodeProperties p = properties.getNodeProperty(columnName);
-                if (p != null) {
-                    injectNodeProperty(p, rs, i + 1, node);
+                columnProperties[i] = p;
+                timeFormats[i] = getTimeFormat(metaData, i + 1);
+                if (p == null) {
+                    columnDrafts[i] = container.getNodeColumn(columnName);
+                    readers[i] = getAttributeReader(columnDrafts[i].getTypeClass());
+                } else if (p == NodeProperties.START) {
+                    readers[i] = getDateReader(metaData.getColumnType(i + 1));
+                } else if (p == NodeProperties.X || p == NodeProperties.Y || p == NodeProperties.Z
+                    || p == NodeProperties.SIZE) {
+                    readers[i] = ResultSet::getFloat;
                 } else {
-                    //Inject node attributes
-                    ColumnDraft col = container.getNodeColumn(columnName);
-                    injectElementAttribute(rs, i + 1, col, node);
+                    readers[i] = ResultSet::getString;
                 }
             }
-            injectTimeIntervalProperty(node);
-            container.addNode(node);
+            query.setReaders(readers);
+
+            final int idColumn = nodeColumns.findIdIndex(metaData, properties);
+
+            startRows();
+            query.forEach(row -> {
+                NodeDraft node = nodeColumns.getNodeDraft(factory, row, idColumn);
+                for (int i = 0; i < row.length; i++) {
+                    NodeProperties p = columnProperties[i];
+                    if (p != null) {
+                        injectNodeProperty(p, row[i], timeFormats[i], node);
+                    } else {
+                        //Inject node attributes
+                        injectElementAttribute(row[i], columnDrafts[i], node);
+                    }
+                }
+                injectTimeIntervalProperty(node);
+                container.addNode(node);
+                return progressRows("Nodes");
+            });
+            finishRows("node");
         }
-        rs.close();
-        s.close();
     }
 
     private void getEdges(Connection connection) throws SQLException {
@@ -186,39 +220,84 @@ public class ImporterEdgeList implements DatabaseImporter {
         //Properties
         PropertiesAssociations properties = database.getPropertiesAssociations();
 
-        Statement s = connection.createStatement();
-        ResultSet rs = null;
-        try {
-            rs = s.executeQuery(database.getEdgeQuery());
-        } catch (SQLException ex) {
-            report.logIssue(new Issue("Failed to execute Edge query", Issue.Level.SEVERE, ex));
-            return;
-        }
-        findEdgeAttributesColumns(rs);
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnsCount = metaData.getColumnCount();
-
-        int idColumn = edgeColumns.findIdIndex(metaData, properties);
+        try (EdgeListQuery query = new EdgeListQuery(database, fetchSize)) {
+            try {
+                query.execute(connection, database.getEdgeQuery(), partitionColumn, partitionCount);
+            } catch (SQLException ex) {
+                report.logIssue(new Issue("Failed to execute Edge query", Issue.Level.SEVERE, ex));
+                return;
+            }
 
-        while (rs.next()) {
-            EdgeDraft edge = edgeColumns.getEdgeDraft(factory, rs, idColumn);
+            ResultSetMetaData metaData = query.getMetaData();
+            findEdgeAttributesColumns(metaData);
+            int columnsCount = metaData.getColumnCount();
 
+            //Map columns once
+            final EdgeProperties[] columnProperties = new EdgeProperties[columnsCount];
+            final ColumnDraft[] columnDrafts = new ColumnDraft[columnsCount];
+            final TimeFormat[] timeFormats = new TimeFormat[columnsCount];
+            EdgeListQuery.ColumnReader[] readers = new EdgeListQuery.ColumnReader[columnsCount];
             for (int i = 0; i < columnsCount; i++) {
                 String columnName = metaData.getColumnLabel(i + 1);
                 EdgeProperties p = properties.getEdgeProperty(columnName);
-                if (p != null) {
-                    injectEdgeProperty(p, rs, i + 1, edge);
+                columnProperties[i] = p;
+                timeFormats[i] = getTimeFormat(metaData, i + 1);
+                if (p == null) {
+                    columnDrafts[i] = container.getEdgeColumn(columnName);
+                    readers[i] = getAttributeReader(columnDrafts[i].getTypeClass());
+                } else if (p == EdgeProperties.START) {
+                    readers[i] = getDateReader(metaData.getColumnType(i + 1));
+                } else if (p == EdgeProperties.WEIGHT) {
+                    readers[i] = ResultSet::getFloat;
                 } else {
-                    //Inject edge attributes
-                    ColumnDraft col = container.getEdgeColumn(columnName);
-                    injectElementAttribute(rs, i + 1, col, edge);
+                    readers[i] = ResultSet::getString;
                 }
             }
-            injectTimeIntervalProperty(edge);
-            container.addEdge(edge);
+            query.setReaders(readers);
+
+            final int idColumn = edgeColumns.findIdIndex(metaData, properties);
+
+            startRows();
+            query.forEach(row -> {
+                EdgeDraft edge = edgeColumns.getEdgeDraft(factory, row, idColumn);
+                for (int i = 0; i < row.length; i++) {
+                    EdgeProperties p = columnProperties[i];
+                    if (p != null) {
+                        injectEdgeProperty(p, row[i], timeFormats[i], edge);
+                    } else {
+                        //Inject edge attributes
+                        injectElementAttribute(row[i], columnDrafts[i], edge);
+                    }
+                }
+                injectTimeIntervalProperty(edge);
+                container.addEdge(edge);
+                return progressRows("Edges");
+            });
+            finishRows("edge");
+        }
+    }
+
+    private void startRows() {
+        rowCount = 0;
+        startTime = System.currentTimeMillis();
+    }
+
+    private boolean progressRows(String elements) {
+        rowCount++;
+        if (rowCount % PROGRESS_INTERVAL == 0) {
+            Progress.progress(progressTicket, elements + ": " + rowCount + " rows (" + getRowsPerSecond() + " rows/s)");
         }
-        rs.close();
-        s.close();
+        return !cancel;
+    }
+
+    private void finishRows(String element) {
+        report.log("Read " + rowCount + " " + element + " rows in " + (System.currentTimeMillis() - startTime)
+            + " ms (" + getRowsPerSecond() + " rows/s)");
+    }
+
+    private long getRowsPerSecond() {
+        long elapsed = System.currentTimeMillis() - startTime;
+        return elapsed > 0 ? rowCount * 1000 / elapsed : rowCount;
     }
 
     private void getNodesAttributes(Connection connection) throws SQLException {
@@ -227,35 +306,34 @@ public class ImporterEdgeList implements DatabaseImporter {
     private void getEdgesAttributes(Connection connection) throws SQLException {
     }
 
-    private void injectNodeProperty(NodeProperties p, ResultSet rs, int column, NodeDraft nodeDraft)
-        throws SQLException {
+    private void injectNodeProperty(NodeProperties p, Object value, TimeFormat timeFormat, NodeDraft nodeDraft) {
         switch (p) {
             case LABEL:
-                String label = rs.getString(column);
+                String label = (String) value;
                 if (label != null) {
                     nodeDraft.setLabel(label);
                 }
                 break;
             case X:
-                float x = rs.getFloat(column);
+                float x = (Float) value;
                 if (x != 0) {
                     nodeDraft.setX(x);
                 }
                 break;
             case Y:
-                float y = rs.getFloat(column);
+                float y = (Float) value;
                 if (y != 0) {
                     nodeDraft.setY(y);
                 }
                 break;
             case Z:
-                float z = rs.getFloat(column);
+                float z = (Float) value;
                 if (z != 0) {
                     nodeDraft.setZ(z);
                 }
                 break;
             case COLOR:
-                String color = rs.getString(column);
+                String color = (String) value;
                 if (color != null) {
                     String[] rgb = color.replace(" ", "").split(",");
                     if (rgb.length == 3) {
@@ -266,35 +344,35 @@ public class ImporterEdgeList implements DatabaseImporter {
                 }
                 break;
             case SIZE:
-                float size = rs.getFloat(column);
+                float size = (Float) value;
                 if (size != 0) {
                     nodeDraft.setSize(size);
                 }
                 break;
             case START:
-                container.setTimeFormat(getTimeFormat(rs, column));
-                String start = getDateData(rs, column);
+                container.setTimeFormat(timeFormat);
+                String start = (String) value;
                 if (start != null) {
                     timeIntervalStart = start;
                 }
                 break;
             case START_OPEN:
-                container.setTimeFormat(getTimeFormat(rs, column));
-                String startOpen = rs.getString(column);
+                container.setTimeFormat(timeFormat);
+                String startOpen = (String) value;
                 if (startOpen != null) {
                     timeIntervalStart = startOpen;
                 }
                 break;
             case END:
-                container.setTimeFormat(getTimeFormat(rs, column));
-                String end = rs.getString(column);
+                container.setTimeFormat(timeFormat);
+                String end = (String) value;
                 if (end != null) {
                     timeIntervalEnd = end;
                 }
                 break;
             case END_OPEN:
-                container.setTimeFormat(getTimeFormat(rs, column));
-                String endOpen = rs.getString(column);
+                container.setTimeFormat(timeFormat);
+                String endOpen = (String) value;
                 if (endOpen != null) {
                     timeIntervalEnd = endOpen;
                 }
@@ -302,8 +380,7 @@ public class ImporterEdgeList implements DatabaseImporter {
         }
     }
 
-    private TimeFormat getTimeFormat(ResultSet rs, int column) throws SQLException {
-        ResultSetMetaData metaData = rs.getMetaData();
+    private TimeFormat getTimeFormat(ResultSetMetaData metaData, int column) throws SQLException {
         int type = metaData.getColumnType(column);
         switch (type) {
             case Types.DATE:
@@ -323,26 +400,26 @@ public class ImporterEdgeList implements DatabaseImporter {
         return TimeFormat.DOUBLE;
     }
 
-    private String getDateData(ResultSet rs, int column) throws SQLException {
-        String res = null;
-        ResultSetMetaData metaData = rs.getMetaData();
-        int type = metaData.getColumnType(column);
-        if (type == Types.DATE) {
-            Date date = rs.getDate(column);
-            res = date.toString();
-        } else if (type == Types.TIME) {
-            Time time = rs.getTime(column);
-            res = time.toString();
-        } else if (type == Types.TIMESTAMP) {
-            Timestamp timeStamp = rs.getTimestamp(column);
-            res = timeStamp.toString();
-        } else if (type == Types.VARCHAR) {
-            res = rs.getString(column);
-        } else if (type == Types.DOUBLE || type == Types.FLOAT) {
-            Double dbl = rs.getDouble(column);
-            res = dbl.toString();
+    private EdgeListQuery.ColumnReader getDateReader(int type) {
+        switch (type) {
+            case Types.DATE:
+                return (rs, column) -> toString(rs.getDate(column));
+            case Types.TIME:
+                return (rs, column) -> toString(rs.getTime(column));
+            case Types.TIMESTAMP:
+                return (rs, column) -> toString(rs.getTimestamp(column));
+            case Types.VARCHAR:
+                return ResultSet::getString;
+            case Types.DOUBLE:
+            case Types.FLOAT:
+                return (rs, column) -> Double.toString(rs.getDouble(column));
+            default:
+                return (rs, column) -> null;
         }
-        return res;
+    }
+
+    private static String toString(Object value) {
+        return value != null ? value.toString() : null;
     }
 
     private void injectTimeIntervalProperty(NodeDraft nodeDraft) {
@@ -355,37 +432,36 @@ public class ImporterEdgeList implements DatabaseImporter {
         timeIntervalEnd = null;
     }
 
-    private void injectEdgeProperty(EdgeProperties p, ResultSet rs, int column, EdgeDraft edgeDraft)
-        throws SQLException {
+    private void injectEdgeProperty(EdgeProperties p, Object value, TimeFormat timeFormat, EdgeDraft edgeDraft) {
         switch (p) {
             case LABEL:
-                String label = rs.getString(column);
+                String label = (String) value;
                 if (label != null) {
                     edgeDraft.setLabel(label);
                 }
                 break;
             case SOURCE:
-                String source = rs.getString(column);
+                String source = (String) value;
                 if (source != null && !source.isEmpty()) {
                     NodeDraft sourceNode = container.getNode(source);
                     edgeDraft.setSource(sourceNode);
                 }
                 break;
             case TARGET:
-                String target = rs.getString(column);
+                String target = (String) value;
                 if (target != null && !target.isEmpty()) {
                     NodeDraft targetNode = container.getNode(target);
                     edgeDraft.setTarget(targetNode);
                 }
                 break;
             case WEIGHT:
-                float weight = rs.getFloat(column);
+                float weight = (Float) value;
                 if (weight != 0) {
                     edgeDraft.setWeight(weight);
                 }
                 break;
             case COLOR:
-                String color = rs.getString(column);
+                String color = (String) value;
                 if (color != null) {
                     String[] rgb = color.split(",");
                     if (rgb.length == 3) {
@@ -396,29 +472,29 @@ public class ImporterEdgeList implements DatabaseImporter {
                 }
                 break;
             case START:
-                container.setTimeFormat(getTimeFormat(rs, column));
-                String start = getDateData(rs, column);
+                container.setTimeFormat(timeFormat);
+                String start = (String) value;
                 if (start != null) {
                     timeIntervalStart = start;
                 }
                 break;
             case START_OPEN:
-                container.setTimeFormat(getTimeFormat(rs, column));
-                String startOpen = rs.getString(column);
+                container.setTimeFormat(timeFormat);
+                String startOpen = (String) value;
                 if (startOpen != null) {
                     timeIntervalStart = startOpen;
                 }
                 break;
             case END:
-                container.setTimeFormat(getTimeFormat(rs, column));
-                String end = rs.getString(column);
+                container.setTimeFormat(timeFormat);
+                String end = (String) value;
                 if (end != null) {
                     timeIntervalEnd = end;
                 }
                 break;
             case END_OPEN:
-                container.setTimeFormat(getTimeFormat(rs, column));
-                String endOpen = rs.getString(column);
+                container.setTimeFormat(timeFormat);
+                String endOpen = (String) value;
                 if (endOpen != null) {
                     timeIntervalEnd = endOpen;
                 }
@@ -436,97 +512,75 @@ public class ImporterEdgeList implements DatabaseImporter {
         timeIntervalEnd = null;
     }
 
-    private void injectElementAttribute(ResultSet rs, int columnIndex, ColumnDraft column, ElementDraft draft) {
+    private EdgeListQuery.ColumnReader getAttributeReader(Class typeClass) {
+        final EdgeListQuery.ColumnReader reader;
+        if (typeClass.equals(Boolean.class)) {
+            reader = ResultSet::getBoolean;
+        } else if (typeClass.equals(Double.class)) {
+            reader = ResultSet::getDouble;
+        } else if (typeClass.equals(Float.class)) {
+            reader = ResultSet::getFloat;
+        } else if (typeClass.equals(Integer.class)) {
+            reader = ResultSet::getInt;
+        } else if (typeClass.equals(Long.class)) {
+            reader = ResultSet::getLong;
+        } else if (typeClass.equals(Short.class)) {
+            reader = ResultSet::getShort;
+        } else if (typeClass.equals(Byte.class)) {
+            reader = ResultSet::getByte;
+        } else {
+            reader = ResultSet::getString;
+        }
+        //Attribute read errors are reported when the value is injected
+        return (rs, column) -> {
+            try {
+                return reader.read(rs, column);
+            } catch (SQLException ex) {
+                return ex;
+            }
+        };
+    }
+
+    private void injectElementAttribute(Object value, ColumnDraft column, ElementDraft draft) {
         String elementName;
         if (draft instanceof NodeDraft) {
             elementName = "node";
         } else {
             elementName = "edge";
         }
-        Class typeClass = column.getTypeClass();
+        if (value instanceof SQLException) {
+            report.logIssue(new Issue(
+                "Failed to get a " + getTypeName(column.getTypeClass()) + " value for " + elementName + " attribute '"
+                    + column.getId() + "'", Issue.Level.SEVERE, (SQLException) value));
+        } else if (value != null) {
+            draft.setValue(column.getId(), value);
+        } else {
+            report.logIssue(new Issue(
+                "Failed to get a " + getTypeName(column.getTypeClass()) + " value for " + elementName + " attribute '"
+                    + column.getId() + "'", Issue.Level.WARNING));
+        }
+    }
+
+    private String getTypeName(Class typeClass) {
         if (typeClass.equals(Boolean.class)) {
-            try {
-                boolean val = rs.getBoolean(columnIndex);
-                draft.setValue(column.getId(), val);
-            } catch (SQLException ex) {
-                report.logIssue(new Issue(
-                    "Failed to get a BOOLEAN value for " + elementName + " attribute '" + column.getId() + "'",
-                    Issue.Level.SEVERE, ex));
-            }
+            return "BOOLEAN";
         } else if (typeClass.equals(Double.class)) {
-            try {
-                double val = rs.getDouble(columnIndex);
-                draft.setValue(column.getId(), val);
-            } catch (SQLException ex) {
-                report.logIssue(
-                    new Issue("Failed to get a DOUBLE value for " + elementName + " attribute '" + column.getId() + "'",
-                        Issue.Level.SEVERE, ex));
-            }
+            return "DOUBLE";
         } else if (typeClass.equals(Float.class)) {
-            try {
-                float val = rs.getFloat(columnIndex);
-                draft.setValue(column.getId(), val);
-            } catch (SQLException ex) {
-                report.logIssue(
-                    new Issue("Failed to get a FLOAT value for " + elementName + " attribute '" + column.getId() + "'",
-                        Issue.Level.SEVERE, ex));
-            }
+            return "FLOAT";
         } else if (typeClass.equals(Integer.class)) {
-            try {
-                int val = rs.getInt(columnIndex);
-                draft.setValue(column.getId(), val);
-            } catch (SQLException ex) {
-                report.logIssue(
-                    new Issue("Failed to get a INT value for " + elementName + " attribute '" + column.getId() + "'",
-                        Issue.Level.SEVERE, ex));
-            }
+            return "INT";
         } else if (typeClass.equals(Long.class)) {
-            try {
-                long val = rs.getLong(columnIndex);
-                draft.setValue(column.getId(), val);
-            } catch (SQLException ex) {
-                report.logIssue(
-                    new Issue("Failed to get a LONG value for " + elementName + " attribute '" + column.getId() + "'",
-                        Issue.Level.SEVERE, ex));
-            }
+            return "LONG";
         } else if (typeClass.equals(Short.class)) {
-            try {
-                short val = rs.getShort(columnIndex);
-                draft.setValue(column.getId(), val);
-            } catch (SQLException ex) {
-                report.logIssue(
-                    new Issue("Failed to get a SHORT value for " + elementName + " attribute '" + column.getId() + "'",
-                        Issue.Level.SEVERE, ex));
-            }
+            return "SHORT";
         } else if (typeClass.equals(Byte.class)) {
-            try {
-                byte val = rs.getByte(columnIndex);
-                draft.setValue(column.getId(), val);
-            } catch (SQLException ex) {
-                report.logIssue(
-                    new Issue("Failed to get a BYTE value for " + elementName + " attribute '" + column.getId() + "'",
-                        Issue.Level.SEVERE, ex));
-            }
-        } else {
-            try {
-                String val = rs.getString(columnIndex);
-                if (val != null) {
-                    draft.setValue(column.getId(), val);
-                } else {
-                    report.logIssue(new Issue(
-                        "Failed to get a STRING value for " + elementName + " attribute '" + column.getId() + "'",
-                        Issue.Level.WARNING));
-                }
-            } catch (SQLException ex) {
-                report.logIssue(
-                    new Issue("Failed to get a STRING value for " + elementName + " attribute '" + column.getId() + "'",
-                        Issue.Level.SEVERE, ex));
-            }
+            return "BYTE";
         }
+        return "STRING";
     }
 
-    private void findNodeAttributesColumns(ResultSet rs) throws SQLException {
-        ResultSetMetaData metaData = rs.getMetaData();
+    private void findNodeAttributesColumns(ResultSetMetaData metaData) throws SQLException {
         int columnsCount = metaData.getColumnCount();
         for (int i = 0; i < columnsCount; i++) {
             String columnName = metaData.getColumnLabel(i + 1);
@@ -539,8 +593,7 @@ public class ImporterEdgeList implements DatabaseImporter {
         }
     }
 
-    private void findEdgeAttributesColumns(ResultSet rs) throws SQLException {
-        ResultSetMetaData metaData = rs.getMetaData();
+    private void findEdgeAttributesColumns(ResultSetMetaData metaData) throws SQLException {
         int columnsCount = metaData.getColumnCount();
         for (int i = 0; i < columnsCount; i++) {
             String columnName = metaData.getColumnLabel(i + 1);
@@ -614,4 +667,52 @@ public class ImporterEdgeList implements DatabaseImporter {
     public Report getReport() {
         return report;
     }
+
+    @Override
+    public boolean cancel() {
+        cancel = true;
+        return true;
+    }
+
+    @Override
+    public void setProgressTicket(ProgressTicket progressTicket) {
+        this.progressTicket = progressTicket;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Sets the number of rows fetched at once from the database. A positive value streams the queries with
+     * forward-only cursors instead of loading the complete result sets in memory, <code>0</code> uses the driver
+     * default.
+     *
+     * @param fetchSize number of rows fetched at once, or <code>0</code>
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public String getPartitionColumn() {
+        return partitionColumn;
+    }
+
+    /**
+     * Sets the integer column used to split the node and edge queries in partitions fetched in parallel, each on
+     * its own connection. Rows are assigned to partitions by the column value modulo the partition count.
+     *
+     * @param partitionColumn integer column of the queries, or <code>null</code> to run them as a whole
+     */
+    public void setPartitionColumn(String partitionColumn) {
+        this.partitionColumn = partitionColumn;
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public void setPartitionCount(int partitionCount) {
+        this.partitionCount = partitionCount;
+    }
 }
@@ -0,0 +1,202 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.importer.plugin.file;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+
+/**
+ * Event-based GML tokenizer.
+ * <p>
+ * Emits list boundaries and key/value tokens one at a time so that the importer can
+ * process each <code>node [...]</code> or <code>edge [...]</code> block as soon as
+ * it closes, instead of materializing the whole document first. Unquoted tokens are
+ * converted to <code>Long</code> or <code>Double</code> when possible, quoted
+ * tokens are always returned as <code>String</code>.
+ */
+final class GMLTokenizer {
+
+    public static final int EOF = -1;
+    public static final int LIST_START = 0;
+    public static final int LIST_END = 1;
+    public static final int VALUE = 2;
+    private static final int NONE = -2;
+    private final Reader reader;
+    private final StringBuilder buffer = new StringBuilder();
+    private Object value;
+    //Token read ahead when no separator follows an unquoted token
+    private int pendingType = NONE;
+    private Object pendingValue;
+
+    GMLTokenizer(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the next token.
+     *
+     * @return one of {@link #LIST_START}, {@link #LIST_END}, {@link #VALUE} or {@link #EOF}
+     * @throws IOException if the underlying reader fails
+     */
+    public int next() throws IOException {
+        if (pendingType != NONE) {
+            int type = pendingType;
+            value = pendingValue;
+            pendingType = NONE;
+            pendingValue = null;
+            return type;
+        }
+        value = null;
+        buffer.setLength(0);
+        int c;
+        while ((c = reader.read()) != -1) {
+            switch (c) {
+                case '"':
+                    if (buffer.length() > 0) {
+                        pendingType = VALUE;
+                        pendingValue = readQuoted();
+                        return flush();
+                    }
+                    value = readQuoted();
+                    return VALUE;
+                case '[':
+                case ']':
+                    int type = c == '[' ? LIST_START : LIST_END;
+                    if (buffer.length() > 0) {
+                        pendingType = type;
+                        return flush();
+                    }
+                    return type;
+                case ' ':
+                case '\t':
+                case '\n':
+                case '\r':
+                    if (buffer.length() > 0) {
+                        return flush();
+                    }
+                    break;
+                default:
+                    buffer.append((char) c);
+                    break;
+            }
+        }
+        if (buffer.length() > 0) {
+            return flush();
+        }
+        return EOF;
+    }
+
+    /**
+     * Returns the value of the last {@link #VALUE} token.
+     *
+     * @return a <code>String</code>, <code>Long</code> or <code>Double</code>
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Reads the remainder of the current list, the opening bracket having already been
+     * consumed. Nested lists are returned as nested <code>ArrayList</code>.
+     *
+     * @return the list content as alternating keys and values
+     * @throws IOException if the underlying reader fails
+     */
+    public ArrayList<Object> readList() throws IOException {
+        ArrayList<Object> list = new ArrayList<>();
+        int type;
+        while ((type = next()) != EOF && type != LIST_END) {
+            if (type == LIST_START) {
+                list.add(readList());
+            } else {
+                list.add(value);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Skips the remainder of the current list, the opening bracket having already been
+     * consumed.
+     *
+     * @throws IOException if the underlying reader fails
+     */
+    public void skipList() throws IOException {
+        int depth = 1;
+        int type;
+        while (depth > 0 && (type = next()) != EOF) {
+            if (type == LIST_START) {
+                depth++;
+            } else if (type == LIST_END) {
+                depth--;
+            }
+        }
+    }
+
+    private int flush() {
+        value = parseUnquoted(buffer.toString());
+        return VALUE;
+    }
+
+    private String readQuoted() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1 && c != '"') {
+            sb.append((char) c);
+        }
+        return sb.toString();
+    }
+
+    private static Object parseUnquoted(String str) {
+        //First try to parse as long, if not possible, try double.
+        try {
+            return Long.valueOf(str);
+        } catch (NumberFormatException e1) {
+            try {
+                return Double.valueOf(str);
+            } catch (NumberFormatException e2) {
+                return str;
+            }
+        }
+    }
+}
@@ -0,0 +1,626 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.importer.plugin.file;
+
+import java.awt.Color;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.gephi.graph.api.AttributeUtils;
+import org.gephi.graph.api.TimeFormat;
+import org.gephi.graph.api.TimeRepresentation;
+import org.gephi.graph.api.types.IntervalSet;
+import org.gephi.graph.api.types.TimestampSet;
+import org.gephi.io.importer.api.ColumnDraft;
+import org.gephi.io.importer.api.ContainerLoader;
+import org.gephi.io.importer.api.EdgeDirection;
+import org.gephi.io.importer.api.EdgeDirectionDefault;
+import org.gephi.io.importer.api.EdgeDraft;
+import org.gephi.io.importer.api.ElementDraft;
+import org.gephi.io.importer.api.ElementIdType;
+import org.gephi.io.importer.api.Issue;
+import org.gephi.io.importer.api.NodeDraft;
+import org.gephi.io.importer.api.Report;
+import org.gephi.io.importer.spi.FileImporter;
+import org.gephi.utils.longtask.spi.LongTask;
+import org.gephi.utils.progress.Progress;
+import org.gephi.utils.progress.ProgressTicket;
+import org.joda.time.DateTimeZone;
+import org.openide.util.NbBundle;
+
+/**
+ * Imports files in the GBIN binary columnar format written by the GBIN exporter.
+ * <p>
+ * The file is memory-mapped and each column is read in bulk into a primitive array before being applied to the
+ * element drafts.
+ */
+public class ImporterGBIN implements FileImporter, FileImporter.FileAware, LongTask {
+
+    //Format
+    private static final byte[] MAGIC = {'G', 'B', 'I', 'N'};
+    private static final int VERSION = 1;
+    private static final byte ROLE_ATTRIBUTE = 1;
+    private static final byte KIND_BOOLEAN = 1;
+    private static final byte KIND_BYTE = 2;
+    private static final byte KIND_SHORT = 3;
+    private static final byte KIND_INT = 4;
+    private static final byte KIND_LONG = 5;
+    private static final byte KIND_FLOAT = 6;
+    private static final byte KIND_DOUBLE = 7;
+    private static final byte KIND_CHAR = 8;
+    private static final byte KIND_STRING = 9;
+    private static final byte KIND_TEXT = 10;
+    private static final byte KIND_INTERVALS = 11;
+    private static final byte KIND_TIMESTAMPS = 12;
+    private static final long WINDOW_SIZE = 64 << 20;
+    //Architecture
+    private File file;
+    private ContainerLoader container;
+    private Report report;
+    private ProgressTicket progress;
+    private boolean cancel = false;
+    //Mapping
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long bufferOffset;
+    private long fileSize;
+
+    @Override
+    public boolean execute(ContainerLoader loader) {
+        this.container = loader;
+        this.report = new Report();
+
+        Progress.start(progress);
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            channel = fileChannel;
+            fileSize = channel.size();
+            bufferOffset = 0;
+            buffer = map(0, Math.min(fileSize, WINDOW_SIZE));
+            if (readHeader()) {
+                NodeDraft[] nodes = readNodes();
+                if (!cancel) {
+                    readEdges(nodes);
+                }
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            channel = null;
+            buffer = null;
+            Progress.finish(progress);
+        }
+        return !cancel;
+    }
+
+    private boolean readHeader() throws IOException {
+        if (fileSize < MAGIC.length + 4 || !Arrays.equals(readBytes(MAGIC.length), MAGIC)) {
+            report.logIssue(new Issue(NbBundle.getMessage(ImporterGBIN.class, "importerGBIN_error_format", "?"),
+                Issue.Level.CRITICAL));
+            return false;
+        }
+        int version = readInt();
+        if (version != VERSION) {
+            report.logIssue(new Issue(NbBundle.getMessage(ImporterGBIN.class, "importerGBIN_error_format", version),
+                Issue.Level.CRITICAL));
+            return false;
+        }
+
+        switch (readByte()) {
+            case 0:
+                container.setEdgeDefault(EdgeDirectionDefault.DIRECTED);
+                break;
+            case 1:
+                container.setEdgeDefault(EdgeDirectionDefault.UNDIRECTED);
+                break;
+            default:
+                container.setEdgeDefault(EdgeDirectionDefault.MIXED);
+        }
+        boolean dynamic = readByte() != 0;
+        String timeRepresentation = readString();
+        String timeFormat = readString();
+        String timeZone = readString();
+        if (dynamic) {
+            container.setTimeRepresentation(TimeRepresentation.valueOf(timeRepresentation));
+            container.setTimeFormat(TimeFormat.valueOf(timeFormat));
+            container.setTimeZone(DateTimeZone.forID(timeZone));
+        }
+        return true;
+    }
+
+    private NodeDraft[] readNodes() throws IOException {
+        int rows = readInt();
+        int columns = readInt();
+        Progress.switchToDeterminate(progress, columns);
+
+        NodeDraft[] nodes = new NodeDraft[rows];
+        ElementDraft.Factory factory = container.factory();
+        for (int c = 0; c < columns && !cancel; c++) {
+            ColumnData column = readColumn(rows);
+            if (c == 0) {
+                if (!column.id.equals("id")) {
+                    throw new IOException("The first node column must be the id");
+                }
+                container.setElementIdType(getIdType(column.kind));
+                for (int i = 0; i < rows; i++) {
+                    nodes[i] = factory.newNodeDraft(String.valueOf(column.get(i)));
+                }
+            } else if (column.role == ROLE_ATTRIBUTE) {
+                Class type = getType(column);
+                if (type != null) {
+                    setAttributes(nodes, column, type, container.addNodeColumn(column.id, type));
+                }
+            } else {
+                setNodeProperty(nodes, column);
+            }
+            Progress.progress(progress);
+        }
+
+        if (!cancel) {
+            for (NodeDraft node : nodes) {
+                container.addNode(node);
+            }
+        }
+        return nodes;
+    }
+
+    private void readEdges(NodeDraft[] nodes) throws IOException {
+        int rows = readInt();
+        int columns = readInt();
+        Progress.switchToDeterminate(progress, columns);
+
+        EdgeDraft[] edges = new EdgeDraft[rows];
+        ElementDraft.Factory factory = container.factory();
+        for (int c = 0; c < columns && !cancel; c++) {
+            ColumnData column = readColumn(rows);
+            if (c == 0) {
+                if (!column.id.equals("id")) {
+                    throw new IOException("The first edge column must be the id");
+                }
+                for (int i = 0; i < rows; i++) {
+                    edges[i] = factory.newEdgeDraft(String.valueOf(column.get(i)));
+                }
+            } else if (column.role == ROLE_ATTRIBUTE) {
+                Class type = getType(column);
+                if (type != null) {
+                    setAttributes(edges, column, type, container.addEdgeColumn(column.id, type));
+                }
+            } else if (column.id.equals("source") || column.id.equals("target")) {
+                int[] values = (int[]) column.array;
+                for (int i = 0; i < rows; i++) {
+                    if (edges[i] == null) {
+                        continue;
+                    }
+                    if (values[i] < 0 || values[i] >= nodes.length) {
+                        report.logIssue(new Issue(
+                            NbBundle.getMessage(ImporterGBIN.class, "importerGBIN_error_source", edges[i].getId()),
+                            Issue.Level.SEVERE));
+                        edges[i] = null;
+                    } else if (column.id.equals("source")) {
+                        edges[i].setSource(nodes[values[i]]);
+                    } else {
+                        edges[i].setTarget(nodes[values[i]]);
+                    }
+                }
+            } else {
+                setEdgeProperty(edges, column);
+            }
+            Progress.progress(progress);
+        }
+
+        if (!cancel) {
+            for (EdgeDraft edge : edges) {
+                if (edge != null) {
+                    container.addEdge(edge);
+                }
+            }
+        }
+    }
+
+    private void setNodeProperty(NodeDraft[] nodes, ColumnData column) {
+        for (int i = 0; i < nodes.length; i++) {
+            if (column.isNull(i)) {
+                continue;
+            }
+            switch (column.id) {
+                case "label":
+                    nodes[i].setLabel(column.getString(i));
+                    break;
+                case "x":
+                    nodes[i].setX(((float[]) column.array)[i]);
+                    break;
+                case "y":
+                    nodes[i].setY(((float[]) column.array)[i]);
+                    break;
+                case "z":
+                    nodes[i].setZ(((float[]) column.array)[i]);
+                    break;
+                case "size":
+                    nodes[i].setSize(((float[]) column.array)[i]);
+                    break;
+                default:
+                    setElementProperty(nodes[i], column, i);
+            }
+        }
+    }
+
+    private void setEdgeProperty(EdgeDraft[] edges, ColumnData column) {
+        for (int i = 0; i < edges.length; i++) {
+            if (edges[i] == null || column.isNull(i)) {
+                continue;
+            }
+            switch (column.id) {
+                case "directed":
+                    edges[i].setDirection(((byte[]) column.array)[i] != 0 ? EdgeDirection.DIRECTED :
+                        EdgeDirection.UNDIRECTED);
+                    break;
+                case "kind":
+                    edges[i].setType(column.getString(i));
+                    break;
+                case "weight":
+                    edges[i].setWeight(((double[]) column.array)[i]);
+                    break;
+                case "label":
+                    edges[i].setLabel(column.getString(i));
+                    break;
+                default:
+                    setElementProperty(edges[i], column, i);
+            }
+        }
+    }
+
+    private void setElementProperty(ElementDraft element, ColumnData column, int row) {
+        switch (column.id) {
+            case "color":
+                element.setColor(new Color(((int[]) column.array)[row], true));
+                break;
+            case "timeset":
+                for (int j = column.offsets[row]; j < column.offsets[row + 1]; ) {
+                    if (column.kind == KIND_INTERVALS) {
+                        element.addInterval(column.bounds[j], column.bounds[j + 1]);
+                        j += 2;
+                    } else {
+                        element.addTimestamp(column.bounds[j]);
+                        j++;
+                    }
+                }
+                break;
+        }
+    }
+
+    private void setAttributes(ElementDraft[] elements, ColumnData column, Class type, ColumnDraft columnDraft) {
+        if (column.title != null) {
+            columnDraft.setTitle(column.title);
+        }
+        if (column.defaultValue != null) {
+            columnDraft.setDefaultValueString(column.defaultValue);
+        }
+        for (int i = 0; i < elements.length; i++) {
+            if (elements[i] == null || column.isNull(i)) {
+                continue;
+            }
+            if (column.kind == KIND_TEXT) {
+                //Parsed for each element, dynamic and array values are mutable
+                elements[i].setValue(column.id, AttributeUtils.parse(column.getString(i), type));
+            } else {
+                elements[i].setValue(column.id, column.get(i));
+            }
+        }
+    }
+
+    private Class getType(ColumnData column) {
+        if (column.type == null) {
+            try {
+                column.type = Class.forName(column.typeName);
+            } catch (ClassNotFoundException ex) {
+                report.logIssue(new Issue(NbBundle
+                    .getMessage(ImporterGBIN.class, "importerGBIN_error_attributeclass", column.typeName, column.id),
+                    Issue.Level.SEVERE));
+            }
+        }
+        return column.type;
+    }
+
+    private static ElementIdType getIdType(byte kind) {
+        switch (kind) {
+            case KIND_INT:
+                return ElementIdType.INTEGER;
+            case KIND_LONG:
+                return ElementIdType.LONG;
+            default:
+                return ElementIdType.STRING;
+        }
+    }
+
+    private ColumnData readColumn(int rows) throws IOException {
+        ColumnData column = new ColumnData();
+        column.id = readString();
+        column.title = readString();
+        column.role = readByte();
+        column.kind = readByte();
+        column.typeName = readString();
+        column.defaultValue = readString();
+        switch (column.kind) {
+            case KIND_STRING:
+            case KIND_TEXT:
+                column.dictionary = new String[readInt()];
+                for (int i = 0; i < column.dictionary.length; i++) {
+                    column.dictionary[i] = readString();
+                }
+                column.codes = readInts(rows);
+                break;
+            case KIND_INTERVALS:
+            case KIND_TIMESTAMPS:
+                column.offsets = readInts(rows + 1);
+                column.bounds = readDoubles(column.offsets[rows]);
+                break;
+            default:
+                if (readByte() != 0) {
+                    column.bitmap = readBytes((rows + 7) / 8);
+                }
+                column.array = readPrimitives(column.kind, rows);
+        }
+        return column;
+    }
+
+    private Object readPrimitives(byte kind, int count) throws IOException {
+        switch (kind) {
+            case KIND_BOOLEAN:
+            case KIND_BYTE:
+                return readBytes(count);
+            case KIND_SHORT: {
+                short[] values = new short[count];
+                for (int done = 0, n; done < count; done += n) {
+                    n = Math.min(count - done, window(Short.BYTES));
+                    buffer.asShortBuffer().get(values, done, n);
+                    skip(n * Short.BYTES);
+                }
+                return values;
+            }
+            case KIND_INT:
+                return readInts(count);
+            case KIND_LONG: {
+                long[] values = new long[count];
+                for (int done = 0, n; done < count; done += n) {
+                    n = Math.min(count - done, window(Long.BYTES));
+                    buffer.asLongBuffer().get(values, done, n);
+                    skip(n * Long.BYTES);
+                }
+                return values;
+            }
+            case KIND_FLOAT: {
+                float[] values = new float[count];
+                for (int done = 0, n; done < count; done += n) {
+                    n = Math.min(count - done, window(Float.BYTES));
+                    buffer.asFloatBuffer().get(values, done, n);
+                    skip(n * Float.BYTES);
+                }
+                return values;
+            }
+            case KIND_DOUBLE:
+                return readDoubles(count);
+            case KIND_CHAR: {
+                char[] values = new char[count];
+                for (int done = 0, n; done < count; done += n) {
+                    n = Math.min(count - done, window(Character.BYTES));
+                    buffer.asCharBuffer().get(values, done, n);
+                    skip(n * Character.BYTES);
+                }
+                return values;
+            }
+            default:
+                throw new IOException("Unknown column kind " + kind);
+        }
+    }
+
+    private int[] readInts(int count) throws IOException {
+        int[] values = new int[count];
+        for (int done = 0, n; done < count; done += n) {
+            n = Math.min(count - done, window(Integer.BYTES));
+            buffer.asIntBuffer().get(values, done, n);
+            skip(n * Integer.BYTES);
+        }
+        return values;
+    }
+
+    private double[] readDoubles(int count) throws IOException {
+        double[] values = new double[count];
+        for (int done = 0, n; done < count; done += n) {
+            n = Math.min(count - done, window(Double.BYTES));
+            buffer.asDoubleBuffer().get(values, done, n);
+            skip(n * Double.BYTES);
+        }
+        return values;
+    }
+
+    private byte[] readBytes(int count) throws IOException {
+        byte[] values = new byte[count];
+        for (int done = 0, n; done < count; done += n) {
+            n = Math.min(count - done, window(1));
+            buffer.get(values, done, n);
+        }
+        return values;
+    }
+
+    private byte readByte() throws IOException {
+        window(1);
+        return buffer.get();
+    }
+
+    private int readInt() throws IOException {
+        window(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    private String readString() throws IOException {
+        int length = readInt();
+        return length < 0 ? null : new String(readBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private void skip(int bytes) {
+        buffer.position(buffer.position() + bytes);
+    }
+
+    /**
+     * Returns how many values of the given size can be read from the mapped window, moving the window forward
+     * when less than one value remains.
+     */
+    private int window(int size) throws IOException {
+        if (buffer.remaining() < size) {
+            long position = bufferOffset + buffer.position();
+            if (position + size > fileSize) {
+                throw new EOFException();
+            }
+            buffer = map(position, Math.min(fileSize - position, WINDOW_SIZE));
+            bufferOffset = position;
+        }
+        return buffer.remaining() / size;
+    }
+
+    private MappedByteBuffer map(long position, long size) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        return mapped;
+    }
+
+    @Override
+    public void setReader(Reader reader) {
+    }
+
+    @Override
+    public void setFile(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public ContainerLoader getContainer() {
+        return container;
+    }
+
+    @Override
+    public Report getReport() {
+        return report;
+    }
+
+    @Override
+    public boolean cancel() {
+        cancel = true;
+        return true;
+    }
+
+    @Override
+    public void setProgressTicket(ProgressTicket progressTicket) {
+        this.progress = progressTicket;
+    }
+
+    private static class ColumnData {
+
+        private String id;
+        private String title;
+        private byte role;
+        private byte kind;
+        private String typeName;
+        private Class type;
+        private String defaultValue;
+        //Primitive values, with a bitmap of the present ones when some are missing
+        private Object array;
+        private byte[] bitmap;
+        //Dictionary-encoded values, code -1 is null
+        private String[] dictionary;
+        private int[] codes;
+        //Time sets, bounds of row i are between offsets[i] and offsets[i + 1]
+        private int[] offsets;
+        private double[] bounds;
+
+        boolean isNull(int row) {
+            if (codes != null) {
+                return codes[row] == -1;
+            } else if (offsets != null) {
+                return offsets[row] == offsets[row + 1];
+            }
+            return bitmap != null && (bitmap[row >> 3] & (1 << (row & 7))) == 0;
+        }
+
+        String getString(int row) {
+            return codes[row] == -1 ? null : dictionary[codes[row]];
+        }
+
+        Object get(int row) {
+            if (isNull(row)) {
+                return null;
+            }
+            switch (kind) {
+                case KIND_BOOLEAN:
+                    return ((byte[]) array)[row] != 0;
+                case KIND_BYTE:
+                    return ((byte[]) array)[row];
+                case KIND_SHORT:
+                    return ((short[]) array)[row];
+                case KIND_INT:
+                    return ((int[]) array)[row];
+                case KIND_LONG:
+                    return ((long[]) array)[row];
+                case KIND_FLOAT:
+                    return ((float[]) array)[row];
+                case KIND_DOUBLE:
+                    return ((double[]) array)[row];
+                case KIND_CHAR:
+                    return ((char[]) array)[row];
+                case KIND_STRING:
+                case KIND_TEXT:
+                    return getString(row);
+                case KIND_INTERVALS:
+                    return new IntervalSet(Arrays.copyOfRange(bounds, offsets[row], offsets[row + 1]));
+                case KIND_TIMESTAMPS:
+                    return new TimestampSet(Arrays.copyOfRange(bounds, offsets[row], offsets[row + 1]));
+                default:
+                    return null;
+            }
+        }
+    }
+}
@@ -133,6 +133,8 @@ public class ImporterGEXF implements FileImporter, LongTask {
     private Report report;
     private ProgressTicket progress;
     private XMLStreamReader xmlReader;
+    //Settings
+    private boolean pipelined = false;
 
     @Override
     public boolean execute(ContainerLoader container) {
@@ -152,6 +154,9 @@ public class ImporterGEXF implements FileImporter, LongTask {
                 }
             });
             xmlReader = inputFactory.createXMLStreamReader(reader);
+            if (pipelined) {
+                xmlReader = new PipelinedXMLStreamReader(xmlReader);
+            }
 
             while (xmlReader.hasNext()) {
 
@@ -1148,6 +1153,21 @@ public class ImporterGEXF implements FileImporter, LongTask {
         return true;
     }
 
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    /**
+     * Sets whether the XML document is tokenized on a separate thread. When enabled, parsing
+     * overlaps with draft construction and value conversion, which speeds up large imports on
+     * multi-core machines. Default is <code>false</code>.
+     *
+     * @param pipelined <code>true</code> to tokenize on a separate thread
+     */
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
     @Override
     public void setReader(Reader reader) {
         this.reader = reader;
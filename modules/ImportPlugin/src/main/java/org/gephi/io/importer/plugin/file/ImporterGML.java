@@ -93,13 +93,17 @@ public class ImporterGML implements FileImporter, LongTask {
     private void importData(LineNumberReader reader) throws Exception {
         Progress.start(progressTicket);
 
-        ArrayList<Object> list;
-        list = parseList(reader);
-
+        GMLTokenizer tokenizer = new GMLTokenizer(reader);
         boolean ret = false;
-        for (int i = 0; i < list.size(); i++) {
-            if ("graph".equals(list.get(i)) && list.size() >= i + 2 && list.get(i + 1) instanceof ArrayList) {
-                ret = parseGraph((ArrayList) list.get(i + 1));
+        int type;
+        while (!cancel && (type = tokenizer.next()) != GMLTokenizer.EOF) {
+            if (type == GMLTokenizer.VALUE && "graph".equals(tokenizer.getValue())) {
+                type = tokenizer.next();
+                if (type == GMLTokenizer.LIST_START) {
+                    ret = parseGraph(tokenizer);
+                }
+            } else if (type == GMLTokenizer.LIST_START) {
+                tokenizer.skipList();
             }
         }
         if (!ret) {
@@ -110,75 +114,31 @@ public class ImporterGML implements FileImporter, LongTask {
         Progress.finish(progressTicket);
     }
 
-    private ArrayList<Object> parseList(LineNumberReader reader) throws IOException {
-
-        ArrayList<Object> list = new ArrayList<>();
-        char t = ' ';
-        boolean readString = false;
-        String stringBuffer = "";
-
-        while (reader.ready() && (t != ((char) -1))) {
-            t = (char) reader.read();
-            if (readString) {
-                if (t == '"') {
-                    list.add(stringBuffer);
-                    stringBuffer = "";
-                    readString = false;
+    private boolean parseGraph(GMLTokenizer tokenizer) throws IOException {
+        boolean ret = true;
+        int type;
+        while ((type = tokenizer.next()) != GMLTokenizer.EOF && type != GMLTokenizer.LIST_END) {
+            if (type != GMLTokenizer.VALUE) {
+                //Keys can't be lists
+                tokenizer.skipList();
+                return false;
+            }
+            Object key = tokenizer.getValue();
+            type = tokenizer.next();
+            if (type == GMLTokenizer.EOF || type == GMLTokenizer.LIST_END) {
+                //Odd number of elements
+                return false;
+            }
+            Object value = tokenizer.getValue();
+            if (type == GMLTokenizer.LIST_START) {
+                if ("node".equals(key)) {
+                    //Only the current element is materialized
+                    ret = parseNode(tokenizer.readList());
+                } else if ("edge".equals(key)) {
+                    ret = parseEdge(tokenizer.readList());
                 } else {
-                    stringBuffer += t;
+                    tokenizer.skipList();
                 }
-            } else {
-                switch (t) {
-                    case '[':
-                        list.add(parseList(reader));
-                        break;
-                    case ']':
-                        return list;
-                    case '"':
-                        readString = true;
-                        break;
-                    case ' ':
-                    case '\t':
-                    case '\n':
-                        if (!stringBuffer.isEmpty()) {
-                            //First try to parse as long, if not possible, try double.
-                            try {
-                                Long longValue = Long.valueOf(stringBuffer);
-                                list.add(longValue);
-                            } catch (NumberFormatException e1) {
-                                try {
-                                    Double doubleValue = Double.valueOf(stringBuffer);
-                                    list.add(doubleValue);
-                                } catch (NumberFormatException e2) {
-                                    list.add(stringBuffer);
-                                }
-                            }
-                            stringBuffer = "";
-                        }
-                        break;
-                    default:
-                        stringBuffer += t;
-                        break;
-                }
-            }
-        }
-        return list;
-    }
-
-    private boolean parseGraph(ArrayList list) {
-        if ((list.size() & 1) != 0) {
-            return false;
-        }
-        Progress.switchToDeterminate(progressTicket, list.size());
-
-        boolean ret = true;
-        for (int i = 0; i < list.size(); i += 2) {
-            Object key = list.get(i);
-            Object value = list.get(i + 1);
-            if ("node".equals(key)) {
-                ret = parseNode((ArrayList) value);
-            } else if ("edge".equals(key)) {
-                ret = parseEdge((ArrayList) value);
             } else if ("directed".equals(key)) {
                 if (value instanceof Number) {
                     EdgeDirectionDefault edgeDefault =
@@ -190,7 +150,6 @@ public class ImporterGML implements FileImporter, LongTask {
                         new Issue(NbBundle.getMessage(ImporterGML.class, "importerGML_error_directedgraphparse"),
                             Issue.Level.WARNING));
                 }
-            } else {
             }
             if (!ret) {
                 break;
@@ -108,6 +108,8 @@ public class ImporterGraphML implements FileImporter, LongTask {
     private Report report;
     private ProgressTicket progress;
     private XMLStreamReader xmlReader;
+    //Settings
+    private boolean pipelined = false;
 
     public ImporterGraphML() {
         //Default node associations
@@ -154,6 +156,9 @@ public class ImporterGraphML implements FileImporter, LongTask {
                 }
             });
             xmlReader = inputFactory.createXMLStreamReader(reader);
+            if (pipelined) {
+                xmlReader = new PipelinedXMLStreamReader(xmlReader);
+            }
 
             while (xmlReader.hasNext()) {
 
@@ -790,6 +795,21 @@ public class ImporterGraphML implements FileImporter, LongTask {
         return Float.parseFloat(str);
     }
 
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    /**
+     * Sets whether the XML document is tokenized on a separate thread. When enabled, parsing
+     * overlaps with draft construction and value conversion, which speeds up large imports on
+     * multi-core machines. Default is <code>false</code>.
+     *
+     * @param pipelined <code>true</code> to tokenize on a separate thread
+     */
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
     @Override
     public void setReader(Reader reader) {
         this.reader = reader;
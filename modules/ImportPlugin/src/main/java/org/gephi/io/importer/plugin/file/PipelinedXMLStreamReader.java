@@ -0,0 +1,688 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.importer.plugin.file;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Read-only <code>XMLStreamReader</code> that tokenizes the underlying document on a
+ * separate thread.
+ * <p>
+ * The source reader is drained by a background thread which snapshots each event
+ * (name, attributes and text) into fixed-size batches handed over through a bounded
+ * queue. The importer consumes these batches on the calling thread, so XML
+ * tokenization overlaps with draft construction, value parsing and container
+ * insertion. Memory is bounded by <code>batchSize * queueCapacity</code> events.
+ * <p>
+ * Namespace declarations are forwarded and resolved by
+ * {@link #getNamespaceContext()}. Processing instruction information is not
+ * forwarded, which is fine for GEXF and GraphML importers.
+ */
+final class PipelinedXMLStreamReader implements XMLStreamReader {
+
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+    private static final Batch END = new Batch(0);
+    //Source
+    private final XMLStreamReader source;
+    private final BlockingQueue<Batch> queue;
+    private final int batchSize;
+    private final Thread tokenizer;
+    private final String encoding;
+    private final String version;
+    private final String characterEncodingScheme;
+    private final boolean standalone;
+    private final boolean standaloneSet;
+    private volatile boolean closed;
+    //Current
+    private Batch batch;
+    private int position = -1;
+    private Event current = Event.START_DOCUMENT;
+    //Namespaces in scope, and those of the enclosing elements
+    private Scope scope = Scope.ROOT;
+    private final List<Scope> scopes = new ArrayList<>();
+    private boolean endScope;
+
+    PipelinedXMLStreamReader(XMLStreamReader source) {
+        this(source, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    PipelinedXMLStreamReader(XMLStreamReader source, int batchSize, int queueCapacity) {
+        if (batchSize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Batch size and queue capacity must be positive");
+        }
+        this.source = source;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.encoding = source.getEncoding();
+        this.version = source.getVersion();
+        this.characterEncodingScheme = source.getCharacterEncodingScheme();
+        this.standalone = source.isStandalone();
+        this.standaloneSet = source.standaloneSet();
+        this.tokenizer = new Thread(this::tokenize, "XML Import Tokenizer");
+        this.tokenizer.setDaemon(true);
+        this.tokenizer.start();
+    }
+
+    private void tokenize() {
+        Batch b = new Batch(batchSize);
+        try {
+            while (!closed && source.hasNext()) {
+                int type = source.next();
+                b.events.add(snapshot(type));
+                if (b.events.size() == batchSize) {
+                    if (!put(b)) {
+                        return;
+                    }
+                    b = new Batch(batchSize);
+                }
+            }
+        } catch (Throwable e) {
+            b.error = e;
+        } finally {
+            //The consumer waits for END, whatever stopped the tokenizer
+            if ((b.events.isEmpty() && b.error == null) || put(b)) {
+                put(END);
+            }
+        }
+    }
+
+    private boolean put(Batch b) {
+        try {
+            while (!closed) {
+                if (queue.offer(b, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private Event snapshot(int type) {
+        Event event = new Event(type);
+        switch (type) {
+            case XMLStreamConstants.START_ELEMENT:
+                event.localName = source.getLocalName();
+                int count = source.getAttributeCount();
+                if (count > 0) {
+                    event.attributeNames = new QName[count];
+                    event.attributeValues = new String[count];
+                    for (int i = 0; i < count; i++) {
+                        event.attributeNames[i] = source.getAttributeName(i);
+                        event.attributeValues[i] = source.getAttributeValue(i);
+                    }
+                }
+                snapshotNamespaces(event);
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                event.localName = source.getLocalName();
+                snapshotNamespaces(event);
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+            case XMLStreamConstants.COMMENT:
+                event.text = source.getText();
+                event.whiteSpace = source.isWhiteSpace();
+                break;
+            default:
+                break;
+        }
+        Location location = source.getLocation();
+        if (location != null) {
+            event.line = location.getLineNumber();
+            event.column = location.getColumnNumber();
+        }
+        return event;
+    }
+
+    private void snapshotNamespaces(Event event) {
+        event.namespaceURI = source.getNamespaceURI();
+        event.prefix = source.getPrefix();
+        int count = source.getNamespaceCount();
+        if (count > 0) {
+            event.namespacePrefixes = new String[count];
+            event.namespaceURIs = new String[count];
+            for (int i = 0; i < count; i++) {
+                String prefix = source.getNamespacePrefix(i);
+                event.namespacePrefixes[i] = prefix != null ? prefix : XMLConstants.DEFAULT_NS_PREFIX;
+                event.namespaceURIs[i] = source.getNamespaceURI(i);
+            }
+        }
+    }
+
+    private boolean fetch() throws XMLStreamException {
+        while (batch == null || position + 1 >= batch.events.size()) {
+            if (batch != null && batch.error != null) {
+                Throwable error = batch.error;
+                batch.error = null;
+                if (error instanceof XMLStreamException) {
+                    throw (XMLStreamException) error;
+                } else if (error instanceof Error) {
+                    throw (Error) error;
+                } else if (error instanceof RuntimeException) {
+                    throw (RuntimeException) error;
+                }
+                throw new XMLStreamException((Exception) error);
+            }
+            if (batch == END) {
+                return false;
+            }
+            try {
+                batch = queue.take();
+                position = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new XMLStreamException(e);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean hasNext() throws XMLStreamException {
+        if (closed) {
+            return false;
+        }
+        return fetch();
+    }
+
+    @Override
+    public int next() throws XMLStreamException {
+        if (!hasNext()) {
+            throw new IllegalStateException("No more events");
+        }
+        current = batch.events.get(++position);
+
+        //Declarations are in scope from the start to the end element
+        if (endScope) {
+            scope = scopes.remove(scopes.size() - 1);
+            endScope = false;
+        }
+        if (current.type == XMLStreamConstants.START_ELEMENT) {
+            scopes.add(scope);
+            if (current.namespacePrefixes != null) {
+                scope = new Scope(scope, current.namespacePrefixes, current.namespaceURIs);
+            }
+        } else if (current.type == XMLStreamConstants.END_ELEMENT) {
+            endScope = !scopes.isEmpty();
+        }
+        return current.type;
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        if (!closed) {
+            closed = true;
+            queue.clear();
+            try {
+                tokenizer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            source.close();
+        }
+    }
+
+    @Override
+    public int nextTag() throws XMLStreamException {
+        int type = next();
+        while ((type == XMLStreamConstants.CHARACTERS && isWhiteSpace())
+            || (type == XMLStreamConstants.CDATA && isWhiteSpace())
+            || type == XMLStreamConstants.SPACE
+            || type == XMLStreamConstants.PROCESSING_INSTRUCTION
+            || type == XMLStreamConstants.COMMENT) {
+            type = next();
+        }
+        if (type != XMLStreamConstants.START_ELEMENT && type != XMLStreamConstants.END_ELEMENT) {
+            throw new XMLStreamException("Expected start or end tag", getLocation());
+        }
+        return type;
+    }
+
+    @Override
+    public String getElementText() throws XMLStreamException {
+        if (current.type != XMLStreamConstants.START_ELEMENT) {
+            throw new XMLStreamException("Parser must be on START_ELEMENT to read next text", getLocation());
+        }
+        StringBuilder content = new StringBuilder();
+        int type = next();
+        while (type != XMLStreamConstants.END_ELEMENT) {
+            if (type == XMLStreamConstants.CHARACTERS || type == XMLStreamConstants.CDATA
+                || type == XMLStreamConstants.SPACE || type == XMLStreamConstants.ENTITY_REFERENCE) {
+                content.append(getText());
+            } else if (type == XMLStreamConstants.END_DOCUMENT) {
+                throw new XMLStreamException("Unexpected end of document when reading element text content");
+            } else if (type == XMLStreamConstants.START_ELEMENT) {
+                throw new XMLStreamException("Element text content may not contain START_ELEMENT", getLocation());
+            }
+            type = next();
+        }
+        return content.toString();
+    }
+
+    @Override
+    public void require(int type, String namespaceURI, String localName) throws XMLStreamException {
+        if (type != current.type) {
+            throw new XMLStreamException("Event type mismatch", getLocation());
+        }
+        if (localName != null && !localName.equals(current.localName)) {
+            throw new XMLStreamException("Local name mismatch", getLocation());
+        }
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return null;
+    }
+
+    @Override
+    public int getEventType() {
+        return current.type;
+    }
+
+    @Override
+    public boolean isStartElement() {
+        return current.type == XMLStreamConstants.START_ELEMENT;
+    }
+
+    @Override
+    public boolean isEndElement() {
+        return current.type == XMLStreamConstants.END_ELEMENT;
+    }
+
+    @Override
+    public boolean isCharacters() {
+        return current.type == XMLStreamConstants.CHARACTERS;
+    }
+
+    @Override
+    public boolean isWhiteSpace() {
+        return current.whiteSpace;
+    }
+
+    @Override
+    public String getLocalName() {
+        if (current.localName == null) {
+            throw new IllegalStateException("Current event has no name");
+        }
+        return current.localName;
+    }
+
+    @Override
+    public QName getName() {
+        String namespaceURI = current.namespaceURI != null ? current.namespaceURI : XMLConstants.NULL_NS_URI;
+        String prefix = current.prefix != null ? current.prefix : XMLConstants.DEFAULT_NS_PREFIX;
+        return new QName(namespaceURI, getLocalName(), prefix);
+    }
+
+    @Override
+    public boolean hasName() {
+        return current.localName != null;
+    }
+
+    @Override
+    public String getNamespaceURI() {
+        return current.namespaceURI;
+    }
+
+    @Override
+    public String getPrefix() {
+        return current.prefix;
+    }
+
+    @Override
+    public int getAttributeCount() {
+        checkStartElement();
+        return current.attributeNames == null ? 0 : current.attributeNames.length;
+    }
+
+    @Override
+    public QName getAttributeName(int index) {
+        checkStartElement();
+        return current.attributeNames[index];
+    }
+
+    @Override
+    public String getAttributeNamespace(int index) {
+        return getAttributeName(index).getNamespaceURI();
+    }
+
+    @Override
+    public String getAttributeLocalName(int index) {
+        return getAttributeName(index).getLocalPart();
+    }
+
+    @Override
+    public String getAttributePrefix(int index) {
+        return getAttributeName(index).getPrefix();
+    }
+
+    @Override
+    public String getAttributeType(int index) {
+        checkStartElement();
+        return "CDATA";
+    }
+
+    @Override
+    public String getAttributeValue(int index) {
+        checkStartElement();
+        return current.attributeValues[index];
+    }
+
+    @Override
+    public String getAttributeValue(String namespaceURI, String localName) {
+        checkStartElement();
+        if (current.attributeNames != null) {
+            for (int i = 0; i < current.attributeNames.length; i++) {
+                QName name = current.attributeNames[i];
+                if (name.getLocalPart().equals(localName)
+                    && (namespaceURI == null || namespaceURI.equals(name.getNamespaceURI()))) {
+                    return current.attributeValues[i];
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isAttributeSpecified(int index) {
+        checkStartElement();
+        return true;
+    }
+
+    @Override
+    public int getNamespaceCount() {
+        return current.namespacePrefixes == null ? 0 : current.namespacePrefixes.length;
+    }
+
+    @Override
+    public String getNamespacePrefix(int index) {
+        if (index < 0 || index >= getNamespaceCount()) {
+            throw new IndexOutOfBoundsException();
+        }
+        String prefix = current.namespacePrefixes[index];
+        return prefix.isEmpty() ? null : prefix;
+    }
+
+    @Override
+    public String getNamespaceURI(int index) {
+        if (index < 0 || index >= getNamespaceCount()) {
+            throw new IndexOutOfBoundsException();
+        }
+        return current.namespaceURIs[index];
+    }
+
+    @Override
+    public String getNamespaceURI(String prefix) {
+        String namespaceURI = scope.getNamespaceURI(prefix);
+        return namespaceURI.isEmpty() ? null : namespaceURI;
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return scope;
+    }
+
+    @Override
+    public boolean hasText() {
+        return current.text != null;
+    }
+
+    @Override
+    public String getText() {
+        if (current.text == null) {
+            throw new IllegalStateException("Current event has no text");
+        }
+        return current.text;
+    }
+
+    @Override
+    public char[] getTextCharacters() {
+        return getText().toCharArray();
+    }
+
+    @Override
+    public int getTextCharacters(int sourceStart, char[] target, int targetStart, int length) {
+        String text = getText();
+        int len = Math.min(length, text.length() - sourceStart);
+        if (len <= 0) {
+            return 0;
+        }
+        text.getChars(sourceStart, sourceStart + len, target, targetStart);
+        return len;
+    }
+
+    @Override
+    public int getTextStart() {
+        return 0;
+    }
+
+    @Override
+    public int getTextLength() {
+        return getText().length();
+    }
+
+    @Override
+    public Location getLocation() {
+        final Event event = current;
+        return new Location() {
+            @Override
+            public int getLineNumber() {
+                return event.line;
+            }
+
+            @Override
+            public int getColumnNumber() {
+                return event.column;
+            }
+
+            @Override
+            public int getCharacterOffset() {
+                return -1;
+            }
+
+            @Override
+            public String getPublicId() {
+                return null;
+            }
+
+            @Override
+            public String getSystemId() {
+                return null;
+            }
+        };
+    }
+
+    @Override
+    public String getEncoding() {
+        return encoding;
+    }
+
+    @Override
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean isStandalone() {
+        return standalone;
+    }
+
+    @Override
+    public boolean standaloneSet() {
+        return standaloneSet;
+    }
+
+    @Override
+    public String getCharacterEncodingScheme() {
+        return characterEncodingScheme;
+    }
+
+    @Override
+    public String getPITarget() {
+        return null;
+    }
+
+    @Override
+    public String getPIData() {
+        return null;
+    }
+
+    private void checkStartElement() {
+        if (current.type != XMLStreamConstants.START_ELEMENT) {
+            throw new IllegalStateException("Current event is not START_ELEMENT");
+        }
+    }
+
+    private static final class Batch {
+
+        private final List<Event> events;
+        private Throwable error;
+
+        private Batch(int capacity) {
+            this.events = new ArrayList<>(capacity);
+        }
+    }
+
+    private static final class Event {
+
+        private static final Event START_DOCUMENT = new Event(XMLStreamConstants.START_DOCUMENT);
+        private final int type;
+        private String localName;
+        private String namespaceURI;
+        private String prefix;
+        private String[] namespacePrefixes;
+        private String[] namespaceURIs;
+        private QName[] attributeNames;
+        private String[] attributeValues;
+        private String text;
+        private boolean whiteSpace;
+        private int line = -1;
+        private int column = -1;
+
+        private Event(int type) {
+            this.type = type;
+        }
+    }
+
+    /**
+     * Namespaces declared by an element, over those of its enclosing elements.
+     */
+    private static final class Scope implements NamespaceContext {
+
+        private static final Scope ROOT = new Scope(null, new String[0], new String[0]);
+        private final Scope parent;
+        private final String[] prefixes;
+        private final String[] namespaceURIs;
+
+        private Scope(Scope parent, String[] prefixes, String[] namespaceURIs) {
+            this.parent = parent;
+            this.prefixes = prefixes;
+            this.namespaceURIs = namespaceURIs;
+        }
+
+        @Override
+        public String getNamespaceURI(String prefix) {
+            if (prefix == null) {
+                throw new IllegalArgumentException("Prefix can't be null");
+            } else if (prefix.equals(XMLConstants.XML_NS_PREFIX)) {
+                return XMLConstants.XML_NS_URI;
+            } else if (prefix.equals(XMLConstants.XMLNS_ATTRIBUTE)) {
+                return XMLConstants.XMLNS_ATTRIBUTE_NS_URI;
+            }
+            for (Scope s = this; s != null; s = s.parent) {
+                for (int i = 0; i < s.prefixes.length; i++) {
+                    if (s.prefixes[i].equals(prefix)) {
+                        return s.namespaceURIs[i] != null ? s.namespaceURIs[i] : XMLConstants.NULL_NS_URI;
+                    }
+                }
+            }
+            return XMLConstants.NULL_NS_URI;
+        }
+
+        @Override
+        public String getPrefix(String namespaceURI) {
+            Iterator<String> prefixes = getPrefixes(namespaceURI);
+            return prefixes.hasNext() ? prefixes.next() : null;
+        }
+
+        @Override
+        public Iterator<String> getPrefixes(String namespaceURI) {
+            if (namespaceURI == null) {
+                throw new IllegalArgumentException("Namespace URI can't be null");
+            }
+            Set<String> result = new LinkedHashSet<>();
+            if (namespaceURI.equals(XMLConstants.XML_NS_URI)) {
+                result.add(XMLConstants.XML_NS_PREFIX);
+            } else if (namespaceURI.equals(XMLConstants.XMLNS_ATTRIBUTE_NS_URI)) {
+                result.add(XMLConstants.XMLNS_ATTRIBUTE);
+            } else {
+                //Prefixes redeclared by an inner element are not bound to outer URIs
+                for (Scope s = this; s != null; s = s.parent) {
+                    for (String prefix : s.prefixes) {
+                        if (getNamespaceURI(prefix).equals(namespaceURI)) {
+                            result.add(prefix);
+                        }
+                    }
+                }
+            }
+            return result.iterator();
+        }
+    }
+}
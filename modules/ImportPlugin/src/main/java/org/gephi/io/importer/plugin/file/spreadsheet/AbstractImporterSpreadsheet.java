@@ -110,23 +110,7 @@ public abstract class AbstractImporterSpreadsheet implements FileImporter, FileI
         this.container.setTimeZone(generalConfig.getTimeZone());
 
         try (SheetParser parser = createParser()) {
-            switch (getMode()) {
-                case NODES_TABLE:
-                    importer = new ImportNodesProcess(generalConfig, parser, container, progressTicket);
-                    break;
-                case EDGES_TABLE:
-                    importer = new ImportEdgesProcess(generalConfig, parser, container, progressTicket);
-                    break;
-                case ADJACENCY_LIST:
-                    importer = new ImportAdjacencyListProcess(generalConfig, container, progressTicket, parser);
-                    break;
-                case MATRIX:
-                    importer = new ImportMatrixProcess(generalConfig, container, progressTicket, parser);
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unknown mode " + getMode());
-            }
-
+            importer = createImportProcess(parser);
             importer.execute();
         } catch (IOException ex) {
             Exceptions.printStackTrace(ex);
@@ -140,6 +124,21 @@ public abstract class AbstractImporterSpreadsheet implements FileImporter, FileI
         return !cancel;
     }
 
+    protected AbstractImportProcess createImportProcess(SheetParser parser) throws IOException {
+        switch (getMode()) {
+            case NODES_TABLE:
+                return new ImportNodesProcess(generalConfig, parser, container, progressTicket);
+            case EDGES_TABLE:
+                return new ImportEdgesProcess(generalConfig, parser, container, progressTicket);
+            case ADJACENCY_LIST:
+                return new ImportAdjacencyListProcess(generalConfig, container, progressTicket, parser);
+            case MATRIX:
+                return new ImportMatrixProcess(generalConfig, container, progressTicket, parser);
+            default:
+                throw new IllegalArgumentException("Unknown mode " + getMode());
+        }
+    }
+
     public abstract SheetParser createParser() throws IOException;
 
     public abstract SheetParser createParserWithoutHeaders() throws IOException;
@@ -49,8 +49,14 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import org.apache.commons.csv.CSVParser;
 import org.gephi.io.importer.api.ImportUtils;
+import org.gephi.io.importer.plugin.file.spreadsheet.process.AbstractImportProcess;
+import org.gephi.io.importer.plugin.file.spreadsheet.process.ImportEdgesProcess;
+import org.gephi.io.importer.plugin.file.spreadsheet.process.ImportMappedEdgesProcess;
 import org.gephi.io.importer.plugin.file.spreadsheet.process.SpreadsheetGeneralConfiguration;
 import org.gephi.io.importer.plugin.file.spreadsheet.sheet.EmptySheet;
 import org.gephi.io.importer.plugin.file.spreadsheet.sheet.ErrorSheet;
@@ -65,8 +71,13 @@ import org.openide.filesystems.FileUtil;
  */
 public class ImporterSpreadsheetCSV extends AbstractImporterSpreadsheet {
 
+    private static final long DEFAULT_MAPPED_EDGES_TABLE_THRESHOLD = 16 * 1024 * 1024;
+    private static final Set<Charset> ASCII_COMPATIBLE_CHARSETS = new HashSet<>(Arrays.asList(
+        StandardCharsets.UTF_8, StandardCharsets.US_ASCII, StandardCharsets.ISO_8859_1));
+
     protected char fieldDelimiter = ',';
     protected Charset charset = StandardCharsets.UTF_8;
+    protected long mappedEdgesTableThreshold = DEFAULT_MAPPED_EDGES_TABLE_THRESHOLD;
 
     @Override
     public SheetParser createParserWithoutHeaders() throws IOException {
@@ -82,6 +93,44 @@ public class ImporterSpreadsheetCSV extends AbstractImporterSpreadsheet {
         return createParser(withFirstRecordAsHeader);
     }
 
+    @Override
+    protected AbstractImportProcess createImportProcess(SheetParser parser) throws IOException {
+        if (parser instanceof CSVSheetParser && canUseMappedEdgesTable()) {
+            return new ImportMappedEdgesProcess(generalConfig, parser, container, progressTicket, file,
+                fieldDelimiter, charset);
+        }
+        return super.createImportProcess(parser);
+    }
+
+    /**
+     * Large edges tables with only source, target and numeric weight columns can be parsed in parallel from a
+     * memory-mapped file.
+     */
+    private boolean canUseMappedEdgesTable() {
+        if (getMode() != SpreadsheetGeneralConfiguration.Mode.EDGES_TABLE
+            || file.length() < mappedEdgesTableThreshold
+            || !ImportMappedEdgesProcess.isSupportedDelimiter(fieldDelimiter)
+            || !ASCII_COMPATIBLE_CHARSETS.contains(charset)) {
+            return false;
+        }
+
+        Set<String> columns = new HashSet<>();
+        for (Map.Entry<String, Class> entry : generalConfig.getColumnsClasses().entrySet()) {
+            String column = entry.getKey().trim().toLowerCase();
+            if (!columns.add(column)) {
+                return false;
+            }
+            if (column.equals(ImportEdgesProcess.EDGE_SOURCE) || column.equals(ImportEdgesProcess.EDGE_TARGET)) {
+                continue;
+            }
+            if (!column.equals("weight")
+                || !(entry.getValue() == Double.class || entry.getValue() == Float.class)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private SheetParser createParser(boolean withFirstRecordAsHeader) throws IOException {
         try {
             CSVParser csvParser =
@@ -179,6 +228,20 @@ public class ImporterSpreadsheetCSV extends AbstractImporterSpreadsheet {
         this.fieldDelimiter = fieldDelimiter;
     }
 
+    /**
+     * Returns the file size, in bytes, from which edges tables are imported with the parallel memory-mapped
+     * parser when possible.
+     *
+     * @return threshold in bytes
+     */
+    public long getMappedEdgesTableThreshold() {
+        return mappedEdgesTableThreshold;
+    }
+
+    public void setMappedEdgesTableThreshold(long mappedEdgesTableThreshold) {
+        this.mappedEdgesTableThreshold = mappedEdgesTableThreshold;
+    }
+
     public Charset getCharset() {
         return charset;
     }
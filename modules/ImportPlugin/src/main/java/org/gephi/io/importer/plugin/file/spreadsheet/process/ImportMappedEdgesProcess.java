@@ -0,0 +1,698 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.importer.plugin.file.spreadsheet.process;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.gephi.io.importer.api.ContainerLoader;
+import org.gephi.io.importer.api.EdgeDirection;
+import org.gephi.io.importer.api.EdgeDirectionDefault;
+import org.gephi.io.importer.api.EdgeDraft;
+import org.gephi.io.importer.api.NodeDraft;
+import org.gephi.io.importer.plugin.file.spreadsheet.SpreadsheetUtils;
+import org.gephi.io.importer.plugin.file.spreadsheet.sheet.SheetParser;
+import org.gephi.utils.progress.Progress;
+import org.gephi.utils.progress.ProgressTicket;
+import org.openide.util.NbBundle;
+
+/**
+ * Edges table import process for large CSV files that only contain source, target and (numeric) weight columns.
+ * <p>
+ * The file is memory-mapped and split into line-aligned chunks which are parsed in parallel directly from the
+ * bytes. Each chunk resolves its node ids through a local dictionary so a string is only created once per distinct
+ * id and chunk. Parsed chunks are then merged into the container sequentially, in file order, so the resulting
+ * container is the same as the one produced by {@link ImportEdgesProcess}.
+ * <p>
+ * The charset must be ASCII-compatible. When the file contains quotes or escape characters, the import falls back
+ * to {@link ImportEdgesProcess}.
+ */
+public class ImportMappedEdgesProcess extends AbstractImportProcess {
+
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_CHUNK_SIZE = 256 * 1024 * 1024;
+    private static final int BOUNDARY_SEARCH_BUFFER_SIZE = 8192;
+    private static final byte[] UTF8_BOM = new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private final File file;
+    private final byte delimiter;
+    private final Charset charset;
+    private final int threads;
+    private volatile boolean stopped = false;
+
+    public ImportMappedEdgesProcess(SpreadsheetGeneralConfiguration generalConfig, SheetParser parser,
+                                    ContainerLoader container, ProgressTicket progressTicket, File file,
+                                    char fieldDelimiter, Charset charset) throws IOException {
+        super(generalConfig, container, progressTicket, parser);
+        this.file = file;
+        this.delimiter = (byte) fieldDelimiter;
+        this.charset = charset;
+        this.threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+        //Same default container configuration as ImportEdgesProcess:
+        container.setAllowAutoNode(true);
+        container.setAllowParallelEdge(true);
+        container.setAllowSelfLoop(true);
+        container.setEdgeDefault(EdgeDirectionDefault.MIXED);
+        //Edges are complete when added, they can be stored in columns and spilled to disk:
+        container.setSpillEdges(true);
+    }
+
+    /**
+     * Returns <code>true</code> if the given delimiter can be handled by this process.
+     *
+     * @param fieldDelimiter field delimiter
+     * @return <code>true</code> if supported, <code>false</code> otherwise
+     */
+    public static boolean isSupportedDelimiter(char fieldDelimiter) {
+        return fieldDelimiter > ' ' && fieldDelimiter < 128 && fieldDelimiter != '"' && fieldDelimiter != '\\';
+    }
+
+    @Override
+    public boolean execute() {
+        ExecutorService executor = null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long[] boundaries = computeChunkBoundaries(channel);
+
+            executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "CSV Edges Import");
+                t.setDaemon(true);
+                return t;
+            });
+
+            if (containsQuotesOrEscapes(channel, boundaries, executor)) {
+                executor.shutdownNow();
+                executor = null;
+                return executeFallback();
+            }
+
+            setupColumnsIndexesAndFindSpecialColumns(
+                Arrays.asList(ImportEdgesProcess.EDGE_SOURCE, ImportEdgesProcess.EDGE_TARGET,
+                    ImportEdgesProcess.EDGE_TYPE, ImportEdgesProcess.EDGE_KIND, ImportEdgesProcess.EDGE_ID,
+                    ImportEdgesProcess.EDGE_LABEL),
+                generalConfig.getColumnsClasses());
+
+            Integer sourceColumnIndex = specialColumnsIndexMap.get(ImportEdgesProcess.EDGE_SOURCE);
+            Integer targetColumnIndex = specialColumnsIndexMap.get(ImportEdgesProcess.EDGE_TARGET);
+            Integer weightColumnIndex = null;
+            String weightColumn = null;
+            for (String column : headersIndexMap.keySet()) {
+                if (column.equalsIgnoreCase("weight")) {
+                    weightColumn = column;
+                    weightColumnIndex = headersIndexMap.get(column);
+                }
+            }
+
+            ChunkFormat format = new ChunkFormat(
+                parser.getHeaderMap().size(),
+                sourceColumnIndex != null ? sourceColumnIndex : -1,
+                targetColumnIndex != null ? targetColumnIndex : -1,
+                weightColumnIndex != null ? weightColumnIndex : -1,
+                weightColumn,
+                weightColumn != null && headersClassMap.get(weightColumn) == Float.class
+            );
+
+            parseAndMerge(channel, boundaries, format, executor);
+        } catch (IOException ex) {
+            logError(ex.getMessage());
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+
+        return !cancel;
+    }
+
+    private boolean executeFallback() {
+        ImportEdgesProcess fallback;
+        try {
+            fallback = new ImportEdgesProcess(generalConfig, parser, container, progressTicket);
+        } catch (IOException ex) {
+            logError(ex.getMessage());
+            return false;
+        }
+        boolean result = fallback.execute();
+        report.append(fallback.getReport());
+        return result;
+    }
+
+    @Override
+    public boolean cancel() {
+        stopped = true;
+        return super.cancel();
+    }
+
+    /**
+     * Splits the file in line-aligned chunks. The first chunk starts after the BOM, leading empty lines and header.
+     */
+    private long[] computeChunkBoundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long dataStart = findDataStart(channel, size);
+
+        long chunkSize = (size - dataStart) / ((long) threads * 4);
+        chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, chunkSize));
+
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(dataStart);
+        long position = dataStart;
+        while (position < size) {
+            long next = position + chunkSize;
+            if (next >= size) {
+                next = size;
+            } else {
+                next = findLineEnd(channel, next, size);
+                if (next - position > Integer.MAX_VALUE) {
+                    throw new IOException("Line too long at position " + position);
+                }
+            }
+            boundaries.add(next);
+            position = next;
+        }
+
+        long[] result = new long[boundaries.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = boundaries.get(i);
+        }
+        return result;
+    }
+
+    private long findDataStart(FileChannel channel, long size) throws IOException {
+        long position = 0;
+        ByteBuffer bom = ByteBuffer.allocate(UTF8_BOM.length);
+        channel.read(bom, 0);
+        if (bom.position() == UTF8_BOM.length && Arrays.equals(bom.array(), UTF8_BOM)) {
+            position = UTF8_BOM.length;
+        }
+
+        //Skip empty lines before the header, as the CSV parser does:
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SEARCH_BUFFER_SIZE);
+        while (position < size) {
+            buffer.clear();
+            channel.read(buffer, position);
+            buffer.flip();
+            int skipped = 0;
+            while (skipped < buffer.limit() && isLineEnd(buffer.get(skipped))) {
+                skipped++;
+            }
+            position += skipped;
+            if (skipped < buffer.limit()) {
+                break;
+            }
+        }
+
+        return findLineEnd(channel, position, size);
+    }
+
+    /**
+     * Returns the position right after the first line terminator found from <code>position</code>, or the file size.
+     * A <code>\r\n</code> sequence is a single terminator, even across the search buffer.
+     */
+    private static long findLineEnd(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SEARCH_BUFFER_SIZE);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (isLineEnd(b)) {
+                    long end = position + i + 1;
+                    if (b == '\r' && end < size) {
+                        byte next;
+                        if (i + 1 < read) {
+                            next = buffer.get(i + 1);
+                        } else {
+                            ByteBuffer single = ByteBuffer.allocate(1);
+                            channel.read(single, end);
+                            next = single.get(0);
+                        }
+                        if (next == '\n') {
+                            end++;
+                        }
+                    }
+                    return end;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static boolean isLineEnd(byte b) {
+        return b == '\n' || b == '\r';
+    }
+
+    private boolean containsQuotesOrEscapes(FileChannel channel, long[] boundaries, ExecutorService executor)
+        throws IOException {
+        List<Future<Boolean>> futures = new ArrayList<>();
+        //Also check the header line, in case it is quoted:
+        futures.add(executor.submit(() -> containsQuotesOrEscapes(channel.map(FileChannel.MapMode.READ_ONLY,
+            0, boundaries[0]))));
+        for (int i = 0; i < boundaries.length - 1; i++) {
+            long start = boundaries[i];
+            long length = boundaries[i + 1] - start;
+            futures.add(executor.submit(() -> !stopped && containsQuotesOrEscapes(
+                channel.map(FileChannel.MapMode.READ_ONLY, start, length))));
+        }
+
+        boolean found = false;
+        for (Future<Boolean> future : futures) {
+            found |= get(future);
+        }
+        return found;
+    }
+
+    private static boolean containsQuotesOrEscapes(MappedByteBuffer buffer) {
+        int limit = buffer.limit();
+        for (int i = 0; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '"' || b == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void parseAndMerge(FileChannel channel, long[] boundaries, ChunkFormat format,
+                               ExecutorService executor) throws IOException {
+        int chunkCount = boundaries.length - 1;
+        Progress.start(progressTicket, chunkCount);
+
+        //Keep a bounded number of parsed chunks in flight so memory stays proportional to the thread count:
+        Deque<Future<ChunkResult>> pending = new ArrayDeque<>();
+        int submitted = 0;
+        long linesBefore = 1;//Header line
+        for (int merged = 0; merged < chunkCount && !cancel; merged++) {
+            while (submitted < chunkCount && pending.size() < threads * 2) {
+                long start = boundaries[submitted];
+                long length = boundaries[submitted + 1] - start;
+                pending.add(executor.submit(new ChunkParser(channel, start, (int) length, format)));
+                submitted++;
+            }
+
+            ChunkResult result = get(pending.poll());
+            if (result == null) {
+                break;
+            }
+            merge(result, format, linesBefore);
+            linesBefore += result.lineCount;
+            Progress.progress(progressTicket);
+        }
+
+        for (Future<ChunkResult> future : pending) {
+            future.cancel(true);
+        }
+
+        Progress.finish(progressTicket);
+    }
+
+    private void merge(ChunkResult result, ChunkFormat format, long linesBefore) {
+        for (int i = 0; i < result.errorLines.size(); i++) {
+            long recordNumber = linesBefore + result.errorLines.getInt(i);
+            SpreadsheetUtils.logError(report, "[" +
+                NbBundle.getMessage(SpreadsheetUtils.class, "SpreadsheetUtils.recordNumber", recordNumber) + "] " +
+                result.errorMessages.get(i), null);
+        }
+
+        //Resolve each distinct id of the chunk once:
+        NodeDraft[] nodes = new NodeDraft[result.idCount];
+        for (int i = 0; i < result.idCount; i++) {
+            String id = result.ids[i];
+            NodeDraft node;
+            if (!container.nodeExists(id)) {
+                node = container.factory().newNodeDraft(id);
+                container.addNode(node);
+            } else {
+                node = container.getNode(id);
+            }
+            nodes[i] = node;
+        }
+
+        for (int i = 0; i < result.edgeCount; i++) {
+            EdgeDraft edge = container.factory().newEdgeDraft();
+            edge.setSource(nodes[result.sources[i]]);
+            edge.setTarget(nodes[result.targets[i]]);
+            edge.setDirection(EdgeDirection.DIRECTED);
+            if (result.weights != null) {
+                edge.setWeight(result.weights[i]);
+            }
+            container.addEdge(edge);
+        }
+    }
+
+    private <T> T get(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            cancel();
+            return null;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    @Override
+    protected void addColumn(String name, Class type) {
+        container.addEdgeColumn(name, type);
+    }
+
+    private static final class ChunkFormat {
+
+        private final int columnCount;
+        private final int sourceIndex;
+        private final int targetIndex;
+        private final int weightIndex;
+        private final String weightColumn;
+        private final boolean floatWeight;
+
+        ChunkFormat(int columnCount, int sourceIndex, int targetIndex, int weightIndex, String weightColumn,
+                    boolean floatWeight) {
+            this.columnCount = columnCount;
+            this.sourceIndex = sourceIndex;
+            this.targetIndex = targetIndex;
+            this.weightIndex = weightIndex;
+            this.weightColumn = weightColumn;
+            this.floatWeight = floatWeight;
+        }
+    }
+
+    private static final class ChunkResult {
+
+        private final IntArrayList errorLines = new IntArrayList();
+        private final List<String> errorMessages = new ArrayList<>();
+        private String[] ids;
+        private int idCount;
+        private int[] sources;
+        private int[] targets;
+        private double[] weights;
+        private int edgeCount;
+        private int lineCount;
+    }
+
+    private final class ChunkParser implements Callable<ChunkResult> {
+
+        private final FileChannel channel;
+        private final long start;
+        private final int length;
+        private final ChunkFormat format;
+        private final int[] fieldStarts;
+        private final int[] fieldEnds;
+        private ChunkResult result;
+        //Open-addressing dictionary of byte slices to local node indices:
+        private int[] table;
+        private int[] hashes;
+        private byte[][] keys;
+
+        ChunkParser(FileChannel channel, long start, int length, ChunkFormat format) {
+            this.channel = channel;
+            this.start = start;
+            this.length = length;
+            this.format = format;
+            this.fieldStarts = new int[format.columnCount + 1];
+            this.fieldEnds = new int[format.columnCount + 1];
+        }
+
+        @Override
+        public ChunkResult call() throws IOException {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            byte[] bytes = new byte[Math.min(length, MIN_CHUNK_SIZE)];
+
+            int estimatedEdges = Math.max(16, Math.min(length / 32, 1 << 16));
+            result = new ChunkResult();
+            result.ids = new String[estimatedEdges];
+            result.sources = new int[estimatedEdges];
+            result.targets = new int[estimatedEdges];
+            result.weights = format.weightIndex >= 0 ? new double[estimatedEdges] : null;
+            table = new int[Integer.highestOneBit(estimatedEdges) << 2];
+            Arrays.fill(table, -1);
+            hashes = new int[estimatedEdges];
+            keys = new byte[estimatedEdges][];
+
+            int position = 0;
+            while (position < length && !stopped) {
+                //Find line end:
+                int end = position;
+                while (end < length && !isLineEnd(buffer.get(end))) {
+                    end++;
+                }
+                int lineLength = end - position;
+                if (lineLength > 0) {
+                    if (bytes.length < lineLength) {
+                        bytes = new byte[Math.max(lineLength, bytes.length * 2)];
+                    }
+                    buffer.position(position);
+                    buffer.get(bytes, 0, lineLength);
+                    parseLine(bytes, lineLength);
+                }
+                //A \r\n sequence counts as a single line:
+                if (end < length - 1 && buffer.get(end) == '\r' && buffer.get(end + 1) == '\n') {
+                    end++;
+                }
+                result.lineCount++;
+                position = end + 1;
+            }
+
+            return result;
+        }
+
+        private void parseLine(byte[] line, int lineLength) {
+            int fields = 0;
+            int fieldStart = 0;
+            for (int i = 0; i <= lineLength; i++) {
+                if (i == lineLength || line[i] == delimiter) {
+                    if (fields < fieldStarts.length) {
+                        //Trim like the CSV parser does:
+                        int s = fieldStart;
+                        int e = i;
+                        while (s < e && (line[s] & 0xFF) <= ' ') {
+                            s++;
+                        }
+                        while (e > s && (line[e - 1] & 0xFF) <= ' ') {
+                            e--;
+                        }
+                        fieldStarts[fields] = s;
+                        fieldEnds[fields] = e;
+                    }
+                    fields++;
+                    fieldStart = i + 1;
+                }
+            }
+
+            if (fields != format.columnCount) {
+                error(NbBundle.getMessage(AbstractImportProcess.class, "AbstractImportProcess.error.inconsistentRow"));
+                return;
+            }
+
+            //Both ids are checked before interning any, a rejected row must not create nodes
+            boolean endpoints = hasField(format.sourceIndex) && hasField(format.targetIndex);
+
+            double weight = 1.0;
+            if (format.weightIndex >= 0) {
+                weight = parseWeight(line, fieldStarts[format.weightIndex], fieldEnds[format.weightIndex]);
+            }
+
+            if (!endpoints) {
+                error(NbBundle
+                    .getMessage(ImportEdgesProcess.class, "ImportEdgesProcess.error.noSourceOrTargetData"));
+                return;
+            }
+            int source = lookup(line, format.sourceIndex);
+            int target = lookup(line, format.targetIndex);
+
+            int index = result.edgeCount;
+            if (index == result.sources.length) {
+                int newLength = result.sources.length * 2;
+                result.sources = Arrays.copyOf(result.sources, newLength);
+                result.targets = Arrays.copyOf(result.targets, newLength);
+                if (result.weights != null) {
+                    result.weights = Arrays.copyOf(result.weights, newLength);
+                }
+            }
+            result.sources[index] = source;
+            result.targets[index] = target;
+            if (result.weights != null) {
+                result.weights[index] = weight;
+            }
+            result.edgeCount++;
+        }
+
+        private double parseWeight(byte[] line, int s, int e) {
+            if (s == e) {
+                return 1.0;
+            }
+
+            double value = parseSimpleDecimal(line, s, e);
+            //Rounding the double again to a float may differ from parsing the float, unless it is exact:
+            if (Double.isNaN(value) || (format.floatWeight && (float) value != value)) {
+                String text = new String(line, s, e - s, charset);
+                try {
+                    value = format.floatWeight ? Float.parseFloat(text) : Double.parseDouble(text);
+                } catch (NumberFormatException ex) {
+                    error(NbBundle.getMessage(AbstractImportProcess.class, "AbstractImportProcess.error.parseError",
+                        text, format.floatWeight ? "Float" : "Double", format.weightColumn));
+                    return 1.0;
+                }
+            }
+            return value;
+        }
+
+        /**
+         * Parses plain decimals like <code>-12.375</code> with up to 15 significant digits, which are converted
+         * exactly. Returns NaN for anything else.
+         */
+        private double parseSimpleDecimal(byte[] line, int s, int e) {
+            boolean negative = false;
+            if (line[s] == '-' || line[s] == '+') {
+                negative = line[s] == '-';
+                s++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int decimals = -1;
+            for (int i = s; i < e; i++) {
+                byte b = line[i];
+                if (b >= '0' && b <= '9') {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                    if (decimals >= 0) {
+                        decimals++;
+                    }
+                } else if (b == '.' && decimals < 0) {
+                    decimals = 0;
+                } else {
+                    return Double.NaN;
+                }
+            }
+            if (digits == 0 || digits > 15 || decimals > 15) {
+                return Double.NaN;
+            }
+            double value = decimals > 0 ? mantissa / POWERS_OF_TEN[decimals] : mantissa;
+            return negative ? -value : value;
+        }
+
+        private boolean hasField(int field) {
+            return field >= 0 && fieldStarts[field] < fieldEnds[field];
+        }
+
+        private int lookup(byte[] line, int field) {
+            int s = fieldStarts[field];
+            int e = fieldEnds[field];
+
+            int hash = 1;
+            for (int i = s; i < e; i++) {
+                hash = 31 * hash + line[i];
+            }
+            int mask = table.length - 1;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (table[slot] != -1) {
+                int candidate = table[slot];
+                if (hashes[candidate] == hash && Arrays.equals(keys[candidate], 0, keys[candidate].length,
+                    line, s, e)) {
+                    return candidate;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            int index = result.idCount;
+            if (index == keys.length) {
+                int newLength = keys.length * 2;
+                keys = Arrays.copyOf(keys, newLength);
+                hashes = Arrays.copyOf(hashes, newLength);
+                result.ids = Arrays.copyOf(result.ids, newLength);
+            }
+            keys[index] = Arrays.copyOfRange(line, s, e);
+            hashes[index] = hash;
+            result.ids[index] = new String(line, s, e - s, charset);
+            result.idCount++;
+            table[slot] = index;
+            if (result.idCount * 2 > table.length) {
+                rehash();
+            }
+            return index;
+        }
+
+        private void rehash() {
+            table = new int[table.length * 2];
+            Arrays.fill(table, -1);
+            int mask = table.length - 1;
+            for (int i = 0; i < result.idCount; i++) {
+                int hash = hashes[i];
+                int slot = (hash ^ (hash >>> 16)) & mask;
+                while (table[slot] != -1) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = i;
+            }
+        }
+
+        private void error(String message) {
+            result.errorLines.add(result.lineCount + 1);
+            result.errorMessages.add(message);
+        }
+    }
+
+    private static final double[] POWERS_OF_TEN = new double[] {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+}
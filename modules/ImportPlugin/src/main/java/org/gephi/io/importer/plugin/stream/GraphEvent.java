@@ -0,0 +1,199 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.importer.plugin.stream;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Node or edge event received by the {@link GraphStreamServer}. Successive events of the same element are merged
+ * into a single one before being applied.
+ */
+final class GraphEvent {
+
+    enum Kind {
+        ADD, CHANGE, DELETE, REPLACE
+    }
+
+    private final boolean edge;
+    private final String id;
+    private final Map<String, JsonElement> attributes = new LinkedHashMap<>();
+    private Kind kind;
+    //Whether an add was merged, so the element may only exist within the batch
+    private boolean added;
+
+    GraphEvent(boolean edge, String id, Kind kind, JsonObject attributes) {
+        this.edge = edge;
+        this.id = id;
+        this.kind = kind;
+        this.added = kind == Kind.ADD || kind == Kind.REPLACE;
+        if (attributes != null && kind != Kind.DELETE) {
+            for (Map.Entry<String, JsonElement> entry : attributes.entrySet()) {
+                this.attributes.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Parses one line of the protocol, a JSON object with <code>an</code>, <code>cn</code>, <code>dn</code>,
+     * <code>ae</code>, <code>ce</code> or <code>de</code> keys, each mapping element ids to their attributes.
+     *
+     * @param object the event object
+     * @return the events, in order
+     * @throws IllegalArgumentException if the object is not a valid event
+     */
+    static List<GraphEvent> parse(JsonObject object) {
+        List<GraphEvent> events = new ArrayList<>();
+        for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+            String type = entry.getKey();
+            if (type.length() != 2 || !entry.getValue().isJsonObject()) {
+                throw new IllegalArgumentException("Unknown event '" + type + "'");
+            }
+            Kind kind;
+            switch (type.charAt(0)) {
+                case 'a':
+                    kind = Kind.ADD;
+                    break;
+                case 'c':
+                    kind = Kind.CHANGE;
+                    break;
+                case 'd':
+                    kind = Kind.DELETE;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown event '" + type + "'");
+            }
+            boolean edge;
+            switch (type.charAt(1)) {
+                case 'n':
+                    edge = false;
+                    break;
+                case 'e':
+                    edge = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown event '" + type + "'");
+            }
+            for (Map.Entry<String, JsonElement> element : entry.getValue().getAsJsonObject().entrySet()) {
+                JsonElement value = element.getValue();
+                events.add(new GraphEvent(edge, element.getKey(), kind,
+                    value.isJsonObject() ? value.getAsJsonObject() : null));
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Merges a later event of the same element into this one.
+     *
+     * @param next the later event
+     */
+    void merge(GraphEvent next) {
+        switch (next.kind) {
+            case DELETE:
+                kind = Kind.DELETE;
+                attributes.clear();
+                break;
+            case ADD:
+            case REPLACE:
+                added = true;
+                if (kind == Kind.DELETE) {
+                    kind = Kind.REPLACE;
+                    attributes.clear();
+                } else if (kind == Kind.CHANGE) {
+                    kind = Kind.ADD;
+                }
+                attributes.putAll(next.attributes);
+                break;
+            case CHANGE:
+                //A change after a delete is ignored, as it would be applied sequentially
+                if (kind != Kind.DELETE) {
+                    attributes.putAll(next.attributes);
+                }
+                break;
+        }
+    }
+
+    boolean isEdge() {
+        return edge;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    boolean isAdded() {
+        return added;
+    }
+
+    /**
+     * Returns the ids of the nodes this event refers to, the endpoints of an added edge.
+     *
+     * @return the source and target ids, or an empty list
+     */
+    List<String> getNodeIds() {
+        List<String> ids = new ArrayList<>(2);
+        if (edge) {
+            JsonElement source = attributes.get("source");
+            JsonElement target = attributes.get("target");
+            if (source != null && source.isJsonPrimitive()) {
+                ids.add(source.getAsString());
+            }
+            if (target != null && target.isJsonPrimitive()) {
+                ids.add(target.getAsString());
+            }
+        }
+        return ids;
+    }
+
+    Map<String, JsonElement> getAttributes() {
+        return attributes;
+    }
+}
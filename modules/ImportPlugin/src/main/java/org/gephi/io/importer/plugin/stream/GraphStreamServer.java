@@ -0,0 +1,546 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.importer.plugin.stream;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import java.awt.Color;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.gephi.graph.api.AttributeUtils;
+import org.gephi.graph.api.Column;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.Element;
+import org.gephi.graph.api.Graph;
+import org.gephi.graph.api.GraphModel;
+import org.gephi.graph.api.Node;
+import org.gephi.graph.api.Table;
+import org.gephi.io.importer.plugin.stream.GraphEvent.Kind;
+
+/**
+ * Local endpoint applying a stream of graph events to a graph model.
+ * <p>
+ * The server listens on the loopback interface only. Clients send one JSON
+ * object per line, using the graph streaming event names:
+ * <pre>
+ * {"an":{"A":{"label":"Node A","size":2}}}
+ * {"ae":{"AB":{"source":"A","target":"B","directed":false,"weight":2}}}
+ * {"cn":{"A":{"x":10,"color":"#ff0000"}}}
+ * {"dn":{"A":{}}}
+ * </pre>
+ * The <code>label</code>, <code>size</code>, <code>x</code>, <code>y</code>,
+ * <code>z</code>, <code>r</code>, <code>g</code>, <code>b</code>,
+ * <code>color</code> and <code>weight</code> keys set the element properties,
+ * other keys are attributes. Missing attribute columns are created.
+ * <p>
+ * Events are queued and applied by batches, each under a single graph write
+ * lock. Within a batch, successive events of the same element are coalesced.
+ * The batch is split where an edge event refers to a node deleted earlier in
+ * the batch, or a node is added or deleted after an edge event refers to it,
+ * so the result matches applying the events in order. When the queue is full, reading from the clients is suspended until it
+ * drains, which pushes back on the senders.
+ */
+public class GraphStreamServer implements Closeable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 65536;
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+    private static final Logger LOGGER = Logger.getLogger(GraphStreamServer.class.getName());
+    private final GraphModel graphModel;
+    private final int port;
+    private final int batchSize;
+    private final BlockingQueue<GraphEvent> queue;
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    //Metrics
+    private final AtomicLong receivedEvents = new AtomicLong();
+    private final AtomicLong appliedEvents = new AtomicLong();
+    private final AtomicLong coalescedEvents = new AtomicLong();
+    private final AtomicLong failedEvents = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile long startTime;
+    //State
+    private volatile boolean running;
+    private ServerSocket serverSocket;
+    private Thread applyThread;
+
+    public GraphStreamServer(GraphModel graphModel, int port) {
+        this(graphModel, port, DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a server, which is not started yet.
+     *
+     * @param graphModel    the graph model events are applied to
+     * @param port          the port to listen on, or <code>0</code> for any free port
+     * @param queueCapacity number of events that can wait to be applied
+     * @param batchSize     maximum number of events applied under the same lock
+     */
+    public GraphStreamServer(GraphModel graphModel, int port, int queueCapacity, int batchSize) {
+        if (queueCapacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("The queue capacity and batch size should be positive");
+        }
+        this.graphModel = graphModel;
+        this.port = port;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public synchronized void start() throws IOException {
+        if (running) {
+            throw new IllegalStateException("The server is already started");
+        }
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        startTime = System.nanoTime();
+        running = true;
+
+        applyThread = new Thread(this::applyLoop, "Graph Stream Applier");
+        applyThread.setDaemon(true);
+        applyThread.start();
+
+        Thread acceptThread = new Thread(this::acceptLoop, "Graph Stream Server");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    /**
+     * Stops listening and disconnects the clients. Events not applied yet are
+     * discarded.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        closeQuietly(serverSocket);
+        for (Socket client : clients) {
+            closeQuietly(client);
+        }
+        applyThread.interrupt();
+        try {
+            applyThread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        queue.clear();
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the local port
+     * @throws IllegalStateException if the server is not started
+     */
+    public synchronized int getPort() {
+        if (serverSocket == null) {
+            throw new IllegalStateException("The server is not started");
+        }
+        return serverSocket.getLocalPort();
+    }
+
+    public StreamMetrics getMetrics() {
+        long elapsed = startTime != 0 ? System.nanoTime() - startTime : 0;
+        return new StreamMetrics(receivedEvents.get(), appliedEvents.get(), coalescedEvents.get(),
+            failedEvents.get(), batches.get(), queue.size(), elapsed);
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                clients.add(socket);
+                Thread thread = new Thread(() -> readLoop(socket), "Graph Stream Client " + socket.getPort());
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException ex) {
+                if (running) {
+                    LOGGER.log(Level.WARNING, "Error while accepting a graph stream client", ex);
+                }
+            }
+        }
+    }
+
+    private void readLoop(Socket socket) {
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while (running && (line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                List<GraphEvent> events;
+                try {
+                    JsonElement json = JsonParser.parseString(line);
+                    if (!json.isJsonObject()) {
+                        throw new IllegalArgumentException("Events should be JSON objects");
+                    }
+                    events = GraphEvent.parse(json.getAsJsonObject());
+                } catch (JsonParseException | IllegalArgumentException ex) {
+                    receivedEvents.incrementAndGet();
+                    failedEvents.incrementAndGet();
+                    LOGGER.log(Level.FINE, "Invalid graph stream event: {0}", ex.getMessage());
+                    continue;
+                }
+                for (GraphEvent event : events) {
+                    receivedEvents.incrementAndGet();
+                    //Blocks while the queue is full
+                    queue.put(event);
+                }
+            }
+        } catch (IOException ex) {
+            if (running) {
+                LOGGER.log(Level.FINE, "Graph stream client disconnected", ex);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            clients.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private void applyLoop() {
+        List<GraphEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                GraphEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    apply(batch);
+                }
+            } catch (InterruptedException ex) {
+                return;
+            } catch (RuntimeException ex) {
+                LOGGER.log(Level.SEVERE, "Error while applying graph stream events", ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void apply(List<GraphEvent> batch) {
+        //Coalesce events of the same element
+        Map<String, GraphEvent> nodeEvents = new LinkedHashMap<>();
+        Map<String, GraphEvent> edgeEvents = new LinkedHashMap<>();
+        Set<String> edgeNodeIds = new HashSet<>();
+        for (GraphEvent event : batch) {
+            //Removals are applied first and edges last, split where that would change the result
+            if (dependsOnPending(event, nodeEvents, edgeNodeIds)) {
+                apply(nodeEvents, edgeEvents);
+                nodeEvents.clear();
+                edgeEvents.clear();
+                edgeNodeIds.clear();
+            }
+            Map<String, GraphEvent> events = event.isEdge() ? edgeEvents : nodeEvents;
+            GraphEvent previous = events.putIfAbsent(event.getId(), event);
+            if (previous != null) {
+                previous.merge(event);
+                coalescedEvents.incrementAndGet();
+            }
+            edgeNodeIds.addAll(event.getNodeIds());
+        }
+        apply(nodeEvents, edgeEvents);
+    }
+
+    private static boolean dependsOnPending(GraphEvent event, Map<String, GraphEvent> nodeEvents,
+                                            Set<String> edgeNodeIds) {
+        if (event.isEdge()) {
+            for (String nodeId : event.getNodeIds()) {
+                GraphEvent nodeEvent = nodeEvents.get(nodeId);
+                if (nodeEvent != null
+                    && (nodeEvent.getKind() == Kind.DELETE || nodeEvent.getKind() == Kind.REPLACE)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return event.getKind() != Kind.CHANGE && edgeNodeIds.contains(event.getId());
+    }
+
+    private void apply(Map<String, GraphEvent> nodeEvents, Map<String, GraphEvent> edgeEvents) {
+        if (nodeEvents.isEmpty() && edgeEvents.isEmpty()) {
+            return;
+        }
+        Graph graph = graphModel.getGraph();
+        graph.writeLock();
+        try {
+            //Removals first, so replaced elements can be added again
+            for (GraphEvent event : edgeEvents.values()) {
+                if (event.getKind() == Kind.DELETE || event.getKind() == Kind.REPLACE) {
+                    Edge edge = graph.getEdge(toId(event.getId(), graphModel.getConfiguration().getEdgeIdType()));
+                    if (edge != null) {
+                        graph.removeEdge(edge);
+                    }
+                    if (event.getKind() == Kind.DELETE) {
+                        //An element added and deleted in the same batch may never exist
+                        count(edge != null || event.isAdded());
+                    }
+                }
+            }
+            for (GraphEvent event : nodeEvents.values()) {
+                if (event.getKind() == Kind.DELETE || event.getKind() == Kind.REPLACE) {
+                    Node node = graph.getNode(toId(event.getId(), graphModel.getConfiguration().getNodeIdType()));
+                    if (node != null) {
+                        graph.removeNode(node);
+                    }
+                    if (event.getKind() == Kind.DELETE) {
+                        count(node != null || event.isAdded());
+                    }
+                }
+            }
+
+            //Nodes before edges, which may refer to them
+            for (GraphEvent event : nodeEvents.values()) {
+                if (event.getKind() != Kind.DELETE) {
+                    count(applyNode(graph, event));
+                }
+            }
+            for (GraphEvent event : edgeEvents.values()) {
+                if (event.getKind() != Kind.DELETE) {
+                    count(applyEdge(graph, event));
+                }
+            }
+        } finally {
+            graph.writeUnlock();
+        }
+        batches.incrementAndGet();
+    }
+
+    private boolean applyNode(Graph graph, GraphEvent event) {
+        try {
+            Object id = toId(event.getId(), graphModel.getConfiguration().getNodeIdType());
+            Node node = graph.getNode(id);
+            if (node == null) {
+                if (event.getKind() == Kind.CHANGE) {
+                    return false;
+                }
+                node = graphModel.factory().newNode(id);
+                setAttributes(node, graphModel.getNodeTable(), event.getAttributes());
+                graph.addNode(node);
+            } else {
+                setAttributes(node, graphModel.getNodeTable(), event.getAttributes());
+            }
+            return true;
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.FINE, "Can't apply graph stream event", ex);
+            return false;
+        }
+    }
+
+    private boolean applyEdge(Graph graph, GraphEvent event) {
+        try {
+            Map<String, JsonElement> attributes = event.getAttributes();
+            Object id = toId(event.getId(), graphModel.getConfiguration().getEdgeIdType());
+            Edge edge = graph.getEdge(id);
+            if (edge == null) {
+                if (event.getKind() == Kind.CHANGE || !attributes.containsKey("source")
+                    || !attributes.containsKey("target")) {
+                    return false;
+                }
+                Class nodeIdType = graphModel.getConfiguration().getNodeIdType();
+                Node source = graph.getNode(toId(attributes.get("source").getAsString(), nodeIdType));
+                Node target = graph.getNode(toId(attributes.get("target").getAsString(), nodeIdType));
+                if (source == null || target == null) {
+                    return false;
+                }
+                boolean directed = attributes.containsKey("directed") ? attributes.get("directed").getAsBoolean()
+                    : !graphModel.isUndirected();
+                double weight = attributes.containsKey("weight") ? attributes.get("weight").getAsDouble() : 1.0;
+                edge = graphModel.factory().newEdge(id, source, target, 0, weight, directed);
+                setAttributes(edge, graphModel.getEdgeTable(), attributes);
+                graph.addEdge(edge);
+            } else {
+                setAttributes(edge, graphModel.getEdgeTable(), attributes);
+            }
+            return true;
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.FINE, "Can't apply graph stream event", ex);
+            return false;
+        }
+    }
+
+    private void setAttributes(Element element, Table table, Map<String, JsonElement> attributes) {
+        for (Map.Entry<String, JsonElement> entry : attributes.entrySet()) {
+            String key = entry.getKey();
+            JsonElement value = entry.getValue();
+            switch (key) {
+                case "source":
+                case "target":
+                case "directed":
+                    //Only used when creating edges
+                    break;
+                case "label":
+                    element.setLabel(value.isJsonNull() ? null : value.getAsString());
+                    break;
+                case "r":
+                    element.setR(value.getAsFloat());
+                    break;
+                case "g":
+                    element.setG(value.getAsFloat());
+                    break;
+                case "b":
+                    element.setB(value.getAsFloat());
+                    break;
+                case "color":
+                    element.setColor(Color.decode(value.getAsString()));
+                    break;
+                case "weight":
+                    if (element instanceof Edge) {
+                        ((Edge) element).setWeight(value.getAsDouble());
+                    } else {
+                        setAttribute(element, table, key, value);
+                    }
+                    break;
+                case "size":
+                case "x":
+                case "y":
+                case "z":
+                    if (element instanceof Node) {
+                        setPosition((Node) element, key, value.getAsFloat());
+                    } else {
+                        setAttribute(element, table, key, value);
+                    }
+                    break;
+                default:
+                    setAttribute(element, table, key, value);
+                    break;
+            }
+        }
+    }
+
+    private static void setPosition(Node node, String key, float value) {
+        switch (key) {
+            case "size":
+                node.setSize(value);
+                break;
+            case "x":
+                node.setX(value);
+                break;
+            case "y":
+                node.setY(value);
+                break;
+            default:
+                node.setZ(value);
+                break;
+        }
+    }
+
+    private static void setAttribute(Element element, Table table, String key, JsonElement value) {
+        Column column = table.getColumn(key);
+        if (value.isJsonNull()) {
+            if (column != null) {
+                element.removeAttribute(column);
+            }
+            return;
+        }
+        if (column == null) {
+            column = table.addColumn(key, getType(value));
+        }
+        if (column.isReadOnly()) {
+            return;
+        }
+        String string = value.isJsonPrimitive() ? value.getAsString() : value.toString();
+        Class type = column.getTypeClass();
+        element.setAttribute(column, type.equals(String.class) ? string : AttributeUtils.parse(string, type));
+    }
+
+    private static Class getType(JsonElement value) {
+        if (value.isJsonPrimitive()) {
+            JsonPrimitive primitive = value.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                return Boolean.class;
+            } else if (primitive.isNumber()) {
+                return Double.class;
+            }
+        }
+        return String.class;
+    }
+
+    private static Object toId(String id, Class type) {
+        return type.equals(String.class) ? id : AttributeUtils.parse(id, type);
+    }
+
+    private void count(boolean applied) {
+        if (applied) {
+            appliedEvents.incrementAndGet();
+        } else {
+            failedEvents.incrementAndGet();
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ex) {
+            //NOOP
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.importer.plugin.stream;
+
+/**
+ * Snapshot of the ingestion counters of a {@link GraphStreamServer}.
+ * <p>
+ * Every received event ends up either applied, coalesced into a later event of
+ * the same element or failed, so the server is idle when
+ * {@link #getProcessedEvents()} equals {@link #getReceivedEvents()}.
+ */
+public class StreamMetrics {
+
+    private final long receivedEvents;
+    private final long appliedEvents;
+    private final long coalescedEvents;
+    private final long failedEvents;
+    private final long batches;
+    private final int queuedEvents;
+    private final long elapsedNanos;
+
+    StreamMetrics(long receivedEvents, long appliedEvents, long coalescedEvents, long failedEvents, long batches,
+                  int queuedEvents, long elapsedNanos) {
+        this.receivedEvents = receivedEvents;
+        this.appliedEvents = appliedEvents;
+        this.coalescedEvents = coalescedEvents;
+        this.failedEvents = failedEvents;
+        this.batches = batches;
+        this.queuedEvents = queuedEvents;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getReceivedEvents() {
+        return receivedEvents;
+    }
+
+    public long getAppliedEvents() {
+        return appliedEvents;
+    }
+
+    public long getCoalescedEvents() {
+        return coalescedEvents;
+    }
+
+    public long getFailedEvents() {
+        return failedEvents;
+    }
+
+    public long getProcessedEvents() {
+        return appliedEvents + coalescedEvents + failedEvents;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public int getQueuedEvents() {
+        return queuedEvents;
+    }
+
+    /**
+     * Returns the average number of events processed per second since the
+     * server started.
+     *
+     * @return events per second
+     */
+    public double getEventsPerSecond() {
+        return elapsedNanos > 0 ? getProcessedEvents() * 1e9 / elapsedNanos : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamMetrics{" + "received=" + receivedEvents + ", applied=" + appliedEvents + ", coalesced=" +
+            coalescedEvents + ", failed=" + failedEvents + ", batches=" + batches + ", queued=" + queuedEvents +
+            ", eventsPerSecond=" + getEventsPerSecond() + '}';
+    }
+}
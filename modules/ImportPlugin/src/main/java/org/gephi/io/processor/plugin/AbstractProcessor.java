@@ -44,8 +44,10 @@ package org.gephi.io.processor.plugin;
 
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import java.awt.Color;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import org.gephi.graph.api.Column;
 import org.gephi.graph.api.Edge;
@@ -152,6 +154,13 @@ public abstract class AbstractProcessor implements Processor, LongTask {
     }
 
     protected void flushToNode(ContainerUnloader container, NodeDraft nodeDraft, Node node) {
+        flushNodeProperties(nodeDraft, node);
+
+        //Attributes
+        flushToElementAttributes(container, nodeDraft, node);
+    }
+
+    protected void flushNodeProperties(NodeDraft nodeDraft, Node node) {
         if (nodeDraft.getColor() != null) {
             node.setColor(nodeDraft.getColor());
         }
@@ -186,20 +195,21 @@ public abstract class AbstractProcessor implements Processor, LongTask {
             node.setSize(10f);
         }
 
+        flushTimes(nodeDraft, node);
+    }
+
+    protected void flushTimes(ElementDraft elementDraft, Element element) {
         //Timeset
-        if (nodeDraft.getTimeSet() != null) {
-            flushTimeSet(nodeDraft.getTimeSet(), node);
+        if (elementDraft.getTimeSet() != null) {
+            flushTimeSet(elementDraft.getTimeSet(), element);
         }
 
         //Graph timeset
-        if (nodeDraft.getGraphTimestamp() != null) {
-            node.addTimestamp(nodeDraft.getGraphTimestamp());
-        } else if (nodeDraft.getGraphInterval() != null) {
-            node.addInterval(nodeDraft.getGraphInterval());
+        if (elementDraft.getGraphTimestamp() != null) {
+            element.addTimestamp(elementDraft.getGraphTimestamp());
+        } else if (elementDraft.getGraphInterval() != null) {
+            element.addInterval(elementDraft.getGraphInterval());
         }
-
-        //Attributes
-        flushToElementAttributes(container, nodeDraft, node);
     }
 
     protected void flushToElementAttributes(ContainerUnloader container, ElementDraft elementDraft, Element element) {
@@ -274,6 +284,69 @@ public abstract class AbstractProcessor implements Processor, LongTask {
         }
     }
 
+    /**
+     * Resolves the draft columns against the given table once, so attributes of new elements can be copied without
+     * looking up and checking each column for every element. Incompatible columns are reported and left out.
+     *
+     * @param container   container
+     * @param table       graph table
+     * @param columns     draft columns
+     * @return columns to copy with {@link #flushToNewElementAttributes}
+     */
+    protected ResolvedColumns resolveColumns(ContainerUnloader container, Table table,
+                                             Iterable<ColumnDraft> columns) {
+        List<String> ids = new ArrayList<>();
+        List<Column> resolved = new ArrayList<>();
+        for (ColumnDraft columnDraft : columns) {
+            if (!table.isNodeTable() && columnDraft.getId().equalsIgnoreCase("weight")) {
+                continue;//Special weight column
+            }
+
+            Column column = table.getColumn(columnDraft.getId());
+            if (column == null || column.isReadOnly()) {
+                continue;
+            }
+
+            Class columnDraftTypeClass = columnDraft.getResolvedTypeClass(container);
+            if (!column.getTypeClass().equals(columnDraftTypeClass)) {
+                if (!columnsTypeMismatchAlreadyWarned.contains(column)) {
+                    columnsTypeMismatchAlreadyWarned.add(column);
+
+                    String error = NbBundle.getMessage(
+                        AbstractProcessor.class, "AbstractProcessor.error.columnTypeMismatch",
+                        column.getId(),
+                        column.getTypeClass().getSimpleName(),
+                        columnDraftTypeClass.getSimpleName()
+                    );
+
+                    report.logIssue(new Issue(error, Issue.Level.SEVERE));
+                }
+                continue;//Incompatible types!
+            }
+
+            ids.add(columnDraft.getId());
+            resolved.add(column);
+        }
+        return new ResolvedColumns(ids.toArray(new String[0]), resolved.toArray(new Column[0]));
+    }
+
+    /**
+     * Copies the attributes of a draft into an element that has just been created, which therefore has no existing
+     * values to merge with.
+     *
+     * @param elementDraft draft
+     * @param element      new element
+     * @param columns      columns resolved with {@link #resolveColumns}
+     */
+    protected void flushToNewElementAttributes(ElementDraft elementDraft, Element element, ResolvedColumns columns) {
+        for (int i = 0; i < columns.ids.length; i++) {
+            Object val = elementDraft.getValue(columns.ids[i]);
+            if (val != null) {
+                element.setAttribute(columns.columns[i], val);
+            }
+        }
+    }
+
     protected void flushToEdge(ContainerUnloader container, EdgeDraft edgeDraft, Edge edge, boolean newEdge) {
         //Edge weight
         flushEdgeWeight(container, edgeDraft, edge, newEdge);
@@ -281,46 +354,40 @@ public abstract class AbstractProcessor implements Processor, LongTask {
         //Replace data when a new edge is created or the merge strategy is not to keep the first edge data:
         EdgeMergeStrategy edgesMergeStrategy = containers[0].getEdgesMergeStrategy();
         if (newEdge || edgesMergeStrategy != EdgeMergeStrategy.FIRST) {
-            if (edgeDraft.getColor() != null) {
-                edge.setColor(edgeDraft.getColor());
-            } else {
-                edge.setR(0f);
-                edge.setG(0f);
-                edge.setB(0f);
-                edge.setAlpha(0f);
-            }
+            flushEdgeProperties(edgeDraft, edge);
 
-            flushLabel(edgeDraft, edge);
+            //Attributes
+            flushToElementAttributes(container, edgeDraft, edge);
+        }
 
-            if (edge.getTextProperties() != null) {
-                edge.getTextProperties().setVisible(edgeDraft.isLabelVisible());
-            }
+        flushTimes(edgeDraft, edge);
+    }
 
-            if (edgeDraft.getLabelSize() != -1f && edge.getTextProperties() != null) {
-                edge.getTextProperties().setSize(edgeDraft.getLabelSize());
-            }
+    protected void flushEdgeProperties(EdgeDraft edgeDraft, Edge edge) {
+        if (edgeDraft.getColor() != null) {
+            edge.setColor(edgeDraft.getColor());
+        } else {
+            edge.setR(0f);
+            edge.setG(0f);
+            edge.setB(0f);
+            edge.setAlpha(0f);
+        }
 
-            if (edgeDraft.getLabelColor() != null && edge.getTextProperties() != null) {
-                Color labelColor = edgeDraft.getLabelColor();
-                edge.getTextProperties().setColor(labelColor);
-            } else {
-                edge.getTextProperties().setColor(new Color(0, 0, 0, 0));
-            }
+        flushLabel(edgeDraft, edge);
 
-            //Attributes
-            flushToElementAttributes(container, edgeDraft, edge);
+        if (edge.getTextProperties() != null) {
+            edge.getTextProperties().setVisible(edgeDraft.isLabelVisible());
         }
 
-        //Timeset
-        if (edgeDraft.getTimeSet() != null) {
-            flushTimeSet(edgeDraft.getTimeSet(), edge);
+        if (edgeDraft.getLabelSize() != -1f && edge.getTextProperties() != null) {
+            edge.getTextProperties().setSize(edgeDraft.getLabelSize());
         }
 
-        //Graph timeset
-        if (edgeDraft.getGraphTimestamp() != null) {
-            edge.addTimestamp(edgeDraft.getGraphTimestamp());
-        } else if (edgeDraft.getGraphInterval() != null) {
-            edge.addInterval(edgeDraft.getGraphInterval());
+        if (edgeDraft.getLabelColor() != null && edge.getTextProperties() != null) {
+            Color labelColor = edgeDraft.getLabelColor();
+            edge.getTextProperties().setColor(labelColor);
+        } else {
+            edge.getTextProperties().setColor(new Color(0, 0, 0, 0));
         }
     }
 
@@ -500,4 +567,15 @@ public abstract class AbstractProcessor implements Processor, LongTask {
     public boolean cancel() {
         return false;
     }
+
+    protected static final class ResolvedColumns {
+
+        private final String[] ids;
+        private final Column[] columns;
+
+        private ResolvedColumns(String[] ids, Column[] columns) {
+            this.ids = ids;
+            this.columns = columns;
+        }
+    }
 }
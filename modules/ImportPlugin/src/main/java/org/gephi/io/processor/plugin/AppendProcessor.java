@@ -45,6 +45,7 @@ package org.gephi.io.processor.plugin;
 import org.gephi.io.importer.api.ContainerUnloader;
 import org.gephi.io.processor.spi.Processor;
 import org.gephi.project.api.ProjectController;
+import org.gephi.project.api.Workspace;
 import org.gephi.utils.progress.Progress;
 import org.openide.util.Lookup;
 import org.openide.util.NbBundle;
@@ -65,18 +66,13 @@ public class AppendProcessor extends DefaultProcessor implements Processor {
 
     @Override
     public void process() {
+        if (finishStreaming()) {
+            return;
+        }
         try {
             ProjectController pc = Lookup.getDefault().lookup(ProjectController.class);
             //Workspace
-            if (workspace == null) {
-                workspace = pc.getCurrentWorkspace();
-            }
-
-            if (workspace != null) {
-                pc.openWorkspace(workspace);
-            } else {
-                workspace = pc.newWorkspace(pc.getCurrentProject());
-            }
+            workspace = openWorkspace(pc);
 
             Progress.start(progressTicket, calculateWorkUnits());
             for (ContainerUnloader container : containers) {
@@ -93,4 +89,15 @@ public class AppendProcessor extends DefaultProcessor implements Processor {
             clean();
         }
     }
+
+    @Override
+    protected Workspace openWorkspace(ProjectController pc) {
+        Workspace target = workspace != null ? workspace : pc.getCurrentWorkspace();
+        if (target != null) {
+            pc.openWorkspace(target);
+        } else {
+            target = pc.newWorkspace(pc.getCurrentProject());
+        }
+        return target;
+    }
 }
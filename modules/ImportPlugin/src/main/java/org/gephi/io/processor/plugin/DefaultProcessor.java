@@ -42,6 +42,11 @@
 
 package org.gephi.io.processor.plugin;
 
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -63,6 +68,7 @@ import org.gephi.io.importer.api.ElementIdType;
 import org.gephi.io.importer.api.Issue;
 import org.gephi.io.importer.api.NodeDraft;
 import org.gephi.io.processor.spi.Processor;
+import org.gephi.io.processor.spi.StreamingProcessor;
 import org.gephi.project.api.ProjectController;
 import org.gephi.project.api.Workspace;
 import org.gephi.utils.progress.Progress;
@@ -76,7 +82,16 @@ import org.openide.util.lookup.ServiceProvider;
  * @author Mathieu Bastian
  */
 @ServiceProvider(service = Processor.class, position = 10)
-public class DefaultProcessor extends AbstractProcessor {
+public class DefaultProcessor extends AbstractProcessor implements StreamingProcessor {
+
+    //Streaming
+    private boolean streaming;
+    private int streamedNodes;
+    private int streamedEdges;
+    //Elements to remove on rollback, unless the processor opened the workspace
+    private boolean streamedWorkspace;
+    private List<Node> streamedNewNodes;
+    private List<Edge> streamedNewEdges;
 
     @Override
     public String getDisplayName() {
@@ -85,6 +100,9 @@ public class DefaultProcessor extends AbstractProcessor {
 
     @Override
     public void process() {
+        if (finishStreaming()) {
+            return;
+        }
         try {
             if (containers.length > 1) {
                 throw new RuntimeException("This processor can only handle single containers");
@@ -93,10 +111,7 @@ public class DefaultProcessor extends AbstractProcessor {
 
             //Workspace
             ProjectController pc = Lookup.getDefault().lookup(ProjectController.class);
-            if (workspace == null) {
-                workspace = pc.newWorkspace(pc.getCurrentProject());
-                pc.openWorkspace(workspace);
-            }
+            workspace = openWorkspace(pc);
             processConfiguration(container, workspace);
 
             if (container.getSource() != null) {
@@ -111,6 +126,125 @@ public class DefaultProcessor extends AbstractProcessor {
         }
     }
 
+    @Override
+    public void flush(ContainerUnloader container, List<NodeDraft> nodes, List<EdgeDraft> edges) {
+        if (!streaming) {
+            //First batch, prepare the workspace
+            ProjectController pc = Lookup.getDefault().lookup(ProjectController.class);
+            streamedWorkspace = workspace == null;
+            if (!streamedWorkspace) {
+                streamedNewNodes = new ArrayList<>();
+                streamedNewEdges = new ArrayList<>();
+            }
+            workspace = openWorkspace(pc);
+            processConfiguration(container, workspace);
+
+            if (container.getSource() != null) {
+                pc.setSource(workspace, container.getSource());
+            }
+
+            GraphController graphController = Lookup.getDefault().lookup(GraphController.class);
+            graphModel = graphController.getGraphModel(workspace);
+            graphModel.setTimeFormat(container.getTimeFormat());
+            graphModel.setTimeZone(container.getTimeZone());
+
+            Progress.start(progressTicket);
+            streaming = true;
+        }
+
+        //Columns may have been added since the previous batch
+        flushColumns(container);
+
+        Graph graph = graphModel.getGraph();
+        GraphFactory factory = graphModel.factory();
+        graph.writeLock();
+        try {
+            streamedNodes += addNodes(container, nodes, graph, factory, streamedNewNodes);
+            streamedEdges += addEdges(container, edges, graph, factory, streamedNewEdges);
+        } finally {
+            graph.writeUnlock();
+        }
+    }
+
+    /**
+     * Completes an import streamed through {@link #flush}, if any.
+     *
+     * @return <code>true</code> if the elements were streamed and the processing is done
+     */
+    protected boolean finishStreaming() {
+        if (!streaming) {
+            return false;
+        }
+        try {
+            logCounts(containers[0], streamedNodes, streamedEdges);
+            Progress.finish(progressTicket);
+        } finally {
+            resetStreaming();
+        }
+        return true;
+    }
+
+    /**
+     * Removes the elements streamed through {@link #flush}. The workspace is deleted if it was opened by the
+     * processor, otherwise the nodes and edges it created are removed. Attributes merged into existing elements
+     * and new columns are kept.
+     */
+    @Override
+    public void rollback() {
+        try {
+            if (!streaming) {
+                return;
+            }
+            if (streamedWorkspace) {
+                Lookup.getDefault().lookup(ProjectController.class).deleteWorkspace(workspace);
+            } else {
+                Graph graph = graphModel.getGraph();
+                graph.writeLock();
+                try {
+                    for (Edge edge : streamedNewEdges) {
+                        if (graph.contains(edge)) {
+                            graph.removeEdge(edge);
+                        }
+                    }
+                    for (Node node : streamedNewNodes) {
+                        if (graph.contains(node)) {
+                            graph.removeNode(node);
+                        }
+                    }
+                } finally {
+                    graph.writeUnlock();
+                }
+            }
+            Progress.finish(progressTicket);
+        } finally {
+            resetStreaming();
+        }
+    }
+
+    private void resetStreaming() {
+        streaming = false;
+        streamedNodes = 0;
+        streamedEdges = 0;
+        streamedNewNodes = null;
+        streamedNewEdges = null;
+        clean();
+    }
+
+    /**
+     * Returns the workspace the elements are pushed to, opening a new one if none was set.
+     *
+     * @param pc project controller
+     * @return the destination workspace
+     */
+    protected Workspace openWorkspace(ProjectController pc) {
+        if (workspace == null) {
+            Workspace newWorkspace = pc.newWorkspace(pc.getCurrentProject());
+            pc.openWorkspace(newWorkspace);
+            return newWorkspace;
+        }
+        return workspace;
+    }
+
     protected void processConfiguration(ContainerUnloader container, Workspace workspace) {
         //Configuration
         GraphController graphController = Lookup.getDefault().lookup(GraphController.class);
@@ -177,11 +311,49 @@ public class DefaultProcessor extends AbstractProcessor {
         flushColumns(container);
 
         //Counters
-        int addedNodes = 0, addedEdges = 0;
+        int addedNodes, addedEdges;
 
-        //Create all nodes
         ElementIdType elementIdType = container.getElementIdType();
-        for (NodeDraft draftNode : container.getNodes()) {
+        if (graph.getNodeCount() == 0 && graph.getEdgeCount() == 0 && elementIdType == ElementIdType.STRING) {
+            //Empty workspace, nothing to merge with:
+            Reference2ObjectOpenHashMap<NodeDraft, Node> nodes = bulkAddNodes(container, graph, factory);
+            addedNodes = nodes.size();
+            if (canBulkAddEdges(container, nodes)) {
+                addedEdges = bulkAddEdges(container, graph, factory, nodes);
+            } else {
+                addedEdges = addEdges(container, container.getEdges(), graph, factory, null);
+            }
+        } else {
+            addedNodes = addNodes(container, container.getNodes(), graph, factory, null);
+            addedEdges = addEdges(container, container.getEdges(), graph, factory, null);
+        }
+
+        logCounts(container, addedNodes, addedEdges);
+    }
+
+    private void logCounts(ContainerUnloader container, int addedNodes, int addedEdges) {
+        int touchedNodes = container.getNodeCount();
+        int touchedEdges = container.getEdgeCount();
+        if (touchedNodes != addedNodes || touchedEdges != addedEdges) {
+            Logger.getLogger(getClass().getSimpleName())
+                .log(Level.INFO, "# Nodes loaded: {0} ({1} added)", new Object[] {touchedNodes, addedNodes});
+            Logger.getLogger(getClass().getSimpleName())
+                .log(Level.INFO, "# Edges loaded: {0} ({1} added)", new Object[] {touchedEdges, addedEdges});
+        } else {
+            Logger.getLogger(getClass().getSimpleName())
+                .log(Level.INFO, "# Nodes loaded: {0}", new Object[] {touchedNodes});
+            Logger.getLogger(getClass().getSimpleName())
+                .log(Level.INFO, "# Edges loaded: {0}", new Object[] {touchedEdges});
+        }
+    }
+
+    private int addNodes(ContainerUnloader container, Iterable<NodeDraft> draftNodes, Graph graph,
+                         GraphFactory factory, List<Node> newNodes) {
+        int addedNodes = 0;
+        ElementIdType elementIdType = container.getElementIdType();
+
+        //Create all nodes
+        for (NodeDraft draftNode : draftNodes) {
             String idString = draftNode.getId();
             Object id = toElementId(elementIdType, idString);
             Node node = graph.getNode(id);
@@ -196,15 +368,25 @@ public class DefaultProcessor extends AbstractProcessor {
 
             if (newNode) {
                 graph.addNode(node);
+                if (newNodes != null) {
+                    newNodes.add(node);
+                }
             }
 
             Progress.progress(progressTicket);
         }
 
+        return addedNodes;
+    }
+
+    private int addEdges(ContainerUnloader container, Iterable<EdgeDraft> draftEdges, Graph graph,
+                         GraphFactory factory, List<Edge> newEdges) {
+        int addedEdges = 0;
+        ElementIdType elementIdType = container.getElementIdType();
         final EdgeMergeStrategy edgesMergeStrategy = containers[0].getEdgesMergeStrategy();
 
         //Create all edges and push to data structure
-        for (EdgeDraft draftEdge : container.getEdges()) {
+        for (EdgeDraft draftEdge : draftEdges) {
             String idString = draftEdge.getId();
             Object id = toElementId(elementIdType, idString);
             String sourceId = draftEdge.getSource().getId();
@@ -214,19 +396,7 @@ public class DefaultProcessor extends AbstractProcessor {
             Object type = draftEdge.getType();
             int edgeType = graphModel.addEdgeType(type);
 
-            boolean createDirected = true;
-            switch (container.getEdgeDefault()) {
-                case DIRECTED:
-                    createDirected = true;
-                    break;
-                case UNDIRECTED:
-                    createDirected = false;
-                    break;
-                case MIXED:
-                    createDirected = draftEdge.getDirection() != EdgeDirection.UNDIRECTED;
-                    draftEdge.setDirection(createDirected ? EdgeDirection.DIRECTED : EdgeDirection.UNDIRECTED);
-                    break;
-            }
+            boolean createDirected = isDirected(container, draftEdge);
 
             Edge edge = graph.getEdge(source, target, edgeType);
 
@@ -274,24 +444,130 @@ public class DefaultProcessor extends AbstractProcessor {
 
             if (newEdge) {
                 graph.addEdge(edge);
+                if (newEdges != null) {
+                    newEdges.add(edge);
+                }
             }
 
             Progress.progress(progressTicket);
         }
 
-        //Report
-        int touchedNodes = container.getNodeCount();
-        int touchedEdges = container.getEdgeCount();
-        if (touchedNodes != addedNodes || touchedEdges != addedEdges) {
-            Logger.getLogger(getClass().getSimpleName())
-                .log(Level.INFO, "# Nodes loaded: {0} ({1} added)", new Object[] {touchedNodes, addedNodes});
-            Logger.getLogger(getClass().getSimpleName())
-                .log(Level.INFO, "# Edges loaded: {0} ({1} added)", new Object[] {touchedEdges, addedEdges});
-        } else {
-            Logger.getLogger(getClass().getSimpleName())
-                .log(Level.INFO, "# Nodes loaded: {0}", new Object[] {touchedNodes});
-            Logger.getLogger(getClass().getSimpleName())
-                .log(Level.INFO, "# Edges loaded: {0}", new Object[] {touchedEdges});
+        return addedEdges;
+    }
+
+    private Reference2ObjectOpenHashMap<NodeDraft, Node> bulkAddNodes(ContainerUnloader container, Graph graph,
+                                                                      GraphFactory factory) {
+        ResolvedColumns columns = resolveColumns(container, graphModel.getNodeTable(), container.getNodeColumns());
+
+        Reference2ObjectOpenHashMap<NodeDraft, Node> nodes =
+            new Reference2ObjectOpenHashMap<>(container.getNodeCount());
+        List<Node> nodeList = new ArrayList<>(container.getNodeCount());
+        for (NodeDraft draftNode : container.getNodes()) {
+            Node node = factory.newNode(draftNode.getId());
+            flushNodeProperties(draftNode, node);
+            flushToNewElementAttributes(draftNode, node, columns);
+
+            nodes.put(draftNode, node);
+            nodeList.add(node);
+        }
+
+        graph.addAllNodes(nodeList);
+        Progress.progress(progressTicket, nodeList.size());
+
+        return nodes;
+    }
+
+    /**
+     * Edges can be added in bulk when none of them would be merged with, or conflict with, a previous edge of the
+     * container. This mirrors the <code>getEdge</code> and <code>findIncompatibleEdge</code> checks of the regular
+     * path, using the node store ids.
+     */
+    private boolean canBulkAddEdges(ContainerUnloader container, Reference2ObjectOpenHashMap<NodeDraft, Node> nodes) {
+        Int2ObjectOpenHashMap<LongOpenHashSet> edgeKeys = new Int2ObjectOpenHashMap<>();
+        Int2ObjectOpenHashMap<LongOpenHashSet> undirectedEdgeKeys = new Int2ObjectOpenHashMap<>();
+        for (EdgeDraft draftEdge : container.getEdges()) {
+            Node source = nodes.get(draftEdge.getSource());
+            Node target = nodes.get(draftEdge.getTarget());
+            if (source == null || target == null) {
+                return false;
+            }
+            int edgeType = graphModel.addEdgeType(draftEdge.getType());
+            boolean directed = isDirected(container, draftEdge);
+
+            LongOpenHashSet keys = edgeKeys.get(edgeType);
+            LongOpenHashSet undirectedKeys = undirectedEdgeKeys.get(edgeType);
+            if (keys == null) {
+                keys = new LongOpenHashSet();
+                undirectedKeys = new LongOpenHashSet();
+                edgeKeys.put(edgeType, keys);
+                undirectedEdgeKeys.put(edgeType, undirectedKeys);
+            }
+
+            long key = edgeKey(source, target);
+            long oppositeKey = edgeKey(target, source);
+            if (keys.contains(key)) {
+                return false;
+            }
+            if (key != oppositeKey
+                && (directed ? undirectedKeys.contains(oppositeKey) : keys.contains(oppositeKey))) {
+                return false;
+            }
+            keys.add(key);
+            if (!directed) {
+                undirectedKeys.add(key);
+            }
+        }
+        return true;
+    }
+
+    private static long edgeKey(Node source, Node target) {
+        return ((long) source.getStoreId() << 32) | (target.getStoreId() & 0xFFFFFFFFL);
+    }
+
+    private int bulkAddEdges(ContainerUnloader container, Graph graph, GraphFactory factory,
+                             Reference2ObjectOpenHashMap<NodeDraft, Node> nodes) {
+        ResolvedColumns columns = resolveColumns(container, graphModel.getEdgeTable(), container.getEdgeColumns());
+
+        ColumnDraft weightColumnDraft = container.getEdgeColumn("weight");
+        boolean flushWeights = graphModel.getEdgeTable().getColumn("weight").isDynamic()
+            || (weightColumnDraft != null && weightColumnDraft.isDynamic());
+
+        List<Edge> edgeList = new ArrayList<>(container.getEdgeCount());
+        for (EdgeDraft draftEdge : container.getEdges()) {
+            Node source = nodes.get(draftEdge.getSource());
+            Node target = nodes.get(draftEdge.getTarget());
+            int edgeType = graphModel.addEdgeType(draftEdge.getType());
+            boolean createDirected = isDirected(container, draftEdge);
+
+            Edge edge = factory
+                .newEdge(draftEdge.getId(), source, target, edgeType, draftEdge.getWeight(), createDirected);
+            if (flushWeights) {
+                flushEdgeWeight(container, draftEdge, edge, true);
+            }
+            flushEdgeProperties(draftEdge, edge);
+            flushToNewElementAttributes(draftEdge, edge, columns);
+            flushTimes(draftEdge, edge);
+
+            edgeList.add(edge);
+        }
+
+        graph.addAllEdges(edgeList);
+        Progress.progress(progressTicket, nodes.size() + edgeList.size());
+
+        return edgeList.size();
+    }
+
+    private boolean isDirected(ContainerUnloader container, EdgeDraft draftEdge) {
+        switch (container.getEdgeDefault()) {
+            case UNDIRECTED:
+                return false;
+            case MIXED:
+                boolean directed = draftEdge.getDirection() != EdgeDirection.UNDIRECTED;
+                draftEdge.setDirection(directed ? EdgeDirection.DIRECTED : EdgeDirection.UNDIRECTED);
+                return directed;
+            case DIRECTED:
+            default:
+                return true;
         }
     }
 
@@ -65,6 +65,9 @@ public class MultiProcessor extends DefaultProcessor implements Processor {
 
     @Override
     public void process() {
+        if (finishStreaming()) {
+            return;
+        }
         try {
             if (containers.length <= 1) {
                 throw new RuntimeException("This processor can only handle multiple containers");
@@ -1,7 +1,9 @@
 package org.gephi.io.importer.plugin;
 
+import org.gephi.graph.api.Graph;
 import org.gephi.graph.api.GraphModel;
 import org.gephi.graph.api.Node;
+import org.gephi.io.importer.api.EdgeDraft;
 import org.gephi.io.importer.api.NodeDraft;
 import org.gephi.io.importer.impl.ImportContainerImpl;
 import org.gephi.io.importer.impl.NodeDraftImpl;
@@ -29,4 +31,46 @@ public class DefaultProcessorTest {
         Node node = graphModel.getGraph().getNode("1");
         Assert.assertNotNull(node);
     }
+
+    @Test
+    public void testProcessEdgesIntoEmptyWorkspace() {
+        ImportContainerImpl importContainer = new ImportContainerImpl();
+        importContainer.addEdgeColumn("kind", String.class);
+        NodeDraft n1 = importContainer.factory().newNodeDraft("1");
+        NodeDraft n2 = importContainer.factory().newNodeDraft("2");
+        NodeDraft n3 = importContainer.factory().newNodeDraft("3");
+        importContainer.addNode(n1);
+        importContainer.addNode(n2);
+        importContainer.addNode(n3);
+        importContainer.addEdge(newEdge(importContainer, n1, n2, 2.0));
+        importContainer.addEdge(newEdge(importContainer, n2, n1, 3.0));
+        EdgeDraft e3 = newEdge(importContainer, n2, n3, 1.0);
+        e3.setValue("kind", "foo");
+        importContainer.addEdge(e3);
+
+        Workspace workspace = new WorkspaceImpl(null, 1);
+        DefaultProcessor defaultProcessor = new DefaultProcessor();
+        defaultProcessor.setContainers(new ImportContainerImpl[] {importContainer});
+        defaultProcessor.setWorkspace(workspace);
+        defaultProcessor.process();
+
+        Graph graph = workspace.getLookup().lookup(GraphModel.class).getGraph();
+        Assert.assertEquals(3, graph.getNodeCount());
+        Assert.assertEquals(3, graph.getEdgeCount());
+        Node node1 = graph.getNode("1");
+        Node node2 = graph.getNode("2");
+        Node node3 = graph.getNode("3");
+        Assert.assertEquals(2.0, graph.getEdge(node1, node2).getWeight(), 0.0);
+        Assert.assertEquals(3.0, graph.getEdge(node2, node1).getWeight(), 0.0);
+        Assert.assertEquals("foo", graph.getEdge(node2, node3).getAttribute("kind"));
+    }
+
+    private static EdgeDraft newEdge(ImportContainerImpl container, NodeDraft source, NodeDraft target,
+                                     double weight) {
+        EdgeDraft edge = container.factory().newEdgeDraft();
+        edge.setSource(source);
+        edge.setTarget(target);
+        edge.setWeight(weight);
+        return edge;
+    }
 }
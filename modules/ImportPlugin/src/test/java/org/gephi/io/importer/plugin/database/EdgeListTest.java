@@ -0,0 +1,159 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.importer.plugin.database;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.gephi.io.database.drivers.SQLiteDriver;
+import org.gephi.io.importer.api.Container;
+import org.gephi.io.importer.api.ContainerUnloader;
+import org.gephi.io.importer.api.EdgeDraft;
+import org.gephi.io.importer.impl.ImportContainerImpl;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class EdgeListTest {
+
+    private static final int NODES = 100;
+    private static final int EDGES = 4000;
+
+    private static File file;
+
+    @BeforeClass
+    public static void createDatabase() throws IOException, SQLException {
+        file = File.createTempFile("edgelist", ".sqlite");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE nodes (id INTEGER, label VARCHAR(32))");
+            statement.execute("CREATE TABLE edges (id INTEGER, source VARCHAR(32), target VARCHAR(32), "
+                + "weight DOUBLE, kind VARCHAR(32))");
+            connection.setAutoCommit(false);
+            try (PreparedStatement nodes = connection.prepareStatement("INSERT INTO nodes VALUES (?, ?)")) {
+                for (int i = 0; i < NODES; i++) {
+                    nodes.setInt(1, i);
+                    nodes.setString(2, "Node " + i);
+                    nodes.addBatch();
+                }
+                nodes.executeBatch();
+            }
+            try (PreparedStatement edges = connection.prepareStatement("INSERT INTO edges VALUES (?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < EDGES; i++) {
+                    edges.setInt(1, i);
+                    edges.setString(2, String.valueOf(i % NODES));
+                    edges.setString(3, String.valueOf((i / NODES + i + 1) % NODES));
+                    edges.setDouble(4, i % 2 == 0 ? 2.0 : 0.0);
+                    edges.setString(5, "kind" + (i % 3));
+                    edges.addBatch();
+                }
+                edges.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    @AfterClass
+    public static void deleteDatabase() {
+        file.delete();
+    }
+
+    @Test
+    public void testImport() {
+        ImporterEdgeList importer = createImporter();
+
+        assertImported(importer);
+    }
+
+    @Test
+    public void testImportWithoutFetchSize() {
+        ImporterEdgeList importer = createImporter();
+        importer.setFetchSize(0);
+
+        assertImported(importer);
+    }
+
+    @Test
+    public void testImportPartitioned() {
+        ImporterEdgeList importer = createImporter();
+        importer.setPartitionColumn("id");
+        importer.setPartitionCount(4);
+
+        assertImported(importer);
+    }
+
+    private ImporterEdgeList createImporter() {
+        EdgeListDatabaseImpl database = new EdgeListDatabaseImpl();
+        database.setSQLDriver(new SQLiteDriver());
+        database.setHost(file.getAbsolutePath());
+        database.setDBName("");
+        database.setNodeQuery("SELECT id, label FROM nodes");
+        database.setEdgeQuery("SELECT id, source, target, weight, kind FROM edges");
+
+        ImporterEdgeList importer = new ImporterEdgeList();
+        importer.setDatabase(database);
+        return importer;
+    }
+
+    private void assertImported(ImporterEdgeList importer) {
+        Container container = new ImportContainerImpl();
+        Assert.assertTrue(importer.execute(container.getLoader()));
+        Assert.assertTrue(container.verify());
+
+        ContainerUnloader unloader = container.getUnloader();
+        Assert.assertEquals(NODES, unloader.getNodeCount());
+        Assert.assertEquals(EDGES, unloader.getEdgeCount());
+        Assert.assertEquals("Node 7", container.getLoader().getNode("7").getLabel());
+
+        for (EdgeDraft edge : unloader.getEdges()) {
+            int id = Integer.parseInt(edge.getId());
+            Assert.assertEquals(String.valueOf(id % NODES), edge.getSource().getId());
+            Assert.assertEquals(id % 2 == 0 ? 2.0 : 1.0, edge.getWeight(), 0.0);
+            Assert.assertEquals("kind" + (id % 3), edge.getValue("kind"));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.importer.plugin.file;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.gephi.graph.api.Column;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.GraphController;
+import org.gephi.graph.api.GraphFactory;
+import org.gephi.graph.api.GraphModel;
+import org.gephi.graph.api.Node;
+import org.gephi.io.exporter.plugin.ExporterGBIN;
+import org.gephi.io.importer.api.Container;
+import org.gephi.io.importer.api.EdgeDirection;
+import org.gephi.io.importer.api.EdgeDraft;
+import org.gephi.io.importer.api.ImportController;
+import org.gephi.io.importer.api.NodeDraft;
+import org.gephi.project.api.ProjectController;
+import org.gephi.project.api.Workspace;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openide.util.Lookup;
+
+public class GBINTest {
+
+    private final ProjectController projectController = Lookup.getDefault().lookup(ProjectController.class);
+    private final ImportController importController = Lookup.getDefault().lookup(ImportController.class);
+    private final GraphController graphController = Lookup.getDefault().lookup(GraphController.class);
+    private Workspace workspace;
+
+    @Before
+    public void setup() {
+        projectController.newProject();
+        workspace = projectController.getCurrentWorkspace();
+    }
+
+    @After
+    public void teardown() {
+        projectController.closeCurrentProject();
+        workspace = null;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        GraphModel graphModel = graphController.getGraphModel(workspace);
+        Column age = graphModel.getNodeTable().addColumn("age", Integer.class);
+        Column city = graphModel.getNodeTable().addColumn("city", String.class);
+        Column scores = graphModel.getEdgeTable().addColumn("scores", double[].class);
+
+        GraphFactory factory = graphModel.factory();
+        Node n1 = factory.newNode("n1");
+        n1.setLabel("Node 1");
+        n1.setPosition(1f, 2f);
+        n1.setSize(5f);
+        n1.setColor(Color.RED);
+        n1.setAttribute(age, 42);
+        n1.setAttribute(city, "Paris");
+        Node n2 = factory.newNode("n2");
+        n2.setAttribute(city, "Paris");
+        Node n3 = factory.newNode("n3");
+        n3.setAttribute(city, "Lyon");
+        Edge e1 = factory.newEdge("e1", n1, n2, 0, 2.5, true);
+        e1.setAttribute(scores, new double[] {1.0, 2.0});
+        Edge e2 = factory.newEdge("e2", n2, n3, 0, 1.0, false);
+        graphModel.getUndirectedGraph().addNode(n1);
+        graphModel.getUndirectedGraph().addNode(n2);
+        graphModel.getUndirectedGraph().addNode(n3);
+        graphModel.getGraph().addEdge(e1);
+        graphModel.getGraph().addEdge(e2);
+
+        File file = File.createTempFile("roundtrip", ".gbin");
+        file.deleteOnExit();
+        ExporterGBIN exporter = new ExporterGBIN();
+        exporter.setWorkspace(workspace);
+        try (OutputStream stream = new FileOutputStream(file)) {
+            exporter.setOutputStream(stream);
+            Assert.assertTrue(exporter.execute());
+        }
+
+        Container container = importController.importFile(file, new ImporterGBIN());
+        Assert.assertNotNull(container);
+
+        NodeDraft[] nodes = Utils.toNodesArray(container);
+        Utils.assertSameIds(nodes, "n1", "n2", "n3");
+        NodeDraft node1 = Utils.getNode(container, "n1");
+        Assert.assertEquals("Node 1", node1.getLabel());
+        Assert.assertEquals(1f, node1.getX(), 0f);
+        Assert.assertEquals(2f, node1.getY(), 0f);
+        Assert.assertEquals(5f, node1.getSize(), 0f);
+        Assert.assertEquals(Color.RED, node1.getColor());
+        Assert.assertEquals(42, node1.getValue("age"));
+        Assert.assertEquals("Paris", node1.getValue("city"));
+        Assert.assertNull(Utils.getNode(container, "n2").getValue("age"));
+        Assert.assertEquals("Lyon", Utils.getNode(container, "n3").getValue("city"));
+
+        EdgeDraft[] edges = Utils.toEdgesArray(container);
+        Utils.assertSameIds(edges, "e1", "e2");
+        for (EdgeDraft edge : edges) {
+            if (edge.getId().equals("e1")) {
+                Assert.assertEquals("n1", edge.getSource().getId());
+                Assert.assertEquals("n2", edge.getTarget().getId());
+                Assert.assertEquals(EdgeDirection.DIRECTED, edge.getDirection());
+                Assert.assertEquals(2.5, edge.getWeight(), 0.0);
+                Assert.assertArrayEquals(new double[] {1.0, 2.0}, (double[]) edge.getValue("scores"), 0.0);
+            } else {
+                Assert.assertEquals("n2", edge.getSource().getId());
+                Assert.assertEquals(EdgeDirection.UNDIRECTED, edge.getDirection());
+                Assert.assertNull(edge.getValue("scores"));
+            }
+        }
+    }
+}
@@ -70,4 +70,23 @@ public class GEXFTest {
         node1.getTimeSet()
             .contains(AttributeUtils.parseDateTime("2012-01-12T15:00:00", DateTimeZone.forID("Europe/Moscow")));
     }
+
+    @Test
+    public void testPipelined() {
+        ImporterGEXF importer = new ImporterGEXF();
+        importer.setPipelined(true);
+        importer.setReader(Utils.getReader("data.gexf"));
+
+        Container container = new ImportContainerImpl();
+        importer.execute(container.getLoader());
+        Assert.assertTrue(container.verify());
+
+        Utils.assertSameIds(Utils.toNodesArray(container), "0");
+        Utils.assertSameIds(Utils.toEdgesArray(container), "0");
+
+        NodeDraft node = Utils.getNode(container, "0");
+        Assert.assertEquals("Node1", node.getLabel());
+        Assert.assertEquals("http://gephi.org", node.getValue("0"));
+        Assert.assertEquals(1f, node.getValue("1"));
+    }
 }
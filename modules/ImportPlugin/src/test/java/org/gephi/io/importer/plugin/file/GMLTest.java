@@ -2,6 +2,8 @@ package org.gephi.io.importer.plugin.file;
 
 import org.gephi.io.importer.api.Container;
 import org.gephi.io.importer.api.ContainerUnloader;
+import org.gephi.io.importer.api.EdgeDirectionDefault;
+import org.gephi.io.importer.api.EdgeDraft;
 import org.gephi.io.importer.api.NodeDraft;
 import org.gephi.io.importer.impl.ImportContainerImpl;
 import org.junit.Assert;
@@ -23,4 +25,29 @@ public class GMLTest {
 
         Utils.assertSameIds(nodes, "A", "B", "C");
     }
+
+    @Test
+    public void testNestedAttributes() {
+        ImporterGML importer = new ImporterGML();
+        importer.setReader(Utils.getReader("graphics.gml"));
+
+        Container container = new ImportContainerImpl();
+        importer.execute(container.getLoader());
+
+        Assert.assertTrue(container.verify());
+
+        ContainerUnloader unloader = container.getUnloader();
+        Assert.assertEquals(EdgeDirectionDefault.DIRECTED, unloader.getEdgeDefault());
+
+        Utils.assertSameIds(Utils.toNodesArray(container), "1", "2");
+        NodeDraft node = Utils.getNode(container, "1");
+        Assert.assertEquals("Node 1", node.getLabel());
+        Assert.assertEquals(10.5f, node.getX(), 0f);
+        Assert.assertEquals(-3f, node.getY(), 0f);
+        Assert.assertEquals(4f, node.getSize(), 0f);
+
+        EdgeDraft[] edges = Utils.toEdgesArray(container);
+        Assert.assertEquals(1, edges.length);
+        Assert.assertEquals(2.5, edges[0].getWeight(), 0.0);
+    }
 }
@@ -32,4 +32,18 @@ public class GraphMLTest {
         Utils.assertSameLabels(Utils.toNodesArray(container), "foo", "bar");
         Utils.assertSameLabels(Utils.toEdgesArray(container), "foobar");
     }
+
+    @Test
+    public void testPipelined() {
+        ImporterGraphML importer = new ImporterGraphML();
+        importer.setPipelined(true);
+        importer.setReader(Utils.getReader("cdata.graphml"));
+
+        Container container = new ImportContainerImpl();
+        importer.execute(container.getLoader());
+        Assert.assertTrue(container.verify());
+
+        Utils.assertSameLabels(Utils.toNodesArray(container), "foo", "bar");
+        Utils.assertSameLabels(Utils.toEdgesArray(container), "foobar");
+    }
 }
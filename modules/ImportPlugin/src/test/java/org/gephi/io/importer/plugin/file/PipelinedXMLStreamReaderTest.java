@@ -0,0 +1,100 @@
+package org.gephi.io.importer.plugin.file;
+
+import java.io.StringReader;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PipelinedXMLStreamReaderTest {
+
+    private static final String XML = "<graph xmlns=\"http://gexf.net/1.3\" xmlns:viz=\"http://gexf.net/1.3/viz\">"
+        + "<node id=\"0\"><viz:color r=\"1\"/></node>"
+        + "<node xmlns:viz=\"http://other\" id=\"1\"><viz:size value=\"2\"/></node>"
+        + "</graph>";
+
+    @Test(timeout = 10000)
+    public void testErrorTerminatesStream() throws Exception {
+        XMLStreamReader source = new StreamReaderDelegate(createReader(XML)) {
+            private int count;
+
+            @Override
+            public int next() throws XMLStreamException {
+                if (++count == 3) {
+                    throw new StackOverflowError();
+                }
+                return super.next();
+            }
+        };
+        PipelinedXMLStreamReader reader = new PipelinedXMLStreamReader(source, 1, 1);
+        int events = 0;
+        try {
+            while (reader.hasNext()) {
+                reader.next();
+                events++;
+            }
+            Assert.fail("The error should be forwarded");
+        } catch (StackOverflowError e) {
+            Assert.assertEquals(2, events);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testNamespaceContext() throws Exception {
+        PipelinedXMLStreamReader reader = new PipelinedXMLStreamReader(createReader(XML), 2, 2);
+        try {
+            Assert.assertEquals(XMLStreamConstants.START_ELEMENT, nextElement(reader));
+            Assert.assertEquals("graph", reader.getLocalName());
+            Assert.assertEquals("http://gexf.net/1.3", reader.getNamespaceURI());
+            Assert.assertEquals(2, reader.getNamespaceCount());
+
+            nextElement(reader);
+            Assert.assertEquals("node", reader.getLocalName());
+            Assert.assertEquals(0, reader.getNamespaceCount());
+            nextElement(reader);
+            Assert.assertEquals("color", reader.getLocalName());
+            Assert.assertEquals("viz", reader.getPrefix());
+            Assert.assertEquals("http://gexf.net/1.3/viz", reader.getNamespaceURI("viz"));
+            Assert.assertEquals("http://gexf.net/1.3/viz", reader.getName().getNamespaceURI());
+
+            nextElement(reader);
+            nextElement(reader);
+            nextElement(reader);
+            Assert.assertEquals("node", reader.getLocalName());
+            Assert.assertEquals(1, reader.getNamespaceCount());
+            NamespaceContext context = reader.getNamespaceContext();
+            Assert.assertEquals("http://other", context.getNamespaceURI("viz"));
+            Assert.assertEquals("http://gexf.net/1.3", context.getNamespaceURI(""));
+            Assert.assertNull(context.getPrefix("http://gexf.net/1.3/viz"));
+
+            nextElement(reader);
+            nextElement(reader);
+            nextElement(reader);
+            Assert.assertEquals(XMLStreamConstants.END_ELEMENT, reader.getEventType());
+            Assert.assertEquals("node", reader.getLocalName());
+            nextElement(reader);
+            Assert.assertEquals("graph", reader.getLocalName());
+            Assert.assertEquals("http://gexf.net/1.3/viz", reader.getNamespaceContext().getNamespaceURI("viz"));
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static XMLStreamReader createReader(String xml) throws XMLStreamException {
+        return XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml));
+    }
+
+    private static int nextElement(XMLStreamReader reader) throws XMLStreamException {
+        int type;
+        do {
+            type = reader.next();
+        } while (type != XMLStreamConstants.START_ELEMENT && type != XMLStreamConstants.END_ELEMENT);
+        return type;
+    }
+}
@@ -52,6 +52,7 @@ import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import org.gephi.graph.api.Column;
@@ -66,8 +67,10 @@ import org.gephi.io.importer.api.Container;
 import org.gephi.io.importer.api.EdgeDirectionDefault;
 import org.gephi.io.importer.api.EdgeMergeStrategy;
 import org.gephi.io.importer.api.ImportController;
+import org.gephi.io.importer.api.Issue;
 import org.gephi.io.importer.plugin.file.spreadsheet.ImporterSpreadsheetCSV;
 import org.gephi.io.importer.plugin.file.spreadsheet.ImporterSpreadsheetExcel;
+import org.gephi.io.importer.plugin.file.spreadsheet.SpreadsheetUtils;
 import org.gephi.io.importer.plugin.file.spreadsheet.process.SpreadsheetGeneralConfiguration.Mode;
 import org.gephi.io.processor.plugin.DefaultProcessor;
 import org.gephi.project.api.ProjectController;
@@ -80,6 +83,7 @@ import org.junit.Test;
 import org.junit.rules.TestName;
 import org.openide.filesystems.FileUtil;
 import org.openide.util.Lookup;
+import org.openide.util.NbBundle;
 
 /**
  * @author Eduardo Ramos
@@ -277,6 +281,80 @@ public class SpreadsheetTest {
         checkEdgesSpreadsheet();
     }
 
+    @Test
+    public void testEdgesTableRepeatedWithoutIds_Mapped() throws IOException {
+        File file = FileUtil.archiveOrDirForURL(SpreadsheetTest.class
+            .getResource("/org/gephi/io/importer/plugin/file/spreadsheet/edges_table_repeated_without_ids.csv"));
+
+        ImporterSpreadsheetCSV importer = new ImporterSpreadsheetCSV();
+
+        importer.setFile(file);
+        importer.setMappedEdgesTableThreshold(0);
+
+        Map<String, Class> columnsClasses = importer.getColumnsClasses();
+        columnsClasses.put("weight", Double.class);
+        importer.setColumnsClasses(columnsClasses);
+
+        Container container = importController.importFile(
+            file, importer
+        );
+        Assert.assertNotNull(container);
+
+        importController.process(container, new DefaultProcessor(), workspace);
+
+        checkEdgesSpreadsheet();
+    }
+
+    @Test
+    public void testEdgesTableMapped_RecordNumbersAcrossChunks() throws IOException {
+        //18 bytes lines, so that a \r\n sequence straddles the first chunk boundary at 64 KB:
+        File file = File.createTempFile(testName.getMethodName(), ".csv");
+        file.deleteOnExit();
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.US_ASCII)) {
+            writer.write("source,target\r\n");
+            for (int i = 0; i < 4000; i++) {
+                writer.write(String.format("s%07d,t%06d\r\n", i, i));
+            }
+            writer.write("invalid\r\n");
+        }
+
+        ImporterSpreadsheetCSV importer = new ImporterSpreadsheetCSV();
+        importer.setFile(file);
+        importer.setMappedEdgesTableThreshold(0);
+
+        Container container = importController.importFile(file, importer);
+        Assert.assertNotNull(container);
+
+        Collection<Issue> issues = container.getReport().getIssuesList(100);
+        Assert.assertEquals(1, issues.size());
+        String recordNumber = NbBundle.getMessage(SpreadsheetUtils.class, "SpreadsheetUtils.recordNumber", 4002L);
+        Assert.assertTrue(issues.iterator().next().getMessage().contains(recordNumber));
+    }
+
+    @Test
+    public void testEdgesTableMapped_RowWithoutTarget() throws IOException {
+        File file = File.createTempFile(testName.getMethodName(), ".csv");
+        file.deleteOnExit();
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.US_ASCII)) {
+            writer.write("source,target\n");
+            writer.write("a,b\n");
+            writer.write("c,\n");
+            writer.write(",d\n");
+        }
+
+        ImporterSpreadsheetCSV importer = new ImporterSpreadsheetCSV();
+        importer.setFile(file);
+        importer.setMappedEdgesTableThreshold(0);
+
+        Container container = importController.importFile(file, importer);
+        Assert.assertNotNull(container);
+        Assert.assertEquals(2, container.getReport().getIssuesList(100).size());
+        Assert.assertEquals(2, container.getUnloader().getNodeCount());
+        Assert.assertEquals(1, container.getUnloader().getEdgeCount());
+        Assert.assertFalse(container.getLoader().nodeExists("c"));
+        Assert.assertFalse(container.getLoader().nodeExists("d"));
+    }
+
     @Test
     public void testEdgesTableRepeatedWithoutIds_Merge_Disabled() throws IOException {
         File file = FileUtil.archiveOrDirForURL(SpreadsheetTest.class
@@ -0,0 +1,206 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.importer.plugin.stream;
+
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.Graph;
+import org.gephi.graph.api.GraphModel;
+import org.gephi.graph.api.Node;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GraphStreamServerTest {
+
+    @Test
+    public void testEvents() throws Exception {
+        GraphModel graphModel = GraphModel.Factory.newInstance();
+        try (GraphStreamServer server = new GraphStreamServer(graphModel, 0)) {
+            server.start();
+            send(server,
+                "{\"an\":{\"A\":{\"label\":\"Node A\",\"size\":2},\"B\":{\"x\":1.5,\"kind\":\"foo\"}}}",
+                "{\"ae\":{\"AB\":{\"source\":\"A\",\"target\":\"B\",\"directed\":false,\"weight\":3}}}",
+                "{\"cn\":{\"A\":{\"color\":\"#ff0000\"}}}",
+                "{\"an\":{\"C\":{}}}",
+                "{\"dn\":{\"C\":{}}}");
+            awaitProcessed(server, 6);
+
+            Graph graph = graphModel.getGraph();
+            Assert.assertEquals(2, graph.getNodeCount());
+            Node a = graph.getNode("A");
+            Assert.assertEquals("Node A", a.getLabel());
+            Assert.assertEquals(2f, a.size(), 0f);
+            Assert.assertEquals(1f, a.r(), 0f);
+            Node b = graph.getNode("B");
+            Assert.assertEquals(1.5f, b.x(), 0f);
+            Assert.assertEquals("foo", b.getAttribute("kind"));
+            Edge edge = graph.getEdge("AB");
+            Assert.assertNotNull(edge);
+            Assert.assertFalse(edge.isDirected());
+            Assert.assertEquals(3.0, edge.getWeight(), 0.0);
+        }
+    }
+
+    @Test
+    public void testRemoveNodeWithEdges() throws Exception {
+        GraphModel graphModel = GraphModel.Factory.newInstance();
+        try (GraphStreamServer server = new GraphStreamServer(graphModel, 0)) {
+            server.start();
+            send(server,
+                "{\"an\":{\"A\":{},\"B\":{}}}",
+                "{\"ae\":{\"AB\":{\"source\":\"A\",\"target\":\"B\"}}}");
+            awaitProcessed(server, 3);
+            send(server, "{\"dn\":{\"A\":{}}}");
+            awaitProcessed(server, 4);
+
+            Assert.assertEquals(1, graphModel.getGraph().getNodeCount());
+            Assert.assertEquals(0, graphModel.getGraph().getEdgeCount());
+        }
+    }
+
+    @Test
+    public void testCoalescing() {
+        GraphEvent event = parse("{\"an\":{\"A\":{\"size\":1,\"label\":\"foo\"}}}");
+        event.merge(parse("{\"cn\":{\"A\":{\"size\":2}}}"));
+        Assert.assertEquals(GraphEvent.Kind.ADD, event.getKind());
+        Assert.assertEquals(2, event.getAttributes().get("size").getAsInt());
+        Assert.assertEquals("foo", event.getAttributes().get("label").getAsString());
+
+        event.merge(parse("{\"dn\":{\"A\":{}}}"));
+        event.merge(parse("{\"cn\":{\"A\":{\"size\":3}}}"));
+        Assert.assertEquals(GraphEvent.Kind.DELETE, event.getKind());
+        Assert.assertTrue(event.getAttributes().isEmpty());
+
+        event.merge(parse("{\"an\":{\"A\":{\"size\":4}}}"));
+        Assert.assertEquals(GraphEvent.Kind.REPLACE, event.getKind());
+        Assert.assertEquals(4, event.getAttributes().get("size").getAsInt());
+    }
+
+    @Test
+    public void testCoalescingOrder() {
+        GraphModel graphModel = GraphModel.Factory.newInstance();
+        GraphStreamServer server = new GraphStreamServer(graphModel, 0);
+        server.apply(parseAll("{\"an\":{\"A\":{},\"B\":{}}}"));
+
+        //The edge refers to a deleted node, so it fails as it would in order
+        server.apply(parseAll(
+            "{\"dn\":{\"A\":{}}}",
+            "{\"ae\":{\"AB\":{\"source\":\"A\",\"target\":\"B\"}}}",
+            "{\"an\":{\"A\":{}}}"));
+        Graph graph = graphModel.getGraph();
+        Assert.assertNotNull(graph.getNode("A"));
+        Assert.assertNull(graph.getEdge("AB"));
+
+        //The node is deleted after the edge is added
+        server.apply(parseAll(
+            "{\"ae\":{\"AB\":{\"source\":\"A\",\"target\":\"B\"}}}",
+            "{\"dn\":{\"A\":{}}}"));
+        Assert.assertNull(graph.getNode("A"));
+        Assert.assertEquals(0, graph.getEdgeCount());
+
+        //Added and deleted in the same batch
+        server.apply(parseAll("{\"an\":{\"C\":{}}}", "{\"dn\":{\"C\":{}}}"));
+        Assert.assertNull(graph.getNode("C"));
+
+        StreamMetrics metrics = server.getMetrics();
+        Assert.assertEquals(1, metrics.getFailedEvents());
+        Assert.assertEquals(7, metrics.getAppliedEvents());
+    }
+
+    @Test
+    public void testInvalidEvents() throws Exception {
+        GraphModel graphModel = GraphModel.Factory.newInstance();
+        try (GraphStreamServer server = new GraphStreamServer(graphModel, 0)) {
+            server.start();
+            send(server,
+                "not json",
+                "{\"xx\":{\"A\":{}}}",
+                "{\"cn\":{\"missing\":{}}}",
+                "{\"ae\":{\"AB\":{\"source\":\"A\",\"target\":\"B\"}}}",
+                "{\"an\":{\"A\":{}}}");
+            awaitProcessed(server, 5);
+
+            StreamMetrics metrics = server.getMetrics();
+            Assert.assertEquals(4, metrics.getFailedEvents());
+            Assert.assertEquals(1, metrics.getAppliedEvents());
+            Assert.assertEquals(1, graphModel.getGraph().getNodeCount());
+        }
+    }
+
+    private static GraphEvent parse(String json) {
+        return GraphEvent.parse(JsonParser.parseString(json).getAsJsonObject()).get(0);
+    }
+
+    private static List<GraphEvent> parseAll(String... lines) {
+        List<GraphEvent> events = new ArrayList<>();
+        for (String line : lines) {
+            events.addAll(GraphEvent.parse(JsonParser.parseString(line).getAsJsonObject()));
+        }
+        return events;
+    }
+
+    private static void send(GraphStreamServer server, String... lines) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+    }
+
+    private static void awaitProcessed(GraphStreamServer server, long events) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 10000;
+        while (server.getMetrics().getProcessedEvents() < events) {
+            Assert.assertTrue("Timeout, " + server.getMetrics(), System.currentTimeMillis() < timeout);
+            Thread.sleep(10);
+        }
+    }
+}
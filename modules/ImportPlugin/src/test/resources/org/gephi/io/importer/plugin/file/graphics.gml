@@ -0,0 +1,28 @@
+Creator "Gephi"
+graph
+[
+  directed 1
+  comment [ text "skipped" ]
+  node
+  [
+    id 1
+    label "Node 1"
+    graphics
+    [
+      x 10.5
+      y -3.0
+      w 4
+    ]
+  ]
+  node
+  [
+    id 2
+    label "Node 2"
+  ]
+  edge
+  [
+    source 1
+    target 2
+    value 2.5
+  ]
+]
@@ -250,7 +250,7 @@ public class G2DRenderTargetBuilder implements RenderTargetBuilder {
             inited = false;
         }
 
-        private CanvasSize getSheetCanvasSize(PreviewModel m) {
+        static CanvasSize getSheetCanvasSize(PreviewModel m) {
             CanvasSize cs = m.getGraphicsCanvasSize();
             float marginPercentage = m.getProperties()
                 .getFloatValue(PreviewProperty.MARGIN);
@@ -0,0 +1,275 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.preview;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.gephi.preview.api.CanvasSize;
+import org.gephi.preview.api.Item;
+import org.gephi.preview.api.PreviewProperties;
+import org.gephi.preview.spi.Renderer;
+
+/**
+ * Grid index over the canvas of the items of each renderer, to only render
+ * the items intersecting the visible area.
+ * <p>
+ * Canvas are the ones returned by {@link Renderer#getCanvasSize(Item,
+ * PreviewProperties)}. Items with an empty canvas, such as labels, are always
+ * returned by queries. The index is built when the preview is refreshed and
+ * is not updated when items change.
+ */
+class ItemIndex {
+
+    //Average number of items per cell
+    private static final int ITEMS_PER_CELL = 8;
+    private static final int MAX_CELLS = 1024;
+    //Items spanning more cells are tested one by one
+    private static final int MAX_CELLS_PER_ITEM = 16;
+    private final Map<Renderer, RendererIndex> indices = new IdentityHashMap<>();
+
+    ItemIndex(PreviewModelImpl model, Renderer[] renderers) {
+        PreviewProperties properties = model.getProperties();
+        for (Renderer r : renderers) {
+            List<Item> items = new ArrayList<>();
+            for (String type : model.getItemTypes()) {
+                for (Item item : model.getItems(type)) {
+                    if (r.isRendererForitem(item, properties)) {
+                        items.add(item);
+                    }
+                }
+            }
+            indices.put(r, new RendererIndex(r, items.toArray(new Item[0]), properties));
+        }
+    }
+
+    /**
+     * Returns the index of the items of <code>renderer</code>, or
+     * <code>null</code> if the renderer isn't indexed.
+     */
+    RendererIndex get(Renderer renderer) {
+        return indices.get(renderer);
+    }
+
+    static class RendererIndex {
+
+        private final Item[] items;
+        //Canvas of each item as minX, minY, maxX, maxY, NaN if unknown
+        private final float[] bounds;
+        private final boolean[] edges;
+        //Grid
+        private final float minX;
+        private final float minY;
+        private final float cellWidth;
+        private final float cellHeight;
+        private final int columns;
+        private final int rows;
+        private final int[] cellStart;
+        private final int[] cellItems;
+        //Items outside of the grid: unknown canvas or too large
+        private final int[] others;
+
+        RendererIndex(Renderer renderer, Item[] items, PreviewProperties properties) {
+            this.items = items;
+            this.bounds = new float[items.length * 4];
+            this.edges = new boolean[items.length];
+            float x1 = Float.POSITIVE_INFINITY;
+            float y1 = Float.POSITIVE_INFINITY;
+            float x2 = Float.NEGATIVE_INFINITY;
+            float y2 = Float.NEGATIVE_INFINITY;
+            int bounded = 0;
+            for (int i = 0; i < items.length; i++) {
+                edges[i] = Item.EDGE.equals(items[i].getType());
+                CanvasSize cs = renderer.getCanvasSize(items[i], properties);
+                if (cs == null || (cs.getWidth() == 0F && cs.getHeight() == 0F)) {
+                    Arrays.fill(bounds, i * 4, i * 4 + 4, Float.NaN);
+                } else {
+                    bounds[i * 4] = cs.getX();
+                    bounds[i * 4 + 1] = cs.getY();
+                    bounds[i * 4 + 2] = cs.getMaxX();
+                    bounds[i * 4 + 3] = cs.getMaxY();
+                    x1 = Math.min(x1, cs.getX());
+                    y1 = Math.min(y1, cs.getY());
+                    x2 = Math.max(x2, cs.getMaxX());
+                    y2 = Math.max(y2, cs.getMaxY());
+                    bounded++;
+                }
+            }
+
+            int side = (int) Math.ceil(Math.sqrt(bounded / (double) ITEMS_PER_CELL));
+            side = Math.max(1, Math.min(MAX_CELLS, side));
+            minX = bounded > 0 ? x1 : 0F;
+            minY = bounded > 0 ? y1 : 0F;
+            columns = bounded > 0 && x2 > x1 ? side : 1;
+            rows = bounded > 0 && y2 > y1 ? side : 1;
+            cellWidth = columns > 1 ? (x2 - x1) / columns : 1F;
+            cellHeight = rows > 1 ? (y2 - y1) / rows : 1F;
+
+            //Count items per cell, then fill cells
+            cellStart = new int[columns * rows + 1];
+            int[] other = new int[items.length];
+            int otherCount = 0;
+            for (int i = 0; i < items.length; i++) {
+                if (isInGrid(i)) {
+                    for (int row = row(bounds[i * 4 + 1]); row <= row(bounds[i * 4 + 3]); row++) {
+                        for (int col = column(bounds[i * 4]); col <= column(bounds[i * 4 + 2]); col++) {
+                            cellStart[row * columns + col + 1]++;
+                        }
+                    }
+                } else {
+                    other[otherCount++] = i;
+                }
+            }
+            for (int c = 0; c < columns * rows; c++) {
+                cellStart[c + 1] += cellStart[c];
+            }
+            cellItems = new int[cellStart[columns * rows]];
+            int[] fill = Arrays.copyOf(cellStart, columns * rows);
+            for (int i = 0; i < items.length; i++) {
+                if (isInGrid(i)) {
+                    for (int row = row(bounds[i * 4 + 1]); row <= row(bounds[i * 4 + 3]); row++) {
+                        for (int col = column(bounds[i * 4]); col <= column(bounds[i * 4 + 2]); col++) {
+                            cellItems[fill[row * columns + col]++] = i;
+                        }
+                    }
+                }
+            }
+            others = Arrays.copyOf(other, otherCount);
+        }
+
+        private boolean isInGrid(int i) {
+            if (Float.isNaN(bounds[i * 4])) {
+                return false;
+            }
+            int cells = (row(bounds[i * 4 + 3]) - row(bounds[i * 4 + 1]) + 1)
+                * (column(bounds[i * 4 + 2]) - column(bounds[i * 4]) + 1);
+            return cells <= MAX_CELLS_PER_ITEM;
+        }
+
+        private int column(float x) {
+            return Math.max(0, Math.min(columns - 1, (int) ((x - minX) / cellWidth)));
+        }
+
+        private int row(float y) {
+            return Math.max(0, Math.min(rows - 1, (int) ((y - minY) / cellHeight)));
+        }
+
+        Item[] getItems() {
+            return items;
+        }
+
+        /**
+         * Returns the positions in {@link #getItems()} of the items whose
+         * canvas intersects the given area, in increasing order.
+         * <p>
+         * Edges whose canvas is smaller than <code>minEdgeSize</code> in both
+         * dimensions are skipped.
+         */
+        int[] query(float x1, float y1, float x2, float y2, float minEdgeSize) {
+            int[] result = new int[16];
+            int count = 0;
+            boolean all = x1 <= minX && y1 <= minY
+                && x2 >= minX + cellWidth * columns && y2 >= minY + cellHeight * rows;
+            if (all) {
+                //Whole grid, scan items in order
+                result = new int[items.length];
+                for (int i = 0; i < items.length; i++) {
+                    if (accept(i, x1, y1, x2, y2, minEdgeSize)) {
+                        result[count++] = i;
+                    }
+                }
+                return Arrays.copyOf(result, count);
+            }
+
+            if (x2 >= minX && y2 >= minY && x1 <= minX + cellWidth * columns && y1 <= minY + cellHeight * rows) {
+                for (int row = row(y1); row <= row(y2); row++) {
+                    for (int col = column(x1); col <= column(x2); col++) {
+                        int cell = row * columns + col;
+                        for (int c = cellStart[cell]; c < cellStart[cell + 1]; c++) {
+                            int i = cellItems[c];
+                            if (accept(i, x1, y1, x2, y2, minEdgeSize)) {
+                                if (count == result.length) {
+                                    result = Arrays.copyOf(result, count * 2);
+                                }
+                                result[count++] = i;
+                            }
+                        }
+                    }
+                }
+            }
+            for (int i : others) {
+                if (accept(i, x1, y1, x2, y2, minEdgeSize)) {
+                    if (count == result.length) {
+                        result = Arrays.copyOf(result, count * 2);
+                    }
+                    result[count++] = i;
+                }
+            }
+
+            //Restore items order and remove items found in several cells
+            Arrays.sort(result, 0, count);
+            int unique = 0;
+            for (int c = 0; c < count; c++) {
+                if (unique == 0 || result[unique - 1] != result[c]) {
+                    result[unique++] = result[c];
+                }
+            }
+            return Arrays.copyOf(result, unique);
+        }
+
+        private boolean accept(int i, float x1, float y1, float x2, float y2, float minEdgeSize) {
+            float itemMinX = bounds[i * 4];
+            if (Float.isNaN(itemMinX)) {
+                return true;
+            }
+            float itemMinY = bounds[i * 4 + 1];
+            float itemMaxX = bounds[i * 4 + 2];
+            float itemMaxY = bounds[i * 4 + 3];
+            if (itemMaxX < x1 || itemMinX > x2 || itemMaxY < y1 || itemMinY > y2) {
+                return false;
+            }
+            return !edges[i] || itemMaxX - itemMinX >= minEdgeSize || itemMaxY - itemMinY >= minEdgeSize;
+        }
+    }
+}
@@ -46,6 +46,8 @@ import com.itextpdf.text.FontFactory;
 import com.itextpdf.text.pdf.BaseFont;
 import com.itextpdf.text.pdf.PdfContentByte;
 import java.awt.geom.AffineTransform;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.gephi.preview.api.CanvasSize;
 import org.gephi.preview.api.PDFTarget;
 import org.gephi.preview.api.PreviewModel;
@@ -98,6 +100,8 @@ public class PDFRenderTargetBuilder implements RenderTargetBuilder {
     public static class PDFRenderTargetImpl extends AbstractRenderTarget implements PDFTarget {
 
         private static boolean fontRegistered = false;
+        //Base fonts by font name and style, resolved once for all labels and renders
+        private static final Map<String, BaseFont> BASE_FONTS = new ConcurrentHashMap<>();
         private final PdfContentByte cb;
         //Parameters
         private final float marginTop;
@@ -149,6 +153,18 @@ public class PDFRenderTargetBuilder implements RenderTargetBuilder {
 
         @Override
         public BaseFont getBaseFont(java.awt.Font font) {
+            String key = font != null ? font.getFontName() + '-' + font.getStyle() : "";
+            BaseFont baseFont = BASE_FONTS.get(key);
+            if (baseFont == null) {
+                baseFont = createBaseFont(font);
+                if (baseFont != null) {
+                    BASE_FONTS.put(key, baseFont);
+                }
+            }
+            return baseFont;
+        }
+
+        private BaseFont createBaseFont(java.awt.Font font) {
             try {
                 if (font != null) {
                     BaseFont baseFont;
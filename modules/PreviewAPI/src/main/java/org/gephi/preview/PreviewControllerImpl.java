@@ -43,12 +43,23 @@
 package org.gephi.preview;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.Element;
 import org.gephi.graph.api.Graph;
 import org.gephi.graph.api.GraphController;
+import org.gephi.graph.api.GraphDiff;
 import org.gephi.graph.api.GraphModel;
+import org.gephi.graph.api.GraphObserver;
 import org.gephi.graph.api.GraphView;
 import org.gephi.graph.api.Node;
+import org.gephi.preview.api.G2DTarget;
 import org.gephi.preview.api.Item;
 import org.gephi.preview.api.PreviewController;
 import org.gephi.preview.api.PreviewModel;
@@ -56,6 +67,8 @@ import org.gephi.preview.api.PreviewMouseEvent;
 import org.gephi.preview.api.PreviewProperties;
 import org.gephi.preview.api.PreviewProperty;
 import org.gephi.preview.api.RenderTarget;
+import org.gephi.preview.api.Vector;
+import org.gephi.preview.spi.IncrementalItemBuilder;
 import org.gephi.preview.spi.ItemBuilder;
 import org.gephi.preview.spi.MouseResponsiveRenderer;
 import org.gephi.preview.spi.PreviewMouseListener;
@@ -133,10 +146,18 @@ public class PreviewControllerImpl implements PreviewController {
     }
 
     @Override
-    public synchronized void refreshPreview(Workspace workspace) {
+    public void refreshPreview(Workspace workspace) {
         GraphModel graphModel = graphController.getGraphModel(workspace);
         PreviewModelImpl previewModel = getModel(workspace);
-        previewModel.clear();
+
+        //Models of different workspaces can be refreshed and rendered concurrently
+        synchronized (previewModel) {
+            refreshPreview(graphModel, previewModel);
+        }
+    }
+
+    private void refreshPreview(GraphModel graphModel, PreviewModelImpl previewModel) {
+        previewModel.getProfileRecorder().clearRefresh();
 
         //Directed graph?
         previewModel.getProperties()
@@ -144,7 +165,8 @@ public class PreviewControllerImpl implements PreviewController {
 
         //Graph
         Graph graph = graphModel.getGraphVisible();
-        if (previewModel.getProperties().getFloatValue(PreviewProperty.VISIBILITY_RATIO) < 1f) {
+        boolean reduced = previewModel.getProperties().getFloatValue(PreviewProperty.VISIBILITY_RATIO) < 1f;
+        if (reduced) {
             float visibilityRatio = previewModel.getProperties().getFloatValue(PreviewProperty.VISIBILITY_RATIO);
             GraphView reducedView = graphModel.copyView(graph.getView());
             graph = graphModel.getGraph(reducedView);
@@ -176,32 +198,136 @@ public class PreviewControllerImpl implements PreviewController {
             renderers = getRegisteredRenderers();
         }
 
-        //Build items
+        //Only build items of builders some renderer needs, grouped by type
+        Map<String, List<ItemBuilder>> builders = new LinkedHashMap<>();
         for (ItemBuilder b : Lookup.getDefault().lookupAll(ItemBuilder.class)) {
-            //Only build items of this builder if some renderer needs it:
             if (isItemBuilderNeeded(b, previewModel.getProperties(), renderers)) {
-                try {
-                    Item[] items = b.getItems(graph);
-                    if (items != null) {
-                        previewModel.loadItems(b.getType(), items);
-                    }
-                } catch (Exception e) {
-                    Exceptions.printStackTrace(e);
-                }
+                builders.computeIfAbsent(b.getType(), k -> new ArrayList<>()).add(b);
+            }
+        }
+
+        //Build items, or update them if the graph is the same as in the last refresh
+        if (reduced || !updateItems(previewModel, graph, builders)) {
+            previewModel.clear();
+            for (Entry<String, List<ItemBuilder>> entry : builders.entrySet()) {
+                buildItems(previewModel, graph, entry.getKey(), entry.getValue());
             }
+            previewModel.setGraphObserver(reduced ? null : graphModel.createGraphObserver(graph, true));
+        }
+        previewModel.getBuiltBuilders().clear();
+        for (List<ItemBuilder> typeBuilders : builders.values()) {
+            previewModel.getBuiltBuilders().addAll(typeBuilders);
         }
 
         //Destroy view
-        if (previewModel.getProperties().getFloatValue(PreviewProperty.VISIBILITY_RATIO) < 1f) {
+        if (reduced) {
             graphModel.destroyView(graph.getView());
         }
 
         //Pre process renderers
         for (Renderer r : renderers) {
+            long start = System.nanoTime();
             r.preProcess(previewModel);
+            previewModel.getProfileRecorder().addPreProcess(r, System.nanoTime() - start);
+        }
+
+        //Index items, unless some are hidden while moving
+        if (!previewModel.getProperties().getBooleanValue(PreviewProperty.MOVING)) {
+            previewModel.setItemIndex(new ItemIndex(previewModel, renderers));
         }
     }
 
+    private void buildItems(PreviewModelImpl previewModel, Graph graph, String type, List<ItemBuilder> builders) {
+        for (ItemBuilder b : builders) {
+            try {
+                long start = System.nanoTime();
+                Item[] items = b.getItems(graph);
+                if (items != null) {
+                    previewModel.loadItems(type, items);
+                }
+                previewModel.getProfileRecorder()
+                    .addBuild(b, System.nanoTime() - start, items != null ? items.length : 0);
+            } catch (Exception e) {
+                Exceptions.printStackTrace(e);
+            }
+        }
+    }
+
+    /**
+     * Updates the items built in the last refresh with the changes of the
+     * graph since then. Items of types whose builders are not all incremental
+     * are built again.
+     *
+     * @return <code>false</code> if all items have to be built again instead
+     */
+    private boolean updateItems(PreviewModelImpl previewModel, Graph graph,
+                                Map<String, List<ItemBuilder>> builders) {
+        GraphObserver observer = previewModel.getGraphObserver();
+        if (observer == null || observer.isDestroyed() || observer.getGraph().getView() != graph.getView()) {
+            return false;
+        }
+
+        //Elements added and removed since the last refresh
+        Element[] added = new Element[0];
+        Set<Object> removed = new HashSet<>();
+        if (observer.hasGraphChanged()) {
+            GraphDiff diff = observer.getDiff();
+            Node[] addedNodes = diff.getAddedNodes().toArray();
+            Edge[] addedEdges = diff.getAddedEdges().toArray();
+            removed.addAll(Arrays.asList(diff.getRemovedNodes().toArray()));
+            removed.addAll(Arrays.asList(diff.getRemovedEdges().toArray()));
+            int changes = addedNodes.length + addedEdges.length + removed.size();
+            if (changes > (graph.getNodeCount() + graph.getEdgeCount()) / 2) {
+                return false;
+            }
+            added = new Element[addedNodes.length + addedEdges.length];
+            System.arraycopy(addedNodes, 0, added, 0, addedNodes.length);
+            System.arraycopy(addedEdges, 0, added, addedNodes.length, addedEdges.length);
+        }
+
+        //Items of types no longer needed or of removed elements
+        previewModel.removeItems(item -> !builders.containsKey(item.getType())
+            || removed.contains(item.getSource()));
+
+        for (Entry<String, List<ItemBuilder>> entry : builders.entrySet()) {
+            String type = entry.getKey();
+            boolean incremental = true;
+            for (ItemBuilder b : entry.getValue()) {
+                incremental &= b instanceof IncrementalItemBuilder && previewModel.getBuiltBuilders().contains(b);
+            }
+
+            if (incremental) {
+                for (ItemBuilder b : entry.getValue()) {
+                    IncrementalItemBuilder ib = (IncrementalItemBuilder) b;
+                    try {
+                        long start = System.nanoTime();
+                        Set<Item> outdated = new HashSet<>();
+                        for (Item item : previewModel.getItems(type)) {
+                            if (!ib.updateItem(graph, item)) {
+                                outdated.add(item);
+                            }
+                        }
+                        if (!outdated.isEmpty()) {
+                            previewModel.removeItems(outdated::contains);
+                        }
+                        Item[] items = ib.getItems(graph, added);
+                        if (items != null && items.length > 0) {
+                            previewModel.loadItems(type, items);
+                        }
+                        previewModel.getProfileRecorder()
+                            .addBuild(b, System.nanoTime() - start, items != null ? items.length : 0);
+                    } catch (Exception e) {
+                        Exceptions.printStackTrace(e);
+                    }
+                }
+            } else {
+                previewModel.removeItems(item -> item.getType().equals(type));
+                buildItems(previewModel, graph, type, entry.getValue());
+            }
+        }
+        return true;
+    }
+
     private boolean isItemBuilderNeeded(ItemBuilder itemBuilder, PreviewProperties properties, Renderer[] renderers) {
         for (Renderer r : renderers) {
             if (r.needsItemBuilder(itemBuilder, properties)) {
@@ -235,57 +361,137 @@ public class PreviewControllerImpl implements PreviewController {
             getModel(workspace));
     }
 
-    private synchronized void render(RenderTarget target, Renderer[] renderers, PreviewModelImpl previewModel) {
+    private void render(RenderTarget target, Renderer[] renderers, PreviewModelImpl previewModel) {
         if (previewModel != null) {
-            PreviewProperties properties = previewModel.getProperties();
+            synchronized (previewModel) {
+                renderItems(target, renderers, previewModel);
+            }
+        }
+    }
 
-            //Progress
-            ProgressTicket progressTicket = null;
-            if (target instanceof AbstractRenderTarget) {
-                int tasks = 0;
-                for (Renderer r : renderers) {
-                    if (!mousePressed || r instanceof MouseResponsiveRenderer) {
-                        tasks++;
-                        for (String type : previewModel.getItemTypes()) {
-                            for (Item item : previewModel.getItems(type)) {
-                                if (r.isRendererForitem(item, properties)) {
-                                    tasks++;
-                                }
-                            }
+    private void renderItems(RenderTarget target, Renderer[] renderers, PreviewModelImpl previewModel) {
+        PreviewProperties properties = previewModel.getProperties();
+        PreviewProfileImpl profile = previewModel.getProfileRecorder();
+        profile.clearRender();
+
+        //Items to render, only the visible ones for G2D targets
+        Item[][] rendererItems = new Item[renderers.length][];
+        for (int i = 0; i < renderers.length; i++) {
+            Renderer r = renderers[i];
+            if (!mousePressed || r instanceof MouseResponsiveRenderer) {
+                rendererItems[i] = getItemsToRender(target, r, previewModel);
+            }
+        }
+
+        //Progress
+        ProgressTicket progressTicket = null;
+        if (target instanceof AbstractRenderTarget) {
+            int tasks = 0;
+            for (int i = 0; i < renderers.length; i++) {
+                if (rendererItems[i] != null) {
+                    tasks++;
+                    for (Item item : rendererItems[i]) {
+                        if (renderers[i].isRendererForitem(item, properties)) {
+                            tasks++;
                         }
                     }
                 }
-                progressTicket = ((AbstractRenderTarget) target).getProgressTicket();
-                Progress.switchToDeterminate(progressTicket, tasks);
             }
+            progressTicket = ((AbstractRenderTarget) target).getProgressTicket();
+            Progress.switchToDeterminate(progressTicket, tasks);
+        }
 
 
-            //Render items
-            for (Renderer r : renderers) {
-                if (!mousePressed || r instanceof MouseResponsiveRenderer) {
-                    for (String type : previewModel.getItemTypes()) {
-                        for (Item item : previewModel.getItems(type)) {
-                            if (r.isRendererForitem(item, properties)) {
-                                r.render(item, target, properties);
-                                Progress.progress(progressTicket);
-                                if (target instanceof AbstractRenderTarget) {
-                                    if (((AbstractRenderTarget) target).isCancelled()) {
-                                        Progress.finish(progressTicket);
-                                        return;
-                                    }
+        //Elements of streaming targets are written out after each item
+        SVGStreamingRenderTargetBuilder.SVGStreamingTargetImpl streamingTarget =
+            target instanceof SVGStreamingRenderTargetBuilder.SVGStreamingTargetImpl
+                ? (SVGStreamingRenderTargetBuilder.SVGStreamingTargetImpl) target : null;
+
+        //Render items
+        Renderer pending = null;
+        try {
+            for (int i = 0; i < renderers.length; i++) {
+                Renderer r = renderers[i];
+                if (rendererItems[i] != null) {
+                    pending = r;
+                    //Timed per renderer rather than per item, to keep the overhead low
+                    long start = System.nanoTime();
+                    int count = 0;
+                    for (Item item : rendererItems[i]) {
+                        if (r.isRendererForitem(item, properties)) {
+                            r.render(item, target, properties);
+                            count++;
+                            if (streamingTarget != null) {
+                                streamingTarget.flush();
+                            }
+                            Progress.progress(progressTicket);
+                            if (target instanceof AbstractRenderTarget) {
+                                if (((AbstractRenderTarget) target).isCancelled()) {
+                                    Progress.finish(progressTicket);
+                                    return;
                                 }
                             }
                         }
                     }
 
+                    profile.addRender(r, System.nanoTime() - start, count);
+                    pending = null;
+
                     // Call post-process
+                    start = System.nanoTime();
                     r.postProcess(previewModel, target, properties);
+                    if (streamingTarget != null) {
+                        streamingTarget.flush();
+                    }
+                    profile.addPostProcess(r, System.nanoTime() - start);
                     Progress.progress(progressTicket);
                 }
             }
+        } finally {
+            //Renderers release the state they keep for the target, e.g. PDF strokes, in post-process
+            if (pending != null) {
+                pending.postProcess(previewModel, target, properties);
+            }
+        }
+
+        Progress.finish(progressTicket);
+    }
+
+    private Item[] getItemsToRender(RenderTarget target, Renderer renderer, PreviewModelImpl previewModel) {
+        if (target instanceof G2DRenderTargetBuilder.G2DTargetImpl) {
+            PreviewProperties properties = previewModel.getProperties();
+            if (previewModel.getItemIndex() == null && !properties.getBooleanValue(PreviewProperty.MOVING)) {
+                previewModel.setItemIndex(new ItemIndex(previewModel, previewModel.getManagedEnabledRenderers()));
+            }
+            ItemIndex.RendererIndex index =
+                previewModel.getItemIndex() != null ? previewModel.getItemIndex().get(renderer) : null;
+            if (index != null) {
+                //Visible area in graph coordinates, grown by a quarter of the canvas for strokes
+                G2DTarget g2dTarget = (G2DTarget) target;
+                float scaling = g2dTarget.getScaling();
+                Vector trans = g2dTarget.getTranslate();
+                float pad = Math.max(g2dTarget.getWidth(), g2dTarget.getHeight()) / 4F;
+                float minX = (g2dTarget.getWidth() / 2F * (scaling - 1F) - pad) / scaling - trans.x;
+                float minY = (g2dTarget.getHeight() / 2F * (scaling - 1F) - pad) / scaling - trans.y;
+                float maxX = (g2dTarget.getWidth() / 2F * (scaling + 1F) + pad) / scaling - trans.x;
+                float maxY = (g2dTarget.getHeight() / 2F * (scaling + 1F) + pad) / scaling - trans.y;
+
+                //Skip edges smaller than half a pixel, unless their density is drawn
+                float minSize = properties.getBooleanValue(PreviewProperty.EDGE_DENSITY) ? 0F : 0.5F / scaling;
+                int[] visible = index.query(minX, minY, maxX, maxY, minSize);
+                Item[] items = new Item[visible.length];
+                for (int i = 0; i < visible.length; i++) {
+                    items[i] = index.getItems()[visible[i]];
+                }
+                return items;
+            }
+        }
 
-            Progress.finish(progressTicket);
+        List<Item> items = new ArrayList<>();
+        for (String type : previewModel.getItemTypes()) {
+            items.addAll(Arrays.asList(previewModel.getItems(type)));
         }
+        return items.toArray(new Item[0]);
     }
 
     @Override
@@ -53,17 +53,21 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.Predicate;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
+import org.gephi.graph.api.GraphObserver;
 import org.gephi.preview.api.CanvasSize;
 import org.gephi.preview.api.Item;
 import org.gephi.preview.api.ManagedRenderer;
 import org.gephi.preview.api.PreviewController;
 import org.gephi.preview.api.PreviewModel;
+import org.gephi.preview.api.PreviewProfile;
 import org.gephi.preview.api.PreviewProperties;
 import org.gephi.preview.api.PreviewProperty;
 import org.gephi.preview.presets.DefaultPreset;
+import org.gephi.preview.spi.ItemBuilder;
 import org.gephi.preview.spi.MouseResponsiveRenderer;
 import org.gephi.preview.spi.PreviewMouseListener;
 import org.gephi.preview.spi.Renderer;
@@ -87,6 +91,12 @@ public class PreviewModelImpl implements PreviewModel {
     //Items
     private final Map<String, List<Item>> typeMap;
     private final Map<Object, Object> sourceMap;
+    private ItemIndex itemIndex;
+    //Last refresh, to update items incrementally
+    private GraphObserver graphObserver;
+    private final Set<ItemBuilder> builtBuilders = new HashSet<>();
+    //Time spent in the last refresh and render
+    private final PreviewProfileImpl profile = new PreviewProfileImpl();
     //Renderers
     private ManagedRenderer[] managedRenderers;
     //Mouse listeners (of enabled renderers)
@@ -231,6 +241,8 @@ public class PreviewModelImpl implements PreviewModel {
     }
 
     public void loadItems(String type, Item[] items) {
+        itemIndex = null;
+
         //Add to type map
         List<Item> typeList = typeMap.get(type);
         if (typeList == null) {
@@ -272,6 +284,36 @@ public class PreviewModelImpl implements PreviewModel {
         }
     }
 
+    /**
+     * Removes the items matching <code>predicate</code>.
+     */
+    public void removeItems(Predicate<Item> predicate) {
+        itemIndex = null;
+
+        for (Iterator<List<Item>> itr = typeMap.values().iterator(); itr.hasNext(); ) {
+            List<Item> typeList = itr.next();
+            typeList.removeIf(item -> {
+                if (predicate.test(item)) {
+                    Object value = sourceMap.get(item.getSource());
+                    if (value == item) {
+                        sourceMap.remove(item.getSource());
+                    } else if (value instanceof List) {
+                        List sourceList = (List) value;
+                        sourceList.remove(item);
+                        if (sourceList.isEmpty()) {
+                            sourceMap.remove(item.getSource());
+                        }
+                    }
+                    return true;
+                }
+                return false;
+            });
+            if (typeList.isEmpty()) {
+                itr.remove();
+            }
+        }
+    }
+
     private Item mergeItems(Item item, Item toBeMerged) {
         for (String key : toBeMerged.getKeys()) {
             item.setData(key, toBeMerged.getData(key));
@@ -282,6 +324,40 @@ public class PreviewModelImpl implements PreviewModel {
     public void clear() {
         typeMap.clear();
         sourceMap.clear();
+        builtBuilders.clear();
+        itemIndex = null;
+    }
+
+    ItemIndex getItemIndex() {
+        return itemIndex;
+    }
+
+    void setItemIndex(ItemIndex itemIndex) {
+        this.itemIndex = itemIndex;
+    }
+
+    GraphObserver getGraphObserver() {
+        return graphObserver;
+    }
+
+    void setGraphObserver(GraphObserver graphObserver) {
+        if (this.graphObserver != null && !this.graphObserver.isDestroyed()) {
+            this.graphObserver.destroy();
+        }
+        this.graphObserver = graphObserver;
+    }
+
+    Set<ItemBuilder> getBuiltBuilders() {
+        return builtBuilders;
+    }
+
+    PreviewProfileImpl getProfileRecorder() {
+        return profile;
+    }
+
+    @Override
+    public PreviewProfile getProfile() {
+        return profile.copy();
     }
 
     public Workspace getWorkspace() {
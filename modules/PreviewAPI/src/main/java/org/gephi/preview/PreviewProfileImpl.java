@@ -0,0 +1,216 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.preview;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.gephi.preview.api.PreviewProfile;
+import org.gephi.preview.spi.ItemBuilder;
+import org.gephi.preview.spi.Renderer;
+
+/**
+ * Profile recorded while refreshing and rendering a preview model. Tiles of
+ * tiled targets are rendered concurrently, so recording is synchronized.
+ */
+public class PreviewProfileImpl implements PreviewProfile {
+
+    private final Map<ItemBuilder, BuilderTimes> builders = new LinkedHashMap<>();
+    private final Map<Renderer, RendererTimes> renderers = new LinkedHashMap<>();
+
+    public PreviewProfileImpl() {
+    }
+
+    private PreviewProfileImpl(PreviewProfileImpl profile) {
+        for (Map.Entry<ItemBuilder, BuilderTimes> entry : profile.builders.entrySet()) {
+            builders.put(entry.getKey(), new BuilderTimes(entry.getValue()));
+        }
+        for (Map.Entry<Renderer, RendererTimes> entry : profile.renderers.entrySet()) {
+            renderers.put(entry.getKey(), new RendererTimes(entry.getValue()));
+        }
+    }
+
+    public synchronized PreviewProfileImpl copy() {
+        return new PreviewProfileImpl(this);
+    }
+
+    /**
+     * Clears all times, before a refresh.
+     */
+    public synchronized void clearRefresh() {
+        builders.clear();
+        renderers.clear();
+    }
+
+    /**
+     * Clears the render and post-process times, before a render.
+     */
+    public synchronized void clearRender() {
+        for (RendererTimes times : renderers.values()) {
+            times.renderTime = 0;
+            times.postProcessTime = 0;
+            times.itemCount = 0;
+        }
+    }
+
+    public synchronized void addBuild(ItemBuilder builder, long time, int itemCount) {
+        BuilderTimes times = builders.computeIfAbsent(builder, b -> new BuilderTimes());
+        times.buildTime += time;
+        times.itemCount += itemCount;
+    }
+
+    public synchronized void addPreProcess(Renderer renderer, long time) {
+        renderers.computeIfAbsent(renderer, r -> new RendererTimes()).preProcessTime += time;
+    }
+
+    public synchronized void addRender(Renderer renderer, long time, int itemCount) {
+        RendererTimes times = renderers.computeIfAbsent(renderer, r -> new RendererTimes());
+        times.renderTime += time;
+        times.itemCount += itemCount;
+    }
+
+    public synchronized void addPostProcess(Renderer renderer, long time) {
+        renderers.computeIfAbsent(renderer, r -> new RendererTimes()).postProcessTime += time;
+    }
+
+    @Override
+    public synchronized ItemBuilder[] getItemBuilders() {
+        return builders.keySet().toArray(new ItemBuilder[0]);
+    }
+
+    @Override
+    public synchronized long getBuildTime(ItemBuilder builder) {
+        BuilderTimes times = builders.get(builder);
+        return times != null ? times.buildTime : 0;
+    }
+
+    @Override
+    public synchronized int getBuiltItemCount(ItemBuilder builder) {
+        BuilderTimes times = builders.get(builder);
+        return times != null ? times.itemCount : 0;
+    }
+
+    @Override
+    public synchronized Renderer[] getRenderers() {
+        return renderers.keySet().toArray(new Renderer[0]);
+    }
+
+    @Override
+    public synchronized long getPreProcessTime(Renderer renderer) {
+        RendererTimes times = renderers.get(renderer);
+        return times != null ? times.preProcessTime : 0;
+    }
+
+    @Override
+    public synchronized long getRenderTime(Renderer renderer) {
+        RendererTimes times = renderers.get(renderer);
+        return times != null ? times.renderTime : 0;
+    }
+
+    @Override
+    public synchronized long getPostProcessTime(Renderer renderer) {
+        RendererTimes times = renderers.get(renderer);
+        return times != null ? times.postProcessTime : 0;
+    }
+
+    @Override
+    public synchronized int getRenderedItemCount(Renderer renderer) {
+        RendererTimes times = renderers.get(renderer);
+        return times != null ? times.itemCount : 0;
+    }
+
+    /**
+     * Returns a table of the times in milliseconds, one row per item builder
+     * and renderer.
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ENGLISH, "%-32s %10s %10s%n", "Item builder", "build ms", "items"));
+        for (Map.Entry<ItemBuilder, BuilderTimes> entry : builders.entrySet()) {
+            BuilderTimes times = entry.getValue();
+            sb.append(String.format(Locale.ENGLISH, "%-32s %10.1f %10d%n",
+                entry.getKey().getClass().getSimpleName(), times.buildTime / 1e6, times.itemCount));
+        }
+        sb.append(String.format(Locale.ENGLISH, "%-32s %10s %10s %10s %10s%n",
+            "Renderer", "pre ms", "render ms", "post ms", "items"));
+        for (Map.Entry<Renderer, RendererTimes> entry : renderers.entrySet()) {
+            RendererTimes times = entry.getValue();
+            sb.append(String.format(Locale.ENGLISH, "%-32s %10.1f %10.1f %10.1f %10d%n",
+                entry.getKey().getClass().getSimpleName(), times.preProcessTime / 1e6, times.renderTime / 1e6,
+                times.postProcessTime / 1e6, times.itemCount));
+        }
+        return sb.toString();
+    }
+
+    private static class BuilderTimes {
+
+        private long buildTime;
+        private int itemCount;
+
+        BuilderTimes() {
+        }
+
+        BuilderTimes(BuilderTimes times) {
+            buildTime = times.buildTime;
+            itemCount = times.itemCount;
+        }
+    }
+
+    private static class RendererTimes {
+
+        private long preProcessTime;
+        private long renderTime;
+        private long postProcessTime;
+        private int itemCount;
+
+        RendererTimes() {
+        }
+
+        RendererTimes(RendererTimes times) {
+            preProcessTime = times.preProcessTime;
+            renderTime = times.renderTime;
+            postProcessTime = times.postProcessTime;
+            itemCount = times.itemCount;
+        }
+    }
+}
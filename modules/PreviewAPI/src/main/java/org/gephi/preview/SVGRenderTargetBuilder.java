@@ -140,20 +140,6 @@ public class SVGRenderTargetBuilder implements RenderTargetBuilder {
             GVTBuilder builder = new GVTBuilder();
             builder.build(ctx, document);
 
-            //Dimension
-            SupportSize ss = new SupportSize(595F, 841F, LengthUnit.PIXELS);
-            if (cs.getWidth() > cs.getHeight()) {
-                ss = new SupportSize(
-                    cs.getWidth() * ss.getHeightFloat() / cs.getHeight(),
-                    ss.getHeightFloat(),
-                    LengthUnit.PIXELS);
-            } else if (cs.getHeight() > cs.getWidth()) {
-                ss = new SupportSize(
-                    ss.getWidthFloat(),
-                    cs.getHeight() * ss.getWidthFloat() / cs.getWidth(),
-                    LengthUnit.PIXELS);
-            }
-
             // root element
             Element svgRoot = document.getDocumentElement();
             svgRoot.setAttributeNS(null, "width", cs.getWidth() + "");
@@ -170,7 +156,7 @@ public class SVGRenderTargetBuilder implements RenderTargetBuilder {
 
             //Scale & ratio
             if (scaleStrokes) {
-                scaleRatio = ss.getWidthFloat() / cs.getWidth();
+                scaleRatio = getStrokeScaleRatio(cs);
             }
         }
 
@@ -208,18 +194,42 @@ public class SVGRenderTargetBuilder implements RenderTargetBuilder {
 
         @Override
         public String toHexString(Color color) {
-            String str = Integer.toHexString(color.getRGB());
+            return SVGRenderTargetBuilder.toHex(color);
+        }
+    }
 
-            for (int i = str.length(); i > 6; i--) {
-                str = str.substring(1);
-            }
+    /**
+     * Returns the ratio to scale strokes with when the canvas is fit to an A4
+     * sized support.
+     */
+    static float getStrokeScaleRatio(CanvasSize cs) {
+        SupportSize ss = new SupportSize(595F, 841F, LengthUnit.PIXELS);
+        if (cs.getWidth() > cs.getHeight()) {
+            ss = new SupportSize(
+                cs.getWidth() * ss.getHeightFloat() / cs.getHeight(),
+                ss.getHeightFloat(),
+                LengthUnit.PIXELS);
+        } else if (cs.getHeight() > cs.getWidth()) {
+            ss = new SupportSize(
+                ss.getWidthFloat(),
+                cs.getHeight() * ss.getWidthFloat() / cs.getWidth(),
+                LengthUnit.PIXELS);
+        }
+        return ss.getWidthFloat() / cs.getWidth();
+    }
 
-            for (int i = str.length(); i < 6; i++) {
-                str = "0" + str;
-            }
+    static String toHex(Color color) {
+        String str = Integer.toHexString(color.getRGB());
 
-            return "#" + str;
+        for (int i = str.length(); i > 6; i--) {
+            str = str.substring(1);
         }
+
+        for (int i = str.length(); i < 6; i++) {
+            str = "0" + str;
+        }
+
+        return "#" + str;
     }
 
     /**
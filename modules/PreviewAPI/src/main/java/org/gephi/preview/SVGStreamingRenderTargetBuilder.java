@@ -0,0 +1,305 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.preview;
+
+import java.awt.Color;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.apache.batik.anim.dom.SVGDOMImplementation;
+import org.gephi.preview.api.CanvasSize;
+import org.gephi.preview.api.PreviewModel;
+import org.gephi.preview.api.RenderTarget;
+import org.gephi.preview.api.SVGStreamingTarget;
+import org.gephi.preview.api.SVGTarget;
+import org.gephi.preview.spi.RenderTargetBuilder;
+import org.openide.util.lookup.ServiceProvider;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
+
+@ServiceProvider(service = RenderTargetBuilder.class)
+public class SVGStreamingRenderTargetBuilder implements RenderTargetBuilder {
+
+    @Override
+    public RenderTarget buildRenderTarget(PreviewModel previewModel) {
+        CanvasSize cs = previewModel.getGraphicsCanvasSize();
+        boolean scaleStrokes = previewModel.getProperties()
+            .getBooleanValue(SVGTarget.SCALE_STROKES);
+
+        return new SVGStreamingTargetImpl(cs, scaleStrokes);
+    }
+
+    @Override
+    public String getName() {
+        return RenderTarget.SVG_STREAMING_TARGET;
+    }
+
+    public static class SVGStreamingTargetImpl
+        extends AbstractRenderTarget implements SVGStreamingTarget {
+
+        private static final String INDENT = "    ";
+        private final Document document;
+        private final CanvasSize canvasSize;
+        private final Map<String, Layer> layers = new LinkedHashMap<>();
+        private float scaleRatio = 1f;
+
+        public SVGStreamingTargetImpl(CanvasSize cs, boolean scaleStrokes) {
+            document = SVGDOMImplementation.getDOMImplementation()
+                .createDocument(SVGDOMImplementation.SVG_NAMESPACE_URI, "svg", null);
+            canvasSize = cs;
+
+            //Scale & ratio
+            if (scaleStrokes) {
+                scaleRatio = SVGRenderTargetBuilder.getStrokeScaleRatio(cs);
+            }
+        }
+
+        @Override
+        public Element getTopElement(String name) {
+            Layer layer = layers.get(name);
+            if (layer == null) {
+                Element topElement = createElement("g");
+                topElement.setAttribute("id", name);
+                document.getDocumentElement().appendChild(topElement);
+                try {
+                    layer = new Layer(topElement);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                layers.put(name, layer);
+            }
+            return layer.element;
+        }
+
+        /**
+         * Serializes the elements appended to top elements since the last
+         * call to their temporary file and removes them from the document.
+         * Called after each item is rendered, elements are left alone while
+         * the renderer may still modify them.
+         */
+        void flush() {
+            try {
+                for (Layer layer : layers.values()) {
+                    for (Node child = layer.element.getFirstChild(); child != null;
+                         child = layer.element.getFirstChild()) {
+                        layer.writer.write(INDENT);
+                        layer.writer.write(INDENT);
+                        writeNode(layer.writer, child);
+                        layer.writer.write('\n');
+                        layer.element.removeChild(child);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void write(Writer writer) throws IOException {
+            try {
+                flush();
+                writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+                writer.write("<!DOCTYPE svg PUBLIC \"-//W3C//DTD SVG 1.1//EN\" "
+                    + "\"http://www.w3.org/Graphics/SVG/1.1/DTD/svg11.dtd\">\n");
+                writer.write("<svg xmlns=\"" + SVGDOMImplementation.SVG_NAMESPACE_URI + "\"");
+                writer.write(" xmlns:xlink=\"http://www.w3.org/1999/xlink\"");
+                writer.write(" width=\"" + canvasSize.getWidth() + "\"");
+                writer.write(" height=\"" + canvasSize.getHeight() + "\"");
+                writer.write(" version=\"1.1\"");
+                writer.write(" viewBox=\"" + String.format(Locale.ENGLISH, "%f %f %f %f",
+                    canvasSize.getX(),
+                    canvasSize.getY(),
+                    canvasSize.getWidth(),
+                    canvasSize.getHeight()) + "\">\n");
+
+                char[] buffer = new char[8192];
+                for (Map.Entry<String, Layer> entry : layers.entrySet()) {
+                    Layer layer = entry.getValue();
+                    layer.writer.close();
+                    writer.write(INDENT + "<g id=\"");
+                    writeEscaped(writer, entry.getKey(), true);
+                    writer.write("\">\n");
+                    try (Reader reader = new InputStreamReader(new FileInputStream(layer.file),
+                        StandardCharsets.UTF_8)) {
+                        int read;
+                        while ((read = reader.read(buffer)) != -1) {
+                            writer.write(buffer, 0, read);
+                        }
+                    }
+                    writer.write(INDENT + "</g>\n");
+                }
+                writer.write("</svg>\n");
+                writer.flush();
+            } finally {
+                dispose();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            for (Layer layer : layers.values()) {
+                layer.delete();
+            }
+            layers.clear();
+        }
+
+        private static void writeNode(Writer writer, Node node) throws IOException {
+            if (node.getNodeType() == Node.ELEMENT_NODE) {
+                writer.write('<');
+                writer.write(node.getNodeName());
+                NamedNodeMap attributes = node.getAttributes();
+                for (int i = 0; i < attributes.getLength(); i++) {
+                    Node attribute = attributes.item(i);
+                    writer.write(' ');
+                    writer.write(attribute.getNodeName());
+                    writer.write("=\"");
+                    writeEscaped(writer, attribute.getNodeValue(), true);
+                    writer.write('"');
+                }
+                if (node.hasChildNodes()) {
+                    writer.write('>');
+                    for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                        writeNode(writer, child);
+                    }
+                    writer.write("</");
+                    writer.write(node.getNodeName());
+                    writer.write('>');
+                } else {
+                    writer.write("/>");
+                }
+            } else if (node.getNodeType() == Node.TEXT_NODE || node.getNodeType() == Node.CDATA_SECTION_NODE) {
+                writeEscaped(writer, node.getNodeValue(), false);
+            }
+        }
+
+        private static void writeEscaped(Writer writer, String str, boolean attribute) throws IOException {
+            for (int i = 0; i < str.length(); i++) {
+                char c = str.charAt(i);
+                switch (c) {
+                    case '&':
+                        writer.write("&amp;");
+                        break;
+                    case '<':
+                        writer.write("&lt;");
+                        break;
+                    case '>':
+                        writer.write("&gt;");
+                        break;
+                    case '"':
+                        writer.write(attribute ? "&quot;" : "\"");
+                        break;
+                    case '\n':
+                        writer.write(attribute ? "&#10;" : "\n");
+                        break;
+                    default:
+                        writer.write(c);
+                }
+            }
+        }
+
+        @Override
+        public Document getDocument() {
+            return document;
+        }
+
+        @Override
+        public float getScaleRatio() {
+            return scaleRatio;
+        }
+
+        @Override
+        public Element createElement(String qualifiedName) {
+            return document.createElementNS(SVGDOMImplementation.SVG_NAMESPACE_URI, qualifiedName);
+        }
+
+        @Override
+        public Text createTextNode(String data) {
+            return document.createTextNode(data);
+        }
+
+        @Override
+        public String toHexString(Color color) {
+            return SVGRenderTargetBuilder.toHex(color);
+        }
+
+        private static class Layer {
+
+            private final Element element;
+            private final File file;
+            private final Writer writer;
+
+            Layer(Element element) throws IOException {
+                this.element = element;
+                file = File.createTempFile("gephi-svg-", ".tmp");
+                try {
+                    writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file),
+                        StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    file.delete();
+                    throw e;
+                }
+            }
+
+            void delete() {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    //Ignore
+                }
+                file.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,521 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.preview;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.gephi.preview.api.CanvasSize;
+import org.gephi.preview.api.G2DTarget;
+import org.gephi.preview.api.Item;
+import org.gephi.preview.api.PreviewModel;
+import org.gephi.preview.api.PreviewProperties;
+import org.gephi.preview.api.PreviewProperty;
+import org.gephi.preview.api.RenderTarget;
+import org.gephi.preview.api.TiledG2DTarget;
+import org.gephi.preview.api.Vector;
+import org.gephi.preview.spi.RenderTargetBuilder;
+import org.gephi.preview.spi.Renderer;
+import org.gephi.utils.progress.Progress;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ * Builds {@link TiledG2DTarget} render targets, used to export large images.
+ */
+@ServiceProvider(service = RenderTargetBuilder.class)
+public class TiledG2DRenderTargetBuilder implements RenderTargetBuilder {
+
+    public static final int DEFAULT_TILE_SIZE = 512;
+
+    @Override
+    public RenderTarget buildRenderTarget(PreviewModel previewModel) {
+        Integer width = previewModel.getProperties().getValue("width");
+        Integer height = previewModel.getProperties().getValue("height");
+        if (width != null && height != null) {
+            width = Math.max(1, width);
+            height = Math.max(1, height);
+            return new TiledG2DTargetImpl((PreviewModelImpl) previewModel, width, height, DEFAULT_TILE_SIZE);
+        } else {
+            return new TiledG2DTargetImpl((PreviewModelImpl) previewModel, 1, 1, DEFAULT_TILE_SIZE);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return RenderTarget.G2D_TILED_TARGET;
+    }
+
+    public static class TiledG2DTargetImpl extends AbstractRenderTarget implements TiledG2DTarget {
+
+        private final PreviewModelImpl previewModel;
+        private final int width;
+        private final int height;
+        private final int tileSize;
+        private final int strips;
+        private final int tilesPerStrip;
+        private final StripImage image;
+        //Transform, same as G2DGraphics
+        private float scaling;
+        private float translateX;
+        private float translateY;
+        private float scaledTranslateX;
+        private float scaledTranslateY;
+        private Color background;
+        //Renderers and their items
+        private Renderer[] renderers;
+        private ItemIndex.RendererIndex[] indices;
+        //Rendering
+        private ExecutorService executor;
+        private BufferedImage strip;
+        private int stripIndex = -1;
+
+        public TiledG2DTargetImpl(PreviewModelImpl model, int width, int height, int tileSize) {
+            this.previewModel = model;
+            this.width = width;
+            this.height = height;
+            this.tileSize = tileSize;
+            this.strips = (height + tileSize - 1) / tileSize;
+            this.tilesPerStrip = (width + tileSize - 1) / tileSize;
+            this.image = new StripImage();
+        }
+
+        @Override
+        public RenderedImage getImage() {
+            return image;
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public int getTileSize() {
+            return tileSize;
+        }
+
+        private void init() {
+            PreviewProperties properties = previewModel.getProperties();
+            CanvasSize cs = G2DRenderTargetBuilder.G2DGraphics.getSheetCanvasSize(previewModel);
+            scaling = Math.min(width / cs.getWidth(), height / cs.getHeight());
+            translateX = width / 2F - (cs.getX() + cs.getWidth() / 2F);
+            translateY = height / 2F - (cs.getY() + cs.getHeight() / 2F);
+            scaledTranslateX = width / 2F - width / 2F * scaling;
+            scaledTranslateY = height / 2F - height / 2F * scaling;
+            background = properties.getColorValue(PreviewProperty.BACKGROUND_COLOR);
+            previewModel.getProfileRecorder().clearRender();
+
+            //Reuse the index built when refreshing the preview if it covers all renderers
+            renderers = previewModel.getManagedEnabledRenderers();
+            ItemIndex itemIndex = previewModel.getItemIndex();
+            for (Renderer r : renderers) {
+                if (itemIndex == null || itemIndex.get(r) == null) {
+                    itemIndex = new ItemIndex(previewModel, renderers);
+                    break;
+                }
+            }
+            indices = new ItemIndex.RendererIndex[renderers.length];
+            for (int i = 0; i < renderers.length; i++) {
+                indices[i] = itemIndex.get(renderers[i]);
+            }
+
+            int threads = Runtime.getRuntime().availableProcessors();
+            executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "Preview Tile Renderer");
+                t.setDaemon(true);
+                return t;
+            });
+            strip = new BufferedImage(width, Math.min(tileSize, height), BufferedImage.TYPE_INT_ARGB);
+            Progress.switchToDeterminate(progressTicket, strips * tilesPerStrip);
+        }
+
+        @Override
+        public void dispose() {
+            //Stops the strip being rendered before waiting for it
+            cancel = true;
+            synchronized (this) {
+                if (executor != null) {
+                    executor.shutdownNow();
+                }
+            }
+        }
+
+        private synchronized BufferedImage getStrip(int index) {
+            if (index != stripIndex) {
+                if (stripIndex == -1) {
+                    init();
+                }
+                stripIndex = index;
+                Arrays.fill(((DataBufferInt) strip.getRaster().getDataBuffer()).getData(), 0);
+                if (!cancel && !executor.isShutdown()) {
+                    renderStrip(index);
+                }
+                if (cancel || index == strips - 1) {
+                    executor.shutdownNow();
+                }
+            }
+            int stripHeight = Math.min(tileSize, height - index * tileSize);
+            return stripHeight == strip.getHeight() ? strip : strip.getSubimage(0, 0, width, stripHeight);
+        }
+
+        private void renderStrip(int index) {
+            final int stripY = index * tileSize;
+            final int stripHeight = Math.min(tileSize, height - stripY);
+
+            List<Future<?>> futures = new ArrayList<>(tilesPerStrip);
+            for (int t = 0; t < tilesPerStrip; t++) {
+                final int tileX = t * tileSize;
+                final int tileWidth = Math.min(tileSize, width - tileX);
+                final BufferedImage tile = strip.getSubimage(tileX, 0, tileWidth, stripHeight);
+                futures.add(executor.submit(() -> renderTile(tile, tileX, stripY)));
+            }
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                    Progress.progress(progressTicket);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                executor.shutdownNow();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                executor.shutdownNow();
+                throw new RuntimeException(e.getCause());
+            }
+        }
+
+        private void renderTile(BufferedImage tile, int tileX, int tileY) {
+            PreviewProperties properties = previewModel.getProperties();
+            Graphics2D g2 = tile.createGraphics();
+            try {
+                //Smooth
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+                g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                    RenderingHints.VALUE_TEXT_ANTIALIAS_LCD_HRGB);
+
+                if (background != null) {
+                    g2.setColor(background);
+                    g2.fillRect(0, 0, tile.getWidth(), tile.getHeight());
+                }
+
+                g2.translate(-tileX, -tileY);
+                g2.translate(scaledTranslateX, scaledTranslateY);
+                g2.scale(scaling, scaling);
+                g2.translate(translateX, translateY);
+
+                //Items are drawn in the tiles their canvas intersects, grown by half a tile for strokes
+                float pad = tileSize / 2F / scaling;
+                float minX = toGraphX(tileX) - pad;
+                float minY = toGraphY(tileY) - pad;
+                float maxX = toGraphX(tileX + tile.getWidth()) + pad;
+                float maxY = toGraphY(tileY + tile.getHeight()) + pad;
+
+                TileTarget target = new TileTarget(g2, tile);
+                PreviewProfileImpl profile = previewModel.getProfileRecorder();
+                Renderer pending = null;
+                try {
+                    for (int i = 0; i < renderers.length; i++) {
+                        Renderer r = renderers[i];
+                        Item[] items = indices[i].getItems();
+                        pending = r;
+                        long start = System.nanoTime();
+                        int count = 0;
+                        for (int j : indices[i].query(minX, minY, maxX, maxY, 0F)) {
+                            if (r.isRendererForitem(items[j], properties)) {
+                                r.render(items[j], target, properties);
+                                count++;
+                                if (cancel) {
+                                    return;
+                                }
+                            }
+                        }
+                        profile.addRender(r, System.nanoTime() - start, count);
+                        pending = null;
+                        start = System.nanoTime();
+                        r.postProcess(previewModel, target, properties);
+                        profile.addPostProcess(r, System.nanoTime() - start);
+                    }
+                } finally {
+                    //Renderers release the state they keep for the target, e.g. rasters, in post-process
+                    if (pending != null) {
+                        pending.postProcess(previewModel, target, properties);
+                    }
+                }
+            } finally {
+                g2.dispose();
+            }
+        }
+
+        private float toGraphX(float x) {
+            return (x - scaledTranslateX) / scaling - translateX;
+        }
+
+        private float toGraphY(float y) {
+            return (y - scaledTranslateY) / scaling - translateY;
+        }
+
+        /**
+         * Image whose rows are rendered one strip at a time when requested.
+         */
+        private class StripImage implements RenderedImage {
+
+            private final ColorModel colorModel = ColorModel.getRGBdefault();
+            private final SampleModel sampleModel =
+                colorModel.createCompatibleSampleModel(width, Math.min(tileSize, height));
+
+            @Override
+            public Raster getData(Rectangle rect) {
+                WritableRaster raster = Raster.createWritableRaster(
+                    sampleModel.createCompatibleSampleModel(rect.width, rect.height), new Point(rect.x, rect.y));
+                return copyData(raster);
+            }
+
+            @Override
+            public Raster getData() {
+                return getData(new Rectangle(0, 0, width, height));
+            }
+
+            @Override
+            public Raster getTile(int tileX, int tileY) {
+                int y = tileY * tileSize;
+                return getData(new Rectangle(0, y, width, Math.min(tileSize, height - y)));
+            }
+
+            @Override
+            public WritableRaster copyData(WritableRaster raster) {
+                if (raster == null) {
+                    raster = Raster.createWritableRaster(
+                        sampleModel.createCompatibleSampleModel(width, height), new Point(0, 0));
+                }
+                Rectangle rect = raster.getBounds().intersection(new Rectangle(0, 0, width, height));
+                int y = rect.y;
+                while (y < rect.y + rect.height) {
+                    int index = y / tileSize;
+                    int stripY = index * tileSize;
+                    synchronized (TiledG2DTargetImpl.this) {
+                        Raster stripRaster = getStrip(index).getRaster();
+                        int rows = Math.min(rect.y + rect.height, stripY + stripRaster.getHeight()) - y;
+                        Object data = stripRaster.getDataElements(rect.x, y - stripY, rect.width, rows, null);
+                        raster.setDataElements(rect.x, y, rect.width, rows, data);
+                        y += rows;
+                    }
+                }
+                return raster;
+            }
+
+            @Override
+            public java.util.Vector<RenderedImage> getSources() {
+                return null;
+            }
+
+            @Override
+            public Object getProperty(String name) {
+                return Image.UndefinedProperty;
+            }
+
+            @Override
+            public String[] getPropertyNames() {
+                return null;
+            }
+
+            @Override
+            public ColorModel getColorModel() {
+                return colorModel;
+            }
+
+            @Override
+            public SampleModel getSampleModel() {
+                return sampleModel;
+            }
+
+            @Override
+            public int getWidth() {
+                return width;
+            }
+
+            @Override
+            public int getHeight() {
+                return height;
+            }
+
+            @Override
+            public int getMinX() {
+                return 0;
+            }
+
+            @Override
+            public int getMinY() {
+                return 0;
+            }
+
+            @Override
+            public int getNumXTiles() {
+                return 1;
+            }
+
+            @Override
+            public int getNumYTiles() {
+                return strips;
+            }
+
+            @Override
+            public int getMinTileX() {
+                return 0;
+            }
+
+            @Override
+            public int getMinTileY() {
+                return 0;
+            }
+
+            @Override
+            public int getTileWidth() {
+                return width;
+            }
+
+            @Override
+            public int getTileHeight() {
+                return sampleModel.getHeight();
+            }
+
+            @Override
+            public int getTileGridXOffset() {
+                return 0;
+            }
+
+            @Override
+            public int getTileGridYOffset() {
+                return 0;
+            }
+        }
+
+        /**
+         * Target handed to renderers for a single tile, already transformed to draw
+         * at the tile position.
+         */
+        private class TileTarget implements G2DTarget {
+
+            private final Graphics2D graphics;
+            private final BufferedImage image;
+
+            public TileTarget(Graphics2D graphics, BufferedImage image) {
+                this.graphics = graphics;
+                this.image = image;
+            }
+
+            @Override
+            public Graphics2D getGraphics() {
+                return graphics;
+            }
+
+            @Override
+            public Image getImage() {
+                return image;
+            }
+
+            @Override
+            public int getWidth() {
+                return image.getWidth();
+            }
+
+            @Override
+            public int getHeight() {
+                return image.getHeight();
+            }
+
+            @Override
+            public void resize(int width, int height) {
+                throw new UnsupportedOperationException("Tiles can't be resized");
+            }
+
+            @Override
+            public void setMoving(boolean moving) {
+            }
+
+            @Override
+            public Vector getTranslate() {
+                return new Vector(translateX, translateY);
+            }
+
+            @Override
+            public float getScaling() {
+                return scaling;
+            }
+
+            @Override
+            public void setScaling(float scaling) {
+                throw new UnsupportedOperationException("Tiles can't be scaled");
+            }
+
+            @Override
+            public void reset() {
+            }
+
+            @Override
+            public void refresh() {
+            }
+        }
+    }
+}
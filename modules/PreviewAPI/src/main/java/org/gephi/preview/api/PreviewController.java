@@ -141,7 +141,8 @@ public interface PreviewController {
      * Creates a new render target of the given type.
      * <p>
      * Default render targets names are {@link RenderTarget#G2D_TARGET},
-     * {@link RenderTarget#SVG_TARGET} and {@link RenderTarget#PDF_TARGET}.
+     * {@link RenderTarget#G2D_TILED_TARGET}, {@link RenderTarget#SVG_TARGET},
+     * {@link RenderTarget#SVG_STREAMING_TARGET} and {@link RenderTarget#PDF_TARGET}.
      * <p>
      * Render targets usually need some parameters when built. Parameters values
      * should simply be put in the <code>PreviewProperties</code>.
@@ -157,7 +158,8 @@ public interface PreviewController {
      * contained by <code>workspace</code>.
      * <p>
      * Default render targets names are {@link RenderTarget#G2D_TARGET},
-     * {@link RenderTarget#SVG_TARGET} and {@link RenderTarget#PDF_TARGET}.
+     * {@link RenderTarget#G2D_TILED_TARGET}, {@link RenderTarget#SVG_TARGET},
+     * {@link RenderTarget#SVG_STREAMING_TARGET} and {@link RenderTarget#PDF_TARGET}.
      * <p>
      * Render targets usually need some parameters when built. Parameters values
      * should simply be put in the <code>PreviewProperties</code>.
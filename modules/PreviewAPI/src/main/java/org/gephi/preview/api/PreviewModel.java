@@ -141,4 +141,13 @@ public interface PreviewModel {
      * @return the graphics canvas size
      */
     CanvasSize getGraphicsCanvasSize();
+
+    /**
+     * Returns the time spent by item builders and renderers in the last refresh
+     * and render of this model. The returned profile is a copy, later refreshes
+     * and renders do not change it.
+     *
+     * @return the profile of the last refresh and render
+     */
+    PreviewProfile getProfile();
 }
@@ -0,0 +1,126 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.preview.api;
+
+import org.gephi.preview.spi.ItemBuilder;
+import org.gephi.preview.spi.Renderer;
+
+/**
+ * Time spent by item builders and renderers in the last refresh and render of
+ * a preview model, to find which of them makes a preview slow.
+ * <p>
+ * Build and pre-process times are those of the last
+ * {@link PreviewController#refreshPreview() refresh}, render and post-process
+ * times those of the last render. Tiled targets render items once per tile
+ * they intersect, the times and item counts of all tiles are added up. Times
+ * are in nanoseconds.
+ *
+ * @see PreviewModel#getProfile()
+ */
+public interface PreviewProfile {
+
+    /**
+     * Returns the item builders run in the last refresh, in their run order.
+     *
+     * @return the profiled item builders
+     */
+    ItemBuilder[] getItemBuilders();
+
+    /**
+     * Returns the time taken by <code>builder</code> to build or update its
+     * items.
+     *
+     * @param builder the item builder
+     * @return build time in nanoseconds, or zero if it did not run
+     */
+    long getBuildTime(ItemBuilder builder);
+
+    /**
+     * Returns the number of items built by <code>builder</code>, only counting
+     * the new items when the items are updated.
+     *
+     * @param builder the item builder
+     * @return number of built items
+     */
+    int getBuiltItemCount(ItemBuilder builder);
+
+    /**
+     * Returns the renderers run in the last refresh and render, in their run
+     * order.
+     *
+     * @return the profiled renderers
+     */
+    Renderer[] getRenderers();
+
+    /**
+     * Returns the time taken by {@link Renderer#preProcess(PreviewModel)}.
+     *
+     * @param renderer the renderer
+     * @return pre-process time in nanoseconds
+     */
+    long getPreProcessTime(Renderer renderer);
+
+    /**
+     * Returns the time taken to render the items of <code>renderer</code>.
+     *
+     * @param renderer the renderer
+     * @return render time in nanoseconds
+     */
+    long getRenderTime(Renderer renderer);
+
+    /**
+     * Returns the time taken by
+     * {@link Renderer#postProcess(PreviewModel, RenderTarget, PreviewProperties)}.
+     *
+     * @param renderer the renderer
+     * @return post-process time in nanoseconds
+     */
+    long getPostProcessTime(Renderer renderer);
+
+    /**
+     * Returns the number of items rendered by <code>renderer</code>.
+     *
+     * @param renderer the renderer
+     * @return number of rendered items
+     */
+    int getRenderedItemCount(Renderer renderer);
+}
@@ -124,6 +124,22 @@ public class PreviewProperty {
      * <code>false</code> value means straight edges.
      */
     public static final String EDGE_CURVED = "edge.curved";
+    /**
+     * Edge <code>Boolean</code> property whether to bundle edges going in
+     * similar directions together. Takes precedence over curved edges.
+     */
+    public static final String EDGE_BUNDLED = "edge.bundled";
+    /**
+     * Edge <code>Float</code> property between 0-1 defining how similar in
+     * angle, length and position edges must be to be bundled together.
+     */
+    public static final String EDGE_BUNDLING_COMPATIBILITY = "edge.bundling.compatibility";
+    /**
+     * Edge <code>Boolean</code> property whether to draw edges by accumulating
+     * their density instead of drawing them one over the other. Only applies
+     * to image targets, for very dense graphs.
+     */
+    public static final String EDGE_DENSITY = "edge.density";
     /**
      * Edge <code>EdgeColor</code> property defining the edge color. It could be
      * the source's color, the target's color, a mixed color, the edge's original
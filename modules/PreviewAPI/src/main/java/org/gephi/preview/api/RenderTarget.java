@@ -68,6 +68,8 @@ import org.gephi.preview.spi.Renderer;
 public interface RenderTarget {
 
     String G2D_TARGET = "g2d";
+    String G2D_TILED_TARGET = "g2d_tiled";
     String SVG_TARGET = "svg";
+    String SVG_STREAMING_TARGET = "svg_streaming";
     String PDF_TARGET = "pdf";
 }
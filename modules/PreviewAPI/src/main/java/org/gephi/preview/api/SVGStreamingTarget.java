@@ -0,0 +1,75 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.preview.api;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Rendering target to SVG format for graphs too large to be held in a DOM.
+ * <p>
+ * Renderers use this target like any {@link SVGTarget}, but elements appended
+ * to top elements are serialized and removed from the document after each
+ * item is rendered. Elements are buffered in one temporary file per top
+ * element until the document is written with {@link #write(Writer)}, so the
+ * document returned by {@link #getDocument()} only holds the elements of the
+ * item being rendered.
+ *
+ * @see RenderTarget#SVG_STREAMING_TARGET
+ */
+public interface SVGStreamingTarget extends SVGTarget {
+
+    /**
+     * Writes the SVG document to <code>writer</code> and deletes the temporary
+     * files. The writer is not closed.
+     *
+     * @param writer the writer to write the document to
+     * @throws IOException if an I/O error occurs
+     */
+    void write(Writer writer) throws IOException;
+
+    /**
+     * Deletes the temporary files without writing the document, for instance
+     * when the rendering failed. Does nothing once the document is written.
+     */
+    void dispose();
+}
@@ -0,0 +1,87 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.preview.api;
+
+import java.awt.image.RenderedImage;
+
+/**
+ * Rendering target to Java2d for images too large to be held in memory at
+ * once.
+ * <p>
+ * The canvas is split into square tiles, each rendered with its own
+ * {@link G2DTarget}. Tiles are rendered in parallel, one horizontal strip at a
+ * time, when the rows of the image are requested, so the image can be
+ * streamed to an encoder with a memory footprint bounded by the strip size.
+ * Only the items whose canvas size intersects a tile are drawn into it.
+ * <p>
+ * Renderers are called from several threads at the same time and should not
+ * modify shared state in their <code>render()</code> method.
+ *
+ * @see RenderTarget#G2D_TILED_TARGET
+ */
+public interface TiledG2DTarget extends RenderTarget {
+
+    /**
+     * Returns the rendered image. Strips are rendered lazily when the image
+     * data is requested, in increasing row order for best performance.
+     *
+     * @return the rendered image
+     */
+    RenderedImage getImage();
+
+    int getWidth();
+
+    int getHeight();
+
+    /**
+     * Returns the width and height of the tiles, in pixels.
+     *
+     * @return the tile size
+     */
+    int getTileSize();
+
+    /**
+     * Stops the rendering threads, for instance when the image was not read
+     * until its last row. The image can't be read anymore afterwards.
+     */
+    void dispose();
+}
@@ -64,6 +64,9 @@ public class DefaultPreset extends PreviewPreset {
 
         properties.put(PreviewProperty.EDGE_COLOR, new EdgeColor(EdgeColor.Mode.MIXED));
         properties.put(PreviewProperty.EDGE_CURVED, true);
+        properties.put(PreviewProperty.EDGE_BUNDLED, false);
+        properties.put(PreviewProperty.EDGE_BUNDLING_COMPATIBILITY, 0.6f);
+        properties.put(PreviewProperty.EDGE_DENSITY, false);
         properties.put(PreviewProperty.EDGE_RESCALE_WEIGHT, Boolean.FALSE);
         properties.put(PreviewProperty.EDGE_OPACITY, 100f);
         properties.put(PreviewProperty.EDGE_RADIUS, 0f);
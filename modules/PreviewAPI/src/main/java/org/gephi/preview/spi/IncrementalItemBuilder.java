@@ -0,0 +1,85 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.preview.spi;
+
+import org.gephi.graph.api.Element;
+import org.gephi.graph.api.Graph;
+import org.gephi.preview.api.Item;
+
+/**
+ * Item builder which can update its items when the graph changes, instead of
+ * building all of them again.
+ * <p>
+ * When the preview is refreshed and the graph is the same as in the previous
+ * refresh, items of elements removed from the graph are removed, items of
+ * existing elements are updated with {@link #updateItem(Graph, Item)} and
+ * items of added elements are built with {@link #getItems(Graph, Element[])}.
+ * Item builders which don't implement this interface build all their items at
+ * each refresh.
+ *
+ * @see ItemBuilder
+ */
+public interface IncrementalItemBuilder extends ItemBuilder {
+
+    /**
+     * Build items for the given <code>elements</code> of the
+     * <code>graph</code> only. Elements this builder doesn't build items for
+     * are ignored.
+     *
+     * @param graph    the graph the elements belong to
+     * @param elements the elements to build items for
+     * @return an array of new items, from the same type returned by
+     * {@link #getType()}
+     */
+    Item[] getItems(Graph graph, Element[] elements);
+
+    /**
+     * Updates the data of an item previously built by this builder from its
+     * source element.
+     *
+     * @param graph the graph the item source belongs to
+     * @param item  the item to update
+     * @return <code>true</code> if the item was updated, <code>false</code> if
+     * it has to be removed
+     */
+    boolean updateItem(Graph graph, Item item);
+}
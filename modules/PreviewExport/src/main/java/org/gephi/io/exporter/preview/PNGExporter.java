@@ -43,18 +43,16 @@
 package org.gephi.io.exporter.preview;
 
 import java.awt.Color;
-import java.awt.Image;
-import java.awt.image.BufferedImage;
 import java.io.OutputStream;
 import javax.imageio.ImageIO;
 import org.gephi.io.exporter.spi.ByteExporter;
 import org.gephi.io.exporter.spi.VectorExporter;
-import org.gephi.preview.api.G2DTarget;
 import org.gephi.preview.api.PreviewController;
 import org.gephi.preview.api.PreviewModel;
 import org.gephi.preview.api.PreviewProperties;
 import org.gephi.preview.api.PreviewProperty;
 import org.gephi.preview.api.RenderTarget;
+import org.gephi.preview.api.TiledG2DTarget;
 import org.gephi.project.api.Workspace;
 import org.gephi.utils.longtask.spi.LongTask;
 import org.gephi.utils.progress.Progress;
@@ -74,7 +72,7 @@ public class PNGExporter implements VectorExporter, ByteExporter, LongTask {
     private int height = 1024;
     private boolean transparentBackground = false;
     private int margin = 4; //FIXME Use a float instead to avoid extra cast
-    private G2DTarget target;
+    private TiledG2DTarget target;
     private Color oldColor;
 
     @Override
@@ -88,25 +86,21 @@ public class PNGExporter implements VectorExporter, ByteExporter, LongTask {
         setExportProperties(m);
         ctrl.refreshPreview(workspace);
 
-        target = (G2DTarget) ctrl.getRenderTarget(
-            RenderTarget.G2D_TARGET,
+        target = (TiledG2DTarget) ctrl.getRenderTarget(
+            RenderTarget.G2D_TILED_TARGET,
             workspace);
         if (target instanceof LongTask) {
             ((LongTask) target).setProgressTicket(progress);
         }
 
         try {
-            target.refresh();
-
-            Progress.switchToIndeterminate(progress);
-
-            Image sourceImg = target.getImage();
-            BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-            img.getGraphics().drawImage(sourceImg, 0, 0, null);
-            ImageIO.write(img, "png", stream);
+            //Tiles are rendered while the encoder reads the image rows
+            ImageIO.write(target.getImage(), "png", stream);
             stream.close();
         } catch (Exception e) {
             throw new RuntimeException(e);
+        } finally {
+            target.dispose();
         }
 
         discardExportProperties(m);
@@ -0,0 +1,428 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.io.exporter.preview;
+
+import com.itextpdf.text.Rectangle;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.gephi.io.exporter.api.ExportController;
+import org.gephi.io.exporter.spi.Exporter;
+import org.gephi.preview.api.PreviewController;
+import org.gephi.preview.api.PreviewProfile;
+import org.gephi.preview.api.PreviewProperties;
+import org.gephi.preview.api.PreviewProperty;
+import org.gephi.preview.api.PreviewPreset;
+import org.gephi.project.api.ProjectController;
+import org.gephi.project.api.Workspace;
+import org.gephi.project.api.WorkspaceInformation;
+import org.gephi.project.api.WorkspaceProvider;
+import org.openide.util.Lookup;
+
+/**
+ * Renders preview images of workspaces in PNG, SVG or PDF without the desktop
+ * application, for scripts rendering many images at once.
+ * <p>
+ * Each {@link Task} renders a workspace with a preset and a size into a file.
+ * Tasks run on a bounded pool of workers. Preview models belong to workspaces,
+ * so tasks of the same workspace run one after the other in their submission
+ * order while tasks of different workspaces run concurrently. The preview
+ * properties of each workspace are restored once its tasks are done.
+ * <p>
+ * It can also be run from the command line:
+ * <pre>java org.gephi.io.exporter.preview.PreviewBatchRenderer project.gephi outputDir
+ *     [-format png|svg|pdf]... [-size 1024x1024]... [-preset DefaultCurved]... [-threads 4]</pre>
+ * which renders all workspaces of the project with all given formats, sizes
+ * and presets, and prints the time taken by each render and its
+ * {@link PreviewProfile profile}.
+ *
+ * @see PNGExporter
+ * @see SVGExporter
+ * @see PDFExporter
+ */
+public class PreviewBatchRenderer {
+
+    private final int threads;
+
+    public PreviewBatchRenderer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a batch renderer using at most <code>threads</code> workers.
+     *
+     * @param threads maximum number of concurrent renders
+     * @throws IllegalArgumentException if <code>threads</code> is not positive
+     */
+    public PreviewBatchRenderer(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Opens a project file and returns its workspaces.
+     *
+     * @param file project file
+     * @return workspaces of the project
+     */
+    public static Workspace[] openProject(File file) {
+        ProjectController projectController = Lookup.getDefault().lookup(ProjectController.class);
+        projectController.openProject(file).run();
+        return projectController.getCurrentProject().getLookup().lookup(WorkspaceProvider.class).getWorkspaces();
+    }
+
+    /**
+     * Renders the given tasks and waits for all of them to finish. Failed tasks
+     * don't stop the others, their error is set in their result.
+     *
+     * @param tasks tasks to render
+     * @return results in the same order as <code>tasks</code>
+     * @throws InterruptedException if interrupted while waiting for the renders
+     */
+    public List<Result> render(List<Task> tasks) throws InterruptedException {
+        //Tasks of a workspace share its preview model
+        Map<Workspace, List<Integer>> workspaceTasks = new LinkedHashMap<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            workspaceTasks.computeIfAbsent(tasks.get(i).getWorkspace(), k -> new ArrayList<>()).add(i);
+        }
+
+        final Result[] results = new Result[tasks.size()];
+        if (workspaceTasks.isEmpty()) {
+            return Arrays.asList(results);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, workspaceTasks.size()));
+        try {
+            for (Map.Entry<Workspace, List<Integer>> entry : workspaceTasks.entrySet()) {
+                executor.execute(() -> {
+                    try {
+                        PreviewProperties properties = Lookup.getDefault().lookup(PreviewController.class)
+                            .getModel(entry.getKey()).getProperties();
+                        PreviewPreset workspacePreset = getPreset(properties);
+                        try {
+                            for (Integer i : entry.getValue()) {
+                                results[i] = render(tasks.get(i), properties, workspacePreset);
+                            }
+                        } finally {
+                            properties.applyPreset(workspacePreset);
+                        }
+                    } catch (Throwable t) {
+                        //Tasks not rendered yet fail with the error of the workspace
+                        for (Integer i : entry.getValue()) {
+                            if (results[i] == null) {
+                                results[i] = new Result(tasks.get(i), 0, null, t);
+                            }
+                        }
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        return Arrays.asList(results);
+    }
+
+    private Result render(Task task, PreviewProperties properties, PreviewPreset workspacePreset) {
+        long start = System.nanoTime();
+        try {
+            properties.applyPreset(workspacePreset);
+            if (task.getPreset() != null) {
+                properties.applyPreset(task.getPreset());
+            }
+            ExportController exportController = Lookup.getDefault().lookup(ExportController.class);
+            exportController.exportFile(task.getFile(), getExporter(task));
+            return new Result(task, System.nanoTime() - start, getProfile(task), null);
+        } catch (Throwable t) {
+            return new Result(task, System.nanoTime() - start, getProfile(task), t);
+        }
+    }
+
+    private static PreviewProfile getProfile(Task task) {
+        PreviewController previewController = Lookup.getDefault().lookup(PreviewController.class);
+        return previewController.getModel(task.getWorkspace()).getProfile();
+    }
+
+    private static Exporter getExporter(Task task) {
+        Exporter exporter;
+        switch (task.getFormat()) {
+            case PNG:
+                PNGExporter pngExporter = new PNGExporter();
+                pngExporter.setWidth(task.getWidth());
+                pngExporter.setHeight(task.getHeight());
+                exporter = pngExporter;
+                break;
+            case SVG:
+                exporter = new SVGExporter();
+                break;
+            case PDF:
+                PDFExporter pdfExporter = new PDFExporter();
+                pdfExporter.setPageSize(new Rectangle(task.getWidth(), task.getHeight()));
+                exporter = pdfExporter;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format " + task.getFormat());
+        }
+        exporter.setWorkspace(task.getWorkspace());
+        return exporter;
+    }
+
+    private static PreviewPreset getPreset(PreviewProperties properties) {
+        Map<String, Object> values = new HashMap<>();
+        for (PreviewProperty property : properties.getProperties()) {
+            values.put(property.getName(), property.getValue());
+        }
+        return new PreviewPreset("workspace", values);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: PreviewBatchRenderer project.gephi outputDir [-format png|svg|pdf]..."
+                + " [-size WIDTHxHEIGHT]... [-preset NAME]... [-threads N]");
+            System.exit(1);
+        }
+        File outputDir = new File(args[1]);
+        List<Format> formats = new ArrayList<>();
+        List<int[]> sizes = new ArrayList<>();
+        List<PreviewPreset> presets = new ArrayList<>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-format":
+                    formats.add(Format.valueOf(value.toUpperCase(Locale.ENGLISH)));
+                    break;
+                case "-size":
+                    String[] size = value.split("x");
+                    sizes.add(new int[] {Integer.parseInt(size[0]), Integer.parseInt(size[1])});
+                    break;
+                case "-preset":
+                    presets.add((PreviewPreset) Class.forName("org.gephi.preview.presets." + value)
+                        .getDeclaredConstructor().newInstance());
+                    break;
+                case "-threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (formats.isEmpty()) {
+            formats.add(Format.PNG);
+        }
+        if (sizes.isEmpty()) {
+            sizes.add(new int[] {1024, 1024});
+        }
+        if (presets.isEmpty()) {
+            presets.add(null);
+        }
+
+        long start = System.nanoTime();
+        Workspace[] workspaces = openProject(new File(args[0]));
+        System.out.printf(Locale.ENGLISH, "Opened %s in %d ms%n", args[0], (System.nanoTime() - start) / 1000000);
+
+        List<Task> tasks = new ArrayList<>();
+        for (Workspace workspace : workspaces) {
+            String name = workspace.getLookup().lookup(WorkspaceInformation.class).getName()
+                .replaceAll("[^A-Za-z0-9_.-]", "_");
+            for (PreviewPreset preset : presets) {
+                for (int[] size : sizes) {
+                    for (Format format : formats) {
+                        String fileName = name + (preset != null ? "_" + preset.getName().replace(' ', '_') : "")
+                            + "_" + size[0] + "x" + size[1] + "." + format.name().toLowerCase(Locale.ENGLISH);
+                        tasks.add(new Task(workspace, preset, format, size[0], size[1],
+                            new File(outputDir, fileName)));
+                    }
+                }
+            }
+        }
+
+        start = System.nanoTime();
+        boolean success = true;
+        List<Result> results = new PreviewBatchRenderer(threads).render(tasks);
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            if (result == null) {
+                System.out.printf(Locale.ENGLISH, "%s FAILED: not rendered%n", tasks.get(i).getFile());
+                success = false;
+                continue;
+            }
+            System.out.printf(Locale.ENGLISH, "%s %d ms%s%n", result.getTask().getFile(),
+                result.getDuration() / 1000000, result.isSuccess() ? "" : " FAILED: " + result.getError());
+            if (result.getProfile() != null) {
+                System.out.print(result.getProfile());
+            }
+            success &= result.isSuccess();
+        }
+        System.out.printf(Locale.ENGLISH, "Rendered %d files in %d ms%n", tasks.size(),
+            (System.nanoTime() - start) / 1000000);
+        System.exit(success ? 0 : 2);
+    }
+
+    public enum Format {
+        PNG, SVG, PDF
+    }
+
+    /**
+     * Render of a workspace with a preset into a file.
+     */
+    public static class Task {
+
+        private final Workspace workspace;
+        private final PreviewPreset preset;
+        private final Format format;
+        private final int width;
+        private final int height;
+        private final File file;
+
+        /**
+         * Creates a render task.
+         *
+         * @param workspace workspace to render
+         * @param preset    preset applied over the preview properties of the
+         *                  workspace, or <code>null</code> to keep them
+         * @param format    file format
+         * @param width     image width in pixels, or page width in points for
+         *                  PDF, ignored for SVG
+         * @param height    image height in pixels, or page height in points for
+         *                  PDF, ignored for SVG
+         * @param file      output file
+         */
+        public Task(Workspace workspace, PreviewPreset preset, Format format, int width, int height, File file) {
+            this.workspace = workspace;
+            this.preset = preset;
+            this.format = format;
+            this.width = width;
+            this.height = height;
+            this.file = file;
+        }
+
+        public Workspace getWorkspace() {
+            return workspace;
+        }
+
+        public PreviewPreset getPreset() {
+            return preset;
+        }
+
+        public Format getFormat() {
+            return format;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public File getFile() {
+            return file;
+        }
+    }
+
+    /**
+     * Outcome, duration and profile of a render task.
+     */
+    public static class Result {
+
+        private final Task task;
+        private final long duration;
+        private final PreviewProfile profile;
+        private final Throwable error;
+
+        Result(Task task, long duration, PreviewProfile profile, Throwable error) {
+            this.task = task;
+            this.duration = duration;
+            this.profile = profile;
+            this.error = error;
+        }
+
+        public Task getTask() {
+            return task;
+        }
+
+        /**
+         * Returns the time taken by the render, building the preview items
+         * included.
+         *
+         * @return duration in nanoseconds
+         */
+        public long getDuration() {
+            return duration;
+        }
+
+        /**
+         * Returns the time spent by each item builder and renderer in the
+         * render.
+         *
+         * @return the preview profile of the render, or <code>null</code> if
+         *         the workspace preview model could not be used
+         */
+        public PreviewProfile getProfile() {
+            return profile;
+        }
+
+        /**
+         * Returns the error that made the render fail.
+         *
+         * @return the error or <code>null</code> if the render succeeded
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+}
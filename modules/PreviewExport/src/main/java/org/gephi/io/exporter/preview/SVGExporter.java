@@ -43,22 +43,19 @@ Portions Copyrighted 2011 Gephi Consortium.
 package org.gephi.io.exporter.preview;
 
 import java.io.Writer;
-import org.apache.batik.transcoder.TranscoderInput;
-import org.apache.batik.transcoder.TranscoderOutput;
-import org.apache.batik.transcoder.svg2svg.SVGTranscoder;
 import org.gephi.io.exporter.spi.CharacterExporter;
 import org.gephi.io.exporter.spi.VectorExporter;
 import org.gephi.preview.api.PreviewController;
 import org.gephi.preview.api.PreviewProperties;
 import org.gephi.preview.api.PreviewProperty;
 import org.gephi.preview.api.RenderTarget;
+import org.gephi.preview.api.SVGStreamingTarget;
 import org.gephi.preview.api.SVGTarget;
 import org.gephi.project.api.Workspace;
 import org.gephi.utils.longtask.spi.LongTask;
 import org.gephi.utils.progress.Progress;
 import org.gephi.utils.progress.ProgressTicket;
 import org.openide.util.Lookup;
-import org.w3c.dom.Document;
 
 /**
  * Class exporting the preview graph as an SVG image.
@@ -68,12 +65,11 @@ import org.w3c.dom.Document;
 public class SVGExporter implements CharacterExporter, VectorExporter, LongTask {
 
     //Architecture
-    private Document doc;
     private ProgressTicket progress;
     private boolean cancel = false;
     private Workspace workspace;
     private Writer writer;
-    private SVGTarget target;
+    private SVGStreamingTarget target;
     //Settings
     private boolean scaleStrokes = false;
     private float margin = 4;
@@ -87,31 +83,26 @@ public class SVGExporter implements CharacterExporter, VectorExporter, LongTask
         PreviewProperties props = controller.getModel(workspace).getProperties();
         props.putValue(SVGTarget.SCALE_STROKES, scaleStrokes);
         props.putValue(PreviewProperty.MARGIN, new Float(margin));
-        target = (SVGTarget) controller.getRenderTarget(RenderTarget.SVG_TARGET, workspace);
+        target = (SVGStreamingTarget) controller.getRenderTarget(RenderTarget.SVG_STREAMING_TARGET, workspace);
         if (target instanceof LongTask) {
             ((LongTask) target).setProgressTicket(progress);
         }
 
         try {
+            // elements are buffered per top element while rendering
             controller.render(target, workspace);
 
-            // creates SVG-to-SVG transcoder
-            SVGTranscoder t = new SVGTranscoder();
-            t.addTranscodingHint(SVGTranscoder.KEY_XML_DECLARATION, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
-
-            // sets transcoder input and output
-            TranscoderInput input = new TranscoderInput(target.getDocument());
-
-            // performs transcoding
             try {
-                TranscoderOutput output = new TranscoderOutput(writer);
-                t.transcode(input, output);
+                target.write(writer);
             } finally {
                 writer.close();
                 props.removeSimpleValue(PreviewProperty.MARGIN);
             }
         } catch (Exception e) {
             throw new RuntimeException(e);
+        } finally {
+            //Deletes the temporary files when the rendering failed
+            target.dispose();
         }
 
         Progress.finish(progress);
@@ -0,0 +1,88 @@
+package org.gephi.io.exporter.preview;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.gephi.graph.GraphGenerator;
+import org.gephi.preview.api.PreviewController;
+import org.gephi.preview.api.PreviewProfile;
+import org.gephi.preview.api.PreviewProperty;
+import org.gephi.preview.presets.BlackBackground;
+import org.gephi.preview.spi.ItemBuilder;
+import org.gephi.preview.spi.Renderer;
+import org.gephi.project.api.Workspace;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openide.util.Lookup;
+
+public class PreviewBatchRendererTest {
+
+    @Test
+    public void testRender() throws IOException, InterruptedException {
+        File dir = Files.createTempDirectory("testPreviewBatchRenderer").toFile();
+        dir.deleteOnExit();
+
+        List<PreviewBatchRenderer.Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Workspace workspace = GraphGenerator.build().withWorkspace()
+                .generateSmallRandomGraph().addRandomPositions().getWorkspace();
+            for (PreviewBatchRenderer.Format format : PreviewBatchRenderer.Format.values()) {
+                File file = new File(dir, "workspace" + i + "." + format.name().toLowerCase());
+                file.deleteOnExit();
+                tasks.add(new PreviewBatchRenderer.Task(workspace, null, format, 200, 100, file));
+            }
+        }
+
+        List<PreviewBatchRenderer.Result> results = new PreviewBatchRenderer(2).render(tasks);
+        Assert.assertEquals(tasks.size(), results.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            PreviewBatchRenderer.Result result = results.get(i);
+            Assert.assertSame(tasks.get(i), result.getTask());
+            Assert.assertTrue(String.valueOf(result.getError()), result.isSuccess());
+            Assert.assertTrue(result.getTask().getFile().length() > 0);
+        }
+    }
+
+    @Test
+    public void testProfile() throws IOException, InterruptedException {
+        File file = File.createTempFile("testProfile", ".png");
+        file.deleteOnExit();
+        Workspace workspace = GraphGenerator.build().withWorkspace()
+            .generateSmallRandomGraph().addRandomPositions().getWorkspace();
+
+        List<PreviewBatchRenderer.Task> tasks = new ArrayList<>();
+        tasks.add(new PreviewBatchRenderer.Task(workspace, null, PreviewBatchRenderer.Format.PNG, 200, 100, file));
+        PreviewProfile profile = new PreviewBatchRenderer(1).render(tasks).get(0).getProfile();
+
+        int builtItems = 0;
+        for (ItemBuilder builder : profile.getItemBuilders()) {
+            builtItems += profile.getBuiltItemCount(builder);
+        }
+        Assert.assertTrue(builtItems > 0);
+        int renderedItems = 0;
+        for (Renderer renderer : profile.getRenderers()) {
+            renderedItems += profile.getRenderedItemCount(renderer);
+        }
+        Assert.assertTrue(renderedItems > 0);
+    }
+
+    @Test
+    public void testPresetRestored() throws IOException, InterruptedException {
+        File file = File.createTempFile("testPresetRestored", ".svg");
+        file.deleteOnExit();
+        Workspace workspace = GraphGenerator.build().withWorkspace()
+            .generateSmallRandomGraph().addRandomPositions().getWorkspace();
+        PreviewController previewController = Lookup.getDefault().lookup(PreviewController.class);
+        Object background = previewController.getModel(workspace).getProperties()
+            .getValue(PreviewProperty.BACKGROUND_COLOR);
+
+        List<PreviewBatchRenderer.Task> tasks = new ArrayList<>();
+        tasks.add(new PreviewBatchRenderer.Task(workspace, new BlackBackground(), PreviewBatchRenderer.Format.SVG,
+            0, 0, file));
+        Assert.assertTrue(new PreviewBatchRenderer(1).render(tasks).get(0).isSuccess());
+        Assert.assertEquals(background,
+            previewController.getModel(workspace).getProperties().getValue(PreviewProperty.BACKGROUND_COLOR));
+    }
+}
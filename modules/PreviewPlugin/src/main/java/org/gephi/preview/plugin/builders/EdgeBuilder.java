@@ -42,11 +42,15 @@
 
 package org.gephi.preview.plugin.builders;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.gephi.graph.api.DirectedGraph;
 import org.gephi.graph.api.Edge;
+import org.gephi.graph.api.Element;
 import org.gephi.graph.api.Graph;
 import org.gephi.preview.api.Item;
 import org.gephi.preview.plugin.items.EdgeItem;
+import org.gephi.preview.spi.IncrementalItemBuilder;
 import org.gephi.preview.spi.ItemBuilder;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -54,7 +58,7 @@ import org.openide.util.lookup.ServiceProvider;
  * @author Mathieu Bastian
  */
 @ServiceProvider(service = ItemBuilder.class, position = 300)
-public class EdgeBuilder implements ItemBuilder {
+public class EdgeBuilder implements IncrementalItemBuilder {
 
     @Override
     public Item[] getItems(Graph graph) {
@@ -63,18 +67,41 @@ public class EdgeBuilder implements ItemBuilder {
         int i = 0;
         for (Edge e : graph.getEdges()) {
             EdgeItem item = new EdgeItem(e);
-            item.setData(EdgeItem.WEIGHT, e.getWeight(graph.getView()));
-            item.setData(EdgeItem.DIRECTED, e.isDirected());
-            if (graph.isDirected(e)) {
-                item.setData(EdgeItem.MUTUAL, ((DirectedGraph) graph).getMutualEdge(e) != null);
-            }
-            item.setData(EdgeItem.SELF_LOOP, e.isSelfLoop());
-            item.setData(EdgeItem.COLOR, e.alpha() == 0 ? null : e.getColor());
+            setData(item, e, graph);
             items[i++] = item;
         }
         return items;
     }
 
+    @Override
+    public Item[] getItems(Graph graph, Element[] elements) {
+        List<Item> items = new ArrayList<>();
+        for (Element element : elements) {
+            if (element instanceof Edge) {
+                EdgeItem item = new EdgeItem((Edge) element);
+                setData(item, (Edge) element, graph);
+                items.add(item);
+            }
+        }
+        return items.toArray(new Item[0]);
+    }
+
+    @Override
+    public boolean updateItem(Graph graph, Item item) {
+        setData(item, (Edge) item.getSource(), graph);
+        return true;
+    }
+
+    private void setData(Item item, Edge e, Graph graph) {
+        item.setData(EdgeItem.WEIGHT, e.getWeight(graph.getView()));
+        item.setData(EdgeItem.DIRECTED, e.isDirected());
+        if (graph.isDirected(e)) {
+            item.setData(EdgeItem.MUTUAL, ((DirectedGraph) graph).getMutualEdge(e) != null);
+        }
+        item.setData(EdgeItem.SELF_LOOP, e.isSelfLoop());
+        item.setData(EdgeItem.COLOR, e.alpha() == 0 ? null : e.getColor());
+    }
+
     @Override
     public String getType() {
         return ItemBuilder.EDGE_BUILDER;
@@ -42,10 +42,14 @@
 
 package org.gephi.preview.plugin.builders;
 
+import java.util.ArrayList;
+import java.util.List;
+import org.gephi.graph.api.Element;
 import org.gephi.graph.api.Graph;
 import org.gephi.graph.api.Node;
 import org.gephi.preview.api.Item;
 import org.gephi.preview.plugin.items.NodeItem;
+import org.gephi.preview.spi.IncrementalItemBuilder;
 import org.gephi.preview.spi.ItemBuilder;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -53,7 +57,7 @@ import org.openide.util.lookup.ServiceProvider;
  * @author Mathieu Bastian
  */
 @ServiceProvider(service = ItemBuilder.class, position = 100)
-public class NodeBuilder implements ItemBuilder {
+public class NodeBuilder implements IncrementalItemBuilder {
 
     @Override
     public Item[] getItems(Graph graph) {
@@ -62,16 +66,39 @@ public class NodeBuilder implements ItemBuilder {
         int i = 0;
         for (Node n : graph.getNodes()) {
             NodeItem nodeItem = new NodeItem(n);
-            nodeItem.setData(NodeItem.X, n.x());
-            nodeItem.setData(NodeItem.Y, -n.y());
-            nodeItem.setData(NodeItem.Z, n.z());
-            nodeItem.setData(NodeItem.SIZE, n.size() * 2f);
-            nodeItem.setData(NodeItem.COLOR, n.getColor());
+            setData(nodeItem, n);
             items[i++] = nodeItem;
         }
         return items;
     }
 
+    @Override
+    public Item[] getItems(Graph graph, Element[] elements) {
+        List<Item> items = new ArrayList<>();
+        for (Element element : elements) {
+            if (element instanceof Node) {
+                NodeItem nodeItem = new NodeItem((Node) element);
+                setData(nodeItem, (Node) element);
+                items.add(nodeItem);
+            }
+        }
+        return items.toArray(new Item[0]);
+    }
+
+    @Override
+    public boolean updateItem(Graph graph, Item item) {
+        setData(item, (Node) item.getSource());
+        return true;
+    }
+
+    private void setData(Item nodeItem, Node n) {
+        nodeItem.setData(NodeItem.X, n.x());
+        nodeItem.setData(NodeItem.Y, -n.y());
+        nodeItem.setData(NodeItem.Z, n.z());
+        nodeItem.setData(NodeItem.SIZE, n.size() * 2f);
+        nodeItem.setData(NodeItem.COLOR, n.getColor());
+    }
+
     @Override
     public String getType() {
         return ItemBuilder.NODE_BUILDER;
@@ -170,6 +170,7 @@ public class ArrowRenderer implements Renderer {
         return properties.getBooleanValue(PreviewProperty.SHOW_EDGES)
             && properties.getBooleanValue(PreviewProperty.DIRECTED)
             && !properties.getBooleanValue(PreviewProperty.EDGE_CURVED)
+            && !properties.getBooleanValue(PreviewProperty.EDGE_BUNDLED)
             && !properties.getBooleanValue(PreviewProperty.MOVING);
     }
 
@@ -0,0 +1,357 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.preview.plugin.renderers;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Raster accumulating the density of edges instead of drawing them one over
+ * the other.
+ * <p>
+ * Edges are added as polylines and drawn as one pixel wide anti-aliased lines
+ * whose ink is weighted by their thickness and opacity. Each pixel accumulates
+ * the ink of the edges crossing it and their ink-weighted color, so the result
+ * doesn't depend on the drawing order. The pixel opacity is then
+ * <code>1 - exp(-ink)</code>, so sparse areas look like regular edges while
+ * dense areas show how many edges cross them instead of saturating. Lowering
+ * the edge opacity reveals density differences in the densest areas.
+ * <p>
+ * The raster is split in bands of rows rasterized in parallel.
+ */
+public class EdgeDensityRaster {
+
+    private static final int BAND_HEIGHT = 32;
+    private final int width;
+    private final int height;
+    private final AffineTransform transform;
+    private final float scale;
+    //Edges, polylines in device coordinates
+    private float[] points = new float[1024];
+    private int[] offsets = new int[257];
+    private int[] colors = new int[256];
+    private float[] weights = new float[256];
+    private int pointCount;
+    private int edgeCount;
+
+    /**
+     * Creates a raster of the given device size.
+     *
+     * @param width     width in pixels
+     * @param height    height in pixels
+     * @param transform transform from graph to device coordinates
+     */
+    public EdgeDensityRaster(int width, int height, AffineTransform transform) {
+        this.width = width;
+        this.height = height;
+        this.transform = new AffineTransform(transform);
+        this.scale = (float) Math.sqrt(Math.abs(transform.getDeterminant()));
+    }
+
+    /**
+     * Adds an edge. Edges entirely outside of the raster are ignored.
+     *
+     * @param polyline  x, y pairs of the edge points in graph coordinates
+     * @param color     color of the edge, its alpha included
+     * @param thickness thickness of the edge in graph coordinates
+     */
+    public void add(float[] polyline, Color color, float thickness) {
+        final int n = polyline.length / 2;
+        if (n < 2) {
+            return;
+        }
+        if (pointCount + 2 * n > points.length) {
+            points = Arrays.copyOf(points, Math.max(points.length * 2, pointCount + 2 * n));
+        }
+        transform.transform(polyline, 0, points, pointCount, n);
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        for (int i = pointCount; i < pointCount + 2 * n; i += 2) {
+            minX = Math.min(minX, points[i]);
+            minY = Math.min(minY, points[i + 1]);
+            maxX = Math.max(maxX, points[i]);
+            maxY = Math.max(maxY, points[i + 1]);
+        }
+        if (maxX < -1 || maxY < -1 || minX > width + 1 || minY > height + 1) {
+            return;
+        }
+
+        if (edgeCount == colors.length) {
+            colors = Arrays.copyOf(colors, edgeCount * 2);
+            weights = Arrays.copyOf(weights, edgeCount * 2);
+            offsets = Arrays.copyOf(offsets, edgeCount * 2 + 1);
+        }
+        colors[edgeCount] = color.getRGB();
+        weights[edgeCount] = color.getAlpha() / 255f * thickness * scale;
+        pointCount += 2 * n;
+        offsets[++edgeCount] = pointCount;
+    }
+
+    /**
+     * Returns the number of edges added within the raster.
+     *
+     * @return the number of edges
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Rasterizes the edges and draws them at the device origin of
+     * <code>graphics</code>.
+     *
+     * @param graphics graphics to draw to
+     */
+    public void draw(Graphics2D graphics) {
+        if (edgeCount == 0 || width <= 0 || height <= 0) {
+            return;
+        }
+        final AffineTransform graphicsTransform = graphics.getTransform();
+        graphics.setTransform(new AffineTransform());
+        graphics.drawImage(toImage(), 0, 0, null);
+        graphics.setTransform(graphicsTransform);
+    }
+
+    /**
+     * Rasterizes the edges in an image.
+     *
+     * @return image of the raster size with non-premultiplied alpha
+     */
+    public BufferedImage toImage() {
+        final BufferedImage image = new BufferedImage(Math.max(width, 1), Math.max(height, 1),
+            BufferedImage.TYPE_INT_ARGB);
+        final int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        final int bandCount = (height + BAND_HEIGHT - 1) / BAND_HEIGHT;
+
+        //Edges of each band
+        final int[] bandOffsets = new int[bandCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            final int[] range = getBandRange(e, bandCount);
+            for (int b = range[0]; b <= range[1]; b++) {
+                bandOffsets[b + 1]++;
+            }
+        }
+        for (int b = 0; b < bandCount; b++) {
+            bandOffsets[b + 1] += bandOffsets[b];
+        }
+        final int[] bandEdges = new int[bandOffsets[bandCount]];
+        final int[] fill = Arrays.copyOf(bandOffsets, bandCount);
+        for (int e = 0; e < edgeCount; e++) {
+            final int[] range = getBandRange(e, bandCount);
+            for (int b = range[0]; b <= range[1]; b++) {
+                bandEdges[fill[b]++] = e;
+            }
+        }
+
+        IntStream.range(0, bandCount).parallel().forEach(b -> {
+            final int y0 = b * BAND_HEIGHT;
+            final int rows = Math.min(BAND_HEIGHT, height - y0);
+            //Ink followed by its red, green and blue sums, for each pixel
+            final float[] ink = new float[rows * width * 4];
+            final Band band = new Band(y0, rows, ink);
+            for (int i = bandOffsets[b]; i < bandOffsets[b + 1]; i++) {
+                final int e = bandEdges[i];
+                band.setEdge(colors[e], weights[e]);
+                for (int p = offsets[e]; p + 2 < offsets[e + 1]; p += 2) {
+                    band.addSegment(points[p], points[p + 1], points[p + 2], points[p + 3]);
+                }
+            }
+
+            //Tone mapping
+            for (int i = 0; i < rows * width; i++) {
+                final float d = ink[i * 4];
+                if (d > 0) {
+                    final int alpha = Math.round((float) (1.0 - Math.exp(-d)) * 255f);
+                    final int r = Math.min(255, Math.round(ink[i * 4 + 1] / d));
+                    final int g = Math.min(255, Math.round(ink[i * 4 + 2] / d));
+                    final int bl = Math.min(255, Math.round(ink[i * 4 + 3] / d));
+                    pixels[y0 * width + i] = (alpha << 24) | (r << 16) | (g << 8) | bl;
+                }
+            }
+        });
+        return image;
+    }
+
+    private int[] getBandRange(int e, int bandCount) {
+        float minY = Float.POSITIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        for (int p = offsets[e] + 1; p < offsets[e + 1]; p += 2) {
+            minY = Math.min(minY, points[p]);
+            maxY = Math.max(maxY, points[p]);
+        }
+        //Lines spread on the row below their center
+        final int first = Math.max(0, (int) Math.floor((minY - 1) / BAND_HEIGHT));
+        final int last = Math.min(bandCount - 1, (int) Math.floor((maxY + 1) / BAND_HEIGHT));
+        return new int[] {first, last};
+    }
+
+    /**
+     * Rows of the raster accumulating the ink of the edges crossing them.
+     */
+    private class Band {
+
+        private final int top;
+        private final int rows;
+        private final float[] ink;
+        private float weight;
+        private float r;
+        private float g;
+        private float b;
+
+        Band(int top, int rows, float[] ink) {
+            this.top = top;
+            this.rows = rows;
+            this.ink = ink;
+        }
+
+        void setEdge(int color, float weight) {
+            this.weight = weight;
+            r = (color >> 16) & 0xFF;
+            g = (color >> 8) & 0xFF;
+            b = color & 0xFF;
+        }
+
+        /**
+         * Adds the ink of a segment, split along its major axis in one pixel
+         * steps whose ink is shared by the two pixels closest to its center.
+         */
+        void addSegment(float ax, float ay, float bx, float by) {
+            //Clip to the band, grown by a pixel
+            final float[] clipped = clip(ax, ay, bx, by, -1, top - 1, width + 1, top + rows + 1);
+            if (clipped == null) {
+                return;
+            }
+            final float x0 = clipped[0];
+            final float y0 = clipped[1];
+            final float x1 = clipped[2];
+            final float y1 = clipped[3];
+
+            final float dx = x1 - x0;
+            final float dy = y1 - y0;
+            final boolean steep = Math.abs(dy) > Math.abs(dx);
+            float u0 = steep ? y0 : x0;
+            float v0 = steep ? x0 : y0;
+            float u1 = steep ? y1 : x1;
+            float v1 = steep ? x1 : y1;
+            if (u0 > u1) {
+                float t = u0;
+                u0 = u1;
+                u1 = t;
+                t = v0;
+                v0 = v1;
+                v1 = t;
+            }
+            final float du = u1 - u0;
+            if (du <= 0) {
+                return;
+            }
+            final float gradient = (v1 - v0) / du;
+            final float length = (float) Math.sqrt(1 + gradient * gradient);
+            //Clipped coordinates are above -2, shifting them truncates like floor
+            for (int c = (int) (u0 + 2) - 2; c < u1; c++) {
+                final float start = Math.max(u0, c);
+                final float end = Math.min(u1, c + 1);
+                final float v = v0 + gradient * ((start + end) / 2f - u0) - 0.5f;
+                final int row = (int) (v + 2) - 2;
+                final float f = v - row;
+                final float a = (end - start) * length * weight;
+                if (steep) {
+                    plot(row, c, a * (1 - f));
+                    plot(row + 1, c, a * f);
+                } else {
+                    plot(c, row, a * (1 - f));
+                    plot(c, row + 1, a * f);
+                }
+            }
+        }
+
+        private void plot(int x, int y, float a) {
+            final int row = y - top;
+            if (x >= 0 && x < width && row >= 0 && row < rows && a > 0) {
+                final int i = (row * width + x) * 4;
+                ink[i] += a;
+                ink[i + 1] += a * r;
+                ink[i + 2] += a * g;
+                ink[i + 3] += a * b;
+            }
+        }
+    }
+
+    /**
+     * Clips a segment to a rectangle (Liang-Barsky).
+     *
+     * @return the clipped segment or <code>null</code> if it is outside
+     */
+    static float[] clip(float x0, float y0, float x1, float y1, float minX, float minY, float maxX, float maxY) {
+        final float dx = x1 - x0;
+        final float dy = y1 - y0;
+        final float[] p = {-dx, dx, -dy, dy};
+        final float[] q = {x0 - minX, maxX - x0, y0 - minY, maxY - y0};
+        float t0 = 0f;
+        float t1 = 1f;
+        for (int i = 0; i < 4; i++) {
+            if (p[i] == 0) {
+                if (q[i] < 0) {
+                    return null;
+                }
+            } else {
+                final float t = q[i] / p[i];
+                if (p[i] < 0) {
+                    t0 = Math.max(t0, t);
+                } else {
+                    t1 = Math.min(t1, t);
+                }
+            }
+        }
+        if (t0 > t1) {
+            return null;
+        }
+        return new float[] {x0 + t0 * dx, y0 + t0 * dy, x0 + t1 * dx, y0 + t1 * dy};
+    }
+}
@@ -48,7 +48,6 @@ import com.itextpdf.text.pdf.PdfGState;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Shape;
 import java.awt.font.FontRenderContext;
@@ -88,6 +87,7 @@ public class EdgeLabelRenderer implements Renderer {
     public static final String EDGE_COLOR = "edge.label.edgeColor";
     public static final String LABEL_X = "edge.label.x";
     public static final String LABEL_Y = "edge.label.y";
+    public static final String LABEL_LAYOUT = "edge.label.layout";
     //Default values
     protected final boolean defaultShowLabels = true;
     protected final Font defaultFont = new Font("Arial", Font.PLAIN, 10);
@@ -98,8 +98,6 @@ public class EdgeLabelRenderer implements Renderer {
     protected final float defaultOutlineSize = 2;
     protected final DependantColor defaultOutlineColor = new DependantColor(Color.WHITE);
     protected final float defaultOutlineOpacity = 40;
-    //Font cache
-    protected Font font;
 
     @Override
     public void preProcess(PreviewModel previewModel) {
@@ -146,6 +144,14 @@ public class EdgeLabelRenderer implements Renderer {
                 item.setData(LABEL_X, middle.x);
                 item.setData(LABEL_Y, middle.y);
 
+            } else if (properties.getBooleanValue(PreviewProperty.EDGE_BUNDLED)
+                && edgeItem.getData(EdgeRenderer.BUNDLED_POINTS) != null) {
+                //Middle of the bundled polyline
+                float[] points = edgeItem.getData(EdgeRenderer.BUNDLED_POINTS);
+                int a = (points.length / 2 - 1) / 2;
+                int b = points.length / 4;
+                item.setData(LABEL_X, (points[2 * a] + points[2 * b]) / 2f);
+                item.setData(LABEL_Y, (points[2 * a + 1] + points[2 * b + 1]) / 2f);
             } else if (properties.getBooleanValue(PreviewProperty.EDGE_CURVED)) {
                 //Middle of the curve
                 Float x1 = sourceItem.getData(NodeItem.X);
@@ -189,7 +195,20 @@ public class EdgeLabelRenderer implements Renderer {
         }
 
         //Property font
-        font = properties.getFontValue(PreviewProperty.EDGE_LABEL_FONT);
+        Font font = properties.getFontValue(PreviewProperty.EDGE_LABEL_FONT);
+
+        //Measure labels
+        Item[] labelItems = previewModel.getItems(Item.EDGE_LABEL);
+        String[] labels = new String[labelItems.length];
+        Font[] labelFonts = new Font[labelItems.length];
+        for (int i = 0; i < labelItems.length; i++) {
+            labels[i] = labelItems[i].getData(EdgeLabelItem.LABEL);
+            labelFonts[i] = font;
+        }
+        LabelLayoutCache.LabelLayout[] layouts = LabelLayoutCache.getDefault().computeAll(labels, labelFonts);
+        for (int i = 0; i < labelItems.length; i++) {
+            labelItems[i].setData(LABEL_LAYOUT, layouts[i]);
+        }
     }
 
     @Override
@@ -201,8 +220,10 @@ public class EdgeLabelRenderer implements Renderer {
         DependantOriginalColor propColor = properties.getValue(PreviewProperty.EDGE_LABEL_COLOR);
         color = propColor.getColor(edgeColor, color);
         String label = item.getData(EdgeLabelItem.LABEL);
+        Font font = properties.getFontValue(PreviewProperty.EDGE_LABEL_FONT);
         Float x = item.getData(LABEL_X);
         Float y = item.getData(LABEL_Y);
+        LabelLayoutCache.LabelLayout layout = item.getData(LABEL_LAYOUT);
 
         //Skip if empty
         if (label == null || label.trim().isEmpty()) {
@@ -223,12 +244,16 @@ public class EdgeLabelRenderer implements Renderer {
         Color outlineColor = outlineDependantColor.getColor(edgeColor);
         outlineColor = new Color(outlineColor.getRed(), outlineColor.getGreen(), outlineColor.getBlue(), outlineAlpha);
 
+        if (layout == null) {
+            layout = LabelLayoutCache.getDefault().get(label, font);
+        }
+
         if (target instanceof G2DTarget) {
-            renderG2D((G2DTarget) target, label, x, y, color, outlineSize, outlineColor);
+            renderG2D((G2DTarget) target, label, font, x, y, color, outlineSize, outlineColor, layout);
         } else if (target instanceof SVGTarget) {
-            renderSVG((SVGTarget) target, edge, label, x, y, color, outlineSize, outlineColor);
+            renderSVG((SVGTarget) target, edge, label, font, x, y, color, outlineSize, outlineColor);
         } else if (target instanceof PDFTarget) {
-            renderPDF(((PDFTarget) target), label, x, y, color, outlineSize, outlineColor);
+            renderPDF(((PDFTarget) target), label, font, x, y, color, outlineSize, outlineColor, layout);
         }
     }
 
@@ -244,15 +269,24 @@ public class EdgeLabelRenderer implements Renderer {
         return new CanvasSize();
     }
 
-    public void renderG2D(G2DTarget target, String label, float x, float y, Color color, float outlineSize,
+    public void renderG2D(G2DTarget target, String label, Font font, float x, float y, Color color, float outlineSize,
                           Color outlineColor) {
+        renderG2D(target, label, font, x, y, color, outlineSize, outlineColor,
+            LabelLayoutCache.getDefault().get(label, font));
+    }
+
+    private void renderG2D(G2DTarget target, String label, Font font, float x, float y, Color color,
+                           float outlineSize, Color outlineColor, LabelLayoutCache.LabelLayout layout) {
+        //Skip labels smaller than a pixel or out of the canvas
+        if (!G2DUtils.isTextVisible(target, x, y, font.getSize2D(), label.length())) {
+            return;
+        }
         Graphics2D graphics = target.getGraphics();
 
         graphics.setFont(font);
 
-        FontMetrics fm = graphics.getFontMetrics();
-        float posX = x - fm.stringWidth(label) / 2f;
-        float posY = y + fm.getAscent() / 2f;
+        float posX = x - layout.getWidth() / 2f;
+        float posY = y + layout.getAscent() / 2f;
 
         Shape outlineGlyph = null;
 
@@ -273,8 +307,8 @@ public class EdgeLabelRenderer implements Renderer {
         }
     }
 
-    public void renderSVG(SVGTarget target, Edge edge, String label, float x, float y, Color color, float outlineSize,
-                          Color outlineColor) {
+    public void renderSVG(SVGTarget target, Edge edge, String label, Font font, float x, float y, Color color,
+                          float outlineSize, Color outlineColor) {
         Text labelText = target.createTextNode(label);
 
         if (outlineSize > 0) {
@@ -308,12 +342,18 @@ public class EdgeLabelRenderer implements Renderer {
         target.getTopElement(SVGTarget.TOP_EDGE_LABELS).appendChild(labelElem);
     }
 
-    public void renderPDF(PDFTarget target, String label, float x, float y, Color color, float outlineSize,
+    public void renderPDF(PDFTarget target, String label, Font font, float x, float y, Color color, float outlineSize,
                           Color outlineColor) {
+        renderPDF(target, label, font, x, y, color, outlineSize, outlineColor,
+            LabelLayoutCache.getDefault().get(label, font));
+    }
+
+    private void renderPDF(PDFTarget target, String label, Font font, float x, float y, Color color,
+                           float outlineSize, Color outlineColor, LabelLayoutCache.LabelLayout layout) {
         PdfContentByte cb = target.getContentByte();
         cb.setRGBColorFill(color.getRed(), color.getGreen(), color.getBlue());
         BaseFont bf = target.getBaseFont(font);
-        float textHeight = getTextHeight(bf, font.getSize(), label);
+        float textHeight = layout.getPdfHeight(bf);
         if (outlineSize > 0) {
             cb.setTextRenderingMode(PdfContentByte.TEXT_RENDER_MODE_STROKE);
             cb.setRGBColorStroke(outlineColor.getRed(), outlineColor.getGreen(), outlineColor.getBlue());
@@ -342,12 +382,6 @@ public class EdgeLabelRenderer implements Renderer {
         cb.endText();
     }
 
-    private float getTextHeight(BaseFont baseFont, float fontSize, String text) {
-        float ascend = baseFont.getAscentPoint(text, fontSize);
-        float descend = baseFont.getDescentPoint(text, fontSize);
-        return ascend + descend;
-    }
-
     @Override
     public PreviewProperty[] getProperties() {
         return new PreviewProperty[] {
@@ -47,8 +47,12 @@ import com.itextpdf.text.pdf.PdfGState;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Line2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 import org.gephi.graph.api.Edge;
 import org.gephi.graph.api.Node;
@@ -88,12 +92,20 @@ public class EdgeRenderer implements Renderer {
     public static final String TARGET = "target";
     public static final String TARGET_RADIUS = "edge.target.radius";
     public static final String SOURCE_RADIUS = "edge.source.radius";
+    public static final String BUNDLED_POINTS = "edge.bundled.points";
+    private static final int CURVE_SEGMENTS = 16;
     private static final StraightEdgeRenderer STRAIGHT_RENDERER
         = new StraightEdgeRenderer();
     private static final CurvedEdgeRenderer CURVED_RENDERER
         = new CurvedEdgeRenderer();
     private static final SelfLoopEdgeRenderer SELF_LOOP_RENDERER
         = new SelfLoopEdgeRenderer();
+    private static final PDFEdgeBatch PDF_EDGES
+        = new PDFEdgeBatch();
+    private final BundledEdgeRenderer bundledRenderer
+        = new BundledEdgeRenderer();
+    private final DensityEdgeRenderer densityRenderer
+        = new DensityEdgeRenderer();
     //Default values
     protected boolean defaultShowEdges = true;
     protected float defaultThickness = 1;
@@ -102,6 +114,9 @@ public class EdgeRenderer implements Renderer {
     protected float defaultRescaleWeightMax = 1.0f;
     protected EdgeColor defaultColor = new EdgeColor(EdgeColor.Mode.MIXED);
     protected boolean defaultEdgeCurved = true;
+    protected boolean defaultEdgeBundled = false;
+    protected float defaultBundlingCompatibility = 0.6f;
+    protected boolean defaultEdgeDensity = false;
     protected float defaultBezierCurviness = 0.2f;
     protected int defaultOpacity = 100;
     protected float defaultRadius = 0f;
@@ -274,6 +289,11 @@ public class EdgeRenderer implements Renderer {
                 }
             }
         }
+
+        //Bundle edges
+        if (properties.getBooleanValue(PreviewProperty.EDGE_BUNDLED)) {
+            bundledRenderer.bundle(edgeItems, properties);
+        }
     }
 
     private void setEdgeWeight(double weight, final PreviewProperties properties, final Item item) {
@@ -289,6 +309,11 @@ public class EdgeRenderer implements Renderer {
         PreviewProperties properties) {
         if (isSelfLoopEdge(item)) {
             SELF_LOOP_RENDERER.render(item, target, properties);
+        } else if (target instanceof G2DTarget
+            && properties.getBooleanValue(PreviewProperty.EDGE_DENSITY)) {
+            densityRenderer.render(item, (G2DTarget) target, properties, getPolyline(item, properties));
+        } else if (isBundledEdge(item, properties)) {
+            bundledRenderer.render(item, target, properties);
         } else if (properties.getBooleanValue(PreviewProperty.EDGE_CURVED)) {
             CURVED_RENDERER.render(item, target, properties);
         } else {
@@ -298,12 +323,28 @@ public class EdgeRenderer implements Renderer {
 
     @Override
     public void postProcess(PreviewModel previewModel, RenderTarget renderTarget, PreviewProperties properties) {
+        densityRenderer.postProcess(renderTarget);
+        if (renderTarget instanceof PDFTarget) {
+            PDF_EDGES.flush(renderTarget);
+        }
+    }
+
+    private float[] getPolyline(final Item item, final PreviewProperties properties) {
+        if (isBundledEdge(item, properties)) {
+            return item.getData(BUNDLED_POINTS);
+        } else if (properties.getBooleanValue(PreviewProperty.EDGE_CURVED)) {
+            return CURVED_RENDERER.getPolyline(item, properties);
+        } else {
+            return STRAIGHT_RENDERER.getPolyline(item);
+        }
     }
 
     @Override
     public CanvasSize getCanvasSize(Item item, PreviewProperties properties) {
         if (isSelfLoopEdge(item)) {
             return SELF_LOOP_RENDERER.getCanvasSize(item, properties);
+        } else if (isBundledEdge(item, properties)) {
+            return bundledRenderer.getCanvasSize(item, properties);
         } else if (properties.getBooleanValue(PreviewProperty.EDGE_CURVED)) {
             return CURVED_RENDERER.getCanvasSize(item, properties);
         } else {
@@ -346,6 +387,18 @@ public class EdgeRenderer implements Renderer {
                 NbBundle.getMessage(EdgeRenderer.class, "EdgeRenderer.property.curvedEdges.displayName"),
                 NbBundle.getMessage(EdgeRenderer.class, "EdgeRenderer.property.curvedEdges.description"),
                 PreviewProperty.CATEGORY_EDGES, PreviewProperty.SHOW_EDGES).setValue(defaultEdgeCurved),
+            PreviewProperty.createProperty(this, PreviewProperty.EDGE_BUNDLED, Boolean.class,
+                NbBundle.getMessage(EdgeRenderer.class, "EdgeRenderer.property.bundledEdges.displayName"),
+                NbBundle.getMessage(EdgeRenderer.class, "EdgeRenderer.property.bundledEdges.description"),
+                PreviewProperty.CATEGORY_EDGES, PreviewProperty.SHOW_EDGES).setValue(defaultEdgeBundled),
+            PreviewProperty.createProperty(this, PreviewProperty.EDGE_BUNDLING_COMPATIBILITY, Float.class,
+                NbBundle.getMessage(EdgeRenderer.class, "EdgeRenderer.property.bundlingCompatibility.displayName"),
+                NbBundle.getMessage(EdgeRenderer.class, "EdgeRenderer.property.bundlingCompatibility.description"),
+                PreviewProperty.CATEGORY_EDGES, PreviewProperty.EDGE_BUNDLED).setValue(defaultBundlingCompatibility),
+            PreviewProperty.createProperty(this, PreviewProperty.EDGE_DENSITY, Boolean.class,
+                NbBundle.getMessage(EdgeRenderer.class, "EdgeRenderer.property.density.displayName"),
+                NbBundle.getMessage(EdgeRenderer.class, "EdgeRenderer.property.density.description"),
+                PreviewProperty.CATEGORY_EDGES, PreviewProperty.SHOW_EDGES).setValue(defaultEdgeDensity),
             PreviewProperty.createProperty(this, PreviewProperty.EDGE_RADIUS, Float.class,
                 NbBundle.getMessage(EdgeRenderer.class, "EdgeRenderer.property.radius.displayName"),
                 NbBundle.getMessage(EdgeRenderer.class, "EdgeRenderer.property.radius.description"),
@@ -377,6 +430,236 @@ public class EdgeRenderer implements Renderer {
             && !properties.getBooleanValue(PreviewProperty.MOVING);
     }
 
+    private static boolean isBundledEdge(final Item item, final PreviewProperties properties) {
+        return properties.getBooleanValue(PreviewProperty.EDGE_BUNDLED)
+            && item.getData(BUNDLED_POINTS) != null;
+    }
+
+    private static class DensityEdgeRenderer {
+
+        //Edges of a target are drawn at once after the last one
+        private final RenderTargetLocal<EdgeDensityRaster> rasters = new RenderTargetLocal<>();
+
+        public void render(
+            final Item item,
+            final G2DTarget target,
+            final PreviewProperties properties,
+            final float[] polyline) {
+            rasters.get(target, () -> {
+                final Graphics2D graphics = target.getGraphics();
+                final Rectangle bounds = graphics.getDeviceConfiguration().getBounds();
+                return new EdgeDensityRaster(bounds.width, bounds.height, graphics.getTransform());
+            }).add(polyline, getColor(item, properties), getThickness(item));
+        }
+
+        public void postProcess(final RenderTarget target) {
+            final EdgeDensityRaster raster = rasters.remove(target);
+            if (raster != null) {
+                raster.draw(((G2DTarget) target).getGraphics());
+            }
+        }
+    }
+
+    /**
+     * Strokes the consecutive opaque edges of PDF targets with the same color
+     * and thickness as one path, instead of setting the stroke and stroking
+     * each edge. Transparent edges are stroked one by one with their opacity.
+     */
+    private static class PDFEdgeBatch {
+
+        private final RenderTargetLocal<PDFStroke> strokes = new RenderTargetLocal<>();
+
+        /**
+         * Sets the stroke of an edge, whose path is then added to the
+         * returned content byte and ended by {@link #end(PDFTarget)}.
+         */
+        public PdfContentByte begin(
+            final PDFTarget target,
+            final Color color,
+            final float thickness,
+            final PreviewProperties properties) {
+            final PdfContentByte cb = target.getContentByte();
+            final PDFStroke stroke = strokes.get(target, PDFStroke::new);
+            if (color.getAlpha() < 255) {
+                if (stroke.color != null) {
+                    cb.stroke();
+                }
+                cb.saveState();
+                final PdfGState gState = new PdfGState();
+                gState.setStrokeOpacity(getAlpha(properties));
+                cb.setGState(gState);
+                cb.setRGBColorStroke(color.getRed(), color.getGreen(), color.getBlue());
+                cb.setLineWidth(thickness);
+                stroke.color = null;
+                stroke.transparent = true;
+            } else if (!color.equals(stroke.color) || thickness != stroke.thickness) {
+                if (stroke.color != null) {
+                    cb.stroke();
+                }
+                cb.setRGBColorStroke(color.getRed(), color.getGreen(), color.getBlue());
+                cb.setLineWidth(thickness);
+                stroke.color = color;
+                stroke.thickness = thickness;
+            }
+            return cb;
+        }
+
+        public void end(final PDFTarget target) {
+            final PDFStroke stroke = strokes.get(target, PDFStroke::new);
+            if (stroke.transparent) {
+                final PdfContentByte cb = target.getContentByte();
+                cb.stroke();
+                cb.restoreState();
+                stroke.transparent = false;
+            }
+        }
+
+        /**
+         * Strokes the edges not stroked yet.
+         */
+        public void flush(final RenderTarget target) {
+            final PDFStroke stroke = strokes.remove(target);
+            if (stroke != null && stroke.color != null) {
+                ((PDFTarget) target).getContentByte().stroke();
+            }
+        }
+
+        private static class PDFStroke {
+
+            //Stroke of the path not stroked yet, null if there is none
+            private Color color;
+            private float thickness;
+            private boolean transparent;
+        }
+    }
+
+    private static class BundledEdgeRenderer {
+
+        //Last bundling, reused until edges, positions or compatibility change.
+        //Shared by the preview models of all workspaces, hence synchronized
+        private Object[] edges = new Object[0];
+        private float[] endpoints = new float[0];
+        private float compatibility;
+        private float[][] polylines = new float[0][];
+
+        public synchronized void bundle(
+            final Item[] edgeItems,
+            final PreviewProperties properties) {
+            final List<Item> items = new ArrayList<>(edgeItems.length);
+            for (final Item item : edgeItems) {
+                if (!isSelfLoopEdge(item)) {
+                    items.add(item);
+                }
+            }
+            final Object[] itemEdges = new Object[items.size()];
+            final float[] itemEndpoints = new float[items.size() * 4];
+            for (int i = 0; i < itemEdges.length; i++) {
+                final Item item = items.get(i);
+                final Item sourceItem = item.getData(SOURCE);
+                final Item targetItem = item.getData(TARGET);
+                itemEdges[i] = item.getSource();
+                itemEndpoints[4 * i] = sourceItem.getData(NodeItem.X);
+                itemEndpoints[4 * i + 1] = sourceItem.getData(NodeItem.Y);
+                itemEndpoints[4 * i + 2] = targetItem.getData(NodeItem.X);
+                itemEndpoints[4 * i + 3] = targetItem.getData(NodeItem.Y);
+            }
+            final float itemCompatibility = Math.max(0.05f, Math.min(1f,
+                properties.getFloatValue(PreviewProperty.EDGE_BUNDLING_COMPATIBILITY)));
+
+            if (itemCompatibility != compatibility
+                || !Arrays.equals(itemEdges, edges)
+                || !Arrays.equals(itemEndpoints, endpoints)) {
+                final ForceDirectedEdgeBundler bundler = new ForceDirectedEdgeBundler();
+                bundler.setCompatibilityThreshold(itemCompatibility);
+                polylines = bundler.bundle(itemEndpoints);
+                edges = itemEdges;
+                endpoints = itemEndpoints;
+                compatibility = itemCompatibility;
+            }
+            for (int i = 0; i < itemEdges.length; i++) {
+                items.get(i).setData(BUNDLED_POINTS, polylines[i]);
+            }
+        }
+
+        public void render(
+            final Item item,
+            final RenderTarget target,
+            final PreviewProperties properties) {
+            final float[] points = item.getData(BUNDLED_POINTS);
+            final Item sourceItem = item.getData(SOURCE);
+            final Item targetItem = item.getData(TARGET);
+            final Color color = getColor(item, properties);
+
+            if (target instanceof G2DTarget) {
+                final Graphics2D graphics = ((G2DTarget) target).getGraphics();
+                graphics.setStroke(new BasicStroke(getThickness(item)));
+                graphics.setColor(color);
+                final GeneralPath gp
+                    = new GeneralPath(GeneralPath.WIND_NON_ZERO, points.length / 2);
+                gp.moveTo(points[0], points[1]);
+                for (int i = 2; i < points.length; i += 2) {
+                    gp.lineTo(points[i], points[i + 1]);
+                }
+                graphics.draw(gp);
+            } else if (target instanceof SVGTarget) {
+                final SVGTarget svgTarget = (SVGTarget) target;
+                final Element edgeElem = svgTarget.createElement("path");
+                edgeElem.setAttribute("class", String.format(
+                    "%s %s",
+                    SVGUtils.idAsClassAttribute(((Node) sourceItem.getSource()).getId()),
+                    SVGUtils.idAsClassAttribute(((Node) targetItem.getSource()).getId())
+                ));
+                final StringBuilder path = new StringBuilder(String.format(
+                    Locale.ENGLISH,
+                    "M %f,%f",
+                    points[0], points[1]));
+                for (int i = 2; i < points.length; i += 2) {
+                    path.append(String.format(
+                        Locale.ENGLISH,
+                        " L %f,%f",
+                        points[i], points[i + 1]));
+                }
+                edgeElem.setAttribute("d", path.toString());
+                edgeElem.setAttribute("stroke", svgTarget.toHexString(color));
+                edgeElem.setAttribute(
+                    "stroke-width",
+                    Float.toString(getThickness(item)
+                        * svgTarget.getScaleRatio()));
+                edgeElem.setAttribute(
+                    "stroke-opacity",
+                    (color.getAlpha() / 255f) + "");
+                edgeElem.setAttribute("fill", "none");
+                svgTarget.getTopElement(SVGTarget.TOP_EDGES)
+                    .appendChild(edgeElem);
+            } else if (target instanceof PDFTarget) {
+                final PDFTarget pdfTarget = (PDFTarget) target;
+                final PdfContentByte cb = PDF_EDGES.begin(pdfTarget, color, getThickness(item), properties);
+                cb.moveTo(points[0], -points[1]);
+                for (int i = 2; i < points.length; i += 2) {
+                    cb.lineTo(points[i], -points[i + 1]);
+                }
+                PDF_EDGES.end(pdfTarget);
+            }
+        }
+
+        public CanvasSize getCanvasSize(
+            final Item item,
+            final PreviewProperties properties) {
+            final float[] points = item.getData(BUNDLED_POINTS);
+            float minX = Float.POSITIVE_INFINITY;
+            float minY = Float.POSITIVE_INFINITY;
+            float maxX = Float.NEGATIVE_INFINITY;
+            float maxY = Float.NEGATIVE_INFINITY;
+            for (int i = 0; i < points.length; i += 2) {
+                minX = Math.min(minX, points[i]);
+                minY = Math.min(minY, points[i + 1]);
+                maxX = Math.max(maxX, points[i]);
+                maxY = Math.max(maxY, points[i + 1]);
+            }
+            return new CanvasSize(minX, minY, maxX - minX, maxY - minY);
+        }
+    }
+
     private static class StraightEdgeRenderer {
 
         public void render(
@@ -421,25 +704,10 @@ public class EdgeRenderer implements Renderer {
                     .appendChild(edgeElem);
             } else if (target instanceof PDFTarget) {
                 final PDFTarget pdfTarget = (PDFTarget) target;
-                final PdfContentByte cb = pdfTarget.getContentByte();
+                final PdfContentByte cb = PDF_EDGES.begin(pdfTarget, color, getThickness(item), properties);
                 cb.moveTo(h.x1, -h.y1);
                 cb.lineTo(h.x2, -h.y2);
-                cb.setRGBColorStroke(
-                    color.getRed(),
-                    color.getGreen(),
-                    color.getBlue());
-                cb.setLineWidth(getThickness(item));
-                if (color.getAlpha() < 255) {
-                    cb.saveState();
-                    final PdfGState gState = new PdfGState();
-                    gState.setStrokeOpacity(
-                        getAlpha(properties));
-                    cb.setGState(gState);
-                }
-                cb.stroke();
-                if (color.getAlpha() < 255) {
-                    cb.restoreState();
-                }
+                PDF_EDGES.end(pdfTarget);
             }
         }
 
@@ -459,6 +727,11 @@ public class EdgeRenderer implements Renderer {
             return new CanvasSize(minX, minY, maxX - minX, maxY - minY);
         }
 
+        public float[] getPolyline(final Item item) {
+            final Helper h = new Helper(item);
+            return new float[] {h.x1, h.y1, h.x2, h.y2};
+        }
+
         private class Helper {
 
             public final Item sourceItem;
@@ -555,25 +828,10 @@ public class EdgeRenderer implements Renderer {
                     .appendChild(edgeElem);
             } else if (target instanceof PDFTarget) {
                 final PDFTarget pdfTarget = (PDFTarget) target;
-                final PdfContentByte cb = pdfTarget.getContentByte();
+                final PdfContentByte cb = PDF_EDGES.begin(pdfTarget, color, getThickness(item), properties);
                 cb.moveTo(h.x1, -h.y1);
                 cb.curveTo(h.v1.x, -h.v1.y, h.v2.x, -h.v2.y, h.x2, -h.y2);
-                cb.setRGBColorStroke(
-                    color.getRed(),
-                    color.getGreen(),
-                    color.getBlue());
-                cb.setLineWidth(getThickness(item));
-                if (color.getAlpha() < 255) {
-                    cb.saveState();
-                    final PdfGState gState = new PdfGState();
-                    gState.setStrokeOpacity(
-                        getAlpha(properties));
-                    cb.setGState(gState);
-                }
-                cb.stroke();
-                if (color.getAlpha() < 255) {
-                    cb.restoreState();
-                }
+                PDF_EDGES.end(pdfTarget);
             }
         }
 
@@ -592,6 +850,23 @@ public class EdgeRenderer implements Renderer {
             return new CanvasSize(minX, minY, maxX - minX, maxY - minY);
         }
 
+        public float[] getPolyline(
+            final Item item,
+            final PreviewProperties properties) {
+            final Helper h = new Helper(item, properties);
+            final float[] points = new float[2 * (CURVE_SEGMENTS + 1)];
+            for (int i = 0; i <= CURVE_SEGMENTS; i++) {
+                final float t = i / (float) CURVE_SEGMENTS;
+                final float a = (1 - t) * (1 - t) * (1 - t);
+                final float b = 3 * t * (1 - t) * (1 - t);
+                final float c = 3 * t * t * (1 - t);
+                final float d = t * t * t;
+                points[2 * i] = a * h.x1 + b * h.v1.x + c * h.v2.x + d * h.x2;
+                points[2 * i + 1] = a * h.y1 + b * h.v1.y + c * h.v2.y + d * h.y2;
+            }
+            return points;
+        }
+
         private class Helper {
 
             public final Item sourceItem;
@@ -687,25 +962,10 @@ public class EdgeRenderer implements Renderer {
                     .appendChild(selfLoopElem);
             } else if (target instanceof PDFTarget) {
                 final PDFTarget pdfTarget = (PDFTarget) target;
-                final PdfContentByte cb = pdfTarget.getContentByte();
+                final PdfContentByte cb = PDF_EDGES.begin(pdfTarget, color, getThickness(item), properties);
                 cb.moveTo(h.x, -h.y);
                 cb.curveTo(h.v1.x, -h.v1.y, h.v2.x, -h.v2.y, h.x, -h.y);
-                cb.setRGBColorStroke(
-                    color.getRed(),
-                    color.getGreen(),
-                    color.getBlue());
-                cb.setLineWidth(getThickness(item));
-                if (color.getAlpha() < 255) {
-                    cb.saveState();
-                    final PdfGState gState = new PdfGState();
-                    gState.setStrokeOpacity(
-                        getAlpha(properties));
-                    cb.setGState(gState);
-                }
-                cb.stroke();
-                if (color.getAlpha() < 255) {
-                    cb.restoreState();
-                }
+                PDF_EDGES.end(pdfTarget);
             }
         }
 
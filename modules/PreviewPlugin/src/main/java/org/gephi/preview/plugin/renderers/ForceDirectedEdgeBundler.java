@@ -0,0 +1,455 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.preview.plugin.renderers;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Force-directed edge bundling (FDEB), after Holten and van Wijk.
+ * <p>
+ * Edges are subdivided into polylines whose points are attracted by the points
+ * of compatible edges (similar angle, length and position) and held by springs
+ * along their own edge. Subdivisions double at each cycle while the step size
+ * halves. Compatible edges are looked up in a grid of edge midpoints, closest
+ * first and up to a bounded number of candidates, and only the most compatible
+ * ones are kept, so the cost is linear in the number of edges. Edges are moved
+ * in parallel.
+ */
+public class ForceDirectedEdgeBundler {
+
+    private static final int MAX_GRID_SIZE = 2048;
+    private static final int EDGES_PER_CELL = 4;
+    private static final int MAX_CANDIDATES = 512;
+    private static final float EPSILON = 1e-6f;
+    //Settings
+    private float compatibilityThreshold = 0.6f;
+    private int maxNeighbors = 16;
+    private int cycles = 5;
+    private int iterations = 50;
+    private float iterationsRate = 2f / 3f;
+    private float stepSize = 0.002f;
+    private float stiffness = 0.1f;
+
+    /**
+     * Bundles edges and returns their polylines.
+     *
+     * @param endpoints source x, source y, target x and target y of each edge
+     * @return points of each edge as x, y pairs, endpoints included
+     */
+    public float[][] bundle(float[] endpoints) {
+        final int edgeCount = endpoints.length / 4;
+        final float[] lengths = new float[edgeCount];
+        double totalLength = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            lengths[e] = (float) Math.hypot(endpoints[4 * e + 2] - endpoints[4 * e],
+                endpoints[4 * e + 3] - endpoints[4 * e + 1]);
+            totalLength += lengths[e];
+        }
+        final float averageLength = edgeCount > 0 ? (float) (totalLength / edgeCount) : 0f;
+
+        //Compatible edges, negative (~q) when q goes the opposite way
+        final int[] neighbors = new int[edgeCount * maxNeighbors];
+        final int[] neighborCounts = new int[edgeCount];
+        findCompatibleEdges(endpoints, lengths, averageLength, neighbors, neighborCounts);
+
+        //Subdivision points, endpoints included
+        int points = 1;
+        float[] current = subdivide(endpoints, null, 0, points);
+        float[] next = current.clone();
+        float step = stepSize * averageLength;
+        float iterationCount = iterations;
+        for (int cycle = 0; cycle < cycles; cycle++) {
+            final int p = points;
+            final int stride = 2 * (p + 2);
+            for (int it = 0; it < (int) iterationCount; it++) {
+                final float[] read = current;
+                final float[] write = next;
+                final float s = step;
+                IntStream.range(0, edgeCount).parallel().forEach(e -> {
+                    move(e, read, write, p, stride, s, lengths[e], neighbors, neighborCounts[e]);
+                });
+                current = write;
+                next = read;
+            }
+            if (cycle < cycles - 1) {
+                current = subdivide(endpoints, current, points, points * 2);
+                next = current.clone();
+                points *= 2;
+                step /= 2f;
+                iterationCount *= iterationsRate;
+            }
+        }
+
+        //Polylines
+        final int stride = 2 * (points + 2);
+        final float[][] polylines = new float[edgeCount][];
+        for (int e = 0; e < edgeCount; e++) {
+            polylines[e] = Arrays.copyOfRange(current, e * stride, (e + 1) * stride);
+        }
+        return polylines;
+    }
+
+    private void move(int e, float[] read, float[] write, int points, int stride, float step, float length,
+                      int[] neighbors, int neighborCount) {
+        final int offset = e * stride;
+        if (length < EPSILON || neighborCount == 0) {
+            System.arraycopy(read, offset, write, offset, stride);
+            return;
+        }
+        final float kP = stiffness / (length * (points + 1));
+        write[offset] = read[offset];
+        write[offset + 1] = read[offset + 1];
+        for (int i = 1; i <= points; i++) {
+            final int pi = offset + 2 * i;
+            final float x = read[pi];
+            final float y = read[pi + 1];
+
+            //Spring force with the previous and next points
+            float fx = kP * (read[pi - 2] + read[pi + 2] - 2 * x);
+            float fy = kP * (read[pi - 1] + read[pi + 3] - 2 * y);
+
+            //Electrostatic force of the compatible edges
+            for (int n = 0; n < neighborCount; n++) {
+                final int q = neighbors[e * maxNeighbors + n];
+                final int qi = q >= 0 ? q * stride + 2 * i : ~q * stride + 2 * (points + 1 - i);
+                final float dx = read[qi] - x;
+                final float dy = read[qi + 1] - y;
+                final float d = (float) Math.sqrt(dx * dx + dy * dy);
+                if (d > EPSILON) {
+                    fx += dx / d;
+                    fy += dy / d;
+                }
+            }
+
+            write[pi] = x + step * fx;
+            write[pi + 1] = y + step * fy;
+        }
+        final int last = offset + stride - 2;
+        write[last] = read[last];
+        write[last + 1] = read[last + 1];
+    }
+
+    /**
+     * Resamples polylines of <code>points</code> subdivision points into
+     * <code>newPoints</code> points equally spaced along their length. Straight
+     * edges are subdivided when <code>polylines</code> is null.
+     */
+    static float[] subdivide(float[] endpoints, float[] polylines, int points, int newPoints) {
+        final int edgeCount = endpoints.length / 4;
+        final int stride = 2 * (points + 2);
+        final int newStride = 2 * (newPoints + 2);
+        final float[] result = new float[edgeCount * newStride];
+        IntStream.range(0, edgeCount).parallel().forEach(e -> {
+            final int offset = e * newStride;
+            final float sx = endpoints[4 * e];
+            final float sy = endpoints[4 * e + 1];
+            final float tx = endpoints[4 * e + 2];
+            final float ty = endpoints[4 * e + 3];
+            result[offset] = sx;
+            result[offset + 1] = sy;
+            result[offset + newStride - 2] = tx;
+            result[offset + newStride - 1] = ty;
+            if (polylines == null) {
+                for (int i = 1; i <= newPoints; i++) {
+                    final float t = i / (float) (newPoints + 1);
+                    result[offset + 2 * i] = sx + t * (tx - sx);
+                    result[offset + 2 * i + 1] = sy + t * (ty - sy);
+                }
+                return;
+            }
+
+            //Length of the polyline
+            final int from = e * stride;
+            float length = 0;
+            for (int i = 0; i <= points; i++) {
+                length += distance(polylines, from + 2 * i, from + 2 * i + 2);
+            }
+            final float segment = length / (newPoints + 1);
+
+            //Walk along the polyline
+            int i = 0;
+            float walked = 0;
+            float segmentLength = distance(polylines, from, from + 2);
+            for (int j = 1; j <= newPoints; j++) {
+                final float target = j * segment;
+                while (walked + segmentLength < target && i < points) {
+                    walked += segmentLength;
+                    i++;
+                    segmentLength = distance(polylines, from + 2 * i, from + 2 * i + 2);
+                }
+                final float t = segmentLength > 0 ? Math.min(1f, (target - walked) / segmentLength) : 0f;
+                final int a = from + 2 * i;
+                result[offset + 2 * j] = polylines[a] + t * (polylines[a + 2] - polylines[a]);
+                result[offset + 2 * j + 1] = polylines[a + 1] + t * (polylines[a + 3] - polylines[a + 1]);
+            }
+        });
+        return result;
+    }
+
+    private static float distance(float[] points, int a, int b) {
+        return (float) Math.hypot(points[b] - points[a], points[b + 1] - points[a + 1]);
+    }
+
+    private void findCompatibleEdges(float[] endpoints, float[] lengths, float averageLength,
+                                     int[] neighbors, int[] neighborCounts) {
+        final int edgeCount = lengths.length;
+        if (edgeCount == 0 || averageLength < EPSILON) {
+            return;
+        }
+
+        //Edges with a compatibility above the threshold are at most that longer
+        final float maxLengthRatio = getMaxLengthRatio(compatibilityThreshold);
+        final float positionFactor = 1f / compatibilityThreshold - 1f;
+
+        //Grid of edge midpoints
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+        for (int e = 0; e < edgeCount; e++) {
+            final float mx = (endpoints[4 * e] + endpoints[4 * e + 2]) / 2f;
+            final float my = (endpoints[4 * e + 1] + endpoints[4 * e + 3]) / 2f;
+            minX = Math.min(minX, mx);
+            minY = Math.min(minY, my);
+            maxX = Math.max(maxX, mx);
+            maxY = Math.max(maxY, my);
+        }
+        //About EDGES_PER_CELL edges per cell
+        final float extent = Math.max(Math.max(maxX - minX, maxY - minY), EPSILON);
+        final int gridSize = Math.max(1, Math.min(MAX_GRID_SIZE,
+            (int) Math.sqrt(edgeCount / (double) EDGES_PER_CELL)));
+        final float cellSize = extent / gridSize;
+        final int columns = Math.max(1, (int) ((maxX - minX) / cellSize) + 1);
+        final int rows = Math.max(1, (int) ((maxY - minY) / cellSize) + 1);
+        final int[] cellStart = new int[columns * rows + 1];
+        final int[] cells = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            cells[e] = cell(endpoints, e, minX, minY, cellSize, columns);
+            cellStart[cells[e] + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        final int[] cellEdges = new int[edgeCount];
+        final int[] fill = Arrays.copyOf(cellStart, columns * rows);
+        for (int e = 0; e < edgeCount; e++) {
+            cellEdges[fill[cells[e]]++] = e;
+        }
+
+        //Look at cells in rings around the edge midpoint, closest first
+        IntStream.range(0, edgeCount).parallel().forEach(p -> {
+            if (lengths[p] < EPSILON) {
+                return;
+            }
+            final float[] scores = new float[maxNeighbors];
+            final float radius = positionFactor * lengths[p] * (1f + maxLengthRatio) / 2f;
+            final int maxRing = (int) Math.ceil(radius / cellSize);
+            final int column = cells[p] % columns;
+            final int row = cells[p] / columns;
+            int count = 0;
+            int candidates = 0;
+            for (int ring = 0; ring <= maxRing && candidates < MAX_CANDIDATES; ring++) {
+                final int r1 = row - ring;
+                final int r2 = row + ring;
+                final int c1 = column - ring;
+                final int c2 = column + ring;
+                for (int r = Math.max(0, r1); r <= Math.min(rows - 1, r2); r++) {
+                    //Whole first and last rows of the ring, only its sides otherwise
+                    final int step = r == r1 || r == r2 ? 1 : c2 - c1;
+                    for (int c = c1; c <= c2; c += step) {
+                        if (c < 0 || c >= columns) {
+                            continue;
+                        }
+                        final int cell = r * columns + c;
+                        for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                            final int q = cellEdges[k];
+                            if (q == p || lengths[q] < EPSILON) {
+                                continue;
+                            }
+                            candidates++;
+                            final float score = compatibility(endpoints, lengths, p, q);
+                            if (Math.abs(score) < compatibilityThreshold) {
+                                continue;
+                            }
+                            //Insert in the neighbors sorted by decreasing compatibility
+                            if (count == maxNeighbors && Math.abs(score) <= scores[count - 1]) {
+                                continue;
+                            }
+                            int pos = count < maxNeighbors ? count++ : maxNeighbors - 1;
+                            while (pos > 0 && scores[pos - 1] < Math.abs(score)) {
+                                scores[pos] = scores[pos - 1];
+                                neighbors[p * maxNeighbors + pos] = neighbors[p * maxNeighbors + pos - 1];
+                                pos--;
+                            }
+                            scores[pos] = Math.abs(score);
+                            neighbors[p * maxNeighbors + pos] = score > 0 ? q : ~q;
+                        }
+                    }
+                }
+            }
+            neighborCounts[p] = count;
+        });
+    }
+
+    private static int cell(float[] endpoints, int e, float minX, float minY, float cellSize, int columns) {
+        final float mx = (endpoints[4 * e] + endpoints[4 * e + 2]) / 2f;
+        final float my = (endpoints[4 * e + 1] + endpoints[4 * e + 3]) / 2f;
+        return (int) ((my - minY) / cellSize) * columns + (int) ((mx - minX) / cellSize);
+    }
+
+    /**
+     * Returns the compatibility of edges <code>p</code> and <code>q</code>,
+     * negative when they go in opposite directions.
+     */
+    static float compatibility(float[] endpoints, float[] lengths, int p, int q) {
+        final float px = endpoints[4 * p + 2] - endpoints[4 * p];
+        final float py = endpoints[4 * p + 3] - endpoints[4 * p + 1];
+        final float qx = endpoints[4 * q + 2] - endpoints[4 * q];
+        final float qy = endpoints[4 * q + 3] - endpoints[4 * q + 1];
+        final float lp = lengths[p];
+        final float lq = lengths[q];
+
+        //Angle
+        final float dot = (px * qx + py * qy) / (lp * lq);
+        final float angle = Math.abs(dot);
+
+        //Scale
+        final float average = (lp + lq) / 2f;
+        final float scale = 2f / (average / Math.min(lp, lq) + Math.max(lp, lq) / average);
+
+        //Position
+        final float dx = (endpoints[4 * p] + endpoints[4 * p + 2] - endpoints[4 * q] - endpoints[4 * q + 2]) / 2f;
+        final float dy = (endpoints[4 * p + 1] + endpoints[4 * p + 3] - endpoints[4 * q + 1] - endpoints[4 * q + 3])
+            / 2f;
+        final float position = average / (average + (float) Math.sqrt(dx * dx + dy * dy));
+
+        float compatibility = angle * scale * position;
+        if (compatibility > 0) {
+            compatibility *= Math.min(visibility(endpoints, p, q), visibility(endpoints, q, p));
+        }
+        return dot < 0 ? -compatibility : compatibility;
+    }
+
+    /**
+     * Visibility of <code>q</code> from <code>p</code>, how much the projection
+     * of <code>q</code> on the line of <code>p</code> is centered on
+     * <code>p</code>.
+     */
+    private static float visibility(float[] endpoints, int p, int q) {
+        final float sx = endpoints[4 * p];
+        final float sy = endpoints[4 * p + 1];
+        final float px = endpoints[4 * p + 2] - sx;
+        final float py = endpoints[4 * p + 3] - sy;
+        final float l2 = px * px + py * py;
+        final float t0 = ((endpoints[4 * q] - sx) * px + (endpoints[4 * q + 1] - sy) * py) / l2;
+        final float t1 = ((endpoints[4 * q + 2] - sx) * px + (endpoints[4 * q + 3] - sy) * py) / l2;
+        final float span = Math.abs(t1 - t0);
+        if (span < EPSILON) {
+            return 0f;
+        }
+        final float middle = (t0 + t1) / 2f;
+        return Math.max(0f, 1f - 2f * Math.abs(0.5f - middle) / span);
+    }
+
+    /**
+     * Returns the largest ratio between the lengths of two edges whose scale
+     * compatibility is above <code>threshold</code>.
+     */
+    private static float getMaxLengthRatio(float threshold) {
+        float ratio = 1f;
+        while (ratio < 100f) {
+            final float average = (1f + ratio) / 2f;
+            if (2f / (average + ratio / average) < threshold) {
+                break;
+            }
+            ratio += 0.05f;
+        }
+        return ratio;
+    }
+
+    public float getCompatibilityThreshold() {
+        return compatibilityThreshold;
+    }
+
+    public void setCompatibilityThreshold(float compatibilityThreshold) {
+        this.compatibilityThreshold = compatibilityThreshold;
+    }
+
+    public int getMaxNeighbors() {
+        return maxNeighbors;
+    }
+
+    public void setMaxNeighbors(int maxNeighbors) {
+        this.maxNeighbors = maxNeighbors;
+    }
+
+    public int getCycles() {
+        return cycles;
+    }
+
+    public void setCycles(int cycles) {
+        this.cycles = cycles;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public float getStepSize() {
+        return stepSize;
+    }
+
+    public void setStepSize(float stepSize) {
+        this.stepSize = stepSize;
+    }
+
+    public float getStiffness() {
+        return stiffness;
+    }
+
+    public void setStiffness(float stiffness) {
+        this.stiffness = stiffness;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.preview.plugin.renderers;
+
+import com.itextpdf.text.pdf.BaseFont;
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.LineMetrics;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Shared cache of label measures, keyed by text and font.
+ * <p>
+ * Measures are computed with fractional metrics and without transform so they
+ * are the same for all render targets and zoom levels. The least recently used
+ * layouts are evicted when the cache holds more than its maximum size, so
+ * renderers keep the layouts returned by {@link #computeAll(String[], Font[])}
+ * on their items for the current render and the cache only spares measuring
+ * the same labels again in the next renders.
+ */
+public class LabelLayoutCache {
+
+    public static final int DEFAULT_MAX_SIZE = 100000;
+    private static final LabelLayoutCache INSTANCE = new LabelLayoutCache(DEFAULT_MAX_SIZE);
+    private static final FontRenderContext FRC = new FontRenderContext(null, true, true);
+    private final Map<Key, LabelLayout> layouts;
+
+    LabelLayoutCache(final int maxSize) {
+        layouts = new LinkedHashMap<Key, LabelLayout>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, LabelLayout> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public static LabelLayoutCache getDefault() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the layout of <code>text</code> in <code>font</code>, computed
+     * if it isn't in the cache.
+     */
+    public LabelLayout get(String text, Font font) {
+        Key key = new Key(text, font);
+        LabelLayout layout;
+        synchronized (layouts) {
+            layout = layouts.get(key);
+        }
+        if (layout == null) {
+            layout = new LabelLayout(text, font);
+            synchronized (layouts) {
+                layouts.put(key, layout);
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Returns the layouts of <code>texts</code>, the ones not in the cache yet
+     * are computed in parallel. <code>texts</code> and <code>fonts</code> have
+     * the same length, null texts are skipped and have a null layout.
+     * <p>
+     * The returned layouts stay valid when the cache evicts them, which
+     * happens if there are more texts than the maximum size.
+     */
+    public LabelLayout[] computeAll(String[] texts, Font[] fonts) {
+        LabelLayout[] result = new LabelLayout[texts.length];
+        Key[] keys = new Key[texts.length];
+        Map<Key, LabelLayout> missing = new LinkedHashMap<>();
+        synchronized (layouts) {
+            for (int i = 0; i < texts.length; i++) {
+                if (texts[i] != null) {
+                    keys[i] = new Key(texts[i], fonts[i]);
+                    result[i] = layouts.get(keys[i]);
+                    if (result[i] == null) {
+                        missing.put(keys[i], null);
+                    }
+                }
+            }
+        }
+        List<Key> missingKeys = new ArrayList<>(missing.keySet());
+        LabelLayout[] computed = new LabelLayout[missingKeys.size()];
+        IntStream.range(0, computed.length).parallel()
+            .forEach(i -> computed[i] = new LabelLayout(missingKeys.get(i).text, missingKeys.get(i).font));
+        synchronized (layouts) {
+            for (int i = 0; i < computed.length; i++) {
+                missing.put(missingKeys.get(i), computed[i]);
+                layouts.put(missingKeys.get(i), computed[i]);
+            }
+        }
+        for (int i = 0; i < texts.length; i++) {
+            if (keys[i] != null && result[i] == null) {
+                result[i] = missing.get(keys[i]);
+            }
+        }
+        return result;
+    }
+
+    public void clear() {
+        synchronized (layouts) {
+            layouts.clear();
+        }
+    }
+
+    int size() {
+        synchronized (layouts) {
+            return layouts.size();
+        }
+    }
+
+    /**
+     * Measures of a label, in the font units.
+     */
+    public static class LabelLayout {
+
+        private final String text;
+        private final Font font;
+        private final float width;
+        private final float ascent;
+        private final float descent;
+        //PDF measures, depend on the target base font
+        private BaseFont pdfFont;
+        private float pdfWidth;
+        private float pdfHeight;
+
+        LabelLayout(String text, Font font) {
+            this.text = text;
+            this.font = font;
+            LineMetrics lineMetrics = font.getLineMetrics(text, FRC);
+            width = (float) font.getStringBounds(text, FRC).getWidth();
+            ascent = lineMetrics.getAscent();
+            descent = lineMetrics.getDescent();
+        }
+
+        public float getWidth() {
+            return width;
+        }
+
+        public float getAscent() {
+            return ascent;
+        }
+
+        public float getDescent() {
+            return descent;
+        }
+
+        public float getHeight() {
+            return ascent + descent;
+        }
+
+        public synchronized float getPdfWidth(BaseFont baseFont) {
+            measurePdf(baseFont);
+            return pdfWidth;
+        }
+
+        public synchronized float getPdfHeight(BaseFont baseFont) {
+            measurePdf(baseFont);
+            return pdfHeight;
+        }
+
+        private void measurePdf(BaseFont baseFont) {
+            if (pdfFont != baseFont) {
+                pdfFont = baseFont;
+                pdfWidth = baseFont.getWidthPoint(text, font.getSize());
+                pdfHeight = baseFont.getAscentPoint(text, font.getSize())
+                    + baseFont.getDescentPoint(text, font.getSize());
+            }
+        }
+    }
+
+    private static class Key {
+
+        private final String text;
+        private final Font font;
+        private final int hashCode;
+
+        Key(String text, Font font) {
+            this.text = text;
+            this.font = font;
+            this.hashCode = 31 * text.hashCode() + font.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hashCode == key.hashCode && text.equals(key.text) && Objects.equals(font, key.font);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -48,7 +48,6 @@ import com.itextpdf.text.pdf.PdfGState;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Shape;
 import java.awt.font.FontRenderContext;
@@ -78,8 +77,6 @@ import org.openide.util.NbBundle;
 import org.openide.util.lookup.ServiceProvider;
 import org.w3c.dom.Element;
 import org.w3c.dom.Text;
-import org.w3c.dom.svg.SVGLocatable;
-import org.w3c.dom.svg.SVGRect;
 
 /**
  * @author Yudi Xue, Mathieu Bastian
@@ -93,6 +90,8 @@ public class NodeLabelRenderer implements Renderer {
     public static final String NODE_X = "node.x";
     public static final String NODE_Y = "node.y";
     public static final String FONT_SIZE = "node.label.fontSize";
+    public static final String FONT = "node.label.font";
+    public static final String LABEL_LAYOUT = "node.label.layout";
     //Default values
     protected final boolean defaultShowLabels = true;
     protected final Font defaultFont = new Font("Arial", Font.PLAIN, 12);
@@ -107,8 +106,6 @@ public class NodeLabelRenderer implements Renderer {
     protected final boolean defaultShowBox = false;
     protected final DependantColor defaultBoxColor = new DependantColor(DependantColor.Mode.PARENT);
     protected final int defaultBoxOpacity = 100;
-    //Font cache
-    protected Map<Integer, Font> fontCache;
 
     @Override
     public void preProcess(PreviewModel previewModel) {
@@ -138,7 +135,7 @@ public class NodeLabelRenderer implements Renderer {
         }
 
         //Calculate font size and cache fonts
-        fontCache = new HashMap<>();
+        Map<Integer, Font> fontCache = new HashMap<>();
         Font font = properties.getFontValue(PreviewProperty.NODE_LABEL_FONT);
         for (Item item : previewModel.getItems(Item.NODE_LABEL)) {
             Float nodeSize = item.getData(NODE_SIZE);
@@ -154,6 +151,20 @@ public class NodeLabelRenderer implements Renderer {
             fontCache.put(labelFont.getSize(), labelFont);
             item.setData(FONT_SIZE, labelFont.getSize());
         }
+
+        //Measure labels
+        Item[] labelItems = previewModel.getItems(Item.NODE_LABEL);
+        String[] labels = new String[labelItems.length];
+        Font[] labelFonts = new Font[labelItems.length];
+        for (int i = 0; i < labelItems.length; i++) {
+            labels[i] = labelItems[i].getData(NodeLabelItem.LABEL);
+            labelFonts[i] = fontCache.get((Integer) labelItems[i].getData(FONT_SIZE));
+            labelItems[i].setData(FONT, labelFonts[i]);
+        }
+        LabelLayoutCache.LabelLayout[] layouts = LabelLayoutCache.getDefault().computeAll(labels, labelFonts);
+        for (int i = 0; i < labelItems.length; i++) {
+            labelItems[i].setData(LABEL_LAYOUT, layouts[i]);
+        }
     }
 
     @Override
@@ -165,9 +176,11 @@ public class NodeLabelRenderer implements Renderer {
         DependantOriginalColor propColor = properties.getValue(PreviewProperty.NODE_LABEL_COLOR);
         color = propColor.getColor(nodeColor, color);
         String label = item.getData(NodeLabelItem.LABEL);
+        Font font = item.getData(FONT);
         Integer fontSize = item.getData(FONT_SIZE);
         Float x = item.getData(NODE_X);
         Float y = item.getData(NODE_Y);
+        LabelLayoutCache.LabelLayout layout = item.getData(LABEL_LAYOUT);
 
         //Skip if empty
         if (label == null || label.trim().isEmpty()) {
@@ -201,14 +214,19 @@ public class NodeLabelRenderer implements Renderer {
         }
         boxColor = new Color(boxColor.getRed(), boxColor.getGreen(), boxColor.getBlue(), boxAlpha);
 
+        if (layout == null) {
+            layout = LabelLayoutCache.getDefault().get(label, font);
+        }
+
         if (target instanceof G2DTarget) {
-            renderG2D((G2DTarget) target, label, x, y, fontSize, color, outlineSize, outlineColor, showBox, boxColor);
+            renderG2D((G2DTarget) target, label, x, y, font, color, outlineSize, outlineColor, showBox, boxColor,
+                layout);
         } else if (target instanceof SVGTarget) {
-            renderSVG((SVGTarget) target, node, label, x, y, fontSize, color, outlineSize, outlineColor, showBox,
-                boxColor);
+            renderSVG((SVGTarget) target, node, label, x, y, font, color, outlineSize, outlineColor, showBox,
+                boxColor, layout);
         } else if (target instanceof PDFTarget) {
-            renderPDF((PDFTarget) target, node, label, x, y, fontSize, color, outlineSize, outlineColor, showBox,
-                boxColor);
+            renderPDF((PDFTarget) target, node, label, x, y, font, color, outlineSize, outlineColor, showBox,
+                boxColor, layout);
         }
     }
 
@@ -224,16 +242,25 @@ public class NodeLabelRenderer implements Renderer {
         return new CanvasSize();
     }
 
-    public void renderG2D(G2DTarget target, String label, float x, float y, int fontSize, Color color,
+    public void renderG2D(G2DTarget target, String label, float x, float y, Font font, Color color,
                           float outlineSize, Color outlineColor, boolean showBox, Color boxColor) {
+        renderG2D(target, label, x, y, font, color, outlineSize, outlineColor, showBox, boxColor,
+            LabelLayoutCache.getDefault().get(label, font));
+    }
+
+    private void renderG2D(G2DTarget target, String label, float x, float y, Font font, Color color,
+                           float outlineSize, Color outlineColor, boolean showBox, Color boxColor,
+                           LabelLayoutCache.LabelLayout layout) {
+        //Skip labels smaller than a pixel or out of the canvas
+        if (!G2DUtils.isTextVisible(target, x, y, font.getSize(), label.length())) {
+            return;
+        }
         Graphics2D graphics = target.getGraphics();
 
-        Font font = fontCache.get(fontSize);
         graphics.setFont(font);
 
-        FontMetrics fm = graphics.getFontMetrics();
-        float posX = x - fm.stringWidth(label) / 2f;
-        float posY = y + fm.getDescent();
+        float posX = x - layout.getWidth() / 2f;
+        float posY = y + layout.getDescent();
 
         Shape outlineGlyph = null;
 
@@ -242,9 +269,9 @@ public class NodeLabelRenderer implements Renderer {
             graphics.setColor(boxColor);
             Rectangle2D.Float rect = new Rectangle2D.Float();
             rect.setFrame(posX - outlineSize / 2f,
-                y - (fm.getAscent() + fm.getDescent()) / 2f - outlineSize / 2f,
-                fm.stringWidth(label) + outlineSize,
-                fm.getAscent() + fm.getDescent() + outlineSize);
+                y - layout.getHeight() / 2f - outlineSize / 2f,
+                layout.getWidth() + outlineSize,
+                layout.getHeight() + outlineSize);
             graphics.draw(rect);
         }
 
@@ -266,21 +293,30 @@ public class NodeLabelRenderer implements Renderer {
         }
     }
 
-    public void renderSVG(SVGTarget target, Node node, String label, float x, float y, int fontSize, Color color,
+    public void renderSVG(SVGTarget target, Node node, String label, float x, float y, Font font, Color color,
                           float outlineSize, Color outlineColor, boolean showBox, Color boxColor) {
+        renderSVG(target, node, label, x, y, font, color, outlineSize, outlineColor, showBox, boxColor,
+            LabelLayoutCache.getDefault().get(label, font));
+    }
+
+    private void renderSVG(SVGTarget target, Node node, String label, float x, float y, Font font, Color color,
+                           float outlineSize, Color outlineColor, boolean showBox, Color boxColor,
+                           LabelLayoutCache.LabelLayout layout) {
         Text labelText = target.createTextNode(label);
-        Font font = fontCache.get(fontSize);
+
+        //Trick to center text vertically on node:
+        float textY = y + layout.getHeight() / 4f;
 
         if (outlineSize > 0) {
             Text labelTextOutline = target.createTextNode(label);
             Element outlineElem = target.createElement("text");
             outlineElem.setAttribute("class", SVGUtils.idAsClassAttribute(node.getId()));
             outlineElem.setAttribute("x", String.valueOf(x));
-            outlineElem.setAttribute("y", String.valueOf(y));
+            outlineElem.setAttribute("y", String.valueOf(textY));
             outlineElem.setAttribute("style", "text-anchor: middle; dominant-baseline: central;");
             outlineElem.setAttribute("fill", target.toHexString(color));
             outlineElem.setAttribute("font-family", font.getFamily());
-            outlineElem.setAttribute("font-size", String.valueOf(fontSize));
+            outlineElem.setAttribute("font-size", String.valueOf(font.getSize()));
             outlineElem.setAttribute("stroke", target.toHexString(outlineColor));
             outlineElem.setAttribute("stroke-width", (outlineSize * target.getScaleRatio()) + "px");
             outlineElem.setAttribute("stroke-linecap", "round");
@@ -288,44 +324,41 @@ public class NodeLabelRenderer implements Renderer {
             outlineElem.setAttribute("stroke-opacity", String.valueOf(outlineColor.getAlpha() / 255f));
             outlineElem.appendChild(labelTextOutline);
             target.getTopElement(SVGTarget.TOP_NODE_LABELS_OUTLINE).appendChild(outlineElem);
-
-            //Trick to center text vertically on node:
-            SVGRect rect = ((SVGLocatable) outlineElem).getBBox();
-            outlineElem.setAttribute("y", String.valueOf(y + (rect != null ? rect.getHeight() / 4f : 0)));
         }
 
         Element labelElem = target.createElement("text");
         labelElem.setAttribute("class", SVGUtils.idAsClassAttribute(node.getId()));
         labelElem.setAttribute("x", String.valueOf(x));
-        labelElem.setAttribute("y", String.valueOf(y));
+        labelElem.setAttribute("y", String.valueOf(textY));
         labelElem.setAttribute("style", "text-anchor: middle; dominant-baseline: central;");
         labelElem.setAttribute("fill", target.toHexString(color));
         labelElem.setAttribute("font-family", font.getFamily());
-        labelElem.setAttribute("font-size", String.valueOf(fontSize));
+        labelElem.setAttribute("font-size", String.valueOf(font.getSize()));
         labelElem.appendChild(labelText);
         target.getTopElement(SVGTarget.TOP_NODE_LABELS).appendChild(labelElem);
 
-        //Trick to center text vertically on node:
-        SVGRect rect = ((SVGLocatable) labelElem).getBBox();
-        labelElem.setAttribute("y", String.valueOf(y + (rect != null ? rect.getHeight() / 4f : 0)));
-
-        //Box
+        //Box, bounds of the text centered horizontally on its baseline
         if (showBox) {
-            rect = ((SVGLocatable) labelElem).getBBox();
             Element boxElem = target.createElement("rect");
-            boxElem.setAttribute("x", Float.toString(rect.getX() - outlineSize / 2f));
-            boxElem.setAttribute("y", Float.toString(rect.getY() - outlineSize / 2f));
-            boxElem.setAttribute("width", Float.toString(rect.getWidth() + outlineSize));
-            boxElem.setAttribute("height", Float.toString(rect.getHeight() + outlineSize));
+            boxElem.setAttribute("x", Float.toString(x - layout.getWidth() / 2f - outlineSize / 2f));
+            boxElem.setAttribute("y", Float.toString(textY - layout.getAscent() - outlineSize / 2f));
+            boxElem.setAttribute("width", Float.toString(layout.getWidth() + outlineSize));
+            boxElem.setAttribute("height", Float.toString(layout.getHeight() + outlineSize));
             boxElem.setAttribute("fill", target.toHexString(boxColor));
             boxElem.setAttribute("opacity", String.valueOf(boxColor.getAlpha() / 255f));
             target.getTopElement(SVGTarget.TOP_NODE_LABELS).insertBefore(boxElem, labelElem);
         }
     }
 
-    public void renderPDF(PDFTarget target, Node node, String label, float x, float y, int fontSize, Color color,
+    public void renderPDF(PDFTarget target, Node node, String label, float x, float y, Font font, Color color,
                           float outlineSize, Color outlineColor, boolean showBox, Color boxColor) {
-        Font font = fontCache.get(fontSize);
+        renderPDF(target, node, label, x, y, font, color, outlineSize, outlineColor, showBox, boxColor,
+            LabelLayoutCache.getDefault().get(label, font));
+    }
+
+    private void renderPDF(PDFTarget target, Node node, String label, float x, float y, Font font, Color color,
+                           float outlineSize, Color outlineColor, boolean showBox, Color boxColor,
+                           LabelLayoutCache.LabelLayout layout) {
         PdfContentByte cb = target.getContentByte();
         BaseFont bf = target.getBaseFont(font);
 
@@ -339,8 +372,8 @@ public class NodeLabelRenderer implements Renderer {
                 gState.setFillOpacity(alpha);
                 cb.setGState(gState);
             }
-            float textWidth = getTextWidth(bf, fontSize, label);
-            float textHeight = getTextHeight(bf, fontSize, label);
+            float textWidth = layout.getPdfWidth(bf);
+            float textHeight = layout.getPdfHeight(bf);
 
             //A height of just textHeight seems to be half the text height sometimes
             //BaseFont getAscentPoint and getDescentPoint may be not very precise
@@ -354,7 +387,7 @@ public class NodeLabelRenderer implements Renderer {
         }
 
         cb.setRGBColorFill(color.getRed(), color.getGreen(), color.getBlue());
-        float textHeight = getTextHeight(bf, fontSize, label);
+        float textHeight = layout.getPdfHeight(bf);
         if (outlineSize > 0) {
             cb.setTextRenderingMode(PdfContentByte.TEXT_RENDER_MODE_STROKE);
             cb.setRGBColorStroke(outlineColor.getRed(), outlineColor.getGreen(), outlineColor.getBlue());
@@ -383,16 +416,6 @@ public class NodeLabelRenderer implements Renderer {
         cb.endText();
     }
 
-    private float getTextHeight(BaseFont baseFont, float fontSize, String text) {
-        float ascend = baseFont.getAscentPoint(text, fontSize);
-        float descend = baseFont.getDescentPoint(text, fontSize);
-        return ascend + descend;
-    }
-
-    private float getTextWidth(BaseFont baseFont, float fontSize, String text) {
-        return baseFont.getWidthPoint(text, fontSize);
-    }
-
     @Override
     public PreviewProperty[] getProperties() {
         return new PreviewProperty[] {
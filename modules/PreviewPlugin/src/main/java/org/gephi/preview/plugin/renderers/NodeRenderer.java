@@ -44,6 +44,7 @@ package org.gephi.preview.plugin.renderers;
 
 import com.itextpdf.text.pdf.PdfContentByte;
 import com.itextpdf.text.pdf.PdfGState;
+import com.itextpdf.text.pdf.PdfTemplate;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics2D;
@@ -78,6 +79,8 @@ public class NodeRenderer implements Renderer {
     protected DependantColor defaultBorderColor = new DependantColor(Color.BLACK);
     protected float defaultOpacity = 100f;
     protected boolean defaultPerNodeOpacity = false;
+    //Unit circles drawn by the nodes of PDF targets
+    private final RenderTargetLocal<PdfTemplate[]> pdfCircles = new RenderTargetLocal<>();
 
     @Override
     public void preProcess(PreviewModel previewModel) {
@@ -96,6 +99,7 @@ public class NodeRenderer implements Renderer {
 
     @Override
     public void postProcess(PreviewModel previewModel, RenderTarget renderTarget, PreviewProperties properties) {
+        pdfCircles.remove(renderTarget);
     }
 
     @Override
@@ -197,7 +201,6 @@ public class NodeRenderer implements Renderer {
 
         PdfContentByte cb = target.getContentByte();
         cb.setRGBColorStroke(borderColor.getRed(), borderColor.getGreen(), borderColor.getBlue());
-        cb.setLineWidth(borderSize);
         cb.setRGBColorFill(color.getRed(), color.getGreen(), color.getBlue());
         if (alpha < 1f) {
             cb.saveState();
@@ -206,17 +209,42 @@ public class NodeRenderer implements Renderer {
             gState.setStrokeOpacity(alpha);
             cb.setGState(gState);
         }
-        cb.circle(x, -y, size);
-        if (borderSize > 0) {
-            cb.fillStroke();
+        if (size > 0 && borderSize <= 2 * size) {
+            //Nodes share the form of a unit circle, scaled in place, whose border is scaled too
+            cb.setLineWidth(borderSize / size);
+            cb.addTemplate(getPDFCircle(target, borderSize > 0), size, 0, 0, size, x, -y);
         } else {
-            cb.fill();
+            cb.setLineWidth(borderSize);
+            cb.circle(x, -y, size);
+            if (borderSize > 0) {
+                cb.fillStroke();
+            } else {
+                cb.fill();
+            }
         }
         if (alpha < 1f) {
             cb.restoreState();
         }
     }
 
+    private PdfTemplate getPDFCircle(PDFTarget target, boolean border) {
+        PdfTemplate[] circles = pdfCircles.get(target, () -> new PdfTemplate[2]);
+        int i = border ? 1 : 0;
+        if (circles[i] == null) {
+            //Colors and line width are left to the graphics state of each node
+            PdfTemplate circle = target.getContentByte().createTemplate(4, 4);
+            circle.setBoundingBox(new com.itextpdf.text.Rectangle(-2, -2, 2, 2));
+            circle.circle(0, 0, 1);
+            if (border) {
+                circle.fillStroke();
+            } else {
+                circle.fill();
+            }
+            circles[i] = circle;
+        }
+        return circles[i];
+    }
+
     @Override
     public PreviewProperty[] getProperties() {
         return new PreviewProperty[] {
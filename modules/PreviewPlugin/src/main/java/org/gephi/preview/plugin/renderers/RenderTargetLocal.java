@@ -0,0 +1,99 @@
+/*
+ Copyright 2008-2010 Gephi
+ Website : http://www.gephi.org
+
+ This file is part of Gephi.
+
+ DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+
+ Copyright 2011 Gephi Consortium. All rights reserved.
+
+ The contents of this file are subject to the terms of either the GNU
+ General Public License Version 3 only ("GPL") or the Common
+ Development and Distribution License("CDDL") (collectively, the
+ "License"). You may not use this file except in compliance with the
+ License. You can obtain a copy of the License at
+ http://gephi.org/about/legal/license-notice/
+ or /cddl-1.0.txt and /gpl-3.0.txt. See the License for the
+ specific language governing permissions and limitations under the
+ License.  When distributing the software, include this License Header
+ Notice in each file and include the License files at
+ /cddl-1.0.txt and /gpl-3.0.txt. If applicable, add the following below the
+ License Header, with the fields enclosed by brackets [] replaced by
+ your own identifying information:
+ "Portions Copyrighted [year] [name of copyright owner]"
+
+ If you wish your version of this file to be governed by only the CDDL
+ or only the GPL Version 3, indicate your decision by adding
+ "[Contributor] elects to include this software in this distribution
+ under the [CDDL or GPL Version 3] license." If you do not indicate a
+ single choice of license, a recipient has the option to distribute
+ your version of this file under either the CDDL, the GPL Version 3 or
+ to extend the choice of license to its licensees as provided above.
+ However, if you add GPL Version 3 code and therefore, elected the GPL
+ Version 3 license, then the option applies only if the new code is
+ made subject to such option by the copyright holder.
+
+ Contributor(s):
+
+ Portions Copyrighted 2011 Gephi Consortium.
+ */
+
+package org.gephi.preview.plugin.renderers;
+
+import java.util.function.Supplier;
+import org.gephi.preview.api.RenderTarget;
+
+/**
+ * Value a renderer attaches to the target the current thread is rendering.
+ * <p>
+ * Renderers are shared by the previews of all workspaces, which render
+ * concurrently, so the state of a render is kept here rather than in fields.
+ * A target is rendered by one thread, from the first item to the
+ * post-process. Renderers remove their value in post-process, which is also
+ * called when the render is cancelled or fails.
+ *
+ * @param <T> the value type
+ */
+class RenderTargetLocal<T> {
+
+    private final ThreadLocal<Entry<T>> entries = new ThreadLocal<>();
+
+    /**
+     * Returns the value of <code>target</code>, created by
+     * <code>initial</code> if the thread was rendering another target.
+     */
+    T get(RenderTarget target, Supplier<T> initial) {
+        Entry<T> entry = entries.get();
+        if (entry == null || entry.target != target) {
+            entry = new Entry<>(target, initial.get());
+            entries.set(entry);
+        }
+        return entry.value;
+    }
+
+    /**
+     * Removes the value of <code>target</code>.
+     *
+     * @return the removed value, or <code>null</code> if there was none
+     */
+    T remove(RenderTarget target) {
+        Entry<T> entry = entries.get();
+        if (entry != null && entry.target == target) {
+            entries.remove();
+            return entry.value;
+        }
+        return null;
+    }
+
+    private static class Entry<T> {
+
+        private final RenderTarget target;
+        private final T value;
+
+        Entry(RenderTarget target, T value) {
+            this.target = target;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.gephi.preview.plugin.renderers;
+
+import java.awt.Color;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EdgeDensityRasterTest {
+
+    @Test
+    public void testHorizontalEdge() {
+        EdgeDensityRaster raster = new EdgeDensityRaster(20, 10, new AffineTransform());
+        raster.add(new float[] {0f, 5.5f, 20f, 5.5f}, Color.RED, 1f);
+        BufferedImage image = raster.toImage();
+        for (int x = 0; x < 20; x++) {
+            Color color = new Color(image.getRGB(x, 5), true);
+            Assert.assertEquals(255, color.getRed());
+            Assert.assertEquals(0, color.getBlue());
+            Assert.assertEquals(Math.round((1 - Math.exp(-1)) * 255), color.getAlpha());
+            Assert.assertEquals(0, image.getRGB(x, 4));
+            Assert.assertEquals(0, image.getRGB(x, 6));
+        }
+    }
+
+    @Test
+    public void testDensity() {
+        EdgeDensityRaster raster = new EdgeDensityRaster(10, 10, new AffineTransform());
+        raster.add(new float[] {0f, 2.5f, 10f, 2.5f}, Color.BLACK, 1f);
+        for (int i = 0; i < 5; i++) {
+            raster.add(new float[] {0f, 7.5f, 10f, 7.5f}, Color.BLACK, 1f);
+        }
+        BufferedImage image = raster.toImage();
+        Assert.assertTrue(image.getRGB(5, 7) >>> 24 > image.getRGB(5, 2) >>> 24);
+    }
+
+    @Test
+    public void testOrderIndependent() {
+        float[] first = {0f, 0f, 40f, 30f};
+        float[] second = {40f, 0f, 0f, 30f};
+        EdgeDensityRaster raster1 = new EdgeDensityRaster(40, 40, new AffineTransform());
+        raster1.add(first, Color.RED, 2f);
+        raster1.add(second, Color.BLUE, 1f);
+        EdgeDensityRaster raster2 = new EdgeDensityRaster(40, 40, new AffineTransform());
+        raster2.add(second, Color.BLUE, 1f);
+        raster2.add(first, Color.RED, 2f);
+        BufferedImage image1 = raster1.toImage();
+        BufferedImage image2 = raster2.toImage();
+        for (int y = 0; y < 40; y++) {
+            for (int x = 0; x < 40; x++) {
+                Assert.assertEquals(image1.getRGB(x, y), image2.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testTransformAndCulling() {
+        EdgeDensityRaster raster = new EdgeDensityRaster(10, 10, AffineTransform.getScaleInstance(10, 10));
+        raster.add(new float[] {0f, 0.55f, 1f, 0.55f}, Color.BLACK, 0.1f);
+        raster.add(new float[] {2f, 2f, 3f, 3f}, Color.BLACK, 1f);
+        Assert.assertEquals(1, raster.getEdgeCount());
+        Assert.assertTrue(raster.toImage().getRGB(5, 5) != 0);
+    }
+
+    @Test
+    public void testClip() {
+        Assert.assertTrue(EdgeDensityRaster.clip(-5f, -5f, -1f, -1f, 0f, 0f, 10f, 10f) == null);
+        float[] clipped = EdgeDensityRaster.clip(-5f, 5f, 15f, 5f, 0f, 0f, 10f, 10f);
+        Assert.assertEquals(0f, clipped[0], 1e-6f);
+        Assert.assertEquals(5f, clipped[1], 1e-6f);
+        Assert.assertEquals(10f, clipped[2], 1e-6f);
+        Assert.assertEquals(5f, clipped[3], 1e-6f);
+    }
+}
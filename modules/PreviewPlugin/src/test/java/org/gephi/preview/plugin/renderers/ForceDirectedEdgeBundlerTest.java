@@ -0,0 +1,61 @@
+package org.gephi.preview.plugin.renderers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ForceDirectedEdgeBundlerTest {
+
+    @Test
+    public void testPolylines() {
+        float[] endpoints = {0f, 0f, 100f, 0f, 0f, 10f, 100f, 10f, 50f, 50f, 50f, 150f};
+        float[][] polylines = new ForceDirectedEdgeBundler().bundle(endpoints);
+        Assert.assertEquals(3, polylines.length);
+        for (int e = 0; e < polylines.length; e++) {
+            float[] polyline = polylines[e];
+            Assert.assertEquals(polylines[0].length, polyline.length);
+            Assert.assertEquals(endpoints[4 * e], polyline[0], 0f);
+            Assert.assertEquals(endpoints[4 * e + 1], polyline[1], 0f);
+            Assert.assertEquals(endpoints[4 * e + 2], polyline[polyline.length - 2], 0f);
+            Assert.assertEquals(endpoints[4 * e + 3], polyline[polyline.length - 1], 0f);
+        }
+    }
+
+    @Test
+    public void testSingleEdgeStaysStraight() {
+        float[][] polylines = new ForceDirectedEdgeBundler().bundle(new float[] {0f, 0f, 100f, 100f});
+        float[] polyline = polylines[0];
+        for (int i = 0; i < polyline.length; i += 2) {
+            Assert.assertEquals(polyline[i], polyline[i + 1], 1e-3f);
+        }
+    }
+
+    @Test
+    public void testParallelEdgesAttract() {
+        float[] endpoints = {0f, 0f, 100f, 0f, 0f, 10f, 100f, 10f};
+        float[][] polylines = new ForceDirectedEdgeBundler().bundle(endpoints);
+        int middle = polylines[0].length / 4 * 2;
+        Assert.assertTrue(polylines[0][middle + 1] > 1f);
+        Assert.assertTrue(polylines[1][middle + 1] < 9f);
+        Assert.assertTrue(polylines[0][middle + 1] <= polylines[1][middle + 1] + 1e-3f);
+    }
+
+    @Test
+    public void testReversedEdgesAttract() {
+        float[] endpoints = {0f, 0f, 100f, 0f, 100f, 10f, 0f, 10f};
+        float[][] polylines = new ForceDirectedEdgeBundler().bundle(endpoints);
+        int middle = polylines[0].length / 4 * 2;
+        Assert.assertTrue(polylines[0][middle + 1] > 1f);
+        Assert.assertTrue(polylines[1][middle + 1] < 9f);
+    }
+
+    @Test
+    public void testIncompatibleEdgesStayStraight() {
+        float[] endpoints = {0f, 0f, 100f, 0f, 50f, 10f, 50f, 110f};
+        ForceDirectedEdgeBundler bundler = new ForceDirectedEdgeBundler();
+        bundler.setCompatibilityThreshold(0.9f);
+        float[] polyline = bundler.bundle(endpoints)[0];
+        for (int i = 1; i < polyline.length; i += 2) {
+            Assert.assertEquals(0f, polyline[i], 1e-3f);
+        }
+    }
+}
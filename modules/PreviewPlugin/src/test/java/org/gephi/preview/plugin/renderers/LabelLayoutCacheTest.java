@@ -0,0 +1,78 @@
+package org.gephi.preview.plugin.renderers;
+
+import java.awt.Font;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LabelLayoutCacheTest {
+
+    private static final Font FONT = new Font("Arial", Font.PLAIN, 12);
+
+    @Test
+    public void testSameLayout() {
+        LabelLayoutCache cache = new LabelLayoutCache(10);
+        LabelLayoutCache.LabelLayout layout = cache.get("foo", FONT);
+        Assert.assertSame(layout, cache.get("foo", FONT));
+        Assert.assertNotSame(layout, cache.get("foo", FONT.deriveFont(24f)));
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testMeasures() {
+        LabelLayoutCache cache = new LabelLayoutCache(10);
+        LabelLayoutCache.LabelLayout small = cache.get("foo", FONT);
+        LabelLayoutCache.LabelLayout large = cache.get("foo", FONT.deriveFont(24f));
+        Assert.assertTrue(small.getWidth() > 0);
+        Assert.assertEquals(small.getWidth() * 2, large.getWidth(), 0.5);
+        Assert.assertEquals(small.getAscent() + small.getDescent(), small.getHeight(), 0.0);
+        Assert.assertTrue(cache.get("foofoo", FONT).getWidth() > small.getWidth());
+    }
+
+    @Test
+    public void testEviction() {
+        LabelLayoutCache cache = new LabelLayoutCache(2);
+        LabelLayoutCache.LabelLayout a = cache.get("a", FONT);
+        cache.get("b", FONT);
+        cache.get("a", FONT);
+        cache.get("c", FONT);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertSame(a, cache.get("a", FONT));
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testComputeAll() {
+        LabelLayoutCache cache = new LabelLayoutCache(100);
+        String[] texts = new String[50];
+        Font[] fonts = new Font[texts.length];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = i % 10 == 0 ? null : "label" + (i % 20);
+            fonts[i] = FONT;
+        }
+        cache.computeAll(texts, fonts);
+        Assert.assertEquals(18, cache.size());
+        Assert.assertEquals(new LabelLayoutCache(1).get("label3", FONT).getWidth(),
+            cache.get("label3", FONT).getWidth(), 0.0);
+        Assert.assertEquals(18, cache.size());
+    }
+
+    @Test
+    public void testComputeAllMoreThanMaxSize() {
+        LabelLayoutCache cache = new LabelLayoutCache(2);
+        String[] texts = new String[]{"a", null, "b", "c", "a", "d"};
+        Font[] fonts = new Font[texts.length];
+        Arrays.fill(fonts, FONT);
+        LabelLayoutCache.LabelLayout[] layouts = cache.computeAll(texts, fonts);
+        Assert.assertEquals(texts.length, layouts.length);
+        Assert.assertNull(layouts[1]);
+        Assert.assertSame(layouts[0], layouts[4]);
+        for (int i = 0; i < texts.length; i++) {
+            if (texts[i] != null) {
+                Assert.assertNotNull(layouts[i]);
+                Assert.assertEquals(cache.get(texts[i], FONT).getWidth(), layouts[i].getWidth(), 0.0);
+            }
+        }
+        Assert.assertEquals(2, cache.size());
+    }
+}
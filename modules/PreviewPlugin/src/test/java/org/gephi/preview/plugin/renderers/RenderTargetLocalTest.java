@@ -0,0 +1,48 @@
+package org.gephi.preview.plugin.renderers;
+
+import java.util.concurrent.atomic.AtomicReference;
+import org.gephi.preview.api.RenderTarget;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RenderTargetLocalTest {
+
+    @Test
+    public void testValueOfTarget() {
+        RenderTargetLocal<Object> local = new RenderTargetLocal<>();
+        RenderTarget target = new RenderTarget() {
+        };
+        Object value = local.get(target, Object::new);
+        Assert.assertSame(value, local.get(target, Object::new));
+        Assert.assertSame(value, local.remove(target));
+        Assert.assertNull(local.remove(target));
+        Assert.assertNotSame(value, local.get(target, Object::new));
+    }
+
+    @Test
+    public void testOtherTarget() {
+        RenderTargetLocal<Object> local = new RenderTargetLocal<>();
+        RenderTarget target = new RenderTarget() {
+        };
+        RenderTarget other = new RenderTarget() {
+        };
+        Object value = local.get(target, Object::new);
+        Assert.assertNull(local.remove(other));
+        Assert.assertNotSame(value, local.get(other, Object::new));
+        Assert.assertNull(local.remove(target));
+    }
+
+    @Test
+    public void testOtherThread() throws InterruptedException {
+        RenderTargetLocal<Object> local = new RenderTargetLocal<>();
+        RenderTarget target = new RenderTarget() {
+        };
+        Object value = local.get(target, Object::new);
+        AtomicReference<Object> otherValue = new AtomicReference<>();
+        Thread thread = new Thread(() -> otherValue.set(local.get(target, Object::new)));
+        thread.start();
+        thread.join();
+        Assert.assertNotSame(value, otherValue.get());
+        Assert.assertSame(value, local.get(target, Object::new));
+    }
+}